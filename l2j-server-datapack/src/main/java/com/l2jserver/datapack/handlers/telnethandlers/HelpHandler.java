@@ -39,6 +39,8 @@ public class HelpHandler implements ITelnetHandler {
 			_print.println("status                - displays basic server statistics.");
 			_print.println("gamestat privatestore - displays info about stores");
 			_print.println("performance           - shows server performance statistics.");
+			_print.println("packets [order] [n]   - shows the n most expensive client packets (order: time, wait, count, bytes, alloc).");
+			_print.println("packets reset         - clears the client packet statistics.");
 			_print.println("forcegc               - forced garbage collection.");
 			_print.println("purge                 - removes finished threads from thread pools.");
 			_print.println("memusage              - displays memory amounts in JVM.");
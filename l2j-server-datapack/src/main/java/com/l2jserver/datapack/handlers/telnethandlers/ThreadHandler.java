@@ -18,11 +18,26 @@
  */
 package com.l2jserver.datapack.handlers.telnethandlers;
 
+import static com.l2jserver.gameserver.config.Configuration.general;
+
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.util.StringTokenizer;
 
+import com.l2jserver.gameserver.GeoData;
 import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.cache.HtmCache;
 import com.l2jserver.gameserver.handler.ITelnetHandler;
+import com.l2jserver.gameserver.metrics.GameMetrics;
+import com.l2jserver.gameserver.model.L2World;
+import com.l2jserver.gameserver.model.events.EventDispatcher;
+import com.l2jserver.gameserver.network.PacketMetrics;
+import com.l2jserver.gameserver.taskmanager.AiThinkTaskManager;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
+import com.l2jserver.gameserver.taskmanager.PlayerInfoTaskManager;
+import com.l2jserver.gameserver.taskmanager.PlayerSaveTaskManager;
+import com.l2jserver.gameserver.util.Broadcast;
 
 /**
  * @author UnAfraid
@@ -30,7 +45,8 @@ import com.l2jserver.gameserver.handler.ITelnetHandler;
 public class ThreadHandler implements ITelnetHandler {
 	private final String[] _commands = {
 		"purge",
-		"performance"
+		"performance",
+		"packets"
 	};
 	
 	@Override
@@ -39,6 +55,68 @@ public class ThreadHandler implements ITelnetHandler {
 			for (String line : ThreadPoolManager.getInstance().getStats()) {
 				_print.println(line);
 			}
+			for (String line : KnownListUpdateTaskManager.getInstance().getStats()) {
+				_print.println(line);
+			}
+			for (String line : AiThinkTaskManager.getInstance().getStats()) {
+				_print.println(line);
+			}
+			for (String line : PlayerInfoTaskManager.getInstance().getStats()) {
+				_print.println(line);
+			}
+			for (String line : Broadcast.getStats()) {
+				_print.println(line);
+			}
+			for (String line : EventDispatcher.getInstance().getStats(10)) {
+				_print.println(line);
+			}
+			for (String line : HtmCache.getInstance().getStats()) {
+				_print.println(line);
+			}
+			for (String line : L2World.getInstance().getRegistryStats()) {
+				_print.println(line);
+			}
+			for (String line : GeoData.getInstance().getCacheStats()) {
+				_print.println(line);
+			}
+			if (general().itemWriteBehind()) {
+				for (String line : ItemPersistenceTaskManager.getInstance().getStats()) {
+					_print.println(line);
+				}
+			}
+			if (general().characterWriteBehind()) {
+				for (String line : PlayerSaveTaskManager.getInstance().getStats()) {
+					_print.println(line);
+				}
+			}
+			if (general().gameMetrics()) {
+				for (String line : GameMetrics.getInstance().getStats()) {
+					_print.println(line);
+				}
+			}
+			_print.flush();
+		} else if (command.startsWith("packets")) {
+			if (!general().packetMetrics()) {
+				_print.println("Packet metrics are disabled.");
+			} else if (command.equals("packets reset")) {
+				PacketMetrics.getInstance().reset();
+				_print.println("Packet statistics cleared.");
+			} else {
+				final StringTokenizer st = new StringTokenizer(command.substring(7));
+				String order = "time";
+				int limit = 20;
+				while (st.hasMoreTokens()) {
+					final String token = st.nextToken();
+					try {
+						limit = Integer.parseInt(token);
+					} catch (NumberFormatException e) {
+						order = token;
+					}
+				}
+				for (String line : PacketMetrics.getInstance().getStats(order, limit)) {
+					_print.println(line);
+				}
+			}
 			_print.flush();
 		} else if (command.equals("purge")) {
 			ThreadPoolManager.getInstance().purge();
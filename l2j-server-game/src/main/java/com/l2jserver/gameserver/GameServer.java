@@ -131,6 +131,8 @@ import com.l2jserver.gameserver.instancemanager.SiegeManager;
 import com.l2jserver.gameserver.instancemanager.TerritoryWarManager;
 import com.l2jserver.gameserver.instancemanager.WalkingManager;
 import com.l2jserver.gameserver.instancemanager.ZoneManager;
+import com.l2jserver.gameserver.metrics.GameMetrics;
+import com.l2jserver.gameserver.metrics.MetricsServer;
 import com.l2jserver.gameserver.model.AutoSpawnHandler;
 import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.PartyMatchRoomList;
@@ -141,13 +143,16 @@ import com.l2jserver.gameserver.model.events.EventDispatcher;
 import com.l2jserver.gameserver.model.olympiad.Olympiad;
 import com.l2jserver.gameserver.network.L2GameClient;
 import com.l2jserver.gameserver.network.L2GamePacketHandler;
+import com.l2jserver.gameserver.network.PacketMetrics;
 import com.l2jserver.gameserver.network.NpcStringId;
 import com.l2jserver.gameserver.network.SystemMessageId;
 import com.l2jserver.gameserver.pathfinding.PathFinding;
 import com.l2jserver.gameserver.script.faenor.FaenorScriptEngine;
 import com.l2jserver.gameserver.scripting.ScriptEngineManager;
 import com.l2jserver.gameserver.status.Status;
+import com.l2jserver.gameserver.taskmanager.AiThinkTaskManager;
 import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
+import com.l2jserver.gameserver.taskmanager.PlayerInfoTaskManager;
 import com.l2jserver.gameserver.taskmanager.TaskManager;
 import com.l2jserver.gameserver.util.DeadLockDetector;
 import com.l2jserver.mmocore.SelectorConfig;
@@ -196,240 +201,244 @@ public final class GameServer {
 		EventDispatcher.getInstance();
 		ScriptEngineManager.getInstance();
 		
-		final var worldStart = startTimedSection("World");
-		GameTimeController.init();
-		InstanceManager.getInstance();
-		L2World.getInstance();
-		MapRegionManager.getInstance();
-		AnnouncementsTable.getInstance();
-		GlobalVariablesManager.getInstance();
-		endTimedSection("World", worldStart);
-		
-		final var dataStart = startTimedSection("Data");
-		CategoryData.getInstance();
-		SecondaryAuthData.getInstance();
-		endTimedSection("Data", dataStart);
-		
-		final var effectsStart = startTimedSection("Effects");
-		EffectHandler.getInstance().executeScript();
-		endTimedSection("Effects", effectsStart);
-		
-		final var esgStart = startTimedSection("Enchant Skill Groups");
-		EnchantSkillGroupsData.getInstance();
-		endTimedSection("Enchant Skill Groups", esgStart);
-		
-		final var skillTreesStart = startTimedSection("Skill Trees");
-		SkillTreesData.getInstance();
-		endTimedSection("Skill Trees", skillTreesStart);
-		
-		final var skillsStart = startTimedSection("Skills");
-		SkillData.getInstance();
-		SummonSkillsTable.getInstance();
-		endTimedSection("Skills", skillsStart);
-		
-		final var itemsStart = startTimedSection("Items");
-		ItemTable.getInstance();
-		EnchantItemGroupsData.getInstance();
-		EnchantItemData.getInstance();
-		EnchantItemOptionsData.getInstance();
-		OptionData.getInstance();
-		EnchantItemHPBonusData.getInstance();
-		MultisellData.getInstance();
-		RecipeData.getInstance();
-		ArmorSetsData.getInstance();
-		FishData.getInstance();
-		FishingMonstersData.getInstance();
-		FishingRodsData.getInstance();
-		HennaData.getInstance();
-		endTimedSection("Items", itemsStart);
-		
-		final var charactersStart = startTimedSection("Characters");
-		ClassListData.getInstance();
-		InitialEquipmentData.getInstance();
-		InitialShortcutData.getInstance();
-		ExperienceData.getInstance();
-		PlayerXpPercentLostData.getInstance();
-		KarmaData.getInstance();
-		HitConditionBonusData.getInstance();
-		PlayerTemplateData.getInstance();
-		PlayerCreationPointData.getInstance();
-		CharNameTable.getInstance();
-		AdminData.getInstance();
-		RaidBossPointsManager.getInstance();
-		PetDataTable.getInstance();
-		CharSummonTable.getInstance().init();
-		endTimedSection("Characters", charactersStart);
-		
-		final var bbsStart = startTimedSection("BBS");
-		if (general().enableCommunityBoard()) {
-			ForumsBBSManager.getInstance().load();
-		}
-		// Custom: panel игрока в BBS (Shop/Enchant/Buff).
-		PlayerPanelLoader.load();
-		endTimedSection("BBS", bbsStart);
-		
-		final var clansStart = startTimedSection("Clans");
-		ClanTable.getInstance();
-		ClanHallSiegeManager.getInstance();
-		ClanHallManager.getInstance();
-		AuctionManager.getInstance();
-		endTimedSection("Clans", clansStart);
-		
-		final var geodataStart = startTimedSection("Geodata");
-		GeoData.getInstance();
-		if (geodata().getPathFinding() > 0) {
-			PathFinding.getInstance();
-		}
-		endTimedSection("Geodata", geodataStart);
-		
-		final var npcsStart = startTimedSection("NPCs");
-		SkillLearnData.getInstance();
-		NpcData.getInstance();
-		WalkingManager.getInstance();
-		StaticObjectData.getInstance();
-		ZoneManager.getInstance();
-		DoorData.getInstance();
-		CastleManager.getInstance().loadInstances();
-		NpcBufferTable.getInstance();
-		GrandBossManager.getInstance().initZones();
-		EventDroplist.getInstance();
-		endTimedSection("NPCs", npcsStart);
-		
-		final var auctionStart = startTimedSection("Auction Manager");
-		ItemAuctionManager.getInstance();
-		endTimedSection("Auction Manager", auctionStart);
-		
-		final var olympiadStart = startTimedSection("Olympiad");
-		Olympiad.getInstance();
-		Hero.getInstance();
-		endTimedSection("Olympiad", olympiadStart);
-		
-		final var sevenSignsStart = startTimedSection("Seven Signs");
-		SevenSigns.getInstance();
-		endTimedSection("Seven Signs", sevenSignsStart);
-		
-		// Call to load caches
-		final var cacheStart = startTimedSection("Cache");
-		HtmCache.getInstance();
-		CrestTable.getInstance();
-		UIData.getInstance();
-		PartyMatchWaitingList.getInstance();
-		PartyMatchRoomList.getInstance();
-		PetitionManager.getInstance();
-		AugmentationData.getInstance();
-		CursedWeaponsManager.getInstance();
-		TransformData.getInstance();
-		BotReportTable.getInstance();
-		QuestManager.getInstance();
-		BoatManager.getInstance();
-		AirShipManager.getInstance();
-		GraciaSeedsManager.getInstance();
-		endTimedSection("Cache", cacheStart);
-		
-		final var handlersStart = startTimedSection("Handlers");
-		ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/handlers/MasterHandler.java");
-		endTimedSection("Handlers", handlersStart);
-		
-		final var aiStart = startTimedSection("AI");
-		ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/ai/AILoader.java");
-		endTimedSection("AI", aiStart);
-		
-		final var instancesStart = startTimedSection("Instances");
-		ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/instances/InstanceLoader.java");
-		endTimedSection("Instances", instancesStart);
-		
-		final var graciaStart = startTimedSection("Gracia");
-		ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/gracia/GraciaLoader.java");
-		endTimedSection("Gracia", graciaStart);
-		
-		final var hellboundStart = startTimedSection("Hellbound");
-		ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/hellbound/HellboundLoader.java");
-		endTimedSection("Hellbound", hellboundStart);
-		
-		final var questsStart = startTimedSection("Quests");
-		ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/quests/QuestLoader.java");
-		ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/quests/TerritoryWarScripts/TerritoryWarSuperClass.java");
-		endTimedSection("Quests", questsStart);
-		
-		final var scriptsStart = startTimedSection("Scripts");
-		ScriptEngineManager.getInstance().executeScriptList(new File(server().getDatapackRoot(), "data/scripts.cfg"));
-		endTimedSection("Scripts", scriptsStart);
-		
-		final var buyListStart = startTimedSection("BuyLists");
-		BuyListData.getInstance().load();
-		endTimedSection("BuyLists", buyListStart);
-		
-		final var spawnsStart = startTimedSection("Spawns");
-		SpawnTable.getInstance().load();
-		DayNightSpawnManager.getInstance().trim().notifyChangeMode();
-		FourSepulchersManager.getInstance().init();
-		DimensionalRiftManager.getInstance();
-		RaidBossSpawnManager.getInstance();
-		endTimedSection("Spawns", spawnsStart);
-		
-		final var siegeStart = startTimedSection("Siege");
-		SiegeManager.getInstance().getSieges();
-		CastleManager.getInstance().activateInstances();
-		FortManager.getInstance().loadInstances();
-		FortManager.getInstance().activateInstances();
-		FortSiegeManager.getInstance();
-		SiegeScheduleData.getInstance();
-		TerritoryWarManager.getInstance();
-		CastleManorManager.getInstance();
-		MercTicketManager.getInstance();
-		endTimedSection("Siege", siegeStart);
-		
-		final var otherStart = startTimedSection("Other");
-		if (general().saveDroppedItem()) {
-			ItemsOnGroundManager.getInstance();
-		}
-		
-		if ((general().getAutoDestroyDroppedItemAfter() > 0) || (general().getAutoDestroyHerbTime() > 0)) {
-			ItemsAutoDestroy.getInstance();
-		}
-		
-		MonsterRace.getInstance();
-		SevenSigns.getInstance().spawnSevenSignsNPC();
-		SevenSignsFestival.getInstance();
-		AutoSpawnHandler.getInstance();
-		FaenorScriptEngine.getInstance();
-		
-		if (customs().allowWedding()) {
-			CoupleManager.getInstance();
-		}
-		
-		TaskManager.getInstance();
-		
-		AntiFeedManager.getInstance().registerEvent(AntiFeedManager.GAME_ID);
-		
-		if (general().allowMail()) {
-			MailManager.getInstance();
-		}
-		
-		PunishmentManager.getInstance();
-		
-		Runtime.getRuntime().addShutdownHook(Shutdown.getInstance());
-		
-		LOG.info("Free Object Ids remaining {}.", IdFactory.getInstance().size());
-		
-		TvTManager.getInstance();
-		KnownListUpdateTaskManager.getInstance();
-		
-		if ((customs().offlineTradeEnable() || customs().offlineCraftEnable()) && customs().restoreOffliners()) {
-			OfflineTradersTable.getInstance().restoreOfflineTraders();
-		}
-		
-		// Multilingual Support
-		if (customs().multiLangEnable()) {
-			if (customs().multiLangSystemMessageEnable()) {
-				SystemMessageId.reloadLocalisations();
+		final var startup = new StartupGraph(server().getStartupThreads() > 0 ? server().getStartupThreads() : Runtime.getRuntime().availableProcessors(), server().startupFailFast());
+		startup.add("World", () -> {
+			GameTimeController.init();
+			InstanceManager.getInstance();
+			L2World.getInstance();
+			MapRegionManager.getInstance();
+			AnnouncementsTable.getInstance();
+			GlobalVariablesManager.getInstance();
+		});
+		
+		startup.add("Data", () -> {
+			CategoryData.getInstance();
+			SecondaryAuthData.getInstance();
+		});
+		
+		startup.add("Effects", () -> {
+			EffectHandler.getInstance().executeScript();
+		});
+		
+		startup.add("Enchant Skill Groups", () -> {
+			EnchantSkillGroupsData.getInstance();
+		});
+		
+		startup.add("Skill Trees", () -> {
+			SkillTreesData.getInstance();
+		}, "Enchant Skill Groups");
+		
+		startup.add("Skills", () -> {
+			SkillData.getInstance();
+			SummonSkillsTable.getInstance();
+		}, "Effects", "Skill Trees");
+		
+		startup.add("Items", () -> {
+			ItemTable.getInstance();
+			EnchantItemGroupsData.getInstance();
+			EnchantItemData.getInstance();
+			EnchantItemOptionsData.getInstance();
+			OptionData.getInstance();
+			EnchantItemHPBonusData.getInstance();
+			MultisellData.getInstance();
+			RecipeData.getInstance();
+			ArmorSetsData.getInstance();
+			FishData.getInstance();
+			FishingMonstersData.getInstance();
+			FishingRodsData.getInstance();
+			HennaData.getInstance();
+		}, "Skills");
+		
+		startup.add("Characters", () -> {
+			ClassListData.getInstance();
+			InitialEquipmentData.getInstance();
+			InitialShortcutData.getInstance();
+			ExperienceData.getInstance();
+			PlayerXpPercentLostData.getInstance();
+			KarmaData.getInstance();
+			HitConditionBonusData.getInstance();
+			PlayerTemplateData.getInstance();
+			PlayerCreationPointData.getInstance();
+			CharNameTable.getInstance();
+			AdminData.getInstance();
+			RaidBossPointsManager.getInstance();
+			PetDataTable.getInstance();
+			CharSummonTable.getInstance().init();
+		}, "World", "Data", "Items");
+		
+		startup.add("BBS", () -> {
+			if (general().enableCommunityBoard()) {
+				ForumsBBSManager.getInstance().load();
 			}
-			if (customs().multiLangNpcStringEnable()) {
-				NpcStringId.reloadLocalisations();
+			// Custom: panel игрока в BBS (Shop/Enchant/Buff).
+			PlayerPanelLoader.load();
+		}, "Items");
+		
+		startup.add("Clans", () -> {
+			ClanTable.getInstance();
+			ClanHallSiegeManager.getInstance();
+			ClanHallManager.getInstance();
+			AuctionManager.getInstance();
+		}, "Characters");
+		
+		startup.add("Geodata", () -> {
+			GeoData.getInstance();
+			if (geodata().getPathFinding() > 0) {
+				PathFinding.getInstance();
 			}
-		}
+		});
+		
+		startup.add("NPCs", () -> {
+			SkillLearnData.getInstance();
+			NpcData.getInstance();
+			WalkingManager.getInstance();
+			StaticObjectData.getInstance();
+			ZoneManager.getInstance();
+			DoorData.getInstance();
+			CastleManager.getInstance().loadInstances();
+			NpcBufferTable.getInstance();
+			GrandBossManager.getInstance().initZones();
+			EventDroplist.getInstance();
+		}, "World", "Items", "Clans", "Geodata");
+		
+		startup.add("Auction Manager", () -> {
+			ItemAuctionManager.getInstance();
+		}, "NPCs");
+		
+		startup.add("Olympiad", () -> {
+			Olympiad.getInstance();
+			Hero.getInstance();
+		}, "NPCs");
+		
+		startup.add("Seven Signs", () -> {
+			SevenSigns.getInstance();
+		}, "NPCs");
+		
+		startup.add("Cache", () -> {
+			HtmCache.getInstance();
+			CrestTable.getInstance();
+			UIData.getInstance();
+			PartyMatchWaitingList.getInstance();
+			PartyMatchRoomList.getInstance();
+			PetitionManager.getInstance();
+			AugmentationData.getInstance();
+			CursedWeaponsManager.getInstance();
+			TransformData.getInstance();
+			BotReportTable.getInstance();
+			QuestManager.getInstance();
+			BoatManager.getInstance();
+			AirShipManager.getInstance();
+			GraciaSeedsManager.getInstance();
+		}, "NPCs");
+		
+		startup.add("Handlers", () -> {
+			ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/handlers/MasterHandler.java");
+		}, "BBS", "Auction Manager", "Olympiad", "Seven Signs", "Cache");
+		
+		startup.add("AI", () -> {
+			ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/ai/AILoader.java");
+		}, "Handlers");
+		
+		startup.add("Instances", () -> {
+			ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/instances/InstanceLoader.java");
+		}, "AI");
+		
+		startup.add("Gracia", () -> {
+			ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/gracia/GraciaLoader.java");
+		}, "Instances");
+		
+		startup.add("Hellbound", () -> {
+			ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/hellbound/HellboundLoader.java");
+		}, "Gracia");
+		
+		startup.add("Quests", () -> {
+			ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/quests/QuestLoader.java");
+			ScriptEngineManager.getInstance().executeScript("com/l2jserver/datapack/quests/TerritoryWarScripts/TerritoryWarSuperClass.java");
+		}, "Hellbound");
+		
+		startup.add("Scripts", () -> {
+			ScriptEngineManager.getInstance().executeScriptList(new File(server().getDatapackRoot(), "data/scripts.cfg"));
+		}, "Quests");
+		
+		startup.add("BuyLists", () -> {
+			BuyListData.getInstance().load();
+		}, "NPCs");
+		
+		startup.add("Spawns", () -> {
+			SpawnTable.getInstance().load();
+			DayNightSpawnManager.getInstance().trim().notifyChangeMode();
+			FourSepulchersManager.getInstance().init();
+			DimensionalRiftManager.getInstance();
+			RaidBossSpawnManager.getInstance();
+		}, "Scripts", "BuyLists");
+		
+		startup.add("Siege", () -> {
+			SiegeManager.getInstance().getSieges();
+			CastleManager.getInstance().activateInstances();
+			FortManager.getInstance().loadInstances();
+			FortManager.getInstance().activateInstances();
+			FortSiegeManager.getInstance();
+			SiegeScheduleData.getInstance();
+			TerritoryWarManager.getInstance();
+			CastleManorManager.getInstance();
+			MercTicketManager.getInstance();
+		}, "Spawns");
+		
+		startup.add("Other", () -> {
+			if (general().saveDroppedItem()) {
+				ItemsOnGroundManager.getInstance();
+			}
+			
+			if ((general().getAutoDestroyDroppedItemAfter() > 0) || (general().getAutoDestroyHerbTime() > 0)) {
+				ItemsAutoDestroy.getInstance();
+			}
+			
+			MonsterRace.getInstance();
+			SevenSigns.getInstance().spawnSevenSignsNPC();
+			SevenSignsFestival.getInstance();
+			AutoSpawnHandler.getInstance();
+			FaenorScriptEngine.getInstance();
+			
+			if (customs().allowWedding()) {
+				CoupleManager.getInstance();
+			}
+			
+			TaskManager.getInstance();
+			
+			AntiFeedManager.getInstance().registerEvent(AntiFeedManager.GAME_ID);
+			
+			if (general().allowMail()) {
+				MailManager.getInstance();
+			}
+			
+			PunishmentManager.getInstance();
+			
+			LOG.info("Free Object Ids remaining {}.", IdFactory.getInstance().size());
+			
+			TvTManager.getInstance();
+			KnownListUpdateTaskManager.getInstance();
+			AiThinkTaskManager.getInstance();
+			PlayerInfoTaskManager.getInstance();
+			
+			if ((customs().offlineTradeEnable() || customs().offlineCraftEnable()) && customs().restoreOffliners()) {
+				OfflineTradersTable.getInstance().restoreOfflineTraders();
+			}
+			
+			// Multilingual Support
+			if (customs().multiLangEnable()) {
+				if (customs().multiLangSystemMessageEnable()) {
+					SystemMessageId.reloadLocalisations();
+				}
+				if (customs().multiLangNpcStringEnable()) {
+					NpcStringId.reloadLocalisations();
+				}
+			}
+		}, "Siege");
+		
+		// Registered before the loaders, a failed stage must not leave the server without saves on shutdown
+		Runtime.getRuntime().addShutdownHook(Shutdown.getInstance());
 		
-		endTimedSection("Other", otherStart);
+		startup.run();
 		
 		if (general().deadLockDetector()) {
 			_deadDetectThread = new DeadLockDetector();
@@ -455,6 +464,9 @@ public final class GameServer {
 		sc.TCP_NODELAY = mmo().isTcpNoDelay();
 		
 		_gamePacketHandler = new L2GamePacketHandler();
+		if (general().packetMetrics()) {
+			PacketMetrics.register();
+		}
 		_selectorThread = new SelectorThread<>(sc, _gamePacketHandler, _gamePacketHandler, _gamePacketHandler, new IPv4Filter());
 		
 		InetAddress bindAddress = null;
@@ -486,6 +498,18 @@ public final class GameServer {
 			LOG.info("Telnet server is currently disabled.");
 		}
 		
+		if (general().gameMetrics()) {
+			GameMetrics.register();
+			GameMetrics.getInstance().startDatabaseProbe(general().getGameMetricsDatabaseProbeInterval());
+			if (general().metricsServer()) {
+				try {
+					new MetricsServer(GameMetrics.getInstance()).start(general().getMetricsServerHost(), general().getMetricsServerPort());
+				} catch (IOException ex) {
+					LOG.warn("Failed to start the metrics server on {}:{}!", general().getMetricsServerHost(), general().getMetricsServerPort(), ex);
+				}
+			}
+		}
+		
 		LOG.info("Maximum numbers of connected players {}.", server().getMaxOnlineUsers());
 		LOG.info("Server {} loaded in {} seconds.", ServerNameDAO.getServer(hexId().getServerID()), MILLISECONDS.toSeconds(System.currentTimeMillis() - serverLoadStart));
 	}
@@ -18,15 +18,23 @@
  */
 package com.l2jserver.gameserver;
 
+import static com.l2jserver.gameserver.config.Configuration.general;
+import static com.l2jserver.gameserver.config.Configuration.geodata;
+
 import java.util.Calendar;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.l2jserver.gameserver.instancemanager.DayNightSpawnManager;
+import com.l2jserver.gameserver.metrics.GameMetrics;
 import com.l2jserver.gameserver.model.actor.L2Character;
+import com.l2jserver.gameserver.model.actor.L2Vehicle;
+import com.l2jserver.gameserver.model.actor.movement.MovementBatch;
 
 /**
  * Game Time controller class.
@@ -48,7 +56,15 @@ public final class GameTimeController extends Thread {
 	
 	private static GameTimeController _instance;
 	
+	/** Maximum amount of ticks a batched mover is left without a position update. */
+	private static final int BATCHED_MOVEMENT_MAX_TICKS = TICKS_PER_SECOND;
+	
 	private final Set<L2Character> _movingObjects = ConcurrentHashMap.newKeySet();
+	private final boolean _batchedMovement = general().batchedMovement();
+	private final boolean _metrics = general().gameMetrics();
+	private final Queue<L2Character> _pendingMovers = new ConcurrentLinkedQueue<>();
+	private final MovementBatch<L2Character> _movementBatch = new MovementBatch<>();
+	private int[] _dueMovers = new int[0];
 	private final long _referenceTime;
 	
 	private GameTimeController() {
@@ -103,6 +119,12 @@ public final class GameTimeController extends Thread {
 			return;
 		}
 		
+		// Vehicles broadcast their position on every update, they stay on the per tick path.
+		if (_batchedMovement && !(cha instanceof L2Vehicle)) {
+			_pendingMovers.add(cha);
+			return;
+		}
+		
 		_movingObjects.add(cha);
 	}
 	
@@ -119,6 +141,73 @@ public final class GameTimeController extends Thread {
 	 */
 	private void moveObjects() {
 		_movingObjects.removeIf(L2Character::updatePosition);
+		
+		if (_batchedMovement) {
+			moveObjectsBatched();
+		}
+	}
+	
+	/**
+	 * Move the L2Characters of the movement batch.<br>
+	 * The batch predicts the position of every mover in a single pass over primitive arrays, {@link L2Character#updatePosition()} is only called for the movers that moved further than {@code BatchedMovementDistance}, reached their destination or were not updated for a second.<br>
+	 * Since {@link L2Character#updatePosition()} computes the position from the ticks elapsed since the last update, skipping ticks does not change the path of the mover.<br>
+	 * When the Z coordinate follows the geodata, every mover is updated once a second on the tick {@link L2Character#updatePosition()} synchronizes it, as on the per tick path.
+	 */
+	private void moveObjectsBatched() {
+		final int tick = getGameTicks();
+		
+		L2Character cha;
+		while ((cha = _pendingMovers.poll()) != null) {
+			refreshMover(cha, -1, tick);
+		}
+		
+		final MovementBatch<L2Character> batch = _movementBatch;
+		if (_dueMovers.length < batch.size()) {
+			_dueMovers = new int[batch.size() * 2];
+		}
+		
+		final int[] due = _dueMovers;
+		final int count;
+		if ((geodata().getCoordSynchronize() == 2) && ((tick % 10) == 0)) {
+			count = batch.size();
+			for (int i = 0; i < count; i++) {
+				due[i] = i;
+			}
+		} else {
+			count = batch.collectDue(tick, general().getBatchedMovementDistance(), BATCHED_MOVEMENT_MAX_TICKS, general().batchedMovementParallel(), due);
+		}
+		// Descending order, removing a slot only moves a slot with a higher index.
+		for (int i = count - 1; i >= 0; i--) {
+			final int index = due[i];
+			cha = batch.get(index);
+			try {
+				if (cha.updatePosition()) {
+					batch.removeAt(index);
+					continue;
+				}
+			} catch (Exception e) {
+				LOG.warn("Unable to move {}!", cha, e);
+				batch.removeAt(index);
+				continue;
+			}
+			refreshMover(cha, index, tick);
+		}
+	}
+	
+	private void refreshMover(L2Character cha, int index, int tick) {
+		final double speedPerTick = cha.getMoveSpeed() / TICKS_PER_SECOND;
+		if (index < 0) {
+			_movementBatch.put(cha, cha.getX(), cha.getY(), cha.getXdestination(), cha.getYdestination(), speedPerTick, tick);
+		} else {
+			_movementBatch.set(index, cha.getX(), cha.getY(), cha.getXdestination(), cha.getYdestination(), speedPerTick, tick);
+		}
+	}
+	
+	/**
+	 * @return the amount of L2Characters currently moving
+	 */
+	public int getMovingObjectsCount() {
+		return _movingObjects.size() + _movementBatch.size();
 	}
 	
 	public void stopTimer() {
@@ -140,11 +229,15 @@ public final class GameTimeController extends Thread {
 		while (true) {
 			nextTickTime = System.currentTimeMillis() + MILLIS_IN_TICK;
 			
+			final long tickStart = System.nanoTime();
 			try {
 				moveObjects();
 			} catch (final Throwable e) {
 				LOG.warn("Unable to move objects!", e);
 			}
+			if (_metrics) {
+				GameMetrics.getInstance().recordTick(System.nanoTime() - tickStart);
+			}
 			
 			sleepTime = nextTickTime - System.currentTimeMillis();
 			if (sleepTime > 0) {
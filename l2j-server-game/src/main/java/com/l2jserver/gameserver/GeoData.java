@@ -33,6 +33,7 @@ import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.Location;
 import com.l2jserver.gameserver.model.interfaces.ILocational;
+import com.l2jserver.gameserver.pathfinding.PathFinding;
 import com.l2jserver.gameserver.util.GeoUtils;
 import com.l2jserver.gameserver.util.LinePointIterator;
 import com.l2jserver.gameserver.util.LinePointIterator3D;
@@ -60,6 +61,8 @@ public class GeoData {
 	
 	private final GeoDriver _driver = new GeoDriver();
 	
+	private final GeoDataCache _cache = geodata().getGeoDataCacheSize() > 0 ? new GeoDataCache(geodata().getGeoDataCacheSize()) : null;
+	
 	protected GeoData() {
 		loadGeodataRegions();
 		
@@ -266,10 +269,46 @@ public class GeoData {
 	 * @return {@code true} if there is line of sight between the given coordinate sets, {@code false} otherwise
 	 */
 	public boolean canSeeTarget(int x, int y, int z, int instanceId, int tx, int ty, int tz) {
-		if (DoorData.getInstance().checkIfDoorsBetween(x, y, z, tx, ty, tz, instanceId, true)) {
-			return false;
+		final GeoDataCache cache = _cache;
+		if (cache == null) {
+			return !DoorData.getInstance().checkIfDoorsBetween(x, y, z, tx, ty, tz, instanceId, true) && canSeeTarget(x, y, z, tx, ty, tz);
+		}
+		
+		final int geoX = getGeoX(x);
+		final int geoY = getGeoY(y);
+		final int tGeoX = getGeoX(tx);
+		final int tGeoY = getGeoY(ty);
+		final long key1 = GeoDataCache.key(geoX, geoY, getNearestZ(geoX, geoY, z), tGeoX);
+		final long key2 = GeoDataCache.key(tGeoY, getNearestZ(tGeoX, tGeoY, tz), instanceId);
+		final int cached = cache.getLos(key1, key2);
+		if (cached != GeoDataCache.MISS) {
+			return cached == 1;
+		}
+		
+		final int generation = cache.generation();
+		final boolean canSee = !DoorData.getInstance().checkIfDoorsBetween(x, y, z, tx, ty, tz, instanceId, true) && canSeeTarget(x, y, z, tx, ty, tz);
+		cache.putLos(key1, key2, generation, canSee);
+		return canSee;
+	}
+	
+	/**
+	 * Invalidates the cached line of sight, move check and path results, must be called when a door is opened, closed, destroyed or revived.
+	 */
+	public void onDoorStateChange() {
+		if (_cache != null) {
+			_cache.invalidate();
+		}
+		
+		if (geodata().getPathFinding() > 0) {
+			PathFinding.getInstance().onDoorStateChange();
 		}
-		return canSeeTarget(x, y, z, tx, ty, tz);
+	}
+	
+	/**
+	 * @return the line of sight and move check cache statistics, or an empty array if the cache is disabled
+	 */
+	public String[] getCacheStats() {
+		return _cache != null ? _cache.getStats() : new String[0];
 	}
 	
 	private int getLosGeoZ(int prevX, int prevY, int prevGeoZ, int curX, int curY, int nswe) {
@@ -429,7 +468,29 @@ public class GeoData {
 		int tGeoY = getGeoY(ty);
 		tz = getNearestZ(tGeoX, tGeoY, tz);
 		
+		final GeoDataCache cache = _cache;
+		if (cache == null) {
+			return moveCheck(x, y, z, geoX, geoY, tx, ty, tz, tGeoX, tGeoY, instanceId, null, 0, 0, 0);
+		}
+		
+		final long key1 = GeoDataCache.key(geoX, geoY, z, tGeoX);
+		final long key2 = GeoDataCache.key(tGeoY, tz, instanceId);
+		final GeoDataCache.MoveEntry cached = cache.getMove(key1, key2);
+		if (cached != null) {
+			return switch (cached._type) {
+				case GeoDataCache.MOVE_TARGET -> new Location(tx, ty, tz);
+				case GeoDataCache.MOVE_START -> new Location(x, y, z);
+				default -> new Location(getWorldX(cached._geoX), getWorldY(cached._geoY), cached._z);
+			};
+		}
+		return moveCheck(x, y, z, geoX, geoY, tx, ty, tz, tGeoX, tGeoY, instanceId, cache, key1, key2, cache.generation());
+	}
+	
+	private Location moveCheck(int x, int y, int z, int geoX, int geoY, int tx, int ty, int tz, int tGeoX, int tGeoY, int instanceId, GeoDataCache cache, long key1, long key2, int generation) {
 		if (DoorData.getInstance().checkIfDoorsBetween(x, y, z, tx, ty, tz, instanceId, false)) {
+			if (cache != null) {
+				cache.putMove(key1, key2, generation, GeoDataCache.MOVE_START, 0, 0, 0);
+			}
 			return new Location(x, y, getHeight(x, y, z));
 		}
 		
@@ -449,6 +510,9 @@ public class GeoData {
 				int nswe = GeoUtils.computeNswe(prevX, prevY, curX, curY);
 				if (!checkNearestNsweAntiCornerCut(prevX, prevY, prevZ, nswe)) {
 					// can't move, return previous location
+					if (cache != null) {
+						cache.putMove(key1, key2, generation, GeoDataCache.MOVE_BLOCKED, prevX, prevY, prevZ);
+					}
 					return new Location(getWorldX(prevX), getWorldY(prevY), prevZ);
 				}
 			}
@@ -460,9 +524,15 @@ public class GeoData {
 		
 		if (hasGeoPos(prevX, prevY) && (prevZ != tz)) {
 			// different floors, return start location
+			if (cache != null) {
+				cache.putMove(key1, key2, generation, GeoDataCache.MOVE_START, 0, 0, 0);
+			}
 			return new Location(x, y, z);
 		}
 		
+		if (cache != null) {
+			cache.putMove(key1, key2, generation, GeoDataCache.MOVE_TARGET, 0, 0, 0);
+		}
 		return new Location(tx, ty, tz);
 	}
 	
@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of line of sight and move check results.<br>
+ * Results are keyed by the geodata cells and heights of both ends and by the instance, so every position inside the same pair of cells shares the result.<br>
+ * The tables are direct mapped: a slot holds the last result stored for any key hashing to it, so the memory is bounded and lookups never lock.<br>
+ * Entries are immutable and carry the door generation they were calculated with, {@link #invalidate()} must be called when a door changes state.
+ */
+final class GeoDataCache {
+	static final int MISS = -1;
+	
+	/** The move ends at the target. */
+	static final int MOVE_TARGET = 0;
+	/** The move is blocked by a door or ends on a different floor, it stays at the start. */
+	static final int MOVE_START = 1;
+	/** The move is blocked by geodata, it ends at the stored cell. */
+	static final int MOVE_BLOCKED = 2;
+	
+	private final LosEntry[] _los;
+	private final MoveEntry[] _moves;
+	private final int _mask;
+	private final AtomicInteger _generation = new AtomicInteger();
+	
+	private final LongAdder _losHits = new LongAdder();
+	private final LongAdder _losMisses = new LongAdder();
+	private final LongAdder _moveHits = new LongAdder();
+	private final LongAdder _moveMisses = new LongAdder();
+	private final LongAdder _invalidations = new LongAdder();
+	
+	GeoDataCache(int size) {
+		final int capacity = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+		_los = new LosEntry[capacity];
+		_moves = new MoveEntry[capacity];
+		_mask = capacity - 1;
+	}
+	
+	/**
+	 * Packs the start cell, the start height and the target geo X.
+	 * @param geoX the start geo X
+	 * @param geoY the start geo Y
+	 * @param z the start height
+	 * @param tGeoX the target geo X
+	 * @return the first part of the key
+	 */
+	static long key(int geoX, int geoY, int z, int tGeoX) {
+		return ((geoX & 0xFFFFL) << 48) | ((geoY & 0xFFFFL) << 32) | ((z & 0xFFFFL) << 16) | (tGeoX & 0xFFFFL);
+	}
+	
+	/**
+	 * Packs the target geo Y, the target height and the instance.
+	 * @param tGeoY the target geo Y
+	 * @param tz the target height
+	 * @param instanceId the instance Id
+	 * @return the second part of the key
+	 */
+	static long key(int tGeoY, int tz, int instanceId) {
+		return ((tGeoY & 0xFFFFL) << 48) | ((tz & 0xFFFFL) << 32) | (instanceId & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * @return the current door generation, to be passed to the put methods
+	 */
+	int generation() {
+		return _generation.get();
+	}
+	
+	/**
+	 * Invalidates every cached result.
+	 */
+	void invalidate() {
+		_generation.incrementAndGet();
+		_invalidations.increment();
+	}
+	
+	/**
+	 * @param key1 the first part of the key
+	 * @param key2 the second part of the key
+	 * @return 1 if there is line of sight, 0 if there is not, {@link #MISS} if unknown
+	 */
+	int getLos(long key1, long key2) {
+		final LosEntry entry = _los[index(key1, key2)];
+		if ((entry != null) && (entry._key1 == key1) && (entry._key2 == key2) && (entry._generation == _generation.get())) {
+			_losHits.increment();
+			return entry._canSee ? 1 : 0;
+		}
+		_losMisses.increment();
+		return MISS;
+	}
+	
+	void putLos(long key1, long key2, int generation, boolean canSee) {
+		_los[index(key1, key2)] = new LosEntry(key1, key2, generation, canSee);
+	}
+	
+	/**
+	 * @param key1 the first part of the key
+	 * @param key2 the second part of the key
+	 * @return the cached move or {@code null} if unknown
+	 */
+	MoveEntry getMove(long key1, long key2) {
+		final MoveEntry entry = _moves[index(key1, key2)];
+		if ((entry != null) && (entry._key1 == key1) && (entry._key2 == key2) && (entry._generation == _generation.get())) {
+			_moveHits.increment();
+			return entry;
+		}
+		_moveMisses.increment();
+		return null;
+	}
+	
+	void putMove(long key1, long key2, int generation, int type, int geoX, int geoY, int z) {
+		_moves[index(key1, key2)] = new MoveEntry(key1, key2, generation, type, geoX, geoY, z);
+	}
+	
+	private int index(long key1, long key2) {
+		final long hash = (key1 * 0x9E3779B97F4A7C15L) ^ (key2 * 0xC2B2AE3D27D4EB4FL);
+		return (int) (hash ^ (hash >>> 32)) & _mask;
+	}
+	
+	String[] getStats() {
+		final long losHits = _losHits.sum();
+		final long losLookups = losHits + _losMisses.sum();
+		final long moveHits = _moveHits.sum();
+		final long moveLookups = moveHits + _moveMisses.sum();
+		return new String[] {
+			"GeoData Cache:",
+			" + Line of sight:",
+			" |- Hits/Lookups:    " + losHits + "/" + losLookups + " (" + String.format("%1.1f%%", losLookups > 0 ? (losHits * 100.0) / losLookups : 0) + ")",
+			" + Move check:",
+			" |- Hits/Lookups:    " + moveHits + "/" + moveLookups + " (" + String.format("%1.1f%%", moveLookups > 0 ? (moveHits * 100.0) / moveLookups : 0) + ")",
+			" + Slots:            " + _los.length,
+			" + Invalidations:    " + _invalidations.sum(),
+			" | -------"
+		};
+	}
+	
+	private static final class LosEntry {
+		final long _key1;
+		final long _key2;
+		final int _generation;
+		final boolean _canSee;
+		
+		LosEntry(long key1, long key2, int generation, boolean canSee) {
+			_key1 = key1;
+			_key2 = key2;
+			_generation = generation;
+			_canSee = canSee;
+		}
+	}
+	
+	static final class MoveEntry {
+		final long _key1;
+		final long _key2;
+		final int _generation;
+		final int _type;
+		final int _geoX;
+		final int _geoY;
+		final int _z;
+		
+		MoveEntry(long key1, long key2, int generation, int type, int geoX, int geoY, int z) {
+			_key1 = key1;
+			_key2 = key2;
+			_generation = generation;
+			_type = type;
+			_geoX = geoX;
+			_geoY = geoY;
+			_z = z;
+		}
+	}
+}
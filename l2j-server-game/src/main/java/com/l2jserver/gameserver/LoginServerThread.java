@@ -41,6 +41,7 @@ import java.security.spec.RSAKeyGenParameterSpec;
 import java.security.spec.RSAPublicKeySpec;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -636,6 +637,13 @@ public class LoginServerThread extends Thread {
 		return name != null ? _accountsInGameServer.get(name) : null;
 	}
 	
+	/**
+	 * @return the clients of the accounts logged in the game server
+	 */
+	public Collection<L2GameClient> getClients() {
+		return _accountsInGameServer.values();
+	}
+	
 	public static class SessionKey {
 		public int playOkID1;
 		public int playOkID2;
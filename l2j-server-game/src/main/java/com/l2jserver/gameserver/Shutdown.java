@@ -49,6 +49,8 @@ import com.l2jserver.gameserver.network.SystemMessageId;
 import com.l2jserver.gameserver.network.gameserverpackets.ServerStatus;
 import com.l2jserver.gameserver.network.serverpackets.ServerClose;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
+import com.l2jserver.gameserver.taskmanager.PlayerSaveTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 
 /**
@@ -198,6 +200,9 @@ public class Shutdown extends Thread {
 			
 			try {
 				disconnectAllCharacters();
+				if (general().characterWriteBehind()) {
+					PlayerSaveTaskManager.getInstance().shutdown();
+				}
 				LOG.info("All players disconnected and saved({}ms).", tc.getEstimatedTimeAndRestartCounter());
 			} catch (Exception e) {
 				LOG.warn("Failed to disconnect all characters.", e);
@@ -462,6 +467,12 @@ public class Shutdown extends Thread {
 			LOG.info("Bot Report Table: Successfully saved reports to database!");
 		}
 		
+		// Write items still pending in the write-behind queue
+		if (general().itemWriteBehind()) {
+			ItemPersistenceTaskManager.getInstance().shutdown();
+			LOG.info("Item Persistence Task Manager: Pending items saved({}ms).", tc.getEstimatedTimeAndRestartCounter());
+		}
+		
 		try {
 			Thread.sleep(5000);
 		} catch (InterruptedException e) {
@@ -0,0 +1,257 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Startup graph.<br>
+ * Every stage declares the stages it depends on and runs as soon as all of them finished, so independent stages run in parallel on a bounded pool.<br>
+ * With a single thread the stages run on the calling thread in declaration order, like a plain sequence of loaders.<br>
+ * In fail-fast mode the first stage that throws stops the startup: no other stage is started and {@link #run()} throws; otherwise the error is logged and the startup goes on.<br>
+ * A stage whose dependency failed or was skipped is skipped too, it never runs against missing data.
+ */
+public final class StartupGraph {
+	private static final Logger LOG = LoggerFactory.getLogger(StartupGraph.class);
+	
+	private final Map<String, Stage> _stages = new LinkedHashMap<>();
+	private final int _threads;
+	private final boolean _failFast;
+	private final AtomicReference<StageException> _failure = new AtomicReference<>();
+	private long _startTime;
+	
+	/**
+	 * Status of a startup stage.
+	 */
+	enum Status {
+		PENDING,
+		OK,
+		FAILED,
+		SKIPPED
+	}
+	
+	/**
+	 * A startup stage.
+	 */
+	@FunctionalInterface
+	public interface StartupTask {
+		void run() throws Exception;
+	}
+	
+	/**
+	 * @param threads the amount of threads, 1 runs every stage on the calling thread
+	 * @param failFast if {@code true} the first failed stage stops the startup
+	 */
+	public StartupGraph(int threads, boolean failFast) {
+		_threads = Math.max(threads, 1);
+		_failFast = failFast;
+	}
+	
+	/**
+	 * Adds a stage.
+	 * @param name the name of the stage
+	 * @param task the task
+	 * @param dependencies the names of the stages that must finish before this one starts, they must be added before
+	 * @return this graph
+	 */
+	public StartupGraph add(String name, StartupTask task, String... dependencies) {
+		final List<Stage> stageDependencies = new ArrayList<>(dependencies.length);
+		for (String dependency : dependencies) {
+			final Stage stage = _stages.get(dependency);
+			if (stage == null) {
+				throw new IllegalArgumentException("Startup stage " + name + " depends on unknown stage " + dependency + "!");
+			}
+			stageDependencies.add(stage);
+		}
+		
+		if (_stages.putIfAbsent(name, new Stage(name, task, stageDependencies)) != null) {
+			throw new IllegalArgumentException("Duplicated startup stage " + name + "!");
+		}
+		return this;
+	}
+	
+	/**
+	 * @param name the name of the stage
+	 * @return the status of the stage
+	 */
+	Status getStatus(String name) {
+		return _stages.get(name)._status;
+	}
+	
+	/**
+	 * Runs every stage and logs the timing report.
+	 * @throws Exception the exception of the first failed stage in fail-fast mode
+	 */
+	public void run() throws Exception {
+		_startTime = System.nanoTime();
+		if (_threads == 1) {
+			for (Stage stage : _stages.values()) {
+				execute(stage);
+				if (_failFast && (_failure.get() != null)) {
+					break;
+				}
+			}
+		} else {
+			runParallel();
+		}
+		
+		report();
+		
+		final StageException failure = _failure.get();
+		if (_failFast && (failure != null)) {
+			throw failure;
+		}
+	}
+	
+	private void runParallel() {
+		final AtomicInteger threadId = new AtomicInteger();
+		final ThreadFactory threadFactory = r -> {
+			final Thread thread = new Thread(r, "Startup-" + threadId.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		
+		final ExecutorService executor = Executors.newFixedThreadPool(_threads, threadFactory);
+		try {
+			// Stages are added after their dependencies, so the futures of the dependencies always exist
+			final Map<Stage, CompletableFuture<Void>> futures = new HashMap<>();
+			for (Stage stage : _stages.values()) {
+				final CompletableFuture<?>[] dependencies = stage._dependencies.stream().map(futures::get).toArray(CompletableFuture[]::new);
+				futures.put(stage, CompletableFuture.allOf(dependencies).thenRunAsync(() -> execute(stage), executor));
+			}
+			
+			// Stages record their own failures, so the futures always complete normally
+			CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private void execute(Stage stage) {
+		if (_failFast && (_failure.get() != null)) {
+			stage._status = Status.SKIPPED;
+			return;
+		}
+		
+		for (Stage dependency : stage._dependencies) {
+			if (dependency._status != Status.OK) {
+				stage._status = Status.SKIPPED;
+				LOG.warn("Startup stage {} skipped, it depends on {} that did not load!", stage._name, dependency._name);
+				return;
+			}
+		}
+		
+		stage._thread = Thread.currentThread().getName();
+		stage._start = System.nanoTime();
+		GameServer.startTimedSection(stage._name);
+		try {
+			stage._task.run();
+			stage._status = Status.OK;
+		} catch (Throwable t) {
+			stage._status = Status.FAILED;
+			LOG.error("Startup stage {} failed!", stage._name, t);
+			_failure.compareAndSet(null, new StageException(stage._name, t));
+		} finally {
+			stage._end = System.nanoTime();
+			LOG.info("[ {} loaded in {}ms ]", stage._name, NANOSECONDS.toMillis(stage._end - stage._start));
+		}
+	}
+	
+	private void report() {
+		final long wallTime = NANOSECONDS.toMillis(System.nanoTime() - _startTime);
+		long stagesTime = 0;
+		Stage last = null;
+		LOG.info("=[ Startup Report ]==========================================");
+		LOG.info(String.format("%-24s %9s %9s  %-8s %s", "Stage", "Start(ms)", "Time(ms)", "Status", "Thread"));
+		for (Stage stage : _stages.values()) {
+			if (stage._thread == null) {
+				LOG.info(String.format("%-24s %9s %9s  %-8s", stage._name, "-", "-", stage._status));
+				continue;
+			}
+			
+			final long time = NANOSECONDS.toMillis(stage._end - stage._start);
+			stagesTime += time;
+			LOG.info(String.format("%-24s %9d %9d  %-8s %s", stage._name, NANOSECONDS.toMillis(stage._start - _startTime), time, stage._status, stage._thread));
+			if ((last == null) || (stage._end > last._end)) {
+				last = stage;
+			}
+		}
+		LOG.info("Startup took {}ms for {}ms of stages on {} thread(s).", wallTime, stagesTime, _threads);
+		
+		if ((_threads > 1) && (last != null)) {
+			// The critical path is the chain of the dependencies that finished last
+			final Deque<String> path = new ArrayDeque<>();
+			for (Stage stage = last; stage != null;) {
+				path.addFirst(stage._name + " (" + NANOSECONDS.toMillis(stage._end - stage._start) + "ms)");
+				Stage latest = null;
+				for (Stage dependency : stage._dependencies) {
+					if ((dependency._thread != null) && ((latest == null) || (dependency._end > latest._end))) {
+						latest = dependency;
+					}
+				}
+				stage = latest;
+			}
+			LOG.info("Critical path: {}.", String.join(" -> ", path));
+		}
+	}
+	
+	private static final class Stage {
+		final String _name;
+		final StartupTask _task;
+		final List<Stage> _dependencies;
+		volatile String _thread;
+		volatile Status _status = Status.PENDING;
+		volatile long _start;
+		volatile long _end;
+		
+		Stage(String name, StartupTask task, List<Stage> dependencies) {
+			_name = name;
+			_task = task;
+			_dependencies = dependencies;
+		}
+	}
+	
+	/**
+	 * Failure of a startup stage.
+	 */
+	public static final class StageException extends Exception {
+		private static final long serialVersionUID = 1L;
+		
+		StageException(String stage, Throwable cause) {
+			super("Startup stage " + stage + " failed!", cause);
+		}
+	}
+}
@@ -21,6 +21,15 @@ package com.l2jserver.gameserver;
 import static com.l2jserver.gameserver.config.Configuration.general;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
@@ -68,6 +77,13 @@ import com.l2jserver.gameserver.util.StringUtil;
  * <li>A general ThreadPool where everything else that needs to run asynchronously with no delay should be executed ({@link com.l2jserver.gameserver.model.actor.knownlist KnownList} updates, SQL updates/inserts...)?</li>
  * </ul>
  * </p>
+ * <p>
+ * World shards (stripes of world regions) are processed in parallel on the {@link #_worldThreadPool "world"} {@link ForkJoinPool} with {@link #invokeWorld(Collection)}.
+ * </p>
+ * <p>
+ * Timers that exist once per character (corpse decay, attack stance) are scheduled on the {@link #_timingWheel timing wheel} with {@link #scheduleTimer(Runnable, long, TimeUnit)}, their tasks run on the "ai"
+ * {@link ScheduledThreadPoolExecutor ScheduledThreadPool}.
+ * </p>
  * @author -Wooden-
  */
 public class ThreadPoolManager {
@@ -102,6 +118,8 @@ public class ThreadPoolManager {
 	private final ThreadPoolExecutor _ioPacketsThreadPool;
 	private final ThreadPoolExecutor _generalThreadPool;
 	private final ThreadPoolExecutor _eventThreadPool;
+	private final ForkJoinPool _worldThreadPool;
+	private final TimingWheel _timingWheel;
 	
 	private boolean _shutdown;
 	
@@ -118,6 +136,15 @@ public class ThreadPoolManager {
 		_generalThreadPool = new ThreadPoolExecutor(general().getGeneralThreadCoreSize(), general().getGeneralThreadCoreSize() + 2, 5L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new PriorityThreadFactory("General Pool", Thread.NORM_PRIORITY));
 		_aiScheduledThreadPool = new ScheduledThreadPoolExecutor(general().getAiMaxThread(), new PriorityThreadFactory("AISTPool", Thread.NORM_PRIORITY));
 		_eventThreadPool = new ThreadPoolExecutor(general().getEventsMaxThread(), general().getEventsMaxThread() + 2, 5L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new PriorityThreadFactory("Event Pool", Thread.NORM_PRIORITY));
+		final int worldThreads = general().getWorldThreadPoolSize() > 0 ? general().getWorldThreadPoolSize() : Runtime.getRuntime().availableProcessors();
+		_worldThreadPool = new ForkJoinPool(worldThreads, pool -> {
+			final ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			t.setName("WorldFJPool-" + t.getPoolIndex());
+			return t;
+		}, null, false);
+		
+		_timingWheel = new TimingWheel("TimingWheel", general().getTimingWheelTick(), _aiScheduledThreadPool);
+		_timingWheel.start();
 		
 		scheduleGeneralAtFixedRate(new PurgeTask(_effectsScheduledThreadPool, _generalScheduledThreadPool, _aiScheduledThreadPool, _eventThreadPool), 10, 5, TimeUnit.MINUTES);
 	}
@@ -319,6 +346,28 @@ public class ThreadPoolManager {
 		return scheduleAiAtFixedRate(task, initialDelay, period, TimeUnit.MILLISECONDS);
 	}
 	
+	/**
+	 * Schedules a task on the timing wheel to be executed after the given delay.<br>
+	 * The delay is rounded up to the wheel tick, scheduling and canceling cost the same whatever the amount of pending timers.
+	 * @param task the task to execute
+	 * @param delay the delay in the given time unit
+	 * @param unit the time unit of the delay parameter
+	 * @return a ScheduledFuture representing pending completion of the task, and whose get() method will throw an exception upon cancellation
+	 */
+	public ScheduledFuture<?> scheduleTimer(Runnable task, long delay, TimeUnit unit) {
+		return _timingWheel.schedule(task, delay, unit);
+	}
+	
+	/**
+	 * Schedules a task on the timing wheel to be executed after the given delay.
+	 * @param task the task to execute
+	 * @param delay the delay in milliseconds
+	 * @return a ScheduledFuture representing pending completion of the task, and whose get() method will throw an exception upon cancellation
+	 */
+	public ScheduledFuture<?> scheduleTimer(Runnable task, long delay) {
+		return scheduleTimer(task, delay, TimeUnit.MILLISECONDS);
+	}
+	
 	/**
 	 * Executes a packet task sometime in future in another thread.
 	 * @param task the task to execute
@@ -379,8 +428,44 @@ public class ThreadPoolManager {
 		}
 	}
 	
+	/**
+	 * Executes a world task sometime in future on the "world" pool, without waiting for it.
+	 * @param task the task to execute
+	 */
+	public void executeWorld(Runnable task) {
+		try {
+			_worldThreadPool.execute(new RunnableWrapper(task));
+		} catch (RejectedExecutionException e) {
+			/* shutdown, ignore */
+		}
+	}
+	
+	/**
+	 * Executes the given world tasks in parallel and waits until all of them are done.<br>
+	 * Exceptions thrown by a task are reported to the uncaught exception handler of the thread that ran it.
+	 * @param tasks the tasks to execute
+	 */
+	public void invokeWorld(Collection<? extends Runnable> tasks) {
+		if (tasks.isEmpty()) {
+			return;
+		}
+		
+		final List<ForkJoinTask<?>> futures = new ArrayList<>(tasks.size());
+		try {
+			for (Runnable task : tasks) {
+				futures.add(_worldThreadPool.submit(new RunnableWrapper(task)));
+			}
+		} catch (RejectedExecutionException e) {
+			/* shutdown, ignore */
+		}
+		
+		for (ForkJoinTask<?> future : futures) {
+			future.quietlyJoin();
+		}
+	}
+	
 	public String[] getStats() {
-		return new String[] {
+		final String[] stats = new String[] {
 			"STP:",
 			" + Effects:",
 			" |- ActiveThreads:   " + _effectsScheduledThreadPool.getActiveCount(),
@@ -449,8 +534,37 @@ public class ThreadPoolManager {
 			" |- PoolSize:        " + _eventThreadPool.getPoolSize(),
 			" |- CompletedTasks:  " + _eventThreadPool.getCompletedTaskCount(),
 			" |- QueuedTasks:     " + _eventThreadPool.getQueue().size(),
+			" | -------",
+			"FJP:",
+			" + World:",
+			" |- ActiveThreads:   " + _worldThreadPool.getActiveThreadCount(),
+			" |- Parallelism:     " + _worldThreadPool.getParallelism(),
+			" |- PoolSize:        " + _worldThreadPool.getPoolSize(),
+			" |- StealCount:      " + _worldThreadPool.getStealCount(),
+			" |- QueuedTasks:     " + _worldThreadPool.getQueuedSubmissionCount(),
 			" | -------"
 		};
+		final String[] timingWheelStats = _timingWheel.getStats();
+		final String[] result = Arrays.copyOf(stats, stats.length + timingWheelStats.length);
+		System.arraycopy(timingWheelStats, 0, result, stats.length, timingWheelStats.length);
+		return result;
+	}
+	
+	/**
+	 * @return the amount of tasks waiting in the queue of every pool, by pool name
+	 */
+	public Map<String, Integer> getQueueSizes() {
+		final Map<String, Integer> sizes = new LinkedHashMap<>();
+		sizes.put("EffectsSTPool", _effectsScheduledThreadPool.getQueue().size());
+		sizes.put("GeneralSTPool", _generalScheduledThreadPool.getQueue().size());
+		sizes.put("AISTPool", _aiScheduledThreadPool.getQueue().size());
+		sizes.put("EventSTPool", _eventScheduledThreadPool.getQueue().size());
+		sizes.put("PacketPool", _generalPacketsThreadPool.getQueue().size());
+		sizes.put("IOPacketPool", _ioPacketsThreadPool.getQueue().size());
+		sizes.put("GeneralPool", _generalThreadPool.getQueue().size());
+		sizes.put("EventPool", _eventThreadPool.getQueue().size());
+		sizes.put("WorldFJPool", _worldThreadPool.getQueuedSubmissionCount());
+		return sizes;
 	}
 	
 	private static class PriorityThreadFactory implements ThreadFactory {
@@ -479,6 +593,7 @@ public class ThreadPoolManager {
 	
 	public void shutdown() {
 		_shutdown = true;
+		_timingWheel.shutdown();
 
 		// Правильный порядок: сначала shutdown(), потом awaitTermination.
 		// Прежняя реализация делала awaitTermination ДО shutdown — пулы ещё
@@ -492,6 +607,7 @@ public class ThreadPoolManager {
 		_ioPacketsThreadPool.shutdown();
 		_generalThreadPool.shutdown();
 		_eventThreadPool.shutdown();
+		_worldThreadPool.shutdown();
 
 		try {
 			_effectsScheduledThreadPool.awaitTermination(1, TimeUnit.SECONDS);
@@ -502,6 +618,7 @@ public class ThreadPoolManager {
 			_ioPacketsThreadPool.awaitTermination(1, TimeUnit.SECONDS);
 			_generalThreadPool.awaitTermination(1, TimeUnit.SECONDS);
 			_eventThreadPool.awaitTermination(1, TimeUnit.SECONDS);
+			_worldThreadPool.awaitTermination(1, TimeUnit.SECONDS);
 			LOG.info("All ThreadPools are now stopped");
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
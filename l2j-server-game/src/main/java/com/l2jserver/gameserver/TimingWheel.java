@@ -0,0 +1,383 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed hierarchical timing wheel.<br>
+ * Timers are kept in {@link #LEVELS} wheels of {@link #SLOTS} slots, the first one has a slot per tick and every following one a slot per full turn of the previous one.<br>
+ * When the first wheel completes a turn the current slot of the next wheel is moved down, so a timer is only touched once per level whatever the amount of pending timers.<br>
+ * Scheduling and canceling only queue the timer for the wheel thread, which links and unlinks it in a slot in constant time.<br>
+ * The timers expired on a tick are handed to the executor in batches of {@link #BATCH_SIZE}.
+ */
+final class TimingWheel extends Thread {
+	private static final int SLOT_BITS = 8;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+	private static final int BATCH_SIZE = 64;
+	
+	private static final int WAITING = 0;
+	private static final int RUNNING = 1;
+	private static final int DONE = 2;
+	private static final int CANCELLED = 3;
+	
+	private final long _tickNanos;
+	private final long _startTime = System.nanoTime();
+	private final Executor _executor;
+	/** Heads of the slot lists, by level and slot. */
+	private final Timer[][] _wheels = new Timer[LEVELS][SLOTS];
+	private final Queue<Timer> _pending = new ConcurrentLinkedQueue<>();
+	private final Queue<Timer> _cancelled = new ConcurrentLinkedQueue<>();
+	private long _tick;
+	private volatile boolean _running = true;
+	
+	private final LongAdder _scheduledCount = new LongAdder();
+	private final LongAdder _expiredCount = new LongAdder();
+	private final LongAdder _cancelledCount = new LongAdder();
+	private final LongAdder _batchCount = new LongAdder();
+	private final AtomicInteger _waitingCount = new AtomicInteger();
+	private volatile int _maxExpiredPerTick;
+	private volatile long _maxLateMillis;
+	
+	/**
+	 * @param name the name of the thread
+	 * @param tick the duration of a tick in milliseconds
+	 * @param executor the executor of the expired timers
+	 */
+	TimingWheel(String name, long tick, Executor executor) {
+		super(name);
+		_tickNanos = MILLISECONDS.toNanos(Math.max(tick, 1));
+		_executor = executor;
+		setDaemon(true);
+	}
+	
+	/**
+	 * Schedules a task to run once.
+	 * @param task the task
+	 * @param delay the delay before the run
+	 * @param unit the time unit of the delay parameter
+	 * @return the timer
+	 */
+	ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		// Far enough for any timer while keeping the deadline from overflowing
+		final long delayNanos = Math.min(unit.toNanos(Math.max(delay, 0)), Long.MAX_VALUE >> 2);
+		final Timer timer = new Timer(task, System.nanoTime() + delayNanos);
+		_scheduledCount.increment();
+		_waitingCount.incrementAndGet();
+		_pending.add(timer);
+		return timer;
+	}
+	
+	void shutdown() {
+		_running = false;
+		LockSupport.unpark(this);
+	}
+	
+	@Override
+	public void run() {
+		final List<Timer> expired = new ArrayList<>();
+		while (_running) {
+			final long deadline = _startTime + ((_tick + 1) * _tickNanos);
+			final long wait = deadline - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(this, wait);
+				continue;
+			}
+			
+			_maxLateMillis = Math.max(_maxLateMillis, NANOSECONDS.toMillis(-wait));
+			_tick++;
+			cascade();
+			removeCancelled();
+			addPending(expired);
+			expire(_wheels[0][(int) (_tick & SLOT_MASK)], expired);
+			_wheels[0][(int) (_tick & SLOT_MASK)] = null;
+			dispatch(expired);
+		}
+	}
+	
+	/**
+	 * Moves the timers of the next slot of the upper wheels down when the lower wheel completed a turn.
+	 */
+	private void cascade() {
+		for (int level = 1; level < LEVELS; level++) {
+			if ((_tick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+				return;
+			}
+			
+			final int slot = (int) ((_tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+			Timer timer = _wheels[level][slot];
+			_wheels[level][slot] = null;
+			while (timer != null) {
+				final Timer next = timer._next;
+				timer._prev = null;
+				timer._next = null;
+				place(timer, null);
+				timer = next;
+			}
+		}
+	}
+	
+	private void removeCancelled() {
+		Timer timer;
+		while ((timer = _cancelled.poll()) != null) {
+			if (timer._level >= 0) {
+				unlink(timer);
+			}
+		}
+	}
+	
+	private void addPending(List<Timer> expired) {
+		Timer timer;
+		while ((timer = _pending.poll()) != null) {
+			if (timer._state.get() == WAITING) {
+				place(timer, expired);
+			}
+		}
+	}
+	
+	/**
+	 * Links a timer in the slot of its deadline, or adds it to the expired timers if the deadline is in the current tick.
+	 * @param timer the timer
+	 * @param expired the expired timers, {@code null} while cascading
+	 */
+	private void place(Timer timer, List<Timer> expired) {
+		final long deadlineTick = Math.max((timer._deadline - _startTime + _tickNanos - 1) / _tickNanos, _tick);
+		final long delta = deadlineTick - _tick;
+		if (delta == 0) {
+			if (expired != null) {
+				expire(timer, expired);
+			} else {
+				link(timer, 0, (int) (deadlineTick & SLOT_MASK));
+			}
+			return;
+		}
+		
+		int level = 0;
+		while ((level < (LEVELS - 1)) && (delta >= (1L << (SLOT_BITS * (level + 1))))) {
+			level++;
+		}
+		// Beyond the last wheel the timer goes around it until it is in range
+		final long slotTick = level == (LEVELS - 1) ? Math.min(deadlineTick, _tick + ((1L << (SLOT_BITS * LEVELS)) - 1)) : deadlineTick;
+		link(timer, level, (int) ((slotTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+	}
+	
+	private void link(Timer timer, int level, int slot) {
+		timer._level = level;
+		timer._slot = slot;
+		timer._prev = null;
+		timer._next = _wheels[level][slot];
+		if (timer._next != null) {
+			timer._next._prev = timer;
+		}
+		_wheels[level][slot] = timer;
+	}
+	
+	private void unlink(Timer timer) {
+		if (timer._prev != null) {
+			timer._prev._next = timer._next;
+		} else {
+			_wheels[timer._level][timer._slot] = timer._next;
+		}
+		if (timer._next != null) {
+			timer._next._prev = timer._prev;
+		}
+		timer._prev = null;
+		timer._next = null;
+		timer._level = -1;
+	}
+	
+	private void expire(Timer timer, List<Timer> expired) {
+		while (timer != null) {
+			final Timer next = timer._next;
+			timer._prev = null;
+			timer._next = null;
+			timer._level = -1;
+			if (timer._state.compareAndSet(WAITING, RUNNING)) {
+				_waitingCount.decrementAndGet();
+				expired.add(timer);
+			}
+			timer = next;
+		}
+	}
+	
+	private void dispatch(List<Timer> expired) {
+		if (expired.isEmpty()) {
+			return;
+		}
+		
+		_expiredCount.add(expired.size());
+		_maxExpiredPerTick = Math.max(_maxExpiredPerTick, expired.size());
+		for (int i = 0; i < expired.size(); i += BATCH_SIZE) {
+			final List<Timer> batch = new ArrayList<>(expired.subList(i, Math.min(expired.size(), i + BATCH_SIZE)));
+			_batchCount.increment();
+			try {
+				_executor.execute(() -> batch.forEach(Timer::execute));
+			} catch (RejectedExecutionException e) {
+				/* shutdown, ignore */
+			}
+		}
+		expired.clear();
+	}
+	
+	/**
+	 * @return the amount of timers waiting to expire
+	 */
+	int getWaitingCount() {
+		return _waitingCount.get();
+	}
+	
+	String[] getStats() {
+		return new String[] {
+			"Timing Wheel:",
+			" |- Tick:            " + NANOSECONDS.toMillis(_tickNanos) + "ms",
+			" |- PendingTimers:   " + _waitingCount.get(),
+			" |- ScheduledTimers: " + _scheduledCount.sum(),
+			" |- ExpiredTimers:   " + _expiredCount.sum(),
+			" |- CancelledTimers: " + _cancelledCount.sum(),
+			" |- Batches:         " + _batchCount.sum(),
+			" |- MaxPerTick:      " + _maxExpiredPerTick,
+			" |- MaxLate:         " + _maxLateMillis + "ms",
+			" | -------"
+		};
+	}
+	
+	/**
+	 * A timer of the wheel.<br>
+	 * The links and the position are only used by the wheel thread.
+	 */
+	final class Timer implements ScheduledFuture<Object> {
+		private final Runnable _task;
+		private final AtomicInteger _state = new AtomicInteger(WAITING);
+		private final long _deadline;
+		Timer _prev;
+		Timer _next;
+		int _level = -1;
+		int _slot;
+		
+		Timer(Runnable task, long deadline) {
+			_task = task;
+			_deadline = deadline;
+		}
+		
+		void execute() {
+			try {
+				_task.run();
+			} catch (Throwable e) {
+				final Thread t = Thread.currentThread();
+				final UncaughtExceptionHandler h = t.getUncaughtExceptionHandler();
+				if (h != null) {
+					h.uncaughtException(t, e);
+				}
+			}
+			
+			if (_state.compareAndSet(RUNNING, DONE)) {
+				signal();
+			}
+		}
+		
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			// A running timer can no longer be cancelled
+			if (!_state.compareAndSet(WAITING, CANCELLED)) {
+				return false;
+			}
+			
+			_cancelledCount.increment();
+			_waitingCount.decrementAndGet();
+			_cancelled.add(this);
+			signal();
+			return true;
+		}
+		
+		@Override
+		public boolean isCancelled() {
+			return _state.get() == CANCELLED;
+		}
+		
+		@Override
+		public boolean isDone() {
+			final int state = _state.get();
+			return (state == DONE) || (state == CANCELLED);
+		}
+		
+		@Override
+		public Object get() throws InterruptedException {
+			synchronized (this) {
+				while (!isDone()) {
+					wait();
+				}
+			}
+			if (isCancelled()) {
+				throw new CancellationException();
+			}
+			return null;
+		}
+		
+		@Override
+		public Object get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+			final long end = System.nanoTime() + unit.toNanos(timeout);
+			synchronized (this) {
+				while (!isDone()) {
+					final long remaining = end - System.nanoTime();
+					if (remaining <= 0) {
+						throw new TimeoutException();
+					}
+					NANOSECONDS.timedWait(this, remaining);
+				}
+			}
+			if (isCancelled()) {
+				throw new CancellationException();
+			}
+			return null;
+		}
+		
+		private synchronized void signal() {
+			notifyAll();
+		}
+		
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(_deadline - System.nanoTime(), NANOSECONDS);
+		}
+		
+		@Override
+		public int compareTo(Delayed o) {
+			return Long.compare(getDelay(NANOSECONDS), o.getDelay(NANOSECONDS));
+		}
+	}
+}
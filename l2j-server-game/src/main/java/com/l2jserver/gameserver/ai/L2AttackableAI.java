@@ -66,6 +66,8 @@ import com.l2jserver.gameserver.model.skills.AbnormalVisualEffect;
 import com.l2jserver.gameserver.model.skills.Skill;
 import com.l2jserver.gameserver.model.skills.targets.TargetType;
 import com.l2jserver.gameserver.model.zone.ZoneId;
+import com.l2jserver.gameserver.taskmanager.AiThinkTaskManager;
+import com.l2jserver.gameserver.taskmanager.AiThinkTaskManager.ThinkTask;
 import com.l2jserver.gameserver.util.Util;
 
 /**
@@ -83,7 +85,7 @@ public class L2AttackableAI extends L2CharacterAI {
 	private static final int MAX_ATTACK_TIMEOUT = 120 * TICKS_PER_SECOND;
 	
 	/** The L2Attackable AI task executed every 1s (call onEvtThink method). */
-	private Future<?> _aiTask;
+	private ThinkTask _aiTask;
 	/** The delay after which the attacked is stopped. */
 	private int _attackTimeout;
 	/** The L2Attackable aggro counter. */
@@ -257,15 +259,15 @@ public class L2AttackableAI extends L2CharacterAI {
 	
 	public void startAITask() {
 		// If not idle - create an AI task (schedule onEvtThink repeatedly)
-		if ((_aiTask == null) && (_actor.isInActiveRegion())) {
-			_aiTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this::onEvtThink, 1000, 1000);
+		if (((_aiTask == null) || _aiTask.isCancelled()) && (_actor.isInActiveRegion())) {
+			_aiTask = AiThinkTaskManager.getInstance().schedule(getActor(), this::onEvtThink);
 		}
 	}
 	
 	@Override
 	public void stopAITask() {
 		if (_aiTask != null) {
-			_aiTask.cancel(false);
+			_aiTask.cancel();
 			_aiTask = null;
 		}
 		super.stopAITask();
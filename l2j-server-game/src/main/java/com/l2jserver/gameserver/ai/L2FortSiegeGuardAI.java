@@ -23,12 +23,10 @@ import static com.l2jserver.gameserver.ai.CtrlIntention.AI_INTENTION_ATTACK;
 import static com.l2jserver.gameserver.ai.CtrlIntention.AI_INTENTION_IDLE;
 
 import java.util.Collection;
-import java.util.concurrent.Future;
 
 import com.l2jserver.commons.util.Rnd;
 import com.l2jserver.gameserver.GameTimeController;
 import com.l2jserver.gameserver.GeoData;
-import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.actor.L2Attackable;
 import com.l2jserver.gameserver.model.actor.L2Character;
@@ -42,6 +40,8 @@ import com.l2jserver.gameserver.model.actor.instance.L2NpcInstance;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.effects.L2EffectType;
 import com.l2jserver.gameserver.model.skills.Skill;
+import com.l2jserver.gameserver.taskmanager.AiThinkTaskManager;
+import com.l2jserver.gameserver.taskmanager.AiThinkTaskManager.ThinkTask;
 import com.l2jserver.gameserver.util.Util;
 
 /**
@@ -51,7 +51,7 @@ public class L2FortSiegeGuardAI extends L2CharacterAI implements Runnable {
 	private static final int MAX_ATTACK_TIMEOUT = 30 * GameTimeController.TICKS_PER_SECOND; // 30s converted to ticks
 	
 	/** The L2Attackable AI task executed every 1s (call onEvtThink method) */
-	private Future<?> _aiTask;
+	private ThinkTask _aiTask;
 	
 	/** For attack AI, analysis of mob and its targets */
 	private final SelfAnalysis _selfAnalysis = new SelfAnalysis();
@@ -195,7 +195,7 @@ public class L2FortSiegeGuardAI extends L2CharacterAI implements Runnable {
 				
 				// Stop AI task and detach AI from NPC
 				if (_aiTask != null) {
-					_aiTask.cancel(true);
+					_aiTask.cancel();
 					_aiTask = null;
 				}
 				
@@ -210,8 +210,8 @@ public class L2FortSiegeGuardAI extends L2CharacterAI implements Runnable {
 		super.changeIntention(intention, arg0, arg1);
 		
 		// If not idle - create an AI task (schedule onEvtThink repeatedly)
-		if ((_aiTask == null) && (_actor.isInActiveRegion())) {
-			_aiTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this, 1000, 1000);
+		if (((_aiTask == null) || _aiTask.isCancelled()) && (_actor.isInActiveRegion())) {
+			_aiTask = AiThinkTaskManager.getInstance().schedule((L2Npc) _actor, this);
 		}
 	}
 	
@@ -797,7 +797,7 @@ public class L2FortSiegeGuardAI extends L2CharacterAI implements Runnable {
 	@Override
 	public void stopAITask() {
 		if (_aiTask != null) {
-			_aiTask.cancel(false);
+			_aiTask.cancel();
 			_aiTask = null;
 		}
 		_actor.detachAI();
@@ -21,14 +21,31 @@ package com.l2jserver.gameserver.cache;
 import static com.l2jserver.gameserver.config.Configuration.general;
 import static com.l2jserver.gameserver.config.Configuration.server;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,7 +53,10 @@ import org.slf4j.LoggerFactory;
 import com.l2jserver.gameserver.util.file.filter.HTMLFilter;
 
 /**
- * HTML Cache.
+ * HTML Cache.<br>
+ * The HTML files are kept UTF-8 encoded in a memory mapped {@link HtmlPack}, off the heap, and only the most used ones are kept decoded in a bounded LRU.<br>
+ * Files are keyed by their path relative to the script root or the datapack root, the same path used to request them.<br>
+ * A file watcher reloads the HTML files that change on disk one by one, every new version is appended to the pack, so a full reload is needed from time to time to drop the space of the replaced versions.
  * @author Layane
  * @author Zoey76
  */
@@ -46,101 +66,153 @@ public class HtmCache {
 	
 	private static final HTMLFilter HTML_FILTER = new HTMLFilter();
 	
-	private static final Map<String, String> HTML_CACHE = general().lazyCache() ? new ConcurrentHashMap<>() : new HashMap<>();
+	private static final Pattern COMMENTS = Pattern.compile("(?s)<!--.*?-->");
 	
-	private int _loadedFiles;
+	/** Editors write a file in several steps, the events received within this delay are handled once. */
+	private static final long WATCH_DELAY = 200;
 	
-	private long _bytesBuffLen;
+	private volatile Store _store;
+	
+	private final DecodedCache _decoded;
+	
+	private final LongAdder _hits = new LongAdder();
+	
+	private final LongAdder _misses = new LongAdder();
+	
+	private final LongAdder _refreshed = new LongAdder();
 	
 	protected HtmCache() {
+		_decoded = new DecodedCache(general().getHtmCacheSize());
+		
 		reload();
+		
+		if (general().htmCacheWatch()) {
+			startWatcher();
+		}
 	}
 	
+	/**
+	 * Drops every HTML file and loads them again, unless the cache is lazy.
+	 */
 	public void reload() {
-		reload(server().getDatapackRoot());
-	}
-	
-	public void reload(File f) {
+		final Store old = _store;
+		_store = new Store();
+		_decoded.clear();
+		if (old != null) {
+			old.close();
+		}
+		
 		if (!general().lazyCache()) {
 			LOG.info("Html cache start...");
-			parseDir(f);
+			parse(server().getDatapackRoot());
 			LOG.info(String.format("%.3f", getMemoryUsage()) + " megabytes on " + getLoadedFiles() + " files loaded.");
 		} else {
-			HTML_CACHE.clear();
-			_loadedFiles = 0;
-			_bytesBuffLen = 0;
 			LOG.info("Running lazy cache.");
 		}
 	}
 	
+	/**
+	 * Reloads a HTML file or every HTML file of a directory.<br>
+	 * With the lazy cache the files are dropped instead, they are loaded again when requested.
+	 * @param f the file or directory
+	 */
+	public void reload(File f) {
+		if (!general().lazyCache()) {
+			parse(f);
+			return;
+		}
+		
+		final String key = keyOf(f);
+		final String dirKey = key + "/";
+		_store.removeIf(k -> k.equals(key) || k.startsWith(dirKey));
+		_decoded.removeIf(k -> k.equals(key) || k.startsWith(dirKey));
+	}
+	
 	public void reloadPath(File f) {
-		parseDir(f);
+		parse(f);
 		LOG.info("Reloaded specified path.");
 	}
 	
+	/**
+	 * @return the megabytes of HTML files in the pack
+	 */
 	public double getMemoryUsage() {
-		return ((float) _bytesBuffLen / 1048576);
+		return ((float) _store._bytes.get() / 1048576);
 	}
 	
 	public int getLoadedFiles() {
-		return _loadedFiles;
+		return _store._index.size();
 	}
 	
-	private void parseDir(File dir) {
-		final File[] files = dir.listFiles();
+	private void parse(File file) {
+		if (!file.isDirectory()) {
+			loadFile(file);
+			return;
+		}
+		
+		final File[] files = file.listFiles();
 		if (files != null) {
-			for (File file : files) {
-				if (!file.isDirectory()) {
-					loadFile(file);
-				} else {
-					parseDir(file);
-				}
+			for (File f : files) {
+				parse(f);
 			}
 		}
 	}
 	
 	public String loadFile(File file) {
+		return load(file, keyOf(file));
+	}
+	
+	private String load(File file, String key) {
 		if (!HTML_FILTER.accept(file)) {
 			return null;
 		}
 		
-		String content = null;
-		try (var fis = new FileInputStream(file);
-			var bis = new BufferedInputStream(fis)) {
-			final int bytes = bis.available();
-			byte[] raw = new byte[bytes];
-			
-			bis.read(raw);
-			content = new String(raw, UTF_8);
-			content = content.replaceAll("(?s)<!--.*?-->", ""); // Remove html comments
-			
-			String oldContent = HTML_CACHE.put(file.getCanonicalPath(), content);
-			if (oldContent == null) {
-				_bytesBuffLen += bytes;
-				_loadedFiles++;
-			} else {
-				_bytesBuffLen = (_bytesBuffLen - oldContent.length()) + bytes;
-			}
+		try {
+			final String content = COMMENTS.matcher(new String(Files.readAllBytes(file.toPath()), UTF_8)).replaceAll("");
+			_store.put(key, content.getBytes(UTF_8));
+			_decoded.remove(key);
+			return content;
 		} catch (Exception e) {
 			LOG.warn("Problem with htm file {}!", file, e);
 		}
-		return content;
+		return null;
 	}
 	
 	public String getHtm(String prefix, String path) {
 		final var newPath = Objects.requireNonNullElse(prefix, "") + path;
-		var content = HTML_CACHE.get(newPath);
-		if (general().lazyCache() && (content == null)) {
-			content = loadFile(new File(server().getDatapackRoot(), newPath));
+		var content = _decoded.get(newPath);
+		if (content != null) {
+			_hits.increment();
+			return content;
+		}
+		
+		_misses.increment();
+		final Store store = _store;
+		final long version = store._version.get();
+		content = store.get(newPath);
+		if (content != null) {
+			if (store._version.get() == version) {
+				_decoded.put(newPath, content);
+				// A reload between the check and the put may have missed the decoded copy
+				if ((store._version.get() != version) || (_store != store)) {
+					_decoded.remove(newPath);
+				}
+			}
+			return content;
+		}
+		
+		if (general().lazyCache()) {
+			content = load(new File(server().getDatapackRoot(), newPath), newPath);
 			if (content == null) {
-				content = loadFile(new File(server().getScriptRoot(), newPath));
+				content = load(new File(server().getScriptRoot(), newPath), newPath);
 			}
 			
 			// If multilanguage content is not present, try default location.
 			if ((prefix != null) && (content == null)) {
-				content = loadFile(new File(server().getDatapackRoot(), path));
-				if (content == null) {
-					content = loadFile(new File(server().getScriptRoot(), path));
+				content = getHtm(null, path);
+				if (content != null) {
+					// The prefixed path shares the default entry, so the missing translation is not looked up again
+					store.alias(newPath, path);
 				}
 			}
 		}
@@ -148,7 +220,7 @@ public class HtmCache {
 	}
 	
 	public boolean contains(String path) {
-		return HTML_CACHE.containsKey(path);
+		return _store._index.containsKey(path);
 	}
 	
 	/**
@@ -159,6 +231,296 @@ public class HtmCache {
 		return HTML_FILTER.accept(new File(server().getDatapackRoot(), path));
 	}
 	
+	public String[] getStats() {
+		final long hits = _hits.sum();
+		final long lookups = hits + _misses.sum();
+		final Store store = _store;
+		return new String[] {
+			"Html Cache:",
+			" + Files:            " + store._index.size(),
+			" + Pack:             " + String.format("%.3f", store._bytes.get() / 1048576.0) + " MB live, " + String.format("%.3f", store.size() / 1048576.0) + " MB mapped",
+			" + Decoded:          " + _decoded.size() + "/" + general().getHtmCacheSize(),
+			" |- Hits/Lookups:    " + hits + "/" + lookups + " (" + String.format("%1.1f%%", lookups > 0 ? (hits * 100.0) / lookups : 0) + ")",
+			" + Refreshed files:  " + _refreshed.sum(),
+			" | -------"
+		};
+	}
+	
+	/**
+	 * Gets the key of a file, its path relative to the script root or the datapack root.
+	 * @param file the file
+	 * @return the key
+	 */
+	private static String keyOf(File file) {
+		final Path path = file.toPath().toAbsolutePath().normalize();
+		for (File root : new File[] {
+			server().getScriptRoot(),
+			server().getDatapackRoot()
+		}) {
+			final Path rootPath = root.toPath().toAbsolutePath().normalize();
+			if (path.startsWith(rootPath)) {
+				return rootPath.relativize(path).toString().replace(File.separatorChar, '/');
+			}
+		}
+		return path.toString();
+	}
+	
+	private void startWatcher() {
+		try {
+			final WatchService watcher = FileSystems.getDefault().newWatchService();
+			register(watcher, new File(server().getDatapackRoot(), "data/html").toPath());
+			register(watcher, server().getScriptRoot().toPath());
+			
+			final Thread thread = new Thread(() -> watch(watcher), "HtmCacheWatcher");
+			thread.setDaemon(true);
+			thread.start();
+		} catch (IOException ex) {
+			LOG.warn("Could not start the html file watcher!", ex);
+		}
+	}
+	
+	private static void register(WatchService watcher, Path dir) {
+		if (!Files.isDirectory(dir)) {
+			return;
+		}
+		
+		try (var dirs = Files.walk(dir)) {
+			dirs.filter(Files::isDirectory).forEach(d -> {
+				try {
+					d.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+				} catch (IOException ex) {
+					LOG.warn("Could not watch directory {}!", d, ex);
+				}
+			});
+		} catch (IOException ex) {
+			LOG.warn("Could not watch directory {}!", dir, ex);
+		}
+	}
+	
+	private void watch(WatchService watcher) {
+		while (true) {
+			final Set<Path> changed = new LinkedHashSet<>();
+			try {
+				WatchKey key = watcher.take();
+				do {
+					final Path dir = (Path) key.watchable();
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == OVERFLOW) {
+							LOG.warn("Html file watcher missed some changes, reload the html cache to pick them up.");
+							continue;
+						}
+						
+						final Path path = dir.resolve((Path) event.context());
+						if ((event.kind() == ENTRY_CREATE) && Files.isDirectory(path)) {
+							register(watcher, path);
+							// Files written before the directory was watched
+							try (var files = Files.walk(path)) {
+								files.forEach(changed::add);
+							} catch (IOException ex) {
+								LOG.warn("Could not read directory {}!", path, ex);
+							}
+						} else {
+							changed.add(path);
+						}
+					}
+					key.reset();
+				} while ((key = watcher.poll(WATCH_DELAY, MILLISECONDS)) != null);
+			} catch (InterruptedException | ClosedWatchServiceException ex) {
+				return;
+			}
+			
+			for (Path path : changed) {
+				refresh(path.toFile());
+			}
+		}
+	}
+	
+	/**
+	 * Picks up the change of a single file, loaded files are reloaded and deleted files are dropped.
+	 * @param file the changed file
+	 */
+	private void refresh(File file) {
+		final String name = file.getName().toLowerCase();
+		if (!name.endsWith(".htm") && !name.endsWith(".html")) {
+			return;
+		}
+		
+		final String key = keyOf(file);
+		if (!file.isFile()) {
+			_store.removeIf(key::equals);
+			_decoded.remove(key);
+		} else if (!general().lazyCache() || _store._index.containsKey(key)) {
+			load(file, key);
+		} else {
+			return;
+		}
+		_refreshed.increment();
+		LOG.debug("Refreshed html file {}.", key);
+	}
+	
+	/**
+	 * Pack and index of the HTML files, replaced as a whole on reload.<br>
+	 * If the pack file cannot be created the encoded files are kept on the heap.
+	 */
+	private static final class Store {
+		final Map<String, Entry> _index = new ConcurrentHashMap<>();
+		final AtomicLong _bytes = new AtomicLong();
+		/** Increased every time a file is replaced or dropped, before its decoded copy is dropped. */
+		final AtomicLong _version = new AtomicLong();
+		final HtmlPack _pack;
+		
+		Store() {
+			HtmlPack pack = null;
+			try {
+				final Path file = Files.createTempFile("l2j-html", ".pack");
+				file.toFile().deleteOnExit();
+				pack = new HtmlPack(file);
+			} catch (IOException ex) {
+				LOG.error("Could not create the html pack file, html files are kept on the heap!", ex);
+			}
+			_pack = pack;
+		}
+		
+		void put(String key, byte[] data) throws IOException {
+			final Entry entry = _pack != null ? new Entry(_pack.append(data), data.length, null, false) : new Entry(0, data.length, data, false);
+			_bytes.addAndGet(data.length);
+			released(_index.put(key, entry));
+			_version.incrementAndGet();
+		}
+		
+		void alias(String key, String target) {
+			final Entry entry = _index.get(target);
+			if (entry != null) {
+				_index.putIfAbsent(key, new Entry(entry.offset(), entry.length(), entry.data(), true));
+			}
+		}
+		
+		void removeIf(Predicate<String> filter) {
+			for (String key : _index.keySet()) {
+				if (filter.test(key)) {
+					released(_index.remove(key));
+					_version.incrementAndGet();
+				}
+			}
+		}
+		
+		private void released(Entry entry) {
+			if ((entry != null) && !entry.alias()) {
+				_bytes.addAndGet(-entry.length());
+			}
+		}
+		
+		String get(String key) {
+			final Entry entry = _index.get(key);
+			if (entry == null) {
+				return null;
+			}
+			return new String(entry.data() != null ? entry.data() : _pack.read(entry.offset(), entry.length()), UTF_8);
+		}
+		
+		long size() {
+			return _pack != null ? _pack.size() : _bytes.get();
+		}
+		
+		void close() {
+			if (_pack != null) {
+				try {
+					_pack.close();
+				} catch (IOException ex) {
+					LOG.warn("Could not delete the html pack file!", ex);
+				}
+			}
+		}
+	}
+	
+	private record Entry(long offset, int length, byte[] data, boolean alias) {
+	}
+	
+	/**
+	 * Bounded LRU of the decoded HTML files, split in segments locked independently so concurrent lookups of different files do not wait for each other.<br>
+	 * Each segment drops its least recently used file, so the files dropped are only approximately the least recently used ones of the whole cache.
+	 */
+	private static final class DecodedCache {
+		private static final int SEGMENTS = 16;
+		
+		private final Segment[] _segments = new Segment[SEGMENTS];
+		
+		DecodedCache(int capacity) {
+			final int segmentCapacity = Math.max((capacity + SEGMENTS - 1) / SEGMENTS, 1);
+			for (int i = 0; i < SEGMENTS; i++) {
+				_segments[i] = new Segment(segmentCapacity);
+			}
+		}
+		
+		private Segment segmentFor(String key) {
+			final int h = key.hashCode();
+			return _segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+		}
+		
+		String get(String key) {
+			final Segment segment = segmentFor(key);
+			synchronized (segment) {
+				return segment.get(key);
+			}
+		}
+		
+		void put(String key, String content) {
+			final Segment segment = segmentFor(key);
+			synchronized (segment) {
+				segment.put(key, content);
+			}
+		}
+		
+		void remove(String key) {
+			final Segment segment = segmentFor(key);
+			synchronized (segment) {
+				segment.remove(key);
+			}
+		}
+		
+		void removeIf(Predicate<String> filter) {
+			for (Segment segment : _segments) {
+				synchronized (segment) {
+					segment.keySet().removeIf(filter);
+				}
+			}
+		}
+		
+		void clear() {
+			for (Segment segment : _segments) {
+				synchronized (segment) {
+					segment.clear();
+				}
+			}
+		}
+		
+		int size() {
+			int size = 0;
+			for (Segment segment : _segments) {
+				synchronized (segment) {
+					size += segment.size();
+				}
+			}
+			return size;
+		}
+		
+		private static final class Segment extends LinkedHashMap<String, String> {
+			private static final long serialVersionUID = 1L;
+			
+			private final int _capacity;
+			
+			Segment(int capacity) {
+				super(16, 0.75f, true);
+				_capacity = capacity;
+			}
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > _capacity;
+			}
+		}
+	}
+	
 	public static HtmCache getInstance() {
 		return SingletonHolder.INSTANCE;
 	}
@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.cache;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Append-only pack of encoded HTML files.<br>
+ * The data lives in a file mapped in chunks, so it is kept off the heap and paged in by the operating system when read.<br>
+ * Entries never span two chunks, readers only need the offset and the length returned by {@link #append(byte[])}.
+ */
+final class HtmlPack implements Closeable {
+	private static final int CHUNK_SIZE = 16 * 1024 * 1024;
+	
+	private final Path _file;
+	private final FileChannel _channel;
+	private volatile MappedByteBuffer[] _chunks = new MappedByteBuffer[0];
+	private long _size;
+	
+	/**
+	 * @param file the pack file, it is truncated
+	 * @throws IOException if the file cannot be opened
+	 */
+	HtmlPack(Path file) throws IOException {
+		_file = file;
+		_channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+	}
+	
+	/**
+	 * @param data the encoded file
+	 * @return the offset of the data in the pack
+	 * @throws IOException if the data does not fit in a chunk or the pack cannot grow
+	 */
+	synchronized long append(byte[] data) throws IOException {
+		if (data.length > CHUNK_SIZE) {
+			throw new IOException("Html file of " + data.length + " bytes is too large!");
+		}
+		
+		int chunk = (int) (_size / CHUNK_SIZE);
+		int position = (int) (_size % CHUNK_SIZE);
+		if ((position + data.length) > CHUNK_SIZE) {
+			chunk++;
+			position = 0;
+		}
+		
+		MappedByteBuffer[] chunks = _chunks;
+		if (chunk >= chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunk + 1);
+			chunks[chunk] = _channel.map(MapMode.READ_WRITE, (long) chunk * CHUNK_SIZE, CHUNK_SIZE);
+			_chunks = chunks;
+		}
+		
+		chunks[chunk].put(position, data);
+		final long offset = ((long) chunk * CHUNK_SIZE) + position;
+		_size = offset + data.length;
+		return offset;
+	}
+	
+	/**
+	 * @param offset the offset returned by {@link #append(byte[])}
+	 * @param length the length of the data
+	 * @return a copy of the data
+	 */
+	byte[] read(long offset, int length) {
+		final byte[] data = new byte[length];
+		_chunks[(int) (offset / CHUNK_SIZE)].get((int) (offset % CHUNK_SIZE), data);
+		return data;
+	}
+	
+	/**
+	 * @return the amount of bytes used in the pack, including the chunk ends left empty
+	 */
+	synchronized long size() {
+		return _size;
+	}
+	
+	/**
+	 * Closes and deletes the pack file, the mappings stay readable until they are collected.
+	 */
+	@Override
+	public void close() throws IOException {
+		_channel.close();
+		Files.deleteIfExists(_file);
+	}
+}
@@ -170,6 +170,18 @@ public interface GeneralConfiguration extends Mutable, Reloadable {
 	@Key("EventsMaxThread")
 	int getEventsMaxThread();
 	
+	@Key("WorldThreadPoolSize")
+	int getWorldThreadPoolSize();
+	
+	@Key("TimingWheelTick")
+	long getTimingWheelTick();
+	
+	@Key("AiThinkBudget")
+	long getAiThinkBudget();
+	
+	@Key("WorldShardWidth")
+	int getWorldShardWidth();
+	
 	@Key("DeadLockDetector")
 	boolean deadLockDetector();
 	
@@ -237,6 +249,27 @@ public interface GeneralConfiguration extends Mutable, Reloadable {
 	@Key("UpdateItemsOnCharStore")
 	boolean updateItemsOnCharStore();
 	
+	@Key("ItemWriteBehind")
+	boolean itemWriteBehind();
+	
+	@Key("ItemWriteBehindInterval")
+	long getItemWriteBehindInterval();
+	
+	@Key("ItemWriteBehindBatchSize")
+	int getItemWriteBehindBatchSize();
+	
+	@Key("CharacterWriteBehind")
+	boolean characterWriteBehind();
+	
+	@Key("CharacterWriteBehindInterval")
+	long getCharacterWriteBehindInterval();
+	
+	@Key("CharacterWriteBehindBatchSize")
+	int getCharacterWriteBehindBatchSize();
+	
+	@Key("CharacterWriteBehindShutdownThreads")
+	int getCharacterWriteBehindShutdownThreads();
+	
 	@Key("DestroyPlayerDroppedItem")
 	boolean destroyPlayerDroppedItem();
 	
@@ -277,6 +310,12 @@ public interface GeneralConfiguration extends Mutable, Reloadable {
 	@Key("LazyCache")
 	boolean lazyCache();
 	
+	@Key("HtmCacheSize")
+	int getHtmCacheSize();
+	
+	@Key("HtmCacheWatch")
+	boolean htmCacheWatch();
+	
 	@Key("CacheCharNames")
 	boolean cacheCharNames();
 	
@@ -298,9 +337,30 @@ public interface GeneralConfiguration extends Mutable, Reloadable {
 	@Key("KnownListUpdateInterval")
 	long getKnownListUpdateInterval();
 	
+	@Key("IncrementalKnownList")
+	boolean incrementalKnownList();
+	
+	@Key("KnownListDirtyDistance")
+	int getKnownListDirtyDistance();
+	
 	@Key("CheckKnownList")
 	boolean checkKnownList();
 	
+	@Key("CoalesceBroadcasts")
+	boolean coalesceBroadcasts();
+	
+	@Key("CoalescePlayerInfo")
+	boolean coalescePlayerInfo();
+	
+	@Key("BatchedMovement")
+	boolean batchedMovement();
+	
+	@Key("BatchedMovementDistance")
+	int getBatchedMovementDistance();
+	
+	@Key("BatchedMovementParallel")
+	boolean batchedMovementParallel();
+	
 	@Key("GridsAlwaysOn")
 	boolean gridsAlwaysOn();
 	
@@ -629,6 +689,24 @@ public interface GeneralConfiguration extends Mutable, Reloadable {
 	@Key("PacketHandlerDebug")
 	boolean packetHandlerDebug();
 	
+	@Key("PacketMetrics")
+	boolean packetMetrics();
+	
+	@Key("GameMetrics")
+	boolean gameMetrics();
+	
+	@Key("GameMetricsDatabaseProbeInterval")
+	long getGameMetricsDatabaseProbeInterval();
+	
+	@Key("MetricsServer")
+	boolean metricsServer();
+	
+	@Key("MetricsServerHost")
+	String getMetricsServerHost();
+	
+	@Key("MetricsServerPort")
+	int getMetricsServerPort();
+	
 	@Key("Developer")
 	boolean developer();
 	
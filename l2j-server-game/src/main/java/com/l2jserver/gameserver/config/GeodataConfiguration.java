@@ -63,6 +63,15 @@ public interface GeodataConfiguration extends Mutable, Reloadable {
 	@Key("PathFindBuffers")
 	String getPathFindBuffers();
 	
+	@Key("HierarchicalPathFindDistance")
+	int getHierarchicalPathFindDistance();
+	
+	@Key("PathFindCacheSize")
+	int getPathFindCacheSize();
+	
+	@Key("PathFindCacheTime")
+	long getPathFindCacheTime();
+	
 	@Key("LowWeight")
 	float getLowWeight();
 	
@@ -90,6 +99,9 @@ public interface GeodataConfiguration extends Mutable, Reloadable {
 	@Key("CoordSynchronize")
 	int getCoordSynchronize();
 	
+	@Key("GeoDataCacheSize")
+	int getGeoDataCacheSize();
+	
 	@Key("GeoDataPath")
 	File getGeoDataPath();
 	
@@ -93,6 +93,24 @@ public interface ServerConfiguration extends Mutable, Reloadable {
 	@Key("BadIdChecking")
 	boolean badIdChecking();
 	
+	@Key("StartupThreads")
+	int getStartupThreads();
+	
+	@Key("StartupFailFast")
+	boolean startupFailFast();
+	
+	@Key("CompiledDataCache")
+	boolean compiledDataCache();
+	
+	@Key("CompiledDataCacheDirectory")
+	File getCompiledDataCacheDirectory();
+	
+	@Key("ScriptCache")
+	boolean scriptCache();
+	
+	@Key("ScriptCompileThreads")
+	int getScriptCompileThreads();
+	
 	@Key("L2J_HOME")
 	String getL2jHome();
 }
\ No newline at end of file
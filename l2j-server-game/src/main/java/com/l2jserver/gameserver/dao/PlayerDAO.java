@@ -18,6 +18,9 @@
  */
 package com.l2jserver.gameserver.dao;
 
+import java.sql.SQLException;
+import java.util.List;
+
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 
 /**
@@ -27,6 +30,20 @@ import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 public interface PlayerDAO {
 	void storeCharBase(L2PcInstance player);
 	
+	/**
+	 * Captures the base data of a player, so it can be stored later from another thread.
+	 * @param player the player
+	 * @return the captured values, in the order of the statement used by {@link #storeCharBase(List)}
+	 */
+	Object[] captureCharBase(L2PcInstance player);
+	
+	/**
+	 * Stores the captured base data of several players in a single batch.
+	 * @param bases the captured base data
+	 * @throws SQLException if the batch could not be stored, nothing is stored then
+	 */
+	void storeCharBase(List<Object[]> bases) throws SQLException;
+	
 	/**
 	 * Create a new player in the characters table of the database.
 	 * @param player the player
@@ -20,7 +20,9 @@ package com.l2jserver.gameserver.dao.impl.mysql;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -330,6 +332,93 @@ public class PlayerDAOMySQLImpl implements PlayerDAO {
 		}
 	}
 	
+	@Override
+	public Object[] captureCharBase(L2PcInstance player) {
+		long totalOnlineTime = player.getOnlineTime();
+		if (player.getOnlineBeginTime() > 0) {
+			totalOnlineTime += MILLISECONDS.toSeconds(System.currentTimeMillis() - player.getOnlineBeginTime());
+		}
+		
+		return new Object[] {
+			player.getBaseLevel(),
+			player.getMaxHp(),
+			player.getCurrentHp(),
+			player.getMaxCp(),
+			player.getCurrentCp(),
+			player.getMaxMp(),
+			player.getCurrentMp(),
+			player.getAppearance().getFace(),
+			player.getAppearance().getHairStyle(),
+			player.getAppearance().getHairColor(),
+			player.getAppearance().getSex() ? 1 : 0,
+			player.getHeading(),
+			player.inObserverMode() ? player.getLastLocation().getX() : player.getX(),
+			player.inObserverMode() ? player.getLastLocation().getY() : player.getY(),
+			player.inObserverMode() ? player.getLastLocation().getZ() : player.getZ(),
+			player.getBaseExp(),
+			player.getExpBeforeDeath(),
+			player.getBaseSp(),
+			player.getKarma(),
+			player.getFame(),
+			player.getPvpKills(),
+			player.getPkKills(),
+			player.getClanId(),
+			player.getRace().ordinal(),
+			player.getClassId().getId(),
+			player.getDeleteTimer(),
+			player.getTitle(),
+			player.getAppearance().getTitleColor(),
+			player.getAccessLevel().getLevel(),
+			player.isOnlineInt(),
+			player.isIn7sDungeon() ? 1 : 0,
+			player.getClanPrivileges().getBitmask(),
+			player.getWantsPeace(),
+			player.getBaseClass(),
+			totalOnlineTime,
+			player.getNewbie(),
+			player.isNoble() ? 1 : 0,
+			player.getPowerGrade(),
+			player.getPledgeType(),
+			player.getLvlJoinedAcademy(),
+			player.getApprentice(),
+			player.getSponsor(),
+			player.getClanJoinExpiryTime(),
+			player.getClanCreateExpiryTime(),
+			player.getName(),
+			player.getDeathPenaltyBuffLevel(),
+			player.getBookMarkSlot(),
+			player.getVitalityPoints(),
+			player.getHuntingSystem().getHuntingBonusTime(),
+			player.getHuntingSystem().getNevitBlessingPoints(),
+			player.getHuntingSystem().getNevitBlessingTime(),
+			player.getLang(),
+			player.getObjectId()
+		};
+	}
+	
+	@Override
+	public void storeCharBase(List<Object[]> bases) throws SQLException {
+		try (var con = ConnectionFactory.getInstance().getConnection();
+			var ps = con.prepareStatement(UPDATE)) {
+			con.setAutoCommit(false);
+			try {
+				for (Object[] base : bases) {
+					for (int i = 0; i < base.length; i++) {
+						ps.setObject(i + 1, base[i]);
+					}
+					ps.addBatch();
+				}
+				ps.executeBatch();
+				con.commit();
+			} catch (SQLException ex) {
+				con.rollback();
+				throw ex;
+			} finally {
+				con.setAutoCommit(true);
+			}
+		}
+	}
+	
 	@Override
 	public void updateOnlineStatus(L2PcInstance player) {
 		try (var con = ConnectionFactory.getInstance().getConnection();
@@ -50,6 +50,7 @@ import com.l2jserver.gameserver.model.effects.L2EffectType;
 import com.l2jserver.gameserver.model.holders.MinionHolder;
 import com.l2jserver.gameserver.model.holders.SkillHolder;
 import com.l2jserver.gameserver.model.skills.Skill;
+import com.l2jserver.gameserver.util.DocumentSnapshot;
 import com.l2jserver.gameserver.util.IXmlReader;
 import com.l2jserver.gameserver.util.Util;
 
@@ -67,6 +68,8 @@ public class NpcData implements IXmlReader {
 	
 	private MinionData _minionData;
 	
+	private DocumentSnapshot _snapshot;
+	
 	protected NpcData() {
 		load();
 	}
@@ -74,6 +77,7 @@ public class NpcData implements IXmlReader {
 	@Override
 	public synchronized void load() {
 		_minionData = new MinionData();
+		_snapshot = DocumentSnapshot.open("npcs");
 		
 		parseDatapackDirectory("data/stats/npcs", false);
 		LOG.info("Loaded {} NPCs.", _npcs.size());
@@ -84,9 +88,16 @@ public class NpcData implements IXmlReader {
 			LOG.info("Loaded {} custom NPCs.", (_npcs.size() - npcCount));
 		}
 		
+		_snapshot.save();
+		_snapshot = null;
 		_minionData = null;
 	}
 	
+	@Override
+	public DocumentSnapshot getDocumentSnapshot() {
+		return _snapshot;
+	}
+	
 	@Override
 	public void parseDocument(Document doc, File f) {
 		for (Node node = doc.getFirstChild(); node != null; node = node.getNextSibling()) {
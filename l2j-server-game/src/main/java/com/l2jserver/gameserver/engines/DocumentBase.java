@@ -140,6 +140,7 @@ import com.l2jserver.gameserver.model.skills.EffectScope;
 import com.l2jserver.gameserver.model.skills.Skill;
 import com.l2jserver.gameserver.model.stats.Stats;
 import com.l2jserver.gameserver.model.stats.functions.FuncTemplate;
+import com.l2jserver.gameserver.util.DocumentSnapshot;
 
 /**
  * Document Base.
@@ -158,12 +159,18 @@ public abstract class DocumentBase {
 	}
 	
 	public Document parse() {
+		return parse(null);
+	}
+	
+	/**
+	 * Parses the file, reading the document through a snapshot.
+	 * @param snapshot the snapshot, {@code null} to parse the file
+	 * @return the document
+	 */
+	public Document parse(DocumentSnapshot snapshot) {
 		Document doc = null;
 		try {
-			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			factory.setValidating(false);
-			factory.setIgnoringComments(true);
-			doc = factory.newDocumentBuilder().parse(_file);
+			doc = snapshot != null ? snapshot.getDocument(_file, DocumentBase::readDocument) : readDocument(_file);
 			parseDocument(doc);
 		} catch (Exception ex) {
 			LOG.error("Error loading file {}!", _file, ex);
@@ -171,6 +178,13 @@ public abstract class DocumentBase {
 		return doc;
 	}
 	
+	private static Document readDocument(File file) throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setValidating(false);
+		factory.setIgnoringComments(true);
+		return factory.newDocumentBuilder().parse(file);
+	}
+	
 	protected abstract void parseDocument(Document doc);
 	
 	protected abstract StatsSet getStatsSet();
@@ -38,6 +38,7 @@ import com.l2jserver.gameserver.engines.items.DocumentItem;
 import com.l2jserver.gameserver.engines.skills.DocumentSkill;
 import com.l2jserver.gameserver.model.items.L2Item;
 import com.l2jserver.gameserver.model.skills.Skill;
+import com.l2jserver.gameserver.util.DocumentSnapshot;
 import com.l2jserver.gameserver.util.file.filter.XMLFilter;
 
 /**
@@ -80,22 +81,25 @@ public class DocumentEngine {
 		}
 	}
 	
-	private List<Skill> loadSkills(File file) {
+	private List<Skill> loadSkills(File file, DocumentSnapshot snapshot) {
 		if (file == null) {
 			LOG.warn("Skill file not found!");
 			return null;
 		}
 		DocumentSkill doc = new DocumentSkill(file);
-		doc.parse();
+		doc.parse(snapshot);
 		return doc.getSkills();
 	}
 	
 	public Map<Integer, Skill> loadAllSkills() {
-		return _skillFiles.parallelStream()
-			.map(this::loadSkills)
+		final var snapshot = DocumentSnapshot.open("skills");
+		final Map<Integer, Skill> skills = _skillFiles.parallelStream()
+			.map(file -> loadSkills(file, snapshot))
 			.filter(Objects::nonNull)
 			.flatMap(List::stream)
 			.collect(Collectors.toConcurrentMap(SkillData::getSkillHashCode, Function.identity()));
+		snapshot.save();
+		return skills;
 	}
 	
 	/**
@@ -103,15 +107,18 @@ public class DocumentEngine {
 	 * @return List of {@link L2Item}
 	 */
 	public List<L2Item> loadItems() {
-		return _itemFiles.parallelStream()
+		final var snapshot = DocumentSnapshot.open("items");
+		final List<L2Item> items = _itemFiles.parallelStream()
 			.filter(Objects::nonNull)
 			.map(DocumentItem::new)
 			.map(doc -> {
-				doc.parse();
+				doc.parse(snapshot);
 				return doc.getItemList();
 			})
 			.flatMap(List::stream)
 			.toList();
+		snapshot.save();
+		return items;
 	}
 	
 	private static class SingletonHolder {
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.idfactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.l2jserver.gameserver.ThreadPoolManager;
+
+/**
+ * Block ID Factory.<br>
+ * Hands out IDs from per-thread blocks of a lock-free {@link IdBitmap}, so concurrent spawns, drops and crafts do not contend on a monitor.<br>
+ * Released IDs are recycled by a background task that moves the allocation back to the lowest released IDs.
+ */
+public class BlockIDFactory extends IdFactory {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(BlockIDFactory.class);
+	
+	private static final long COMPACTION_INTERVAL = 30000;
+	
+	private final IdBitmap _ids = new IdBitmap(FIRST_OID, FREE_OBJECT_ID_SIZE);
+	
+	protected BlockIDFactory() {
+		try {
+			for (int usedObjectId : extractUsedObjectIDTable()) {
+				if (!_ids.setUsed(usedObjectId)) {
+					LOG.warn("Object Id {} in DB is less than minimum ID of {}!", usedObjectId, FIRST_OID);
+				}
+			}
+			_initialized = true;
+		} catch (Exception ex) {
+			LOG.error("Could not be initialized properly!", ex);
+		}
+		
+		ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(_ids::compact, COMPACTION_INTERVAL, COMPACTION_INTERVAL);
+		LOG.info("{} Ids available.", _ids.size());
+	}
+	
+	@Override
+	public int getNextId() {
+		return _ids.next();
+	}
+	
+	@Override
+	public void releaseId(int objectId) {
+		if (!_ids.release(objectId)) {
+			LOG.warn("Release objectID {} failed, it is out of range or not in use.", objectId);
+		}
+	}
+	
+	@Override
+	public int size() {
+		return _ids.size();
+	}
+}
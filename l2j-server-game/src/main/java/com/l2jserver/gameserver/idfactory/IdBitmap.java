@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.idfactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free bitmap of used IDs.<br>
+ * Threads never take IDs one by one from the bitmap: each thread claims a whole word of 64 bits with a single compare and set and hands out its free bits without touching shared state, so concurrent allocations rarely meet.<br>
+ * Released IDs are cleared right away, {@link #compact()} moves the claim cursor back to the lowest released word so they are handed out again before any new ID.<br>
+ * The bitmap is split in segments created on first use, so the memory follows the highest ID in use instead of the whole ID range.<br>
+ * IDs claimed by a thread stay reserved for it until handed out, at most 63 per thread.
+ */
+public final class IdBitmap {
+	private static final int SEGMENT_SHIFT = 10;
+	private static final int SEGMENT_WORDS = 1 << SEGMENT_SHIFT;
+	private static final int SEGMENT_MASK = SEGMENT_WORDS - 1;
+	
+	private final int _firstId;
+	private final int _capacity;
+	private final int _words;
+	private final AtomicReferenceArray<AtomicLongArray> _segments;
+	private final AtomicInteger _cursor = new AtomicInteger();
+	private final AtomicInteger _lowestReleased = new AtomicInteger(Integer.MAX_VALUE);
+	private final ThreadLocal<Block> _blocks = ThreadLocal.withInitial(Block::new);
+	
+	private final LongAdder _used = new LongAdder();
+	private final LongAdder _claims = new LongAdder();
+	private final LongAdder _recycled = new LongAdder();
+	
+	/**
+	 * @param firstId the first ID
+	 * @param capacity the amount of IDs
+	 */
+	public IdBitmap(int firstId, int capacity) {
+		_firstId = firstId;
+		_capacity = capacity;
+		_words = (int) ((capacity + 63L) >>> 6);
+		_segments = new AtomicReferenceArray<>((_words + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+	}
+	
+	/**
+	 * Marks an ID as used, only meant to be called while loading the IDs in use.
+	 * @param id the ID
+	 * @return {@code false} if the ID is out of range
+	 */
+	public boolean setUsed(int id) {
+		final int index = id - _firstId;
+		if ((index < 0) || (index >= _capacity)) {
+			return false;
+		}
+		
+		final long mask = 1L << index;
+		if ((segment(index >>> 6 >>> SEGMENT_SHIFT).getAndAccumulate((index >>> 6) & SEGMENT_MASK, mask, (a, b) -> a | b) & mask) == 0) {
+			_used.increment();
+		}
+		return true;
+	}
+	
+	/**
+	 * Gets a free ID from the block of the calling thread, a new block is claimed when it is empty.
+	 * @return the ID
+	 * @throws IllegalStateException if every ID is in use
+	 */
+	public int next() {
+		final Block block = _blocks.get();
+		if (block._bits == 0) {
+			claim(block);
+		}
+		
+		final long bit = Long.lowestOneBit(block._bits);
+		block._bits ^= bit;
+		_used.increment();
+		return _firstId + (block._word << 6) + Long.numberOfTrailingZeros(bit);
+	}
+	
+	/**
+	 * Releases an ID so it can be handed out again.
+	 * @param id the ID
+	 * @return {@code false} if the ID is out of range or was not in use
+	 */
+	public boolean release(int id) {
+		final int index = id - _firstId;
+		if ((index < 0) || (index >= _capacity)) {
+			return false;
+		}
+		
+		final int word = index >>> 6;
+		final long mask = 1L << index;
+		if ((segment(word >>> SEGMENT_SHIFT).getAndAccumulate(word & SEGMENT_MASK, ~mask, (a, b) -> a & b) & mask) == 0) {
+			return false;
+		}
+		
+		_used.decrement();
+		// Most releases are above the lowest one, so they do not write the shared field
+		if (word < _lowestReleased.get()) {
+			_lowestReleased.accumulateAndGet(word, Math::min);
+		}
+		return true;
+	}
+	
+	/**
+	 * Moves the claim cursor back to the lowest word with released IDs, so the next blocks recycle them and the IDs in use stay packed at the start of the range.
+	 */
+	public void compact() {
+		final int lowest = _lowestReleased.getAndSet(Integer.MAX_VALUE);
+		if ((lowest != Integer.MAX_VALUE) && (lowest < _cursor.getAndAccumulate(lowest, Math::min))) {
+			_recycled.increment();
+		}
+	}
+	
+	/**
+	 * @return the amount of IDs not handed out, including the ones reserved in the blocks of the threads
+	 */
+	public int size() {
+		return (int) (_capacity - _used.sum());
+	}
+	
+	/**
+	 * @return the amount of blocks claimed
+	 */
+	public long getClaims() {
+		return _claims.sum();
+	}
+	
+	/**
+	 * @return the amount of times the cursor was moved back to released IDs
+	 */
+	public long getRecycled() {
+		return _recycled.sum();
+	}
+	
+	/**
+	 * Claims every free bit of the first word with free bits from the cursor, wrapping around once at the end of the range.
+	 * @param block the block of the calling thread
+	 */
+	private void claim(Block block) {
+		int scanned = 0;
+		while (scanned <= _words) {
+			final int word = _cursor.get();
+			if (word >= _words) {
+				_cursor.compareAndSet(word, 0);
+				continue;
+			}
+			
+			final AtomicLongArray segment = segment(word >>> SEGMENT_SHIFT);
+			final long value = segment.get(word & SEGMENT_MASK);
+			if (value == -1L) {
+				_cursor.compareAndSet(word, word + 1);
+				scanned++;
+			} else if (segment.compareAndSet(word & SEGMENT_MASK, value, -1L)) {
+				_cursor.compareAndSet(word, word + 1);
+				block._word = word;
+				block._bits = ~value;
+				_claims.increment();
+				return;
+			}
+		}
+		throw new IllegalStateException("Ran out of valid object IDs (max = " + _capacity + ").");
+	}
+	
+	private AtomicLongArray segment(int index) {
+		final AtomicLongArray segment = _segments.get(index);
+		if (segment != null) {
+			return segment;
+		}
+		
+		final AtomicLongArray created = new AtomicLongArray(SEGMENT_WORDS);
+		// The bits past the capacity are marked used, so they are never claimed
+		for (int i = 0; i < SEGMENT_WORDS; i++) {
+			final long first = ((long) ((index << SEGMENT_SHIFT) + i)) << 6;
+			if ((first + 64) > _capacity) {
+				created.set(i, first >= _capacity ? -1L : -1L << (_capacity - first));
+			}
+		}
+		return _segments.compareAndSet(index, null, created) ? created : _segments.get(index);
+	}
+	
+	private static final class Block {
+		int _word;
+		long _bits;
+	}
+}
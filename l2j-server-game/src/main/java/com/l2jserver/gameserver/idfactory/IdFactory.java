@@ -146,6 +146,7 @@ public abstract class IdFactory {
 		switch (server().getIdFactory()) {
 			case BitSet -> _instance = new BitSetIDFactory();
 			case Stack -> _instance = new StackIDFactory();
+			case Block -> _instance = new BlockIDFactory();
 			case Compaction -> throw new UnsupportedOperationException("Compaction IdFactory is disabled.");
 		}
 	}
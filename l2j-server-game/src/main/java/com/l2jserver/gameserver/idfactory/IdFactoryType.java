@@ -26,5 +26,6 @@ package com.l2jserver.gameserver.idfactory;
 public enum IdFactoryType {
 	Compaction,
 	BitSet,
-	Stack
+	Stack,
+	Block
 }
\ No newline at end of file
@@ -35,6 +35,7 @@ import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.entity.Castle;
 import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
 
 public final class CastleManager implements InstanceListManager {
 	
@@ -218,6 +219,7 @@ public final class CastleManager implements InstanceListManager {
 				}
 			}
 			// else offline-player circlet removal
+			ItemPersistenceTaskManager.flushIfEnabled(member.getObjectId());
 			try (var con = ConnectionFactory.getInstance().getConnection();
 				var ps = con.prepareStatement("DELETE FROM items WHERE owner_id = ? and item_id = ?")) {
 				ps.setInt(1, member.getObjectId());
@@ -50,6 +50,7 @@ import com.l2jserver.gameserver.model.actor.instance.L2RiftInvaderInstance;
 import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
 import com.l2jserver.gameserver.network.SystemMessageId;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 
 /**
@@ -190,6 +191,7 @@ public final class CursedWeaponsManager {
 						LOG.warn("Player {} owns the cursed weapon {} but he shouldn't!", playerId, itemId);
 						
 						// Delete the item
+						ItemPersistenceTaskManager.flushIfEnabled(playerId);
 						try (var delete = con.prepareStatement("DELETE FROM items WHERE owner_id=? AND item_id=?")) {
 							delete.setInt(1, playerId);
 							delete.setInt(2, itemId);
@@ -90,7 +90,7 @@ public final class ZoneManager implements IXmlReader {
 		// Clear zones
 		for (L2WorldRegion[] worldRegion : worldRegions) {
 			for (L2WorldRegion element : worldRegion) {
-				element.getZones().clear();
+				element.clearZones();
 				count++;
 			}
 		}
@@ -454,7 +454,7 @@ public final class ZoneManager implements IXmlReader {
 	public List<L2ZoneType> getZones(int x, int y) {
 		final L2WorldRegion region = L2World.getInstance().getRegion(x, y);
 		final List<L2ZoneType> temp = new ArrayList<>();
-		for (L2ZoneType zone : region.getZones()) {
+		for (L2ZoneType zone : region.getZoneCandidates(x, y)) {
 			if (zone.isInsideZone(x, y)) {
 				temp.add(zone);
 			}
@@ -472,7 +472,7 @@ public final class ZoneManager implements IXmlReader {
 	public List<L2ZoneType> getZones(int x, int y, int z) {
 		final L2WorldRegion region = L2World.getInstance().getRegion(x, y);
 		final List<L2ZoneType> temp = new ArrayList<>();
-		for (L2ZoneType zone : region.getZones()) {
+		for (L2ZoneType zone : region.getZoneCandidates(x, y)) {
 			if (zone.isInsideZone(x, y, z)) {
 				temp.add(zone);
 			}
@@ -492,7 +492,7 @@ public final class ZoneManager implements IXmlReader {
 	@SuppressWarnings("unchecked")
 	public <T extends L2ZoneType> T getZone(int x, int y, int z, Class<T> type) {
 		final L2WorldRegion region = L2World.getInstance().getRegion(x, y);
-		for (L2ZoneType zone : region.getZones()) {
+		for (L2ZoneType zone : region.getZoneCandidates(x, y)) {
 			if (zone.isInsideZone(x, y, z) && type.isInstance(zone)) {
 				return (T) zone;
 			}
@@ -31,6 +31,7 @@ import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
 import com.l2jserver.gameserver.network.SystemMessageId;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 
 public class Lottery {
@@ -254,6 +255,7 @@ public class Lottery {
 			int count3 = 0;
 			int count4 = 0;
 			
+			ItemPersistenceTaskManager.flushIfEnabled();
 			try (var con = ConnectionFactory.getInstance().getConnection();
 				var ps = con.prepareStatement(SELECT_LOTTERY_ITEM)) {
 				ps.setInt(1, getId());
@@ -0,0 +1,352 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ *
+ * This file is part of L2J Server.
+ *
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.l2jserver.commons.database.ConnectionFactory;
+import com.l2jserver.gameserver.GameTimeController;
+import com.l2jserver.gameserver.LoginServerThread;
+import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.model.L2World;
+import com.l2jserver.gameserver.network.L2GameClient;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
+import com.l2jserver.gameserver.util.LatencyHistogram;
+
+/**
+ * Game server metrics.<br>
+ * The game tick, the knownlist passes and the database connection wait are recorded in {@link LatencyHistogram histograms} by the threads doing the work, recording does not allocate.<br>
+ * The thread pool queues, the client packet rates and the world objects are read when the metrics are requested, from the telnet console, over JMX or from the {@link MetricsServer HTTP endpoint}.
+ */
+public final class GameMetrics implements GameMetricsMBean {
+	private static final Logger LOG = LoggerFactory.getLogger(GameMetrics.class);
+	
+	private static final int TOP_CLIENTS = 10;
+	
+	/** The game is reported unhealthy when the game time did not tick for this long. */
+	private static final long HEALTH_TICK_TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+	
+	private final LatencyHistogram _tick = new LatencyHistogram();
+	private final LatencyHistogram _knownListPass = new LatencyHistogram();
+	private final LatencyHistogram _databaseWait = new LatencyHistogram();
+	private final AtomicLong _databaseErrors = new AtomicLong();
+	private volatile long _lastTick;
+	
+	private GameMetrics() {
+	}
+	
+	/**
+	 * Registers the metrics on the platform MBean server.
+	 */
+	public static void register() {
+		try {
+			final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+			final ObjectName name = new ObjectName("com.l2jserver.gameserver:type=GameMetrics");
+			if (!mbs.isRegistered(name)) {
+				mbs.registerMBean(getInstance(), name);
+				LOG.info("Registered JMX MBean {}.", name);
+			}
+		} catch (Exception ex) {
+			LOG.warn("Failed to register JMX MBean.", ex);
+		}
+	}
+	
+	/**
+	 * Schedules the database probe.<br>
+	 * The connection pool belongs to the commons library and is not instrumented, so the probe takes a connection and gives it back right away, measuring the wait a caller would have had at that moment.
+	 * @param interval the interval in milliseconds, 0 disables the probe
+	 */
+	public void startDatabaseProbe(long interval) {
+		if (interval > 0) {
+			ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(this::probeDatabase, interval, interval);
+		}
+	}
+	
+	private void probeDatabase() {
+		final long start = System.nanoTime();
+		try (Connection con = ConnectionFactory.getInstance().getConnection()) {
+			recordDatabaseWait(System.nanoTime() - start);
+		} catch (Exception ex) {
+			_databaseErrors.incrementAndGet();
+			LOG.warn("Database probe failed!", ex);
+		}
+	}
+	
+	/**
+	 * @param nanos the duration of a game tick in nanoseconds
+	 */
+	public void recordTick(long nanos) {
+		_tick.record(nanos / 1000);
+		_lastTick = System.nanoTime();
+	}
+	
+	/**
+	 * @param nanos the duration of a knownlist pass in nanoseconds
+	 */
+	public void recordKnownListPass(long nanos) {
+		_knownListPass.record(nanos / 1000);
+	}
+	
+	/**
+	 * @param nanos the time spent waiting for a database connection in nanoseconds
+	 */
+	public void recordDatabaseWait(long nanos) {
+		_databaseWait.record(nanos / 1000);
+	}
+	
+	/**
+	 * @return the packets received per second by every connected client, sorted
+	 */
+	private static int[] getClientPacketRates() {
+		return LoginServerThread.getInstance().getClients().stream().mapToInt(c -> c.getStats().getPacketsPerSecond()).sorted().toArray();
+	}
+	
+	private static int percentile(int[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		return sorted[Math.max((int) Math.ceil(sorted.length * percentile) - 1, 0)];
+	}
+	
+	/**
+	 * @return the metrics for the telnet console
+	 */
+	public String[] getStats() {
+		final int[] rates = getClientPacketRates();
+		final List<String> stats = new ArrayList<>();
+		stats.add("Metrics (count, p50/p99/max us):");
+		stats.add(" + Tick:            " + format(_tick));
+		stats.add(" + KnownList pass:  " + format(_knownListPass));
+		stats.add(" + Database wait:   " + format(_databaseWait) + ", errors " + _databaseErrors.get());
+		stats.add(" + Clients:         " + rates.length + ", packets/s " + percentile(rates, 0.5) + "/" + percentile(rates, 0.99) + "/" + percentile(rates, 1));
+		for (String client : getTopClientsByPacketRate()) {
+			stats.add(" |- " + client);
+		}
+		stats.add(" + World objects:   " + getWorldObjects() + ", players " + getOnlinePlayers() + ", moving " + getMovingObjects() + ", knownlist dirty " + getKnownListDirtyObjects());
+		stats.add(" | -------");
+		return stats.toArray(new String[stats.size()]);
+	}
+	
+	private static String format(LatencyHistogram h) {
+		return h.getCount() + ", " + h.getPercentile(0.5) + "/" + h.getPercentile(0.99) + "/" + h.getMax();
+	}
+	
+	/**
+	 * @return the metrics as a JSON object, durations are in microseconds
+	 */
+	public String toJson() {
+		final int[] rates = getClientPacketRates();
+		final StringBuilder sb = new StringBuilder(1024);
+		sb.append("{\"healthy\":").append(isHealthy());
+		sb.append(",\"tick\":");
+		appendJson(sb, _tick);
+		sb.append(",\"knownListPass\":");
+		appendJson(sb, _knownListPass);
+		sb.append(",\"databaseWait\":");
+		appendJson(sb, _databaseWait);
+		sb.append(",\"databaseErrors\":").append(_databaseErrors.get());
+		sb.append(",\"queues\":{");
+		boolean first = true;
+		for (Map.Entry<String, Integer> e : ThreadPoolManager.getInstance().getQueueSizes().entrySet()) {
+			if (!first) {
+				sb.append(',');
+			}
+			sb.append('"').append(e.getKey()).append("\":").append(e.getValue());
+			first = false;
+		}
+		sb.append("},\"clients\":{\"connected\":").append(rates.length);
+		sb.append(",\"packetRate\":{\"p50\":").append(percentile(rates, 0.5)).append(",\"p99\":").append(percentile(rates, 0.99)).append(",\"max\":").append(percentile(rates, 1)).append("}}");
+		sb.append(",\"world\":{\"objects\":").append(getWorldObjects());
+		sb.append(",\"players\":").append(getOnlinePlayers());
+		sb.append(",\"moving\":").append(getMovingObjects());
+		sb.append(",\"knownListDirty\":").append(getKnownListDirtyObjects());
+		sb.append("}}");
+		return sb.toString();
+	}
+	
+	private static void appendJson(StringBuilder sb, LatencyHistogram h) {
+		sb.append("{\"count\":").append(h.getCount());
+		sb.append(",\"p50\":").append(h.getPercentile(0.5));
+		sb.append(",\"p99\":").append(h.getPercentile(0.99));
+		sb.append(",\"max\":").append(h.getMax());
+		sb.append('}');
+	}
+	
+	@Override
+	public long getTickCount() {
+		return _tick.getCount();
+	}
+	
+	@Override
+	public long getTickP50() {
+		return _tick.getPercentile(0.5);
+	}
+	
+	@Override
+	public long getTickP99() {
+		return _tick.getPercentile(0.99);
+	}
+	
+	@Override
+	public long getTickMax() {
+		return _tick.getMax();
+	}
+	
+	@Override
+	public long getKnownListPassCount() {
+		return _knownListPass.getCount();
+	}
+	
+	@Override
+	public long getKnownListPassP50() {
+		return _knownListPass.getPercentile(0.5);
+	}
+	
+	@Override
+	public long getKnownListPassP99() {
+		return _knownListPass.getPercentile(0.99);
+	}
+	
+	@Override
+	public long getKnownListPassMax() {
+		return _knownListPass.getMax();
+	}
+	
+	@Override
+	public long getDatabaseWaitCount() {
+		return _databaseWait.getCount();
+	}
+	
+	@Override
+	public long getDatabaseWaitP50() {
+		return _databaseWait.getPercentile(0.5);
+	}
+	
+	@Override
+	public long getDatabaseWaitP99() {
+		return _databaseWait.getPercentile(0.99);
+	}
+	
+	@Override
+	public long getDatabaseWaitMax() {
+		return _databaseWait.getMax();
+	}
+	
+	@Override
+	public long getDatabaseErrors() {
+		return _databaseErrors.get();
+	}
+	
+	@Override
+	public String[] getQueueSizes() {
+		return ThreadPoolManager.getInstance().getQueueSizes().entrySet().stream().map(e -> e.getKey() + ": " + e.getValue()).toArray(String[]::new);
+	}
+	
+	@Override
+	public int getConnectedClients() {
+		return LoginServerThread.getInstance().getClients().size();
+	}
+	
+	@Override
+	public int getClientPacketRateP50() {
+		return percentile(getClientPacketRates(), 0.5);
+	}
+	
+	@Override
+	public int getClientPacketRateP99() {
+		return percentile(getClientPacketRates(), 0.99);
+	}
+	
+	@Override
+	public int getClientPacketRateMax() {
+		return percentile(getClientPacketRates(), 1);
+	}
+	
+	@Override
+	public String[] getTopClientsByPacketRate() {
+		return LoginServerThread.getInstance().getClients().stream() //
+			.sorted(Comparator.comparingInt((L2GameClient c) -> c.getStats().getPacketsPerSecond()).reversed()) //
+			.limit(TOP_CLIENTS) //
+			.map(c -> c + ": " + c.getStats().getPacketsPerSecond() + " packets/s") //
+			.toArray(String[]::new);
+	}
+	
+	@Override
+	public int getWorldObjects() {
+		return L2World.getInstance().getVisibleObjectsCount();
+	}
+	
+	@Override
+	public int getOnlinePlayers() {
+		return L2World.getInstance().getAllPlayersCount();
+	}
+	
+	@Override
+	public int getMovingObjects() {
+		return GameTimeController.getInstance().getMovingObjectsCount();
+	}
+	
+	@Override
+	public int getKnownListDirtyObjects() {
+		return KnownListUpdateTaskManager.getDirtyObjectsCount();
+	}
+	
+	@Override
+	public boolean isHealthy() {
+		return isHealthy(System.nanoTime());
+	}
+	
+	/**
+	 * @param now the current {@link System#nanoTime()}
+	 * @return {@code true} if the game time ticked in the last {@link #HEALTH_TICK_TIMEOUT} nanoseconds before the given time
+	 */
+	boolean isHealthy(long now) {
+		final long lastTick = _lastTick;
+		return (lastTick != 0) && ((now - lastTick) < HEALTH_TICK_TIMEOUT);
+	}
+	
+	@Override
+	public void reset() {
+		_tick.reset();
+		_knownListPass.reset();
+		_databaseWait.reset();
+		_databaseErrors.set(0);
+	}
+	
+	public static GameMetrics getInstance() {
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder {
+		protected static final GameMetrics _instance = new GameMetrics();
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ *
+ * This file is part of L2J Server.
+ *
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.metrics;
+
+/**
+ * JMX interface of the game server metrics, registered as {@code com.l2jserver.gameserver:type=GameMetrics}.<br>
+ * Durations are in microseconds.
+ */
+public interface GameMetricsMBean {
+	long getTickCount();
+	
+	long getTickP50();
+	
+	long getTickP99();
+	
+	long getTickMax();
+	
+	long getKnownListPassCount();
+	
+	long getKnownListPassP50();
+	
+	long getKnownListPassP99();
+	
+	long getKnownListPassMax();
+	
+	long getDatabaseWaitCount();
+	
+	long getDatabaseWaitP50();
+	
+	long getDatabaseWaitP99();
+	
+	long getDatabaseWaitMax();
+	
+	long getDatabaseErrors();
+	
+	/**
+	 * @return the amount of tasks waiting in every thread pool
+	 */
+	String[] getQueueSizes();
+	
+	int getConnectedClients();
+	
+	int getClientPacketRateP50();
+	
+	int getClientPacketRateP99();
+	
+	int getClientPacketRateMax();
+	
+	/**
+	 * @return the clients receiving the most packets per second
+	 */
+	String[] getTopClientsByPacketRate();
+	
+	int getWorldObjects();
+	
+	int getOnlinePlayers();
+	
+	int getMovingObjects();
+	
+	int getKnownListDirtyObjects();
+	
+	boolean isHealthy();
+	
+	void reset();
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ *
+ * This file is part of L2J Server.
+ *
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.metrics;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * HTTP endpoint of the {@link GameMetrics game server metrics}.<br>
+ * {@code GET /health} answers 200 while the game time is ticking and 503 otherwise, {@code GET /metrics} answers the metrics as JSON.<br>
+ * Requests are served by a single thread, away from the game threads.
+ */
+public final class MetricsServer {
+	private static final Logger LOG = LoggerFactory.getLogger(MetricsServer.class);
+	
+	private final GameMetrics _metrics;
+	private HttpServer _server;
+	
+	/**
+	 * @param metrics the metrics served
+	 */
+	public MetricsServer(GameMetrics metrics) {
+		_metrics = metrics;
+	}
+	
+	/**
+	 * @param host the bind address, {@code *} for all addresses
+	 * @param port the port
+	 * @throws IOException if the port can not be bound
+	 */
+	public void start(String host, int port) throws IOException {
+		final InetSocketAddress address = "*".equals(host) ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+		_server = HttpServer.create(address, 10);
+		_server.createContext("/health", this::health);
+		_server.createContext("/metrics", this::metrics);
+		_server.setExecutor(null);
+		_server.start();
+		LOG.info("Metrics server listening on {}:{}.", host, port);
+	}
+	
+	public void stop() {
+		if (_server != null) {
+			_server.stop(0);
+		}
+	}
+	
+	/**
+	 * @return the bound port, {@code -1} if the server is not started
+	 */
+	public int getPort() {
+		return _server != null ? _server.getAddress().getPort() : -1;
+	}
+	
+	private void health(HttpExchange exchange) throws IOException {
+		final boolean healthy = _metrics.isHealthy();
+		send(exchange, healthy ? 200 : 503, "text/plain", healthy ? "ok\n" : "degraded\n");
+	}
+	
+	private void metrics(HttpExchange exchange) throws IOException {
+		send(exchange, 200, "application/json", _metrics.toJson());
+	}
+	
+	private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+		try (exchange) {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			
+			final byte[] bytes = body.getBytes(UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+			exchange.sendResponseHeaders(status, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		}
+	}
+}
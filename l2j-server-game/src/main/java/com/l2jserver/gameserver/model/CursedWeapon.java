@@ -48,6 +48,7 @@ import com.l2jserver.gameserver.network.serverpackets.ItemList;
 import com.l2jserver.gameserver.network.serverpackets.SocialAction;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
 import com.l2jserver.gameserver.network.serverpackets.UserInfo;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 
 public class CursedWeapon implements INamable {
@@ -125,6 +126,7 @@ public class CursedWeapon implements INamable {
 			} else {
 				// Remove from Db
 				LOG.info("{} being removed offline.", _name);
+				ItemPersistenceTaskManager.flushIfEnabled(_playerId);
 				
 				try (var con = ConnectionFactory.getInstance().getConnection();
 					var del = con.prepareStatement("DELETE FROM items WHERE owner_id=? AND item_id=?");
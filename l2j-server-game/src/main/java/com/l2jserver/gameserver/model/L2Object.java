@@ -50,6 +50,7 @@ import com.l2jserver.gameserver.network.serverpackets.ActionFailed;
 import com.l2jserver.gameserver.network.serverpackets.DeleteObject;
 import com.l2jserver.gameserver.network.serverpackets.ExSendUIEvent;
 import com.l2jserver.gameserver.network.serverpackets.L2GameServerPacket;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
 import com.l2jserver.gameserver.util.Util;
 
 /**
@@ -62,6 +63,12 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 	private int _objectId;
 	/** World Region */
 	private L2WorldRegion _worldRegion;
+	/** Guards the cell this object is stored in, the cell is changed by moves, spawns and decays on different threads. */
+	private final Object _cellLock = new Object();
+	/** World region whose cell this object is stored in, {@code null} if none. */
+	private L2WorldRegion _cellRegion;
+	/** Index of the cell of {@link #_cellRegion} this object is stored in, -1 if none. */
+	private int _worldCell = -1;
 	/** Instance type */
 	private InstanceType _instanceType = null;
 	private volatile Map<String, Object> _scripts;
@@ -554,6 +561,23 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 		return _worldRegion;
 	}
 	
+	final Object getCellLock() {
+		return _cellLock;
+	}
+	
+	final L2WorldRegion getCellRegion() {
+		return _cellRegion;
+	}
+	
+	final int getWorldCell() {
+		return _worldCell;
+	}
+	
+	final void setWorldCell(L2WorldRegion region, int worldCell) {
+		_cellRegion = region;
+		_worldCell = worldCell;
+	}
+	
 	public void setWorldRegion(L2WorldRegion value) {
 		if ((getWorldRegion() != null) && isCharacter()) // confirm revalidation of old region's zones
 		{
@@ -663,12 +687,17 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 		setZ(newZ);
 		
 		try {
-			if (L2World.getInstance().getRegion(getLocation()) != getWorldRegion()) {
+			final L2WorldRegion region = getWorldRegion();
+			if (L2World.getInstance().getRegion(getLocation()) != region) {
 				updateWorldRegion();
+			} else if (region != null) {
+				region.updateCell(this);
 			}
 		} catch (Exception e) {
 			badCoords();
 		}
+		
+		KnownListUpdateTaskManager.onPositionChange(this);
 	}
 	
 	/**
@@ -742,6 +771,9 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 			if (!isPlayer()) {
 				decayMe();
 				spawnMe();
+			} else {
+				// The full sweep picks up the objects of the new instance without a teleport, so must the incremental update
+				KnownListUpdateTaskManager.markDirty(this);
 			}
 		}
 	}
@@ -756,7 +788,27 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 		_y.set(loc.getY());
 		_z.set(loc.getZ());
 		_heading.set(loc.getHeading());
-		_instanceId.set(loc.getInstanceId());
+		final int previousInstanceId = _instanceId.getAndSet(loc.getInstanceId());
+		
+		final L2WorldRegion region = getWorldRegion();
+		if (region != null) {
+			// The cell index wraps coordinates outside of the region
+			try {
+				if (L2World.getInstance().getRegion(getLocation()) != region) {
+					updateWorldRegion();
+				} else {
+					region.updateCell(this);
+				}
+			} catch (Exception e) {
+				badCoords();
+			}
+		}
+		
+		if (previousInstanceId != loc.getInstanceId()) {
+			KnownListUpdateTaskManager.markDirty(this);
+		} else {
+			KnownListUpdateTaskManager.onPositionChange(this);
+		}
 	}
 	
 	/**
@@ -26,18 +26,19 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.data.sql.impl.CharNameTable;
 import com.l2jserver.gameserver.data.xml.impl.AdminData;
 import com.l2jserver.gameserver.model.actor.L2Playable;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.actor.instance.L2PetInstance;
+import com.l2jserver.gameserver.util.ConcurrentIntMap;
 
 public final class L2World {
 	
@@ -74,15 +75,25 @@ public final class L2World {
 	private static final int REGIONS_X = (MAP_MAX_X >> SHIFT_BY) + OFFSET_X;
 	private static final int REGIONS_Y = (MAP_MAX_Y >> SHIFT_BY) + OFFSET_Y;
 	
+	/** Minimum shard width, knownlists can reach objects up to two regions away. */
+	private static final int MIN_SHARD_WIDTH = 6;
+	
 	/** Map containing all the players in game. */
-	private final Map<Integer, L2PcInstance> _allPlayers = new ConcurrentHashMap<>();
+	private final ConcurrentIntMap<L2PcInstance> _allPlayers = new ConcurrentIntMap<>(16);
 	/** Map containing all visible objects. */
-	private final Map<Integer, L2Object> _allObjects = new ConcurrentHashMap<>();
+	private final ConcurrentIntMap<L2Object> _allObjects = new ConcurrentIntMap<>(64);
 	/** Map with the pets instances and their owner ID. */
-	private final Map<Integer, L2PetInstance> _petsInstance = new ConcurrentHashMap<>();
+	private final ConcurrentIntMap<L2PetInstance> _petsInstance = new ConcurrentIntMap<>(4);
 	
 	private L2WorldRegion[][] _worldRegions;
 	
+	private int _shardWidth;
+	
+	private L2WorldShard[] _shards;
+	
+	/** Shards grouped by phase, shards of the same phase are never neighbours. */
+	private final List<List<L2WorldShard>> _shardPhases = List.of(new ArrayList<>(), new ArrayList<>());
+	
 	/** Constructor of L2World. */
 	protected L2World() {
 		initRegions();
@@ -98,11 +109,9 @@ public final class L2World {
 	 * @param object
 	 */
 	public void storeObject(L2Object object) {
-		if (_allObjects.containsKey(object.getObjectId())) {
+		if (_allObjects.putIfAbsent(object.getObjectId(), object) != null) {
 			LOG.warn("Current object: {} already exist in OID map!", object);
-			return;
 		}
-		_allObjects.put(object.getObjectId(), object);
 	}
 	
 	/**
@@ -241,20 +250,9 @@ public final class L2World {
 		if (!newRegion.isActive()) {
 			return;
 		}
-		// Get all visible objects contained in the _visibleObjects of L2WorldRegions
-		// in a circular area of 2000 units
-		List<L2Object> visibles = getVisibleObjects(object, 2000);
-		if (general().debug()) {
-			LOG.debug("Objects in range {}.", visibles.size());
-		}
-		
-		// tell the player about the surroundings
-		// Go through the visible objects contained in the circular area
-		for (L2Object visible : visibles) {
-			if (visible == null) {
-				continue;
-			}
-			
+		// Go through the visible objects contained in the _visibleObjects of L2WorldRegions
+		// in a circular area of 2000 units and tell the player about the surroundings
+		forEachVisibleObjectInRange(object, L2Object.class, 2000, false, true, visible -> {
 			// Add the object in L2ObjectHashSet(L2Object) _knownObjects of the visible L2Character according to conditions :
 			// - L2Character is visible
 			// - object is not already known
@@ -265,7 +263,7 @@ public final class L2World {
 			// Add the visible L2Object in L2ObjectHashSet(L2Object) _knownObjects of the object according to conditions
 			// If visible L2Object is a L2PcInstance, add visible L2Object in L2ObjectHashSet(L2PcInstance) _knownPlayer of the object
 			object.getKnownList().addKnownObject(visible);
-		}
+		});
 	}
 	
 	/**
@@ -367,21 +365,16 @@ public final class L2World {
 	 * @return the visible objects in the radius
 	 */
 	public List<L2Object> getVisibleObjects(L2Object object, int radius, boolean excludeTarget) {
-		return getVisibleObjectsStream(object, radius, excludeTarget).toList();
+		final List<L2Object> result = new ArrayList<>();
+		forEachVisibleObjectInRange(object, L2Object.class, radius, false, excludeTarget, result::add);
+		return result;
 	}
 	
 	public Stream<L2Object> getVisibleObjectsStream(L2Object object, int radius, boolean excludeTarget) {
 		if ((object == null) || !object.isVisible()) {
 			return Stream.of();
 		}
-		final int sqRadius = radius * radius;
-		return object.getWorldRegion()
-			.getSurroundingRegions()
-			.stream()
-			.flatMap(r -> r.getVisibleObjects().values().stream())
-			.filter(Objects::nonNull)
-			.filter(o -> !excludeTarget || !o.equals(object))
-			.filter(o -> sqRadius > object.calculateDistance(o, false, true));
+		return getVisibleObjects(object, radius, excludeTarget).stream();
 	}
 	
 	/**
@@ -394,27 +387,74 @@ public final class L2World {
 	 * @return
 	 */
 	public List<L2Object> getVisibleObjects3D(L2Object object, int radius) {
+		final List<L2Object> result = new ArrayList<>();
+		forEachVisibleObjectInRange(object, L2Object.class, radius, true, true, result::add);
+		return result;
+	}
+	
+	/**
+	 * Visits the visible objects of the given type around the given object, inside the given radius, without building a result list.<br>
+	 * Only the cells of the surrounding world regions that intersect the radius are checked.
+	 * @param <T> the type of the visited objects
+	 * @param object the origin
+	 * @param clazz the type of the visited objects
+	 * @param radius the radius to check
+	 * @param use3D if {@code true} the Z axis is included in the distance
+	 * @param excludeTarget if the origin should be excluded
+	 * @param action the action called for each object in range
+	 */
+	public <T extends L2Object> void forEachVisibleObjectInRange(L2Object object, Class<T> clazz, int radius, boolean use3D, boolean excludeTarget, Consumer<? super T> action) {
 		if ((object == null) || !object.isVisible()) {
-			return new ArrayList<>();
+			return;
+		}
+		
+		final L2WorldRegion center = object.getWorldRegion();
+		if (center == null) {
+			return;
 		}
 		
-		final int sqRadius = radius * radius;
+		final int x = object.getX();
+		final int y = object.getY();
+		final double sqRadius = (double) radius * radius;
+		// the surrounding regions are at most two regions wide on each side of the origin
+		final int reach = Math.min(radius, 2 << SHIFT_BY);
+		final int regionCellShift = SHIFT_BY - L2WorldRegion.CELL_SHIFT;
+		final int cellMask = L2WorldRegion.CELLS_PER_SIDE - 1;
+		final int cellSize = 1 << L2WorldRegion.CELL_SHIFT;
 		
-		// Create a list in order to contain all visible objects.
-		final List<L2Object> result = new ArrayList<>(64);
-		for (L2WorldRegion regi : object.getWorldRegion().getSurroundingRegions()) {
-			for (L2Object _object : regi.getVisibleObjects().values()) {
-				if ((_object == null) || _object.equals(object)) {
-					continue; // skip our own character
+		// cell bounds, limited to the surrounding regions
+		final int minCellX = Math.max((x - reach) >> L2WorldRegion.CELL_SHIFT, (Math.max(center.getTileX() - 1, 0) - OFFSET_X) << regionCellShift);
+		final int maxCellX = Math.min((x + reach) >> L2WorldRegion.CELL_SHIFT, ((Math.min(center.getTileX() + 1, REGIONS_X) - OFFSET_X + 1) << regionCellShift) - 1);
+		final int minCellY = Math.max((y - reach) >> L2WorldRegion.CELL_SHIFT, (Math.max(center.getTileY() - 1, 0) - OFFSET_Y) << regionCellShift);
+		final int maxCellY = Math.min((y + reach) >> L2WorldRegion.CELL_SHIFT, ((Math.min(center.getTileY() + 1, REGIONS_Y) - OFFSET_Y + 1) << regionCellShift) - 1);
+		
+		for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+			final int cellMinX = cellX << L2WorldRegion.CELL_SHIFT;
+			final long dx = x < cellMinX ? cellMinX - x : Math.max(x - (cellMinX + cellSize - 1), 0);
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				final int cellMinY = cellY << L2WorldRegion.CELL_SHIFT;
+				final long dy = y < cellMinY ? cellMinY - y : Math.max(y - (cellMinY + cellSize - 1), 0);
+				if (((dx * dx) + (dy * dy)) >= sqRadius) {
+					continue; // the cell does not intersect the circle
 				}
-
-				if (sqRadius > object.calculateDistance(_object, true, true)) {
-					result.add(_object);
+				
+				final L2WorldRegion region = _worldRegions[(cellX >> regionCellShift) + OFFSET_X][(cellY >> regionCellShift) + OFFSET_Y];
+				final Map<Integer, L2Object> cell = region.getCell(((cellX & cellMask) * L2WorldRegion.CELLS_PER_SIDE) + (cellY & cellMask));
+				if (cell == null) {
+					continue;
+				}
+				
+				for (L2Object visible : cell.values()) {
+					if ((excludeTarget && (visible == object)) || !clazz.isInstance(visible)) {
+						continue;
+					}
+					
+					if (sqRadius > object.calculateDistance(visible, use3D, true)) {
+						action.accept(clazz.cast(visible));
+					}
 				}
 			}
 		}
-
-		return result;
 	}
 	
 	/**
@@ -476,6 +516,103 @@ public final class L2World {
 		return _worldRegions;
 	}
 	
+	/**
+	 * @return the world shards, ordered by ID
+	 */
+	public L2WorldShard[] getShards() {
+		return _shards;
+	}
+	
+	/**
+	 * @param region the world region
+	 * @return the shard the given region belongs to
+	 */
+	public L2WorldShard getShard(L2WorldRegion region) {
+		return _shards[region.getTileX() / _shardWidth];
+	}
+	
+	/**
+	 * Runs the given action on every shard.<br>
+	 * Even shards are run in parallel first, then odd shards, so neighbouring shards never run at the same time and the order between them is always the same.
+	 * @param action the action to run for each shard
+	 */
+	public void forEachShard(Consumer<L2WorldShard> action) {
+		for (List<L2WorldShard> phase : _shardPhases) {
+			final List<Runnable> tasks = new ArrayList<>(phase.size());
+			for (L2WorldShard shard : phase) {
+				tasks.add(() -> shard.run(action));
+			}
+			ThreadPoolManager.getInstance().invokeWorld(tasks);
+		}
+	}
+	
+	/**
+	 * Estimates the memory used by the object ID registries of the world, the world regions and the known lists.<br>
+	 * Every registry is compared with a {@link java.util.concurrent.ConcurrentHashMap} with boxed keys of the same size.
+	 * @return the report lines
+	 */
+	public String[] getRegistryStats() {
+		final RegistryFootprint world = new RegistryFootprint("World");
+		world.accept(_allObjects);
+		world.accept(_allPlayers);
+		world.accept(_petsInstance);
+		
+		final RegistryFootprint regions = new RegistryFootprint("Regions");
+		for (L2WorldRegion[] column : _worldRegions) {
+			for (L2WorldRegion region : column) {
+				region.forEachRegistry(regions);
+			}
+		}
+		
+		final RegistryFootprint knownLists = new RegistryFootprint("Known lists");
+		for (L2Object object : _allObjects.values()) {
+			object.getKnownList().forEachRegistry(knownLists);
+		}
+		
+		final RegistryFootprint total = new RegistryFootprint("Total");
+		for (RegistryFootprint footprint : List.of(world, regions, knownLists)) {
+			total._maps += footprint._maps;
+			total._entries += footprint._entries;
+			total._bytes += footprint._bytes;
+			total._boxedBytes += footprint._boxedBytes;
+		}
+		
+		return new String[] {
+			"Object registries:",
+			" |- " + world,
+			" |- " + regions,
+			" |- " + knownLists,
+			" + " + total
+		};
+	}
+	
+	private static final class RegistryFootprint implements Consumer<Map<Integer, ?>> {
+		private final String _name;
+		long _maps;
+		long _entries;
+		long _bytes;
+		long _boxedBytes;
+		
+		RegistryFootprint(String name) {
+			_name = name;
+		}
+		
+		@Override
+		public void accept(Map<Integer, ?> map) {
+			final int size = map.size();
+			final long boxed = ConcurrentIntMap.estimateConcurrentHashMapFootprint(size);
+			_maps++;
+			_entries += size;
+			_bytes += (map instanceof ConcurrentIntMap<?> intMap) ? intMap.estimateFootprint() : boxed;
+			_boxedBytes += boxed;
+		}
+		
+		@Override
+		public String toString() {
+			return _name + ": " + _maps + " maps, " + _entries + " entries, ~" + (_bytes / 1024) + " KB (ConcurrentHashMap ~" + (_boxedBytes / 1024) + " KB)";
+		}
+	}
+	
 	/**
 	 * Check if the current L2WorldRegions of the object is valid according to its position (x,y). <B><U> Example of use </U> :</B>
 	 * <li>Init L2WorldRegions</li><BR>
@@ -513,6 +650,27 @@ public final class L2World {
 		
 		LOG.info("{} by {} world region grid set up.", REGIONS_X, REGIONS_Y);
 		
+		initShards();
+	}
+	
+	/**
+	 * Initialize the world shards, stripes of region columns.
+	 */
+	private void initShards() {
+		_shardWidth = Math.max(MIN_SHARD_WIDTH, general().getWorldShardWidth());
+		_shards = new L2WorldShard[(REGIONS_X / _shardWidth) + 1];
+		for (int i = 0; i < _shards.length; i++) {
+			_shards[i] = new L2WorldShard(i);
+			_shardPhases.get(_shards[i].getPhase()).add(_shards[i]);
+		}
+		
+		for (int x = 0; x <= REGIONS_X; x++) {
+			for (int y = 0; y <= REGIONS_Y; y++) {
+				_shards[x / _shardWidth].addRegion(_worldRegions[x][y]);
+			}
+		}
+		
+		LOG.info("{} world shards of {} region columns set up.", _shards.length, _shardWidth);
 	}
 	
 	/**
@@ -20,13 +20,17 @@ package com.l2jserver.gameserver.model;
 
 import static com.l2jserver.gameserver.config.Configuration.general;
 
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,21 +45,42 @@ import com.l2jserver.gameserver.model.actor.L2Vehicle;
 import com.l2jserver.gameserver.model.skills.Skill;
 import com.l2jserver.gameserver.model.zone.L2ZoneType;
 import com.l2jserver.gameserver.model.zone.type.L2PeaceZone;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
+import com.l2jserver.gameserver.util.ConcurrentIntMap;
 
 public final class L2WorldRegion {
 	private static final Logger LOG = LoggerFactory.getLogger(L2WorldRegion.class);
 	
+	/** Bit shift of the cells each region is split into for radius queries, 512 units wide. */
+	public static final int CELL_SHIFT = 9;
+	
+	/** Number of cells on each side of a region. */
+	public static final int CELLS_PER_SIDE = 1 << (L2World.SHIFT_BY - CELL_SHIFT);
+	
+	/** Segments of the object maps of a region, objects of a crowded region are added, removed and moved by many threads. */
+	private static final int REGION_CONCURRENCY = 8;
+	
+	/** Segments of the object map of a cell. */
+	private static final int CELL_CONCURRENCY = 4;
+	
+	private static final L2ZoneType[] NO_ZONES = new L2ZoneType[0];
+	
 	/** Map containing all playable characters in game in this world region. */
-	private final Map<Integer, L2Playable> _allPlayable = new ConcurrentHashMap<>();
+	private final Map<Integer, L2Playable> _allPlayable = new ConcurrentIntMap<>(REGION_CONCURRENCY);
 	
 	/** Map containing visible objects in this world region. */
-	private final Map<Integer, L2Object> _visibleObjects = new ConcurrentHashMap<>();
+	private final Map<Integer, L2Object> _visibleObjects = new ConcurrentIntMap<>(REGION_CONCURRENCY);
+	
+	/** Visible objects by cell, cells are created when the first object enters them. */
+	private final AtomicReferenceArray<Map<Integer, L2Object>> _cells = new AtomicReferenceArray<>(CELLS_PER_SIDE * CELLS_PER_SIDE);
 	
 	private final Queue<L2WorldRegion> _surroundingRegions = new ConcurrentLinkedQueue<>();
 	private final int _tileX, _tileY;
 	private boolean _active;
 	private ScheduledFuture<?> _neighborsTask = null;
 	private final List<L2ZoneType> _zones = new CopyOnWriteArrayList<>();
+	/** Zones whose bounding box intersects each cell, cells with the same zones share the same array, {@code null} until needed after a zone change. */
+	private volatile L2ZoneType[][] _zoneCells;
 	
 	public L2WorldRegion(int pTileX, int pTileY) {
 		_tileX = pTileX;
@@ -78,11 +103,75 @@ public final class L2WorldRegion {
 	}
 	
 	public void addZone(L2ZoneType zone) {
-		_zones.add(zone);
+		synchronized (_zones) {
+			_zones.add(zone);
+			_zoneCells = null;
+		}
 	}
 	
 	public void removeZone(L2ZoneType zone) {
-		_zones.remove(zone);
+		synchronized (_zones) {
+			_zones.remove(zone);
+			_zoneCells = null;
+		}
+	}
+	
+	public void clearZones() {
+		synchronized (_zones) {
+			_zones.clear();
+			_zoneCells = null;
+		}
+	}
+	
+	/**
+	 * Gets the zones that may contain a point of this region, a zone not returned can not contain it.
+	 * @param x the X coordinate
+	 * @param y the Y coordinate
+	 * @return the zones whose bounding box intersects the cell of the point
+	 */
+	public L2ZoneType[] getZoneCandidates(int x, int y) {
+		return getZoneCells()[getCellIndex(x, y)];
+	}
+	
+	private L2ZoneType[][] getZoneCells() {
+		L2ZoneType[][] zoneCells = _zoneCells;
+		if (zoneCells == null) {
+			synchronized (_zones) {
+				zoneCells = _zoneCells;
+				if (zoneCells == null) {
+					_zoneCells = zoneCells = buildZoneCells();
+				}
+			}
+		}
+		return zoneCells;
+	}
+	
+	private L2ZoneType[][] buildZoneCells() {
+		final int minX = (_tileX - L2World.OFFSET_X) << L2World.SHIFT_BY;
+		final int minY = (_tileY - L2World.OFFSET_Y) << L2World.SHIFT_BY;
+		final int cellSize = 1 << CELL_SHIFT;
+		final L2ZoneType[][] zoneCells = new L2ZoneType[CELLS_PER_SIDE * CELLS_PER_SIDE][];
+		final Map<List<L2ZoneType>, L2ZoneType[]> shared = new HashMap<>();
+		for (int cellX = 0; cellX < CELLS_PER_SIDE; cellX++) {
+			final int cellMinX = minX + (cellX << CELL_SHIFT);
+			for (int cellY = 0; cellY < CELLS_PER_SIDE; cellY++) {
+				final int cellMinY = minY + (cellY << CELL_SHIFT);
+				final List<L2ZoneType> zones = new ArrayList<>();
+				for (L2ZoneType zone : _zones) {
+					// The bounds are inclusive, some forms contain the points on their edges
+					final Rectangle box = zone.getZone().getBoundingBox();
+					if ((box.x < (cellMinX + cellSize)) && ((box.x + box.width) >= cellMinX) && (box.y < (cellMinY + cellSize)) && ((box.y + box.height) >= cellMinY)) {
+						zones.add(zone);
+					}
+				}
+				zoneCells[(cellX * CELLS_PER_SIDE) + cellY] = zones.isEmpty() ? NO_ZONES : shared.computeIfAbsent(zones, z -> z.toArray(NO_ZONES));
+			}
+		}
+		return zoneCells;
+	}
+	
+	private boolean isInRegion(int x, int y) {
+		return (((x >> L2World.SHIFT_BY) + L2World.OFFSET_X) == _tileX) && (((y >> L2World.SHIFT_BY) + L2World.OFFSET_Y) == _tileY);
 	}
 	
 	public void revalidateZones(L2Character character) {
@@ -93,14 +182,45 @@ public final class L2WorldRegion {
 			return;
 		}
 		
-		for (L2ZoneType z : getZones()) {
-			if (z != null) {
+		final int x = character.getX();
+		final int y = character.getY();
+		final L2ZoneType[] previous = character.getZoneCandidates();
+		if (!isInRegion(x, y) || (previous == null)) {
+			// Leaving the region or unknown zones, every zone of the region is checked
+			character.setZoneCandidates(isInRegion(x, y) ? getZoneCandidates(x, y) : null);
+			for (L2ZoneType z : getZones()) {
 				z.revalidateInZone(character);
 			}
+			return;
 		}
+		
+		final L2ZoneType[] candidates = getZoneCandidates(x, y);
+		if (previous != candidates) {
+			// Only the zones of the previous cell can be left
+			character.setZoneCandidates(candidates);
+			for (L2ZoneType z : previous) {
+				if (!contains(candidates, z)) {
+					z.revalidateInZone(character);
+				}
+			}
+		}
+		
+		for (L2ZoneType z : candidates) {
+			z.revalidateInZone(character);
+		}
+	}
+	
+	private static boolean contains(L2ZoneType[] zones, L2ZoneType zone) {
+		for (L2ZoneType z : zones) {
+			if (z == zone) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	public void removeFromZones(L2Character character) {
+		character.setZoneCandidates(null);
 		for (L2ZoneType z : getZones()) {
 			if (z != null) {
 				z.removeCharacter(character);
@@ -176,20 +296,19 @@ public final class L2WorldRegion {
 		
 		@Override
 		public void run() {
+			// each region only switches its own objects, so the neighbors are switched in parallel without holding this thread
 			if (_isActivating) {
 				// for each neighbor, if it's not active, activate.
 				for (L2WorldRegion neighbor : getSurroundingRegions()) {
-					neighbor.setActive(true);
+					if (!neighbor.isActive()) {
+						ThreadPoolManager.getInstance().executeWorld(() -> neighbor.setActive(true));
+					}
 				}
 			} else {
-				if (areNeighborsEmpty()) {
-					setActive(false);
-				}
-				
-				// check and deactivate
+				// check and deactivate, self is part of the surrounding regions
 				for (L2WorldRegion neighbor : getSurroundingRegions()) {
-					if (neighbor.areNeighborsEmpty()) {
-						neighbor.setActive(false);
+					if (neighbor.isActive() && neighbor.areNeighborsEmpty()) {
+						ThreadPoolManager.getInstance().executeWorld(() -> neighbor.setActive(false));
 					}
 				}
 			}
@@ -278,6 +397,13 @@ public final class L2WorldRegion {
 		// turn the AI on or off to match the region's activation.
 		switchAI(value);
 		
+		// objects of a region that just woke up have not been offered to their surroundings yet
+		if (value) {
+			for (L2Object o : _visibleObjects.values()) {
+				KnownListUpdateTaskManager.markDirty(o);
+			}
+		}
+		
 		// TODO
 		// turn the geodata on or off to match the region's activation.
 		if (value) {
@@ -337,6 +463,8 @@ public final class L2WorldRegion {
 		assert object.getWorldRegion() == this;
 		
 		_visibleObjects.put(object.getObjectId(), object);
+		addToCell(object, getCellIndex(object.getX(), object.getY()));
+		KnownListUpdateTaskManager.markDirty(object);
 		
 		if (object instanceof L2Playable playable) {
 			_allPlayable.put(object.getObjectId(), playable);
@@ -361,6 +489,7 @@ public final class L2WorldRegion {
 		assert (object.getWorldRegion() == this) || (object.getWorldRegion() == null);
 		
 		_visibleObjects.remove(object.getObjectId());
+		removeFromCell(object);
 		
 		if (object instanceof L2Playable) {
 			_allPlayable.remove(object.getObjectId());
@@ -371,6 +500,74 @@ public final class L2WorldRegion {
 		}
 	}
 	
+	/**
+	 * Moves the object to the cell of its current position, if it changed.<br>
+	 * Does nothing if the object left this region meanwhile, a move racing a region change or a decay must not put the object back in a cell of this region.
+	 * @param object the object
+	 */
+	public void updateCell(L2Object object) {
+		synchronized (object.getCellLock()) {
+			if (object.getCellRegion() != this) {
+				return;
+			}
+			
+			final int index = getCellIndex(object.getX(), object.getY());
+			if (index != object.getWorldCell()) {
+				addToCell(object, index);
+			}
+		}
+	}
+	
+	private void addToCell(L2Object object, int index) {
+		synchronized (object.getCellLock()) {
+			// Leaves its previous cell, of this region or of the region it was added to first
+			final L2WorldRegion previous = object.getCellRegion();
+			if (previous != null) {
+				previous.removeFromCell(object);
+			}
+			
+			Map<Integer, L2Object> cell = _cells.get(index);
+			if (cell == null) {
+				_cells.compareAndSet(index, null, new ConcurrentIntMap<>(CELL_CONCURRENCY));
+				cell = _cells.get(index);
+			}
+			cell.put(object.getObjectId(), object);
+			object.setWorldCell(this, index);
+		}
+	}
+	
+	private void removeFromCell(L2Object object) {
+		synchronized (object.getCellLock()) {
+			// The object may be in a cell of another region already
+			if (object.getCellRegion() != this) {
+				return;
+			}
+			
+			final Map<Integer, L2Object> cell = _cells.get(object.getWorldCell());
+			if (cell != null) {
+				cell.remove(object.getObjectId());
+			}
+			object.setWorldCell(null, -1);
+		}
+	}
+	
+	/**
+	 * @param index the cell index
+	 * @return the objects of the cell, {@code null} if no object ever entered it
+	 */
+	public Map<Integer, L2Object> getCell(int index) {
+		return _cells.get(index);
+	}
+	
+	/**
+	 * @param x the X coordinate
+	 * @param y the Y coordinate
+	 * @return the index of the cell containing the given coordinates within its region
+	 */
+	public static int getCellIndex(int x, int y) {
+		return (((x >> CELL_SHIFT) & (CELLS_PER_SIDE - 1)) * CELLS_PER_SIDE) + ((y >> CELL_SHIFT) & (CELLS_PER_SIDE - 1));
+	}
+	
 	public void addSurroundingRegion(L2WorldRegion region) {
 		_surroundingRegions.add(region);
 	}
@@ -390,6 +587,21 @@ public final class L2WorldRegion {
 		return _visibleObjects;
 	}
 	
+	/**
+	 * Passes every object ID registry of this region (playables, visible objects and cells) to the given action.
+	 * @param action the action
+	 */
+	public void forEachRegistry(Consumer<Map<Integer, ?>> action) {
+		action.accept(_allPlayable);
+		action.accept(_visibleObjects);
+		for (int i = 0; i < _cells.length(); i++) {
+			final Map<Integer, L2Object> cell = _cells.get(i);
+			if (cell != null) {
+				action.accept(cell);
+			}
+		}
+	}
+	
 	public String getName() {
 		return "(" + _tileX + ", " + _tileY + ")";
 	}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ *
+ * This file is part of L2J Server.
+ *
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * World shard, a stripe of world region columns processed as one unit of parallel work.<br>
+ * Shards with the same phase are never neighbours, so they can run at the same time without touching the same objects.
+ */
+public final class L2WorldShard {
+	private final int _id;
+	private final List<L2WorldRegion> _regions = new ArrayList<>();
+	private volatile long _lastRunTime;
+	private volatile long _maxRunTime;
+	private volatile long _totalRunTime;
+	private volatile long _runCount;
+	
+	public L2WorldShard(int id) {
+		_id = id;
+	}
+	
+	public int getId() {
+		return _id;
+	}
+	
+	/**
+	 * @return {@code 0} for even shards, {@code 1} for odd shards
+	 */
+	public int getPhase() {
+		return _id & 1;
+	}
+	
+	public void addRegion(L2WorldRegion region) {
+		_regions.add(region);
+	}
+	
+	public List<L2WorldRegion> getRegions() {
+		return _regions;
+	}
+	
+	/**
+	 * Runs the given action for this shard and records its duration.<br>
+	 * A shard is only run by one thread at a time.
+	 * @param action the action
+	 */
+	public void run(Consumer<L2WorldShard> action) {
+		final long start = System.nanoTime();
+		try {
+			action.accept(this);
+		} finally {
+			final long time = System.nanoTime() - start;
+			_lastRunTime = time;
+			_totalRunTime += time;
+			_runCount++;
+			if (time > _maxRunTime) {
+				_maxRunTime = time;
+			}
+		}
+	}
+	
+	public long getLastRunTime(TimeUnit unit) {
+		return unit.convert(_lastRunTime, TimeUnit.NANOSECONDS);
+	}
+	
+	public long getMaxRunTime(TimeUnit unit) {
+		return unit.convert(_maxRunTime, TimeUnit.NANOSECONDS);
+	}
+	
+	public long getAverageRunTime(TimeUnit unit) {
+		final long count = _runCount;
+		return count == 0 ? 0 : unit.convert(_totalRunTime / count, TimeUnit.NANOSECONDS);
+	}
+	
+	public long getRunCount() {
+		return _runCount;
+	}
+	
+	public String getName() {
+		return "Shard " + _id + " (" + _regions.get(0).getTileX() + "-" + _regions.get(_regions.size() - 1).getTileX() + ")";
+	}
+}
@@ -66,6 +66,7 @@ import com.l2jserver.gameserver.model.actor.tasks.attackable.CommandChannelTimer
 import com.l2jserver.gameserver.model.actor.templates.L2NpcTemplate;
 import com.l2jserver.gameserver.model.drops.DropListScope;
 import com.l2jserver.gameserver.model.events.EventDispatcher;
+import com.l2jserver.gameserver.model.events.EventType;
 import com.l2jserver.gameserver.model.events.impl.character.npc.attackable.AttackableAggroRangeEnter;
 import com.l2jserver.gameserver.model.events.impl.character.npc.attackable.AttackableAttack;
 import com.l2jserver.gameserver.model.events.impl.character.npc.attackable.AttackableKill;
@@ -298,7 +299,7 @@ public class L2Attackable extends L2Npc {
 			return false;
 		}
 		
-		if ((killer != null) && killer.isPlayable()) {
+		if ((killer != null) && killer.isPlayable() && EventDispatcher.getInstance().hasListener(EventType.ATTACKABLE_KILL, this)) {
 			// Delayed notification
 			EventDispatcher.getInstance().notifyEventAsyncDelayed(new AttackableKill(killer.getActingPlayer(), this, killer.isSummon()), this, _onKillDelay);
 		}
@@ -571,7 +572,7 @@ public class L2Attackable extends L2Npc {
 				addDamageHate(attacker, damage, (damage * 100) / (getLevel() + 7));
 				
 				final L2PcInstance player = attacker.getActingPlayer();
-				if (player != null) {
+				if ((player != null) && EventDispatcher.getInstance().hasListener(EventType.ATTACKABLE_ATTACK, this)) {
 					EventDispatcher.getInstance().notifyEventAsync(new AttackableAttack(player, this, damage, skill, attacker.isSummon()), this);
 				}
 			} catch (Exception ex) {
@@ -30,6 +30,7 @@ import static com.l2jserver.gameserver.model.skills.targets.AffectScope.PARTY;
 import static com.l2jserver.gameserver.model.stats.Stats.NUM_STATS;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -95,6 +96,7 @@ import com.l2jserver.gameserver.model.entity.Instance;
 import com.l2jserver.gameserver.model.events.Containers;
 import com.l2jserver.gameserver.model.events.EventDispatcher;
 import com.l2jserver.gameserver.model.events.EventType;
+import com.l2jserver.gameserver.model.events.ListenersContainer;
 import com.l2jserver.gameserver.model.events.impl.character.CreatureAttack;
 import com.l2jserver.gameserver.model.events.impl.character.CreatureAttackAvoid;
 import com.l2jserver.gameserver.model.events.impl.character.CreatureAttacked;
@@ -132,6 +134,7 @@ import com.l2jserver.gameserver.model.stats.Calculator;
 import com.l2jserver.gameserver.model.stats.Formulas;
 import com.l2jserver.gameserver.model.stats.Stats;
 import com.l2jserver.gameserver.model.stats.functions.AbstractFunction;
+import com.l2jserver.gameserver.model.zone.L2ZoneType;
 import com.l2jserver.gameserver.model.zone.ZoneId;
 import com.l2jserver.gameserver.network.NpcStringId;
 import com.l2jserver.gameserver.network.SystemMessageId;
@@ -160,6 +163,7 @@ import com.l2jserver.gameserver.network.serverpackets.TeleportToLocation;
 import com.l2jserver.gameserver.pathfinding.AbstractNodeLoc;
 import com.l2jserver.gameserver.pathfinding.PathFinding;
 import com.l2jserver.gameserver.taskmanager.AttackStanceTaskManager;
+import com.l2jserver.gameserver.util.Broadcast;
 import com.l2jserver.gameserver.util.EmptyQueue;
 import com.l2jserver.gameserver.util.Util;
 
@@ -229,6 +233,8 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	
 	private final byte[] _zones = new byte[ZoneId.getZoneCount()];
 	protected byte _zoneValidateCounter = 4;
+	/** Zones of the world region cell of the last zone revalidation. */
+	private volatile L2ZoneType[] _zoneCandidates;
 	
 	private L2Character _debugger = null;
 	
@@ -248,6 +254,8 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	private final CharEffectList _effectList = new CharEffectList(this);
 	/** The character that summons this character. */
 	private L2Character _summoner = null;
+	/** Shared content, game tick and route of the last broadcast packet. */
+	private volatile LastBroadcast _lastBroadcast;
 	
 	private SkillChannelizer _channelizer = null;
 	
@@ -417,6 +425,17 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		}
 	}
 	
+	/**
+	 * @return the zones of the world region cell of the last zone revalidation, {@code null} if unknown
+	 */
+	public L2ZoneType[] getZoneCandidates() {
+		return _zoneCandidates;
+	}
+	
+	public void setZoneCandidates(L2ZoneType[] zoneCandidates) {
+		_zoneCandidates = zoneCandidates;
+	}
+	
 	/**
 	 * This will return true if the player is transformed,<br>
 	 * but if the player is not transformed it will return false.
@@ -512,6 +531,10 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @param mov
 	 */
 	public void broadcastPacket(L2GameServerPacket mov) {
+		if (!Broadcast.prepare(this, mov, false, 0)) {
+			return;
+		}
+		
 		mov.setInvisible(isInvisible());
 		Collection<L2PcInstance> plrs = getKnownList().getKnownPlayers().values();
 		for (L2PcInstance player : plrs) {
@@ -530,6 +553,10 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @param radiusInKnownlist
 	 */
 	public void broadcastPacket(L2GameServerPacket mov, int radiusInKnownlist) {
+		if (!Broadcast.prepare(this, mov, false, radiusInKnownlist)) {
+			return;
+		}
+		
 		mov.setInvisible(isInvisible());
 		Collection<L2PcInstance> plrs = getKnownList().getKnownPlayers().values();
 		for (L2PcInstance player : plrs) {
@@ -539,6 +566,23 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		}
 	}
 	
+	/**
+	 * Stores the shared content of a packet about to be broadcast by this character.<br>
+	 * The content, the tick and the route are published together, so concurrent broadcasts can at worst miss a redundant packet, never drop a packet for recipients that did not get it.
+	 * @param content the shared content
+	 * @param tick the current game tick
+	 * @param route the recipients of the broadcast, see {@link Broadcast#prepare(L2Character, L2GameServerPacket, boolean, int)}
+	 * @return {@code true} if the same content was already broadcast to the same recipients during the given game tick, {@code false} otherwise
+	 */
+	public final boolean isRedundantBroadcast(byte[] content, int tick, int route) {
+		final LastBroadcast last = _lastBroadcast;
+		_lastBroadcast = new LastBroadcast(content, tick, route);
+		return (last != null) && (last.tick() == tick) && (last.route() == route) && Arrays.equals(last.content(), content);
+	}
+	
+	private record LastBroadcast(byte[] content, int tick, int route) {
+	}
+	
 	/**
 	 * @return true if hp update should be done, false if not
 	 */
@@ -792,7 +836,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			}
 			
 			// Notify to scripts
-			final TerminateReturn attackReturn = EventDispatcher.getInstance().notifyEvent(new CreatureAttack(this, target), this, TerminateReturn.class);
+			final TerminateReturn attackReturn = EventDispatcher.getInstance().hasListener(EventType.CREATURE_ATTACK, this) ? EventDispatcher.getInstance().notifyEvent(new CreatureAttack(this, target), this, TerminateReturn.class) : null;
 			if ((attackReturn != null) && attackReturn.terminate()) {
 				getAI().setIntention(CtrlIntention.AI_INTENTION_ACTIVE);
 				sendPacket(ActionFailed.STATIC_PACKET);
@@ -800,7 +844,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			}
 			
 			// Notify to scripts
-			final TerminateReturn attackedReturn = EventDispatcher.getInstance().notifyEvent(new CreatureAttacked(this, target), target, TerminateReturn.class);
+			final TerminateReturn attackedReturn = EventDispatcher.getInstance().hasListener(EventType.CREATURE_ATTACKED, target) ? EventDispatcher.getInstance().notifyEvent(new CreatureAttacked(this, target), target, TerminateReturn.class) : null;
 			if ((attackedReturn != null) && attackedReturn.terminate()) {
 				getAI().setIntention(CtrlIntention.AI_INTENTION_ACTIVE);
 				sendPacket(ActionFailed.STATIC_PACKET);
@@ -1454,7 +1498,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			return;
 		}
 		
-		final var term = EventDispatcher.getInstance().notifyEvent(new CreatureSkillUse(this, skill, simultaneously, target, targets), this, TerminateReturn.class);
+		final var term = EventDispatcher.getInstance().hasListener(EventType.CREATURE_SKILL_USE, this) ? EventDispatcher.getInstance().notifyEvent(new CreatureSkillUse(this, skill, simultaneously, target, targets), this, TerminateReturn.class) : null;
 		if ((term != null) && term.terminate()) {
 			if (simultaneously) {
 				setIsCastingSimultaneouslyNow(false);
@@ -2025,7 +2069,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @return false if the player is already dead.
 	 */
 	public boolean doDie(L2Character killer) {
-		final TerminateReturn returnBack = EventDispatcher.getInstance().notifyEvent(new CreatureKill(killer, this), this, TerminateReturn.class);
+		final TerminateReturn returnBack = EventDispatcher.getInstance().hasListener(EventType.CREATURE_KILL, this) ? EventDispatcher.getInstance().notifyEvent(new CreatureKill(killer, this), this, TerminateReturn.class) : null;
 		if ((returnBack != null) && returnBack.terminate()) {
 			return false;
 		}
@@ -2533,6 +2577,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 */
 	protected final void setTemplate(L2CharTemplate template) {
 		_template = template;
+		getStat().invalidateStatCache();
 	}
 	
 	/**
@@ -2903,6 +2948,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			
 			// Add the Func to the calculator corresponding to the state
 			_calculators[stat].addFunc(function);
+			getStat().invalidateStatCache();
 		}
 	}
 	
@@ -2970,6 +3016,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			
 			// Remove the Func object from the Calculator
 			_calculators[stat].removeFunc(function);
+			getStat().invalidateStatCache();
 			
 			if (_calculators[stat].size() == 0) {
 				_calculators[stat] = null;
@@ -3061,6 +3108,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 				}
 				i++;
 			}
+			getStat().invalidateStatCache();
 			
 			// If possible, free the memory and just create a link on NPC_STD_CALCULATOR
 			if (isNpc()) {
@@ -4875,7 +4923,9 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 					if ((spMob != null) && spMob.isNpc()) {
 						final L2Npc npcMob = (L2Npc) spMob;
 						if ((npcMob.isInsideRadius(player, 1000, true, true))) {
-							EventDispatcher.getInstance().notifyEventAsync(new NpcSkillSee(npcMob, player, skill, targets, isSummon()), npcMob);
+							if (EventDispatcher.getInstance().hasListener(EventType.NPC_SKILL_SEE, npcMob)) {
+								EventDispatcher.getInstance().notifyEventAsync(new NpcSkillSee(npcMob, player, skill, targets, isSummon()), npcMob);
+							}
 							
 							// On Skill See logic
 							if (npcMob.isAttackable()) {
@@ -5541,8 +5591,12 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @param damageOverTime
 	 */
 	public void notifyDamageReceived(double damage, L2Character attacker, Skill skill, boolean critical, boolean damageOverTime, boolean isReflect) {
-		EventDispatcher.getInstance().notifyEventAsync(new CreatureDamageReceived(attacker, this, damage, skill, critical, damageOverTime, isReflect), this);
-		EventDispatcher.getInstance().notifyEventAsync(new CreatureDamageDealt(attacker, this, damage, skill, critical, damageOverTime, isReflect), attacker);
+		if (EventDispatcher.getInstance().hasListener(EventType.CREATURE_DAMAGE_RECEIVED, this)) {
+			EventDispatcher.getInstance().notifyEventAsync(new CreatureDamageReceived(attacker, this, damage, skill, critical, damageOverTime, isReflect), this);
+		}
+		if (EventDispatcher.getInstance().hasListener(EventType.CREATURE_DAMAGE_DEALT, attacker)) {
+			EventDispatcher.getInstance().notifyEventAsync(new CreatureDamageDealt(attacker, this, damage, skill, critical, damageOverTime, isReflect), attacker);
+		}
 	}
 	
 	/**
@@ -5551,7 +5605,9 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @param isDot
 	 */
 	public void notifyAttackAvoid(final L2Character target, final boolean isDot) {
-		EventDispatcher.getInstance().notifyEventAsync(new CreatureAttackAvoid(this, target, isDot), target);
+		if (EventDispatcher.getInstance().hasListener(EventType.CREATURE_ATTACK_AVOID, target)) {
+			EventDispatcher.getInstance().notifyEventAsync(new CreatureAttackAvoid(this, target, isDot), target);
+		}
 	}
 	
 	/**
@@ -5681,6 +5737,16 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		return both;
 	}
 	
+	@Override
+	public boolean hasListener(EventType type) {
+		if (!ListenersContainer.isListened(type)) {
+			return false;
+		}
+		
+		final ListenersContainer global = isNpc() && !isMonster() ? Containers.Npcs() : isMonster() ? Containers.Monsters() : isPlayer() ? Containers.Players() : null;
+		return super.hasListener(type) || getTemplate().hasListener(type) || ((global != null) && global.hasListener(type));
+	}
+	
 	public Race getRace() {
 		return getTemplate().getRace();
 	}
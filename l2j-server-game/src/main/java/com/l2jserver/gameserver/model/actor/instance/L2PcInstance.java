@@ -59,6 +59,7 @@ import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
@@ -339,6 +340,8 @@ import com.l2jserver.gameserver.network.serverpackets.TradeStart;
 import com.l2jserver.gameserver.network.serverpackets.UserInfo;
 import com.l2jserver.gameserver.network.serverpackets.ValidateLocation;
 import com.l2jserver.gameserver.taskmanager.AttackStanceTaskManager;
+import com.l2jserver.gameserver.taskmanager.PlayerInfoTaskManager;
+import com.l2jserver.gameserver.taskmanager.PlayerSaveTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 import com.l2jserver.gameserver.util.EnumIntBitmask;
 import com.l2jserver.gameserver.util.FloodProtectors;
@@ -385,6 +388,14 @@ public final class L2PcInstance extends L2Playable {
 	// TODO: This needs to be better integrated and saved/loaded
 	private final L2Radar _radar;
 	private final AtomicInteger _charges = new AtomicInteger();
+	/** The info blocks waiting for the next flush of the player info task manager. */
+	private final AtomicInteger _staleInfo = new AtomicInteger();
+	/** The game tick of the last info update sent. */
+	private final AtomicInteger _infoTick = new AtomicInteger(-1);
+	/** The version of the last save requested. */
+	private final AtomicLong _saveVersion = new AtomicLong();
+	/** The version of the last save written. */
+	private final AtomicLong _savedVersion = new AtomicLong();
 	private final L2Request _request = new L2Request(this);
 	private final Map<Integer, String> _chars = new LinkedHashMap<>();
 	/** Player's cubics. */
@@ -736,6 +747,7 @@ public final class L2PcInstance extends L2Playable {
 	 */
 	public static L2PcInstance load(int objectId) {
 		try {
+			PlayerSaveTaskManager.flushIfEnabled(objectId);
 			final L2PcInstance player = DAOFactory.getInstance().getPlayerDAO().load(objectId);
 			if (player == null) {
 				return null;
@@ -3542,6 +3554,12 @@ public final class L2PcInstance extends L2Playable {
 		// Send the Server->Client packet StatusUpdate with current HP and MP to all L2PcInstance that must be informed of HP/MP updates of this L2PcInstance
 		// super.broadcastStatusUpdate();
 		
+		if (!PlayerInfoTaskManager.getInstance().defer(this, PlayerInfoTaskManager.STATUS)) {
+			sendStatusUpdate();
+		}
+	}
+	
+	private void sendStatusUpdate() {
 		// Send the Server->Client packet StatusUpdate with current HP, MP and CP to this L2PcInstance
 		StatusUpdate su = new StatusUpdate(this);
 		su.addAttribute(StatusUpdate.MAX_HP, getMaxHp());
@@ -3581,17 +3599,64 @@ public final class L2PcInstance extends L2Playable {
 	 * STR, DEX...</B></FONT>
 	 */
 	public void broadcastUserInfo() {
-		// Send a Server->Client packet UserInfo to this L2PcInstance
-		sendPacket(new UserInfo(this));
+		final int blocks = PlayerInfoTaskManager.USER_INFO | PlayerInfoTaskManager.CHAR_INFO;
+		if (!PlayerInfoTaskManager.getInstance().defer(this, blocks)) {
+			sendInfo(blocks);
+		}
+	}
+	
+	/**
+	 * Sends the info blocks of this player right away.
+	 * @param blocks the info blocks, a combination of the {@link PlayerInfoTaskManager} block flags
+	 */
+	public void sendInfo(int blocks) {
+		if ((blocks & PlayerInfoTaskManager.CHAR_INFO) != 0) {
+			// Send a Server->Client packet UserInfo to this L2PcInstance
+			sendPacket(new UserInfo(this));
+			
+			// Send a Server->Client packet CharInfo to all L2PcInstance in _KnownPlayers of the L2PcInstance
+			broadcastPacket(new CharInfo(this));
+			broadcastPacket(new ExBrExtraUserInfo(this));
+			if (TerritoryWarManager.getInstance().isTWInProgress() && (TerritoryWarManager.getInstance().checkIsRegistered(-1, getObjectId()) || TerritoryWarManager.getInstance().checkIsRegistered(-1, getClan()))) {
+				broadcastPacket(new ExDominionWarStart(this));
+			}
+		} else if ((blocks & PlayerInfoTaskManager.USER_INFO) != 0) {
+			sendPacket(new UserInfo(this));
+			sendPacket(new ExBrExtraUserInfo(this));
+		}
 		
-		// Send a Server->Client packet CharInfo to all L2PcInstance in _KnownPlayers of the L2PcInstance
-		broadcastPacket(new CharInfo(this));
-		broadcastPacket(new ExBrExtraUserInfo(this));
-		if (TerritoryWarManager.getInstance().isTWInProgress() && (TerritoryWarManager.getInstance().checkIsRegistered(-1, getObjectId()) || TerritoryWarManager.getInstance().checkIsRegistered(-1, getClan()))) {
-			broadcastPacket(new ExDominionWarStart(this));
+		if ((blocks & PlayerInfoTaskManager.STATUS) != 0) {
+			sendStatusUpdate();
 		}
 	}
 	
+	/**
+	 * Marks the game tick of the last info update sent.
+	 * @param tick the game tick
+	 * @return {@code true} if no info update was sent yet during this tick
+	 */
+	public boolean markInfoTick(int tick) {
+		return _infoTick.getAndSet(tick) != tick;
+	}
+	
+	/**
+	 * Marks info blocks as stale until the next flush.
+	 * @param blocks the info blocks
+	 * @return the info blocks that were already stale
+	 */
+	public int markStaleInfo(int blocks) {
+		return _staleInfo.getAndUpdate(stale -> stale | blocks);
+	}
+	
+	/**
+	 * Clears stale info blocks.
+	 * @param blocks the info blocks to clear, {@code -1} for all
+	 * @return the info blocks that were stale
+	 */
+	public int takeStaleInfo(int blocks) {
+		return _staleInfo.getAndUpdate(stale -> stale & ~blocks) & blocks;
+	}
+	
 	public void broadcastTitleInfo() {
 		// Send a Server->Client packet UserInfo to this L2PcInstance
 		sendPacket(new UserInfo(this));
@@ -3604,6 +3669,10 @@ public final class L2PcInstance extends L2Playable {
 	
 	@Override
 	public void broadcastPacket(L2GameServerPacket mov) {
+		if (!Broadcast.prepare(this, mov, true, 0)) {
+			return;
+		}
+		
 		if (!(mov instanceof CharInfo)) {
 			sendPacket(mov);
 		}
@@ -3631,6 +3700,10 @@ public final class L2PcInstance extends L2Playable {
 	
 	@Override
 	public void broadcastPacket(L2GameServerPacket mov, int radiusInKnownlist) {
+		if (!Broadcast.prepare(this, mov, true, radiusInKnownlist)) {
+			return;
+		}
+		
 		if (!(mov instanceof CharInfo)) {
 			sendPacket(mov);
 		}
@@ -5710,9 +5783,8 @@ public final class L2PcInstance extends L2Playable {
 		refreshOverloaded();
 		refreshExpertisePenalty();
 		// Send a Server->Client packet UserInfo to this L2PcInstance and CharInfo to all L2PcInstance in its _KnownPlayers (broadcast)
-		if (broadcastType == 1) {
-			sendPacket(new UserInfo(this));
-			sendPacket(new ExBrExtraUserInfo(this));
+		if ((broadcastType == 1) && !PlayerInfoTaskManager.getInstance().defer(this, PlayerInfoTaskManager.USER_INFO)) {
+			sendInfo(PlayerInfoTaskManager.USER_INFO);
 		}
 		if (broadcastType == 2) {
 			broadcastUserInfo();
@@ -5812,8 +5884,22 @@ public final class L2PcInstance extends L2Playable {
 	 * @param storeActiveEffects
 	 */
 	public synchronized void store(boolean storeActiveEffects) {
+		// A queued save holds older data, it must not be written after this one
+		if (!isSaved()) {
+			PlayerSaveTaskManager.flushIfEnabled(getObjectId());
+		}
+		
 		DAOFactory.getInstance().getPlayerDAO().storeCharBase(this);
 		
+		storeDetails(storeActiveEffects);
+	}
+	
+	/**
+	 * Update L2PcInstance subclasses, effects, reuse, recipe shop, UI settings and variables in the database, everything but the characters table.<br>
+	 * Not synchronized on the player, the player save task manager calls it while other threads wait for the queued saves in {@link #store(boolean)}.
+	 * @param storeActiveEffects
+	 */
+	public void storeDetails(boolean storeActiveEffects) {
 		DAOFactory.getInstance().getSubclassDAO().update(this);
 		
 		storeEffect(storeActiveEffects);
@@ -5844,7 +5930,32 @@ public final class L2PcInstance extends L2Playable {
 	
 	@Override
 	public void storeMe() {
-		store(true);
+		if (general().characterWriteBehind()) {
+			PlayerSaveTaskManager.getInstance().schedule(this);
+		} else {
+			store(true);
+		}
+	}
+	
+	/**
+	 * @return the version of the new save
+	 */
+	public long nextSaveVersion() {
+		return _saveVersion.incrementAndGet();
+	}
+	
+	/**
+	 * @param version the version of the save written to the database
+	 */
+	public void setSavedVersion(long version) {
+		_savedVersion.accumulateAndGet(version, Math::max);
+	}
+	
+	/**
+	 * @return {@code true} if every save requested was written to the database
+	 */
+	public boolean isSaved() {
+		return _savedVersion.get() >= _saveVersion.get();
 	}
 	
 	@Override
@@ -6103,6 +6214,7 @@ public final class L2PcInstance extends L2Playable {
 			_hennaWIT += ((_hennaWIT + h.getStatWIT()) > 5) ? 5 - _hennaWIT : h.getStatWIT();
 			_hennaDEX += ((_hennaDEX + h.getStatDEX()) > 5) ? 5 - _hennaDEX : h.getStatDEX();
 		}
+		getStat().invalidateStatCache();
 	}
 	
 	/**
@@ -22,15 +22,20 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import com.l2jserver.gameserver.model.L2Object;
+import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Summon;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
+import com.l2jserver.gameserver.util.ConcurrentIntMap;
 import com.l2jserver.gameserver.util.Util;
 
 public class CharKnownList extends ObjectKnownList {
+	/** Widening of the cell query of {@link #getKnownCharactersInRadius(long)}, half of the largest collision radius of a character. */
+	private static final int COLLISION_MARGIN = 256;
+	
 	private volatile Map<Integer, L2PcInstance> _knownPlayers;
 	private volatile Map<Integer, L2Summon> _knownSummons;
 	private volatile Map<Integer, Integer> _knownRelations;
@@ -171,14 +176,26 @@ public class CharKnownList extends ObjectKnownList {
 	}
 	
 	public List<L2Character> getKnownCharactersInRadius(long radius) {
-		List<L2Character> result = new LinkedList<>();
-		for (L2Object obj : getKnownObjects().values()) {
-			if (obj instanceof L2Character) {
-				if (Util.checkIfInRange((int) radius, getActiveChar(), obj, true)) {
-					result.add((L2Character) obj);
+		final L2Character activeChar = getActiveChar();
+		final List<L2Character> result = new LinkedList<>();
+		if ((radius < 0) || (activeChar.getWorldRegion() == null)) {
+			for (L2Object obj : getKnownObjects().values()) {
+				if (obj instanceof L2Character) {
+					if (Util.checkIfInRange((int) radius, activeChar, obj, true)) {
+						result.add((L2Character) obj);
+					}
 				}
 			}
+			return result;
 		}
+		
+		// The cell query only preselects, the range check includes the collision radii
+		final int range = (int) Math.min(radius + (activeChar.getTemplate().getCollisionRadius() / 2) + COLLISION_MARGIN, Integer.MAX_VALUE);
+		L2World.getInstance().forEachVisibleObjectInRange(activeChar, L2Character.class, range, false, true, character -> {
+			if (knowsObject(character) && Util.checkIfInRange((int) radius, activeChar, character, true)) {
+				result.add(character);
+			}
+		});
 		return result;
 	}
 	
@@ -196,7 +213,7 @@ public class CharKnownList extends ObjectKnownList {
 		if (_knownPlayers == null) {
 			synchronized (this) {
 				if (_knownPlayers == null) {
-					_knownPlayers = new ConcurrentHashMap<>();
+					_knownPlayers = new ConcurrentIntMap<>();
 				}
 			}
 		}
@@ -207,7 +224,7 @@ public class CharKnownList extends ObjectKnownList {
 		if (_knownRelations == null) {
 			synchronized (this) {
 				if (_knownRelations == null) {
-					_knownRelations = new ConcurrentHashMap<>();
+					_knownRelations = new ConcurrentIntMap<>();
 				}
 			}
 		}
@@ -218,13 +235,30 @@ public class CharKnownList extends ObjectKnownList {
 		if (_knownSummons == null) {
 			synchronized (this) {
 				if (_knownSummons == null) {
-					_knownSummons = new ConcurrentHashMap<>();
+					_knownSummons = new ConcurrentIntMap<>();
 				}
 			}
 		}
 		return _knownSummons;
 	}
 	
+	@Override
+	public void forEachRegistry(Consumer<Map<Integer, ?>> action) {
+		super.forEachRegistry(action);
+		final Map<Integer, L2PcInstance> knownPlayers = _knownPlayers;
+		if (knownPlayers != null) {
+			action.accept(knownPlayers);
+		}
+		final Map<Integer, L2Summon> knownSummons = _knownSummons;
+		if (knownSummons != null) {
+			action.accept(knownSummons);
+		}
+		final Map<Integer, Integer> knownRelations = _knownRelations;
+		if (knownRelations != null) {
+			action.accept(knownRelations);
+		}
+	}
+	
 	@Override
 	public final String toString() {
 		return getActiveChar() + " Known Objects " + getKnownObjects();
@@ -20,16 +20,21 @@ package com.l2jserver.gameserver.model.actor.knownlist;
 
 import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.L2WorldRegion;
 import com.l2jserver.gameserver.model.actor.L2Character;
+import com.l2jserver.gameserver.util.ConcurrentIntMap;
 import com.l2jserver.gameserver.util.Util;
 
 public class ObjectKnownList {
 	private final L2Object _activeObject;
 	private volatile Map<Integer, L2Object> _knownObjects;
+	/** Position of the active object at its last incremental knownlist update. */
+	private volatile int _lastUpdateX;
+	private volatile int _lastUpdateY;
+	private volatile int _lastUpdateZ;
 	
 	public ObjectKnownList(L2Object activeObject) {
 		_activeObject = activeObject;
@@ -149,6 +154,43 @@ public class ObjectKnownList {
 		}
 	}
 	
+	/**
+	 * Removes the given object if it is known and became invisible or too far to be kept.
+	 * @param object the object to check
+	 * @return {@code true} if the object was removed, {@code false} otherwise
+	 */
+	public final boolean forgetObject(L2Object object) {
+		if ((object == null) || !getKnownObjects().containsKey(object.getObjectId())) {
+			return false;
+		}
+		
+		if (object.isVisible() && Util.checkIfInShortRadius(getDistanceToForgetObject(object), getActiveObject(), object, true)) {
+			return false;
+		}
+		return removeKnownObject(object);
+	}
+	
+	/**
+	 * Stores the current position of the active object as the position of its last knownlist update.
+	 */
+	public final void markUpdated() {
+		_lastUpdateX = getActiveObject().getX();
+		_lastUpdateY = getActiveObject().getY();
+		_lastUpdateZ = getActiveObject().getZ();
+	}
+	
+	/**
+	 * @param distance the distance to check
+	 * @return {@code true} if the active object moved at least the given distance since its last knownlist update, {@code false} otherwise
+	 */
+	public final boolean hasMovedSinceUpdate(int distance) {
+		final long dx = getActiveObject().getX() - _lastUpdateX;
+		final long dy = getActiveObject().getY() - _lastUpdateY;
+		// Watch and forget distances include the Z axis, a vertical move changes the knownlist as well
+		final long dz = getActiveObject().getZ() - _lastUpdateZ;
+		return ((dx * dx) + (dy * dy) + (dz * dz)) >= ((long) distance * distance);
+	}
+	
 	public L2Object getActiveObject() {
 		return _activeObject;
 	}
@@ -168,10 +210,21 @@ public class ObjectKnownList {
 		if (_knownObjects == null) {
 			synchronized (this) {
 				if (_knownObjects == null) {
-					_knownObjects = new ConcurrentHashMap<>();
+					_knownObjects = new ConcurrentIntMap<>();
 				}
 			}
 		}
 		return _knownObjects;
 	}
+	
+	/**
+	 * Passes every registry of this known list created so far to the given action, used for memory reports.
+	 * @param action the action
+	 */
+	public void forEachRegistry(Consumer<Map<Integer, ?>> action) {
+		final Map<Integer, L2Object> knownObjects = _knownObjects;
+		if (knownObjects != null) {
+			action.accept(knownObjects);
+		}
+	}
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.actor.movement;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Struct-of-arrays store of moving objects.<br>
+ * Every mover occupies one slot and its last written position, destination and speed are kept in primitive arrays, so a tick is a single linear pass over those arrays.<br>
+ * The pass only predicts how far each mover went since its last write back and reports the slots that must be written back to their owner, because they moved further than the configured threshold, reached their destination or were not refreshed for too long.<br>
+ * This class is not thread safe, it must be used by a single thread (the game time thread).
+ * @param <T> the mover type
+ */
+public final class MovementBatch<T> {
+	private static final int INITIAL_CAPACITY = 1024;
+	
+	/** Minimum amount of movers per parallel chunk. */
+	private static final int PARALLEL_CHUNK = 4096;
+	
+	private final Map<T, Integer> _slots = new IdentityHashMap<>();
+	private Object[] _movers = new Object[INITIAL_CAPACITY];
+	private double[] _x = new double[INITIAL_CAPACITY];
+	private double[] _y = new double[INITIAL_CAPACITY];
+	private double[] _destX = new double[INITIAL_CAPACITY];
+	private double[] _destY = new double[INITIAL_CAPACITY];
+	/** Speed in game units per tick. */
+	private double[] _speed = new double[INITIAL_CAPACITY];
+	private int[] _lastTick = new int[INITIAL_CAPACITY];
+	private boolean[] _due = new boolean[INITIAL_CAPACITY];
+	private int _size;
+	
+	/**
+	 * @return the amount of movers
+	 */
+	public int size() {
+		return _size;
+	}
+	
+	/**
+	 * @param mover the mover
+	 * @return {@code true} if the mover has a slot
+	 */
+	public boolean contains(T mover) {
+		return _slots.containsKey(mover);
+	}
+	
+	/**
+	 * @param index the slot
+	 * @return the mover of the given slot
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int index) {
+		return (T) _movers[index];
+	}
+	
+	/**
+	 * Adds a mover or refreshes its slot if it is already present.
+	 * @param mover the mover
+	 * @param x the current X
+	 * @param y the current Y
+	 * @param destX the destination X
+	 * @param destY the destination Y
+	 * @param speedPerTick the speed in game units per tick
+	 * @param tick the current game tick
+	 */
+	public void put(T mover, double x, double y, double destX, double destY, double speedPerTick, int tick) {
+		Integer index = _slots.get(mover);
+		if (index == null) {
+			ensureCapacity(_size + 1);
+			index = _size++;
+			_slots.put(mover, index);
+			_movers[index] = mover;
+		}
+		set(index, x, y, destX, destY, speedPerTick, tick);
+	}
+	
+	/**
+	 * Refreshes the slot at the given index after its mover was written back.
+	 * @param index the slot
+	 * @param x the current X
+	 * @param y the current Y
+	 * @param destX the destination X
+	 * @param destY the destination Y
+	 * @param speedPerTick the speed in game units per tick
+	 * @param tick the current game tick
+	 */
+	public void set(int index, double x, double y, double destX, double destY, double speedPerTick, int tick) {
+		_x[index] = x;
+		_y[index] = y;
+		_destX[index] = destX;
+		_destY[index] = destY;
+		_speed[index] = speedPerTick;
+		_lastTick[index] = tick;
+	}
+	
+	/**
+	 * Removes the slot at the given index by moving the last slot into it.<br>
+	 * Slots with a higher index than the removed one may change, so callers iterating over due slots must do it in descending order.
+	 * @param index the slot
+	 */
+	public void removeAt(int index) {
+		final int last = --_size;
+		_slots.remove(_movers[index]);
+		if (index != last) {
+			_movers[index] = _movers[last];
+			_x[index] = _x[last];
+			_y[index] = _y[last];
+			_destX[index] = _destX[last];
+			_destY[index] = _destY[last];
+			_speed[index] = _speed[last];
+			_lastTick[index] = _lastTick[last];
+			_slots.put(get(index), index);
+		}
+		_movers[last] = null;
+	}
+	
+	/**
+	 * Removes the given mover.
+	 * @param mover the mover
+	 */
+	public void remove(T mover) {
+		final Integer index = _slots.get(mover);
+		if (index != null) {
+			removeAt(index);
+		}
+	}
+	
+	/**
+	 * Predicts the position of every mover for the given tick and collects the slots that must be written back.
+	 * @param tick the current game tick
+	 * @param threshold the distance a mover may move without being written back
+	 * @param maxTicks the amount of ticks after which a mover is written back regardless of the distance
+	 * @param parallel if {@code true} big batches are processed in parallel chunks
+	 * @param due the array receiving the due slots in ascending order, must be at least {@link #size()} long
+	 * @return the amount of due slots
+	 */
+	public int collectDue(int tick, double threshold, int maxTicks, boolean parallel, int[] due) {
+		final int size = _size;
+		if (parallel && (size >= (PARALLEL_CHUNK * 2))) {
+			final int chunks = (size + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+			IntStream.range(0, chunks).parallel().forEach(chunk -> predict(chunk * PARALLEL_CHUNK, Math.min(size, (chunk + 1) * PARALLEL_CHUNK), tick, threshold, maxTicks));
+		} else {
+			predict(0, size, tick, threshold, maxTicks);
+		}
+		
+		final boolean[] flags = _due;
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (flags[i]) {
+				due[count++] = i;
+			}
+		}
+		return count;
+	}
+	
+	private void predict(int from, int to, int tick, double threshold, int maxTicks) {
+		final double[] x = _x;
+		final double[] y = _y;
+		final double[] destX = _destX;
+		final double[] destY = _destY;
+		final double[] speed = _speed;
+		final int[] lastTick = _lastTick;
+		final boolean[] flags = _due;
+		final double thresholdSq = threshold * threshold;
+		for (int i = from; i < to; i++) {
+			final int ticks = tick - lastTick[i];
+			final double passed = speed[i] * ticks;
+			final double dx = destX[i] - x[i];
+			final double dy = destY[i] - y[i];
+			final double passedSq = passed * passed;
+			flags[i] = (passedSq >= thresholdSq) | (passedSq >= ((dx * dx) + (dy * dy))) | (ticks >= maxTicks);
+		}
+	}
+	
+	/**
+	 * Removes every mover.
+	 */
+	public void clear() {
+		Arrays.fill(_movers, 0, _size, null);
+		_slots.clear();
+		_size = 0;
+	}
+	
+	private void ensureCapacity(int capacity) {
+		if (capacity <= _movers.length) {
+			return;
+		}
+		
+		final int newCapacity = Math.max(capacity, _movers.length * 2);
+		_movers = Arrays.copyOf(_movers, newCapacity);
+		_x = Arrays.copyOf(_x, newCapacity);
+		_y = Arrays.copyOf(_y, newCapacity);
+		_destX = Arrays.copyOf(_destX, newCapacity);
+		_destY = Arrays.copyOf(_destY, newCapacity);
+		_speed = Arrays.copyOf(_speed, newCapacity);
+		_lastTick = Arrays.copyOf(_lastTick, newCapacity);
+		_due = Arrays.copyOf(_due, newCapacity);
+	}
+}
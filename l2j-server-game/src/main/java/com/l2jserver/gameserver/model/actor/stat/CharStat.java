@@ -32,6 +32,7 @@ import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
 import com.l2jserver.gameserver.model.skills.Skill;
 import com.l2jserver.gameserver.model.stats.Calculator;
 import com.l2jserver.gameserver.model.stats.MoveType;
+import com.l2jserver.gameserver.model.stats.StatCache;
 import com.l2jserver.gameserver.model.stats.Stats;
 import com.l2jserver.gameserver.model.stats.TraitType;
 import com.l2jserver.gameserver.model.zone.ZoneId;
@@ -44,6 +45,7 @@ public class CharStat {
 	private final float[] _defenceTraits = new float[TraitType.values().length];
 	private final int[] _defenceTraitsCount = new int[TraitType.values().length];
 	private final int[] _traitsInvul = new int[TraitType.values().length];
+	private final StatCache _statCache = new StatCache();
 	
 	public CharStat(L2Character activeChar) {
 		_activeChar = activeChar;
@@ -51,6 +53,14 @@ public class CharStat {
 		Arrays.fill(_defenceTraits, 1.0f);
 	}
 	
+	/**
+	 * Invalidates the cached stat values.<br>
+	 * Must be called whenever something a cacheable stat function depends on changes.
+	 */
+	public final void invalidateStatCache() {
+		_statCache.invalidate();
+	}
+	
 	public final double calcStat(Stats stat, double init) {
 		return calcStat(stat, init, null, null);
 	}
@@ -88,11 +98,14 @@ public class CharStat {
 			if (val > 0) {
 				value = val;
 			}
+			
+			// Launch the calculation, transformations may change the level modifier
+			value = c.calc(_activeChar, target, skill, value);
+		} else {
+			// Launch the calculation or reuse the cached result
+			value = _statCache.calc(stat, c.getFunctions(), _activeChar.getLevel(), _activeChar, target, skill, value);
 		}
 		
-		// Launch the calculation
-		value = c.calc(_activeChar, target, skill, value);
-		
 		// avoid some troubles with negative stats (some stats should never be negative)
 		if (value <= 0) {
 			switch (stat) {
@@ -56,6 +56,7 @@ import com.l2jserver.gameserver.network.serverpackets.NpcHtmlMessage;
 import com.l2jserver.gameserver.network.serverpackets.SocialAction;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
 import com.l2jserver.gameserver.network.serverpackets.UserInfo;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
 import com.l2jserver.gameserver.util.StringUtil;
 
 /**
@@ -734,6 +735,7 @@ public class Hero {
 	}
 	
 	private void deleteItemsInDb() {
+		ItemPersistenceTaskManager.flushIfEnabled();
 		try (var con = ConnectionFactory.getInstance().getConnection();
 			var s = con.createStatement()) {
 			s.executeUpdate(DELETE_ITEMS);
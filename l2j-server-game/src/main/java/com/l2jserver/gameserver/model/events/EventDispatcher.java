@@ -18,8 +18,12 @@
  */
 package com.l2jserver.gameserver.model.events;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,12 +34,61 @@ import com.l2jserver.gameserver.model.events.listeners.AbstractEventListener;
 import com.l2jserver.gameserver.model.events.returns.AbstractEventReturn;
 
 /**
+ * Event dispatcher.<br>
+ * Events are only notified when the global container or one of the target containers has listeners for their type, see {@link #hasListener(EventType, ListenersContainer)} to skip building events nobody listens to.
  * @author UnAfraid
  */
 public final class EventDispatcher {
 	private static final Logger LOG = LoggerFactory.getLogger(EventDispatcher.class);
 	
+	private final LongAdder[] _dispatched = new LongAdder[EventType.values().length];
+	private final LongAdder[] _skipped = new LongAdder[EventType.values().length];
+	
 	private EventDispatcher() {
+		for (int i = 0; i < _dispatched.length; i++) {
+			_dispatched[i] = new LongAdder();
+			_skipped[i] = new LongAdder();
+		}
+	}
+	
+	/**
+	 * Checks if an event would reach any listener, so hot paths only build the event when someone listens to it.<br>
+	 * When no container at all has listeners for the type this is a single check.
+	 * @param type the event type
+	 * @param container the target container, may be {@code null}
+	 * @return {@code true} if the global container or the target container has listeners for the type
+	 */
+	public boolean hasListener(EventType type, ListenersContainer container) {
+		if (isListened(type, container)) {
+			return true;
+		}
+		_skipped[type.ordinal()].increment();
+		return false;
+	}
+	
+	/**
+	 * Checks if an event would reach any listener of several containers.
+	 * @param type the event type
+	 * @param containers the target containers
+	 * @return {@code true} if the global container or one of the target containers has listeners for the type
+	 */
+	public boolean hasListener(EventType type, ListenersContainer... containers) {
+		if (ListenersContainer.isListened(type)) {
+			if (Containers.Global().hasListener(type)) {
+				return true;
+			}
+			for (ListenersContainer container : containers) {
+				if (container.hasListener(type)) {
+					return true;
+				}
+			}
+		}
+		_skipped[type.ordinal()].increment();
+		return false;
+	}
+	
+	private static boolean isListened(EventType type, ListenersContainer container) {
+		return ListenersContainer.isListened(type) && (Containers.Global().hasListener(type) || ((container != null) && container.hasListener(type)));
 	}
 	
 	public <T extends AbstractEventReturn> T notifyEvent(BaseEvent event) {
@@ -52,7 +105,12 @@ public final class EventDispatcher {
 	
 	public <T extends AbstractEventReturn> T notifyEvent(BaseEvent event, ListenersContainer container, Class<T> callbackClass) {
 		try {
-			return Containers.Global().hasListener(event.getType()) || ((container != null) && container.hasListener(event.getType())) ? notifyEventImpl(event, container, callbackClass) : null;
+			if (!isListened(event.getType(), container)) {
+				_skipped[event.getType().ordinal()].increment();
+				return null;
+			}
+			_dispatched[event.getType().ordinal()].increment();
+			return notifyEventImpl(event, container, callbackClass);
 		} catch (Exception e) {
 			LOG.warn("Couldn't notify event {}", event.getClass().getSimpleName(), e);
 		}
@@ -69,17 +127,8 @@ public final class EventDispatcher {
 			throw new NullPointerException("Event cannot be null!");
 		}
 		
-		boolean hasListeners = Containers.Global().hasListener(event.getType());
-		if (!hasListeners) {
-			for (ListenersContainer container : containers) {
-				if (container.hasListener(event.getType())) {
-					hasListeners = true;
-					break;
-				}
-			}
-		}
-		
-		if (hasListeners) {
+		if (hasListener(event.getType(), containers)) {
+			_dispatched[event.getType().ordinal()].increment();
 			ThreadPoolManager.getInstance().executeEvent(() -> notifyEventToMultipleContainers(event, containers, null));
 		}
 	}
@@ -91,7 +140,7 @@ public final class EventDispatcher {
 	 * @param delay
 	 */
 	public void notifyEventAsyncDelayed(BaseEvent event, ListenersContainer container, long delay) {
-		if (Containers.Global().hasListener(event.getType()) || container.hasListener(event.getType())) {
+		if (hasListener(event.getType(), container)) {
 			ThreadPoolManager.getInstance().scheduleEvent(() -> notifyEvent(event, container, null), delay);
 		}
 	}
@@ -104,7 +153,7 @@ public final class EventDispatcher {
 	 * @param unit
 	 */
 	public void notifyEventAsyncDelayed(BaseEvent event, ListenersContainer container, long delay, TimeUnit unit) {
-		if (Containers.Global().hasListener(event.getType()) || container.hasListener(event.getType())) {
+		if (hasListener(event.getType(), container)) {
 			ThreadPoolManager.getInstance().scheduleEvent(() -> notifyEvent(event, container, null), delay, unit);
 		}
 	}
@@ -201,6 +250,35 @@ public final class EventDispatcher {
 		return callback;
 	}
 	
+	/**
+	 * Gets the dispatch statistics of the most notified event types.
+	 * @param limit the maximum amount of event types
+	 * @return the statistics
+	 */
+	public String[] getStats(int limit) {
+		final List<EventType> types = new ArrayList<>();
+		long dispatched = 0;
+		long skipped = 0;
+		for (EventType type : EventType.values()) {
+			dispatched += _dispatched[type.ordinal()].sum();
+			skipped += _skipped[type.ordinal()].sum();
+			if ((_dispatched[type.ordinal()].sum() > 0) || (_skipped[type.ordinal()].sum() > 0)) {
+				types.add(type);
+			}
+		}
+		types.sort(Comparator.comparingLong((EventType type) -> _dispatched[type.ordinal()].sum() + _skipped[type.ordinal()].sum()).reversed());
+		
+		final List<String> lines = new ArrayList<>();
+		lines.add("Event Dispatcher:");
+		lines.add(" + Dispatched:       " + dispatched);
+		lines.add(" + Skipped:          " + skipped);
+		for (EventType type : types.subList(0, Math.min(limit, types.size()))) {
+			lines.add(" |- " + type + ": " + _dispatched[type.ordinal()].sum() + " dispatched, " + _skipped[type.ordinal()].sum() + " skipped");
+		}
+		lines.add(" | -------");
+		return lines.toArray(new String[0]);
+	}
+	
 	public static EventDispatcher getInstance() {
 		return SingletonHolder._instance;
 	}
@@ -22,16 +22,23 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.Predicate;
 
 import com.l2jserver.gameserver.model.events.listeners.AbstractEventListener;
 import com.l2jserver.gameserver.util.EmptyQueue;
 
 /**
+ * Listeners container.<br>
+ * Every container keeps a bit per event type telling if it has listeners for it, and the amount of listeners of every event type registered in any container is kept globally, so an event nobody listens to is discarded with a single check.
  * @author UnAfraid
  */
 public class ListenersContainer {
+	private static final AtomicIntegerArray REGISTERED = new AtomicIntegerArray(EventType.values().length);
+	
 	private volatile Map<EventType, Queue<AbstractEventListener>> _listeners = null;
+	/** Bit per event type ordinal, set while this container has listeners for the event type. */
+	private volatile long[] _types = null;
 	
 	/**
 	 * Registers listener for a callback when specified event is executed.
@@ -42,7 +49,10 @@ public class ListenersContainer {
 		if (listener == null) {
 			throw new NullPointerException("Listener cannot be null!");
 		}
-		getListeners().computeIfAbsent(listener.getType(), _ -> new PriorityBlockingQueue<>()).add(listener);
+		final var queue = getListeners().computeIfAbsent(listener.getType(), _ -> new PriorityBlockingQueue<>());
+		queue.add(listener);
+		REGISTERED.incrementAndGet(listener.getType().ordinal());
+		updateIndex(listener.getType(), queue);
 		return listener;
 	}
 	
@@ -66,7 +76,10 @@ public class ListenersContainer {
 			throw new IllegalAccessError("Listeners container doesn't had " + listener.getType() + " event type added!");
 		}
 		
-		queue.remove(listener);
+		if (queue.remove(listener)) {
+			REGISTERED.decrementAndGet(listener.getType().ordinal());
+			updateIndex(listener.getType(), queue);
+		}
 		return listener;
 	}
 	
@@ -90,8 +103,37 @@ public class ListenersContainer {
 		}
 	}
 	
+	/**
+	 * @param type the event type
+	 * @return {@code true} if this container has listeners for the specified type
+	 */
 	public boolean hasListener(EventType type) {
-		return !getListeners(type).isEmpty();
+		final var types = _types;
+		return (types != null) && ((types[type.ordinal() >>> 6] & (1L << type.ordinal())) != 0);
+	}
+	
+	/**
+	 * @param type the event type
+	 * @return {@code true} if any container has listeners for the specified type
+	 */
+	public static boolean isListened(EventType type) {
+		return REGISTERED.get(type.ordinal()) > 0;
+	}
+	
+	/**
+	 * Sets the bit of the event type from the current state of its queue.<br>
+	 * The queue is read under the lock, so the last update after concurrent registrations always sees their final state.
+	 * @param type the event type
+	 * @param queue the listeners of the event type
+	 */
+	private synchronized void updateIndex(EventType type, Queue<AbstractEventListener> queue) {
+		final long[] types = (_types != null) ? _types.clone() : new long[(EventType.values().length + 63) >>> 6];
+		if (queue.isEmpty()) {
+			types[type.ordinal() >>> 6] &= ~(1L << type.ordinal());
+		} else {
+			types[type.ordinal() >>> 6] |= 1L << type.ordinal();
+		}
+		_types = types;
 	}
 	
 	/**
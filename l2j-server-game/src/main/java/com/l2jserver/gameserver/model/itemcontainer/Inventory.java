@@ -37,6 +37,7 @@ import com.l2jserver.gameserver.model.items.L2Item;
 import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
 import com.l2jserver.gameserver.model.items.type.EtcItemType;
 import com.l2jserver.gameserver.model.items.type.WeaponType;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
 import com.l2jserver.gameserver.util.StringUtil;
 
 /**
@@ -363,6 +364,11 @@ public abstract class Inventory extends ItemContainer {
 				}
 				item.updateDatabase();
 			}
+			
+			// Paperdoll dependent stat functions must be recalculated
+			if (getOwner() != null) {
+				getOwner().getStat().invalidateStatCache();
+			}
 		}
 		return old;
 	}
@@ -718,6 +724,7 @@ public abstract class Inventory extends ItemContainer {
 	 */
 	@Override
 	public void restore() {
+		ItemPersistenceTaskManager.flushIfEnabled(getOwnerId());
 		try (var con = ConnectionFactory.getInstance().getConnection();
 			var ps = con.prepareStatement("SELECT object_id, item_id, count, enchant_level, loc, loc_data, custom_type1, custom_type2, mana_left, time, agathion_energy FROM items WHERE owner_id=? AND (loc=? OR loc=?) ORDER BY loc_data")) {
 			ps.setInt(1, getOwnerId());
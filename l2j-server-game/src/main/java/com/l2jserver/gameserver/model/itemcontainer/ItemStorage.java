@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.itemcontainer;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+
+/**
+ * Item storage.<br>
+ * Indexes the items of a container by object ID and by item ID, so the lookups do not scan the container and the writes do not copy it.<br>
+ * The items are iterated in insertion order without snapshot, the iteration reflects the writes made during it or not, but never fails.<br>
+ * The writes are serialized per item ID on a set of locks shared by every storage.
+ */
+public final class ItemStorage implements Iterable<L2ItemInstance> {
+	private static final L2ItemInstance[] EMPTY = new L2ItemInstance[0];
+	
+	private static final int STRIPES = 64;
+	private static final Object[] LOCKS = new Object[STRIPES];
+	static {
+		for (int i = 0; i < STRIPES; i++) {
+			LOCKS[i] = new Object();
+		}
+	}
+	
+	private final Map<Integer, Slot> _byObjectId = new ConcurrentHashMap<>();
+	private final Map<Integer, L2ItemInstance[]> _byItemId = new ConcurrentHashMap<>();
+	private final ConcurrentSkipListMap<Long, L2ItemInstance> _order = new ConcurrentSkipListMap<>();
+	private final AtomicLong _sequence = new AtomicLong();
+	
+	private Object lock(int itemId) {
+		return LOCKS[((System.identityHashCode(this) * 31) + itemId) & (STRIPES - 1)];
+	}
+	
+	/**
+	 * Adds an item.
+	 * @param item the item
+	 * @return {@code true} if the item was added, {@code false} if an item with the same object ID is already stored
+	 */
+	public boolean add(L2ItemInstance item) {
+		synchronized (lock(item.getId())) {
+			final long sequence = _sequence.incrementAndGet();
+			if (_byObjectId.putIfAbsent(item.getObjectId(), new Slot(sequence, item)) != null) {
+				return false;
+			}
+			
+			_order.put(sequence, item);
+			_byItemId.merge(item.getId(), new L2ItemInstance[] {
+				item
+			}, (items, added) -> {
+				final L2ItemInstance[] result = Arrays.copyOf(items, items.length + 1);
+				result[items.length] = item;
+				return result;
+			});
+			return true;
+		}
+	}
+	
+	/**
+	 * Removes an item.
+	 * @param item the item
+	 * @return {@code true} if the item was stored
+	 */
+	public boolean remove(L2ItemInstance item) {
+		synchronized (lock(item.getId())) {
+			final Slot slot = _byObjectId.get(item.getObjectId());
+			if ((slot == null) || (slot.item() != item)) {
+				return false;
+			}
+			
+			_byObjectId.remove(item.getObjectId());
+			_order.remove(slot.sequence());
+			_byItemId.computeIfPresent(item.getId(), (itemId, items) -> {
+				if (items.length == 1) {
+					return null;
+				}
+				
+				final L2ItemInstance[] result = new L2ItemInstance[items.length - 1];
+				int i = 0;
+				for (L2ItemInstance stored : items) {
+					if ((stored != item) && (i < result.length)) {
+						result[i++] = stored;
+					}
+				}
+				return result;
+			});
+			return true;
+		}
+	}
+	
+	/**
+	 * Removes the oldest item.
+	 * @return the removed item, {@code null} if the storage is empty
+	 */
+	public L2ItemInstance removeFirst() {
+		for (Map.Entry<Long, L2ItemInstance> entry = _order.firstEntry(); entry != null; entry = _order.firstEntry()) {
+			if (remove(entry.getValue())) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+	
+	public boolean contains(L2ItemInstance item) {
+		final Slot slot = _byObjectId.get(item.getObjectId());
+		return (slot != null) && (slot.item() == item);
+	}
+	
+	/**
+	 * @param objectId the object ID
+	 * @return the item with this object ID, {@code null} if none
+	 */
+	public L2ItemInstance getByObjectId(int objectId) {
+		final Slot slot = _byObjectId.get(objectId);
+		return slot != null ? slot.item() : null;
+	}
+	
+	/**
+	 * @param itemId the item ID
+	 * @return the oldest item with this item ID, {@code null} if none
+	 */
+	public L2ItemInstance getByItemId(int itemId) {
+		final L2ItemInstance[] items = _byItemId.get(itemId);
+		return items != null ? items[0] : null;
+	}
+	
+	/**
+	 * @param itemId the item ID
+	 * @return the items with this item ID in insertion order, the array must not be modified
+	 */
+	public L2ItemInstance[] getAllByItemId(int itemId) {
+		return _byItemId.getOrDefault(itemId, EMPTY);
+	}
+	
+	/**
+	 * @param itemId the item ID
+	 * @return the items with this item ID in insertion order
+	 */
+	public List<L2ItemInstance> getListByItemId(int itemId) {
+		return List.of(getAllByItemId(itemId));
+	}
+	
+	public int size() {
+		return _byObjectId.size();
+	}
+	
+	public boolean isEmpty() {
+		return _byObjectId.isEmpty();
+	}
+	
+	public void clear() {
+		for (L2ItemInstance item : this) {
+			remove(item);
+		}
+	}
+	
+	public L2ItemInstance[] toArray() {
+		return _order.values().toArray(EMPTY);
+	}
+	
+	@Override
+	public Iterator<L2ItemInstance> iterator() {
+		return _order.values().iterator();
+	}
+	
+	@Override
+	public void forEach(Consumer<? super L2ItemInstance> action) {
+		_order.values().forEach(action);
+	}
+	
+	private record Slot(long sequence, L2ItemInstance item) {
+	}
+}
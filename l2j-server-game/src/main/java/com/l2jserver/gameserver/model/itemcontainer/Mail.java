@@ -27,6 +27,7 @@ import com.l2jserver.gameserver.idfactory.IdFactory;
 import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
 
 /**
  * @author DS
@@ -101,6 +102,7 @@ public class Mail extends ItemContainer {
 	
 	@Override
 	public void restore() {
+		ItemPersistenceTaskManager.flushIfEnabled(getOwnerId());
 		try (var con = ConnectionFactory.getInstance().getConnection();
 			var ps = con.prepareStatement("SELECT object_id, item_id, count, enchant_level, loc, loc_data, custom_type1, custom_type2, mana_left, time, agathion_energy FROM items WHERE owner_id=? AND loc=? AND loc_data=?")) {
 			ps.setInt(1, getOwnerId());
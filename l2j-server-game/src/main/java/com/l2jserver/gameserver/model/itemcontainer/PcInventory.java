@@ -49,6 +49,7 @@ import com.l2jserver.gameserver.network.serverpackets.InventoryUpdate;
 import com.l2jserver.gameserver.network.serverpackets.ItemList;
 import com.l2jserver.gameserver.network.serverpackets.SkillCoolTime;
 import com.l2jserver.gameserver.network.serverpackets.StatusUpdate;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
 import com.l2jserver.gameserver.util.Util;
 
 public class PcInventory extends Inventory {
@@ -208,12 +209,8 @@ public class PcInventory extends Inventory {
 	 */
 	public L2ItemInstance[] getAllItemsByItemId(int itemId, boolean includeEquipped) {
 		List<L2ItemInstance> list = new LinkedList<>();
-		for (L2ItemInstance item : _items) {
-			if (item == null) {
-				continue;
-			}
-			
-			if ((item.getId() == itemId) && (includeEquipped || !item.isEquipped())) {
+		for (L2ItemInstance item : _items.getAllByItemId(itemId)) {
+			if (includeEquipped || !item.isEquipped()) {
 				list.add(item);
 			}
 		}
@@ -238,12 +235,8 @@ public class PcInventory extends Inventory {
 	 */
 	public L2ItemInstance[] getAllItemsByItemId(int itemId, int enchantment, boolean includeEquipped) {
 		List<L2ItemInstance> list = new LinkedList<>();
-		for (L2ItemInstance item : _items) {
-			if (item == null) {
-				continue;
-			}
-			
-			if ((item.getId() == itemId) && (item.getEnchantLevel() == enchantment) && (includeEquipped || !item.isEquipped())) {
+		for (L2ItemInstance item : _items.getAllByItemId(itemId)) {
+			if ((item.getEnchantLevel() == enchantment) && (includeEquipped || !item.isEquipped())) {
 				list.add(item);
 			}
 		}
@@ -685,6 +678,7 @@ public class PcInventory extends Inventory {
 	}
 	
 	public static int[][] restoreVisibleInventory(int objectId) {
+		ItemPersistenceTaskManager.flushIfEnabled(objectId);
 		int[][] paperdoll = new int[31][3];
 		try (var con = ConnectionFactory.getInstance().getConnection();
 			var ps = con.prepareStatement("SELECT object_id, item_id, loc_data, enchant_level FROM items WHERE owner_id=? AND loc='PAPERDOLL'")) {
@@ -58,6 +58,7 @@ import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.actor.knownlist.NullKnownList;
 import com.l2jserver.gameserver.model.events.EventDispatcher;
+import com.l2jserver.gameserver.model.events.EventType;
 import com.l2jserver.gameserver.model.events.impl.character.player.PlayerAugment;
 import com.l2jserver.gameserver.model.events.impl.character.player.inventory.PlayerItemDrop;
 import com.l2jserver.gameserver.model.events.impl.character.player.inventory.PlayerItemPickup;
@@ -83,6 +84,9 @@ import com.l2jserver.gameserver.network.serverpackets.InventoryUpdate;
 import com.l2jserver.gameserver.network.serverpackets.SpawnItem;
 import com.l2jserver.gameserver.network.serverpackets.StatusUpdate;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager.ItemWrite;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager.WriteType;
 import com.l2jserver.gameserver.util.GMAudit;
 
 public final class L2ItemInstance extends L2Object {
@@ -168,6 +172,8 @@ public final class L2ItemInstance extends L2Object {
 	
 	private boolean _storedInDb; // if DB data is up-to-date.
 	
+	private int _storedOwnerId; // owner of the record in DB.
+	
 	private final ReentrantLock _dbLock = new ReentrantLock();
 	
 	private Elementals[] _elementals = null;
@@ -284,7 +290,7 @@ public final class L2ItemInstance extends L2Object {
 		// Remove the L2ItemInstance from the world
 		L2World.getInstance().removeVisibleObject(this, oldregion);
 		
-		if (player.isPlayer()) {
+		if (player.isPlayer() && EventDispatcher.getInstance().hasListener(EventType.PLAYER_ITEM_PICKUP, player, getItem())) {
 			// Notify to scripts
 			EventDispatcher.getInstance().notifyEventAsync(new PlayerItemPickup(player.getActingPlayer(), this), player, getItem());
 		}
@@ -1215,23 +1221,125 @@ public final class L2ItemInstance extends L2Object {
 		_dbLock.lock();
 		
 		try {
+			final boolean writeBehind = general().itemWriteBehind();
 			if (_existsInDb) {
-				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((getCount() == 0) && (_loc != ItemLocation.LEASE))) {
-					removeFromDb();
+				if (isRemovableFromDb()) {
+					if (writeBehind) {
+						ItemPersistenceTaskManager.getInstance().schedule(this);
+					} else {
+						removeFromDb();
+					}
 				} else if (!general().lazyItemsUpdate() || force) {
-					updateInDb();
+					if (writeBehind) {
+						ItemPersistenceTaskManager.getInstance().schedule(this);
+					} else {
+						updateInDb();
+					}
 				}
 			} else {
-				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((getCount() == 0) && (_loc != ItemLocation.LEASE))) {
+				if (isRemovableFromDb()) {
 					return;
 				}
-				insertIntoDb();
+				
+				if (writeBehind) {
+					ItemPersistenceTaskManager.getInstance().schedule(this);
+				} else {
+					insertIntoDb();
+				}
+			}
+		} finally {
+			_dbLock.unlock();
+		}
+	}
+	
+	/**
+	 * @return {@code true} if this item must not have a record in the database
+	 */
+	private boolean isRemovableFromDb() {
+		return (_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((getCount() == 0) && (_loc != ItemLocation.LEASE));
+	}
+	
+	/**
+	 * @return the owner Id of the database record of this item, 0 if it has no record
+	 */
+	public int getStoredOwnerId() {
+		return _storedOwnerId;
+	}
+	
+	/**
+	 * Captures the pending database write of this item for the write-behind queue.<br>
+	 * The database flags are set as if the write already succeeded, so changes done after the capture schedule a new write.<br>
+	 * If the write fails {@link #onWriteFailed(ItemWrite)} must be called to mark the item as not stored again.
+	 * @return the write to execute, {@code null} if the database is already up-to-date
+	 */
+	public ItemWrite captureWrite() {
+		_dbLock.lock();
+		try {
+			if (_wear) {
+				return null;
+			}
+			
+			final WriteType type;
+			final int storedOwnerId = _storedOwnerId;
+			if (_existsInDb) {
+				if (isRemovableFromDb()) {
+					type = WriteType.DELETE;
+					_existsInDb = false;
+					_storedInDb = false;
+				} else if (!_storedInDb) {
+					type = WriteType.UPDATE;
+					_storedInDb = true;
+				} else {
+					return null;
+				}
+			} else if (!isRemovableFromDb()) {
+				type = WriteType.INSERT;
+				_existsInDb = true;
+				_storedInDb = true;
+			} else {
+				return null;
+			}
+			_storedOwnerId = type == WriteType.DELETE ? 0 : _ownerId;
+			return new ItemWrite(this, type, _ownerId, storedOwnerId, _itemId, getCount(), _loc.name(), _locData, getEnchantLevel(), _type1, _type2, getMana(), getTime(), getAgathionRemainingEnergy());
+		} finally {
+			_dbLock.unlock();
+		}
+	}
+	
+	/**
+	 * Restores the database flags of this item after a captured write failed, so the next update writes it again.
+	 * @param write the failed write
+	 */
+	public void onWriteFailed(ItemWrite write) {
+		_dbLock.lock();
+		try {
+			switch (write.type()) {
+				case INSERT -> {
+					_existsInDb = false;
+					_storedInDb = false;
+				}
+				case UPDATE -> _storedInDb = false;
+				case DELETE -> _existsInDb = true;
 			}
+			_storedOwnerId = write.storedOwnerId();
 		} finally {
 			_dbLock.unlock();
 		}
 	}
 	
+	/**
+	 * Stores the augmentation and elementals of a newly inserted item.
+	 * @param con the connection
+	 */
+	public void storeAttributes(Connection con) {
+		if (_augmentation != null) {
+			updateItemAttributes(con);
+		}
+		if (_elementals != null) {
+			updateItemElements(con);
+		}
+	}
+	
 	/**
 	 * Restores an item from the database.
 	 * @param ownerId the owner Id
@@ -1258,6 +1366,7 @@ public final class L2ItemInstance extends L2Object {
 			item._locData = rs.getInt("loc_data");
 			item._existsInDb = true;
 			item._storedInDb = true;
+			item._storedOwnerId = ownerId;
 			// Support shadow weapons
 			item._mana = rs.getInt("mana_left");
 			item._time = rs.getLong("time");
@@ -1387,6 +1496,7 @@ public final class L2ItemInstance extends L2Object {
 			ps.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
+			_storedOwnerId = _ownerId;
 		} catch (Exception ex) {
 			LOG.warn("Could not update item {} in database!", this, ex);
 		}
@@ -1417,6 +1527,7 @@ public final class L2ItemInstance extends L2Object {
 			ps.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
+			_storedOwnerId = _ownerId;
 			
 			if (_augmentation != null) {
 				updateItemAttributes(con);
@@ -1442,6 +1553,7 @@ public final class L2ItemInstance extends L2Object {
 				ps.executeUpdate();
 				_existsInDb = false;
 				_storedInDb = false;
+				_storedOwnerId = 0;
 			}
 			
 			try (var ps = con.prepareStatement("DELETE FROM item_attributes WHERE itemId = ?")) {
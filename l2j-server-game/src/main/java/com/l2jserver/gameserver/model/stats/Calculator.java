@@ -20,6 +20,7 @@ package com.l2jserver.gameserver.model.stats;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.skills.Skill;
@@ -32,20 +33,21 @@ import com.l2jserver.gameserver.model.stats.functions.AbstractFunction;
  * When the calc method of a calculator is launched, each mathematical function is called according to its priority <B>_order</B>.<br>
  * Indeed, Func with lowest priority order is executed first and Funcs with the same order are executed in unspecified order.<br>
  * The result of the calculation is stored in the value property of an Env class instance.<br>
- * Method addFunc and removeFunc permit to add and remove a Func object from a Calculator.
+ * Method addFunc and removeFunc permit to add and remove a Func object from a Calculator.<br>
+ * The function table is copied on write, so calculations never lock and always see a consistent table.
  */
 public final class Calculator {
 	/** Empty Func table definition */
 	private static final AbstractFunction[] EMPTY_FUNCS = new AbstractFunction[0];
 	
-	/** Table of Func object */
-	private AbstractFunction[] _functions;
+	/** Table of Func object, replaced as a whole on every change so readers never lock */
+	private final AtomicReference<AbstractFunction[]> _functions;
 	
 	/**
 	 * Constructor of Calculator (Init value : emptyFuncs).
 	 */
 	public Calculator() {
-		_functions = EMPTY_FUNCS;
+		_functions = new AtomicReference<>(EMPTY_FUNCS);
 	}
 	
 	/**
@@ -53,7 +55,7 @@ public final class Calculator {
 	 * @param c
 	 */
 	public Calculator(Calculator c) {
-		_functions = c._functions;
+		_functions = new AtomicReference<>(c.getFunctions());
 	}
 	
 	/**
@@ -71,8 +73,8 @@ public final class Calculator {
 			return false;
 		}
 		
-		AbstractFunction[] funcs1 = c1._functions;
-		AbstractFunction[] funcs2 = c2._functions;
+		AbstractFunction[] funcs1 = c1.getFunctions();
+		AbstractFunction[] funcs2 = c2.getFunctions();
 		
 		if (funcs1 == funcs2) {
 			return true;
@@ -95,65 +97,85 @@ public final class Calculator {
 		
 	}
 	
+	/**
+	 * Verifies if the result of the given functions only depends on the initial value and on the effector state tracked by the {@link StatCache}.
+	 * @param functions the functions
+	 * @return {@code true} if every function is cacheable
+	 */
+	public static boolean isCacheable(AbstractFunction[] functions) {
+		for (AbstractFunction func : functions) {
+			if (!func.isCacheable()) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
 	/**
 	 * Return the number of Funcs in the Calculator.
 	 * @return
 	 */
 	public int size() {
-		return _functions.length;
+		return getFunctions().length;
 	}
 	
 	/**
 	 * Adds a function to the Calculator.
 	 * @param function the function
 	 */
-	public synchronized void addFunc(AbstractFunction function) {
-		AbstractFunction[] funcs = _functions;
-		AbstractFunction[] tmp = new AbstractFunction[funcs.length + 1];
-		
-		final int order = function.getOrder();
-		int i;
-		
-		for (i = 0; (i < funcs.length) && (order >= funcs[i].getOrder()); i++) {
-			tmp[i] = funcs[i];
-		}
-		
-		tmp[i] = function;
-		
-		for (; i < funcs.length; i++) {
-			tmp[i + 1] = funcs[i];
+	public void addFunc(AbstractFunction function) {
+		AbstractFunction[] funcs;
+		AbstractFunction[] tmp;
+		do {
+			funcs = _functions.get();
+			tmp = new AbstractFunction[funcs.length + 1];
+			
+			final int order = function.getOrder();
+			int i;
+			
+			for (i = 0; (i < funcs.length) && (order >= funcs[i].getOrder()); i++) {
+				tmp[i] = funcs[i];
+			}
+			
+			tmp[i] = function;
+			
+			for (; i < funcs.length; i++) {
+				tmp[i + 1] = funcs[i];
+			}
 		}
-		
-		_functions = tmp;
+		while (!_functions.compareAndSet(funcs, tmp));
 	}
 	
 	/**
 	 * Removes a function from the Calculator.
 	 * @param function the function
 	 */
-	public synchronized void removeFunc(AbstractFunction function) {
-		AbstractFunction[] funcs = _functions;
-		AbstractFunction[] tmp = new AbstractFunction[funcs.length - 1];
-		
-		int i;
-		
-		for (i = 0; (i < (funcs.length - 1)) && (function != funcs[i]); i++) {
-			tmp[i] = funcs[i];
-		}
-		
-		if (i == funcs.length) {
-			return;
-		}
-		
-		for (i++; i < funcs.length; i++) {
-			tmp[i - 1] = funcs[i];
-		}
-		
-		if (tmp.length == 0) {
-			_functions = EMPTY_FUNCS;
-		} else {
-			_functions = tmp;
+	public void removeFunc(AbstractFunction function) {
+		AbstractFunction[] funcs;
+		AbstractFunction[] tmp;
+		do {
+			funcs = _functions.get();
+			int index = -1;
+			for (int i = 0; i < funcs.length; i++) {
+				if (funcs[i] == function) {
+					index = i;
+					break;
+				}
+			}
+			
+			if (index < 0) {
+				return;
+			}
+			
+			if (funcs.length == 1) {
+				tmp = EMPTY_FUNCS;
+			} else {
+				tmp = new AbstractFunction[funcs.length - 1];
+				System.arraycopy(funcs, 0, tmp, 0, index);
+				System.arraycopy(funcs, index + 1, tmp, index, funcs.length - index - 1);
+			}
 		}
+		while (!_functions.compareAndSet(funcs, tmp));
 	}
 	
 	/**
@@ -161,14 +183,29 @@ public final class Calculator {
 	 * @param owner the owner
 	 * @return a list of modified stats
 	 */
-	public synchronized List<Stats> removeOwner(Object owner) {
-		List<Stats> modifiedStats = new ArrayList<>();
-		for (AbstractFunction func : _functions) {
-			if (func.getFuncOwner() == owner) {
-				modifiedStats.add(func.getStat());
-				removeFunc(func);
+	public List<Stats> removeOwner(Object owner) {
+		AbstractFunction[] funcs;
+		AbstractFunction[] tmp;
+		List<Stats> modifiedStats;
+		do {
+			funcs = _functions.get();
+			modifiedStats = new ArrayList<>();
+			final List<AbstractFunction> kept = new ArrayList<>(funcs.length);
+			for (AbstractFunction func : funcs) {
+				if (func.getFuncOwner() == owner) {
+					modifiedStats.add(func.getStat());
+				} else {
+					kept.add(func);
+				}
+			}
+			
+			if (modifiedStats.isEmpty()) {
+				return modifiedStats;
 			}
+			
+			tmp = kept.isEmpty() ? EMPTY_FUNCS : kept.toArray(EMPTY_FUNCS);
 		}
+		while (!_functions.compareAndSet(funcs, tmp));
 		return modifiedStats;
 	}
 	
@@ -181,8 +218,21 @@ public final class Calculator {
 	 * @return the calculated value
 	 */
 	public double calc(L2Character caster, L2Character target, Skill skill, double initVal) {
+		return calc(getFunctions(), caster, target, skill, initVal);
+	}
+	
+	/**
+	 * Run each of the given functions.
+	 * @param functions the functions, as returned by {@link #getFunctions()}
+	 * @param caster the caster
+	 * @param target the target
+	 * @param skill the skill
+	 * @param initVal the initial value
+	 * @return the calculated value
+	 */
+	public static double calc(AbstractFunction[] functions, L2Character caster, L2Character target, Skill skill, double initVal) {
 		double value = initVal;
-		for (AbstractFunction func : _functions) {
+		for (AbstractFunction func : functions) {
 			value = func.calc(caster, target, skill, value);
 		}
 		return value;
@@ -193,6 +243,6 @@ public final class Calculator {
 	 * @return
 	 */
 	public AbstractFunction[] getFunctions() {
-		return _functions;
+		return _functions.get();
 	}
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.stats;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.l2jserver.gameserver.model.actor.L2Character;
+import com.l2jserver.gameserver.model.skills.Skill;
+import com.l2jserver.gameserver.model.stats.functions.AbstractFunction;
+
+/**
+ * Cache of the final values of a character's stats.<br>
+ * An entry is only valid for the function table, initial value and level it was calculated with and for the cache version current at that time.<br>
+ * The version is increased every time something the cacheable functions depend on changes (stat functions added or removed, equipment, hennas, template), see {@link AbstractFunction#isCacheable()}.<br>
+ * Entries are immutable, so reads never lock and never allocate.
+ */
+public final class StatCache {
+	private final Entry[] _entries = new Entry[Stats.NUM_STATS];
+	private final AtomicInteger _version = new AtomicInteger();
+	
+	/**
+	 * Invalidates every cached value.
+	 */
+	public void invalidate() {
+		_version.incrementAndGet();
+	}
+	
+	/**
+	 * Gets the cached value of the given stat or calculates and caches it.
+	 * @param stat the stat
+	 * @param functions the function table of the stat
+	 * @param level the level of the effector
+	 * @param effector the effector
+	 * @param effected the effected
+	 * @param skill the skill
+	 * @param initVal the initial value
+	 * @return the calculated value
+	 */
+	public double calc(Stats stat, AbstractFunction[] functions, int level, L2Character effector, L2Character effected, Skill skill, double initVal) {
+		final int id = stat.ordinal();
+		final int version = _version.get();
+		final Entry entry = _entries[id];
+		if ((entry != null) && (entry._functions == functions)) {
+			if (!entry._cacheable) {
+				return Calculator.calc(functions, effector, effected, skill, initVal);
+			}
+			
+			if ((entry._version == version) && (entry._level == level) && (Double.compare(entry._initVal, initVal) == 0)) {
+				return entry._value;
+			}
+		}
+		
+		final boolean cacheable = (entry != null) && (entry._functions == functions) ? entry._cacheable : Calculator.isCacheable(functions);
+		final double value = Calculator.calc(functions, effector, effected, skill, initVal);
+		_entries[id] = new Entry(functions, cacheable, version, level, initVal, value);
+		return value;
+	}
+	
+	private static final class Entry {
+		final AbstractFunction[] _functions;
+		final boolean _cacheable;
+		final int _version;
+		final int _level;
+		final double _initVal;
+		final double _value;
+		
+		Entry(AbstractFunction[] functions, boolean cacheable, int version, int level, double initVal, double value) {
+			_functions = functions;
+			_cacheable = cacheable;
+			_version = version;
+			_level = level;
+			_initVal = initVal;
+			_value = value;
+		}
+	}
+}
@@ -110,6 +110,15 @@ public abstract class AbstractFunction {
 		return _value;
 	}
 	
+	/**
+	 * Verifies if the result of this function can be cached.<br>
+	 * A cacheable function must not depend on the effected, the skill or any effector state other than its level, stat functions, equipment, hennas and template.
+	 * @return {@code true} if the result of this function can be cached
+	 */
+	public boolean isCacheable() {
+		return false;
+	}
+	
 	/**
 	 * Run the mathematics function of the Func.
 	 * @param effector the effector
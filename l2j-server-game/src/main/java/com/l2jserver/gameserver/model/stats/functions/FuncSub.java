@@ -32,6 +32,11 @@ public class FuncSub extends AbstractFunction {
 		super(stat, order, owner, value, applyCond);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return getApplyCond() == null;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		if ((getApplyCond() == null) || getApplyCond().test(effector, effected, skill)) {
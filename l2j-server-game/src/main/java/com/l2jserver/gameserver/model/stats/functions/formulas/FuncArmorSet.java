@@ -47,6 +47,11 @@ public class FuncArmorSet extends AbstractFunction {
 		super(stat, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		double value = initVal;
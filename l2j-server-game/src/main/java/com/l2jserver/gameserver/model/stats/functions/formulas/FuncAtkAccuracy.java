@@ -37,6 +37,11 @@ public class FuncAtkAccuracy extends AbstractFunction {
 		super(Stats.ACCURACY_COMBAT, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		final int level = effector.getLevel();
@@ -37,6 +37,11 @@ public class FuncAtkEvasion extends AbstractFunction {
 		super(Stats.EVASION_RATE, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		final int level = effector.getLevel();
@@ -44,6 +44,11 @@ public class FuncHenna extends AbstractFunction {
 		super(stat, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		L2PcInstance pc = effector.getActingPlayer();
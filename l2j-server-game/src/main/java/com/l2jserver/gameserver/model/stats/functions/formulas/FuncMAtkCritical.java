@@ -38,6 +38,11 @@ public class FuncMAtkCritical extends AbstractFunction {
 		super(Stats.MCRITICAL_RATE, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		// CT2: The magic critical rate has been increased to 10 times.
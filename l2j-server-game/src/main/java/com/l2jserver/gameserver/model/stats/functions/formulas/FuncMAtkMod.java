@@ -38,6 +38,11 @@ public class FuncMAtkMod extends AbstractFunction {
 		super(Stats.MAGIC_ATTACK, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		// Level Modifier^2 * INT Modifier^2
@@ -38,6 +38,11 @@ public class FuncMAtkSpeed extends AbstractFunction {
 		super(Stats.MAGIC_ATTACK_SPEED, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		return initVal * BaseStats.WIT.calcBonus(effector);
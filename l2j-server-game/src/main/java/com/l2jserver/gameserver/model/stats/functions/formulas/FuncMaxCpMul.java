@@ -38,6 +38,11 @@ public class FuncMaxCpMul extends AbstractFunction {
 		super(Stats.MAX_CP, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		return initVal * BaseStats.CON.calcBonus(effector);
@@ -38,6 +38,11 @@ public class FuncPAtkMod extends AbstractFunction {
 		super(Stats.POWER_ATTACK, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		return initVal * BaseStats.STR.calcBonus(effector) * effector.getLevelMod();
@@ -38,6 +38,11 @@ public class FuncPAtkSpeed extends AbstractFunction {
 		super(Stats.POWER_ATTACK_SPEED, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		return initVal * BaseStats.DEX.calcBonus(effector);
@@ -40,6 +40,11 @@ public class FuncPDefMod extends AbstractFunction {
 		super(Stats.POWER_DEFENCE, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+	
 	@Override
 	public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
 		double value = initVal;
@@ -165,6 +165,14 @@ public class ClientStats {
 		return _floodsInMin > general().getClientPacketQueueMaxFloodsPerMin();
 	}
 	
+	/**
+	 * Read without locking, the value may be slightly outdated.
+	 * @return the average amount of packets received per second over the flood measure interval
+	 */
+	public final int getPacketsPerSecond() {
+		return _totalCount / BUFFER_SIZE;
+	}
+	
 	private boolean longFloodDetected() {
 		return (_totalCount / BUFFER_SIZE) > general().getClientPacketQueueMaxAveragePacketsPerSecond();
 	}
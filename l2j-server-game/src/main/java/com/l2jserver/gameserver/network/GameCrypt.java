@@ -18,67 +18,119 @@
  */
 package com.l2jserver.gameserver.network;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
+ * Game packet cipher.<br>
+ * Every byte is XORed with the key and the previous encrypted byte, the packets are processed 8 bytes at a time: decryption needs the encrypted bytes only, encryption is a prefix XOR inside each word.<br>
+ * The buffers are accessed with absolute indexes in little-endian order whatever their byte order, so heap and direct buffers are handled in place.
  * @author KenM
  */
 public class GameCrypt {
-	private final byte[] _inKey = new byte[16];
-	private final byte[] _outKey = new byte[16];
+	private static final VarHandle BUFFER_LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle ARRAY_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	/** Repeats the low byte in every byte of a word. */
+	private static final long BYTES = 0x0101010101010101L;
+	
+	// The 16 bytes key as two little-endian words, the second one holds the packet counter in its low 32 bits
+	private long _inKey0;
+	private long _inKey1;
+	private long _outKey0;
+	private long _outKey1;
 	private boolean _isEnabled;
 	
 	public void setKey(byte[] key) {
-		System.arraycopy(key, 0, _inKey, 0, 16);
-		System.arraycopy(key, 0, _outKey, 0, 16);
+		_inKey0 = _outKey0 = (long) ARRAY_LONG.get(key, 0);
+		_inKey1 = _outKey1 = (long) ARRAY_LONG.get(key, 8);
 	}
 	
 	public void decrypt(byte[] raw, final int offset, final int size) {
+		decrypt(ByteBuffer.wrap(raw), offset, size);
+	}
+	
+	public void encrypt(byte[] raw, final int offset, final int size) {
+		encrypt(ByteBuffer.wrap(raw), offset, size);
+	}
+	
+	/**
+	 * Decrypts a packet in place.
+	 * @param buf the buffer, its position and limit are not changed
+	 * @param offset the index of the first byte of the packet
+	 * @param size the size of the packet
+	 */
+	public void decrypt(ByteBuffer buf, final int offset, final int size) {
 		if (!_isEnabled) {
 			return;
 		}
 		
-		int temp = 0;
-		for (int i = 0; i < size; i++) {
-			int temp2 = raw[offset + i] & 0xFF;
-			raw[offset + i] = (byte) (temp2 ^ _inKey[i & 15] ^ temp);
-			temp = temp2;
+		final long key0 = _inKey0;
+		final long key1 = _inKey1;
+		long prev = 0;
+		int i = 0;
+		for (; (i + 8) <= size; i += 8) {
+			final long raw = (long) BUFFER_LONG.get(buf, offset + i);
+			// every byte is XORed with the encrypted byte before it
+			BUFFER_LONG.set(buf, offset + i, raw ^ ((i & 8) == 0 ? key0 : key1) ^ ((raw << 8) | prev));
+			prev = raw >>> 56;
+		}
+		for (; i < size; i++) {
+			final int raw = buf.get(offset + i) & 0xFF;
+			buf.put(offset + i, (byte) (raw ^ keyByte(key0, key1, i) ^ prev));
+			prev = raw;
 		}
 		
-		int old = _inKey[8] & 0xff;
-		old |= (_inKey[9] << 8) & 0xff00;
-		old |= (_inKey[10] << 0x10) & 0xff0000;
-		old |= (_inKey[11] << 0x18) & 0xff000000;
-		
-		old += size;
-		
-		_inKey[8] = (byte) (old & 0xff);
-		_inKey[9] = (byte) ((old >> 0x08) & 0xff);
-		_inKey[10] = (byte) ((old >> 0x10) & 0xff);
-		_inKey[11] = (byte) ((old >> 0x18) & 0xff);
+		_inKey1 = nextKey(key1, size);
 	}
 	
-	public void encrypt(byte[] raw, final int offset, final int size) {
+	/**
+	 * Encrypts a packet in place.<br>
+	 * The first call only enables the cipher, the first packet is sent in clear.
+	 * @param buf the buffer, its position and limit are not changed
+	 * @param offset the index of the first byte of the packet
+	 * @param size the size of the packet
+	 */
+	public void encrypt(ByteBuffer buf, final int offset, final int size) {
 		if (!_isEnabled) {
 			_isEnabled = true;
 			return;
 		}
 		
-		int temp = 0;
-		for (int i = 0; i < size; i++) {
-			int temp2 = raw[offset + i] & 0xFF;
-			temp = temp2 ^ _outKey[i & 15] ^ temp;
-			raw[offset + i] = (byte) temp;
+		final long key0 = _outKey0;
+		final long key1 = _outKey1;
+		long prev = 0;
+		int i = 0;
+		for (; (i + 8) <= size; i += 8) {
+			long word = (long) BUFFER_LONG.get(buf, offset + i) ^ ((i & 8) == 0 ? key0 : key1);
+			// prefix XOR of the bytes of the word, then the last encrypted byte of the previous word
+			word ^= word << 8;
+			word ^= word << 16;
+			word ^= word << 32;
+			word ^= prev * BYTES;
+			BUFFER_LONG.set(buf, offset + i, word);
+			prev = word >>> 56;
+		}
+		for (; i < size; i++) {
+			prev = (buf.get(offset + i) & 0xFF) ^ keyByte(key0, key1, i) ^ prev;
+			buf.put(offset + i, (byte) prev);
 		}
 		
-		int old = _outKey[8] & 0xff;
-		old |= (_outKey[9] << 8) & 0xff00;
-		old |= (_outKey[10] << 0x10) & 0xff0000;
-		old |= (_outKey[11] << 0x18) & 0xff000000;
-		
-		old += size;
-		
-		_outKey[8] = (byte) (old & 0xff);
-		_outKey[9] = (byte) ((old >> 0x08) & 0xff);
-		_outKey[10] = (byte) ((old >> 0x10) & 0xff);
-		_outKey[11] = (byte) ((old >> 0x18) & 0xff);
+		_outKey1 = nextKey(key1, size);
+	}
+	
+	private static int keyByte(long key0, long key1, int index) {
+		return (int) (((index & 8) == 0 ? key0 : key1) >>> ((index & 7) << 3)) & 0xFF;
+	}
+	
+	/**
+	 * Adds the packet size to the counter held by the bytes 8 to 11 of the key.
+	 * @param key1 the second word of the key
+	 * @param size the packet size
+	 * @return the new second word of the key
+	 */
+	private static long nextKey(long key1, int size) {
+		return (key1 & 0xFFFFFFFF00000000L) | (((int) key1 + size) & 0xFFFFFFFFL);
 	}
 }
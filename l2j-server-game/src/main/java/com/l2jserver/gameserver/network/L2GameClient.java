@@ -53,10 +53,13 @@ import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.entity.L2Event;
 import com.l2jserver.gameserver.model.olympiad.OlympiadManager;
 import com.l2jserver.gameserver.model.zone.ZoneId;
+import com.l2jserver.gameserver.network.clientpackets.L2GameClientPacket;
 import com.l2jserver.gameserver.network.serverpackets.ActionFailed;
 import com.l2jserver.gameserver.network.serverpackets.L2GameServerPacket;
 import com.l2jserver.gameserver.network.serverpackets.ServerClose;
 import com.l2jserver.gameserver.security.SecondaryPasswordAuth;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
+import com.l2jserver.gameserver.taskmanager.PlayerSaveTaskManager;
 import com.l2jserver.gameserver.util.FloodProtectors;
 import com.l2jserver.gameserver.util.Util;
 import com.l2jserver.mmocore.MMOClient;
@@ -186,13 +189,13 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	
 	@Override
 	public boolean decrypt(ByteBuffer buf, int size) {
-		_crypt.decrypt(buf.array(), buf.position(), size);
+		_crypt.decrypt(buf, buf.position(), size);
 		return true;
 	}
 	
 	@Override
 	public boolean encrypt(final ByteBuffer buf, final int size) {
-		_crypt.encrypt(buf.array(), buf.position(), size);
+		_crypt.encrypt(buf, buf.position(), size);
 		buf.position(buf.position() + size);
 		return true;
 	}
@@ -251,6 +254,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return;
 		}
 		
+		gsp.markSent();
 		getConnection().sendPacket(gsp);
 		gsp.runImpl();
 	}
@@ -359,6 +363,8 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		}
 		
 		CharNameTable.getInstance().removeName(objid);
+		PlayerSaveTaskManager.flushIfEnabled(objid);
+		ItemPersistenceTaskManager.flushIfEnabled(objid);
 		
 		try (var con = ConnectionFactory.getInstance().getConnection()) {
 			try (var ps = con.prepareStatement("DELETE FROM character_contacts WHERE charId=? OR contactId=?")) {
@@ -549,11 +555,14 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return; // offline shop
 		}
 		if (_additionalClosePacket != null) {
-			getConnection().close(new L2GameServerPacket[] {
+			close(new L2GameServerPacket[] {
 				_additionalClosePacket,
 				gsp
 			});
 		} else {
+			if (gsp != null) {
+				gsp.markSent();
+			}
 			getConnection().close(gsp);
 		}
 	}
@@ -562,6 +571,12 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		if (getConnection() == null) {
 			return; // offline shop
 		}
+		// Close packets are queued to the selector thread as well
+		for (L2GameServerPacket gsp : gspArray) {
+			if (gsp != null) {
+				gsp.markSent();
+			}
+		}
 		getConnection().close(gspArray);
 	}
 	
@@ -845,6 +860,10 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return;
 		}
 		
+		if (packet instanceof L2GameClientPacket clientPacket) {
+			clientPacket.setQueued();
+		}
+		
 		if (!_packetQueue.offer(packet)) {
 			if (getStats().countQueueOverflow()) {
 				LOG.error("Client {} disconnected, too many queue overflows!", this);
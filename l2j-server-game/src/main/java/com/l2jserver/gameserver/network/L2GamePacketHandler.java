@@ -53,6 +53,7 @@ import com.l2jserver.gameserver.network.clientpackets.EnterWorld;
 import com.l2jserver.gameserver.network.clientpackets.ExGetOnAirShip;
 import com.l2jserver.gameserver.network.clientpackets.FinishRotating;
 import com.l2jserver.gameserver.network.clientpackets.GameGuardReply;
+import com.l2jserver.gameserver.network.clientpackets.L2GameClientPacket;
 import com.l2jserver.gameserver.network.clientpackets.Logout;
 import com.l2jserver.gameserver.network.clientpackets.MoveBackwardToLocation;
 import com.l2jserver.gameserver.network.clientpackets.MoveToLocationAirShip;
@@ -309,1089 +310,409 @@ import com.l2jserver.mmocore.ReceivablePacket;
  * <li>Clients sends a MoveToLocation packet without having a character attached. (Potential errors handling the packet).</li>
  * <li>Clients sends a RequestAuthLogin being already authed. (Potential exploit).</li>
  * </ul>
- * Note: If for a given exception a packet needs to be handled on more then one state, then it should be added to all these states.
+ * Note: If for a given exception a packet needs to be handled on more then one state, then it should be added to all these states.<br>
+ * Packets are dispatched through an opcode {@link PacketTable table} per client state, built once, and every opcode keeps its {@link PacketStats statistics}.
  * @author KenM
  */
 public final class L2GamePacketHandler implements PacketHandler<L2GameClient>, ClientFactory<L2GameClient>, MMOExecutor<L2GameClient> {
 	
 	private static final Logger LOG = LoggerFactory.getLogger(L2GamePacketHandler.class);
 	
+	/** Opcode tables indexed by the ordinal of the client state. */
+	private final PacketTable[] _tables = new PacketTable[GameClientState.values().length];
+	
+	private final boolean _metrics = general().packetMetrics();
+	
+	public L2GamePacketHandler() {
+		final PacketTable connected = table(GameClientState.CONNECTED);
+		connected.add(0x0e, ProtocolVersion::new);
+		connected.add(0x2b, AuthLogin::new);
+		
+		final PacketTable authed = table(GameClientState.AUTHED);
+		authed.add(0x00, Logout::new);
+		authed.add(0x0c, CharacterCreate::new);
+		authed.add(0x0d, CharacterDelete::new);
+		authed.add(0x12, CharacterSelect::new);
+		authed.add(0x13, NewCharacter::new);
+		authed.add(0x7b, CharacterRestore::new);
+		final PacketTable authedEx = authed.extended(0xd0, 2);
+		authedEx.add(0x36, RequestGotoLobby::new);
+		authedEx.add(0x93, RequestEx2ndPasswordCheck::new);
+		authedEx.add(0x94, RequestEx2ndPasswordVerify::new);
+		authedEx.add(0x95, RequestEx2ndPasswordReq::new);
+		
+		final PacketTable joining = table(GameClientState.JOINING);
+		joining.add(0x11, EnterWorld::new);
+		final PacketTable joiningEx = joining.extended(0xd0, 2);
+		joiningEx.add(0x01, RequestManorList::new);
+		
+		final PacketTable inGame = table(GameClientState.IN_GAME);
+		inGame.add(0x00, Logout::new);
+		inGame.add(0x01, Attack::new);
+		inGame.add(0x03, RequestStartPledgeWar::new);
+		inGame.add(0x04, RequestReplyStartPledgeWar::new);
+		inGame.add(0x05, RequestStopPledgeWar::new);
+		inGame.add(0x06, RequestReplyStopPledgeWar::new); // RequestSCCheck
+		inGame.add(0x07, RequestSurrenderPledgeWar::new);
+		inGame.add(0x08, RequestReplySurrenderPledgeWar::new);
+		inGame.add(0x09, RequestSetPledgeCrest::new);
+		inGame.add(0x0b, RequestGiveNickName::new);
+		inGame.add(0x0f, MoveBackwardToLocation::new);
+		inGame.ignore(0x10, "Say");
+		inGame.ignore(0x12, "CharacterSelect"); // in case of player spam clicks on login screen
+		inGame.add(0x14, RequestItemList::new);
+		inGame.cheat(0x15, "RequestEquipItem", "Used obsolete RequestEquipItem packet!");
+		inGame.add(0x16, RequestUnEquipItem::new);
+		inGame.add(0x17, RequestDropItem::new);
+		inGame.add(0x19, UseItem::new);
+		inGame.add(0x1a, TradeRequest::new);
+		inGame.add(0x1b, AddTradeItem::new);
+		inGame.add(0x1c, TradeDone::new);
+		inGame.add(0x1f, Action::new);
+		inGame.add(0x22, RequestLinkHtml::new);
+		inGame.add(0x23, RequestBypassToServer::new);
+		inGame.add(0x24, RequestBBSwrite::new);
+		inGame.ignore(0x25, "RequestCreatePledge");
+		inGame.add(0x26, RequestJoinPledge::new);
+		inGame.add(0x27, RequestAnswerJoinPledge::new);
+		inGame.add(0x28, RequestWithdrawalPledge::new);
+		inGame.add(0x29, RequestOustPledgeMember::new);
+		inGame.add(0x2c, RequestGetItemFromPet::new);
+		inGame.add(0x2e, RequestAllyInfo::new);
+		inGame.add(0x2f, RequestCrystallizeItem::new);
+		inGame.add(0x30, RequestPrivateStoreManageSell::new);
+		inGame.add(0x31, SetPrivateStoreListSell::new);
+		inGame.add(0x32, AttackRequest::new);
+		inGame.ignore(0x33, "RequestTeleportPacket");
+		inGame.cheat(0x34, "RequestSocialAction", "Used obsolete RequestSocialAction packet");
+		inGame.cheat(0x35, "ChangeMoveType2", "Used obsolete ChangeMoveType packet");
+		inGame.cheat(0x36, "ChangeWaitType2", "Used obsolete ChangeWaitType packet");
+		inGame.add(0x37, RequestSellItem::new);
+		inGame.ignore(0x38, "RequestMagicSkillList");
+		inGame.add(0x39, RequestMagicSkillUse::new);
+		inGame.add(0x3a, Appearing::new); // SendAppearingPacket
+		inGame.add(0x3b, "SendWareHouseDepositList", () -> general().allowWarehouse() ? new SendWareHouseDepositList() : null);
+		inGame.add(0x3c, SendWareHouseWithDrawList::new);
+		inGame.add(0x3d, RequestShortCutReg::new);
+		inGame.add(0x3f, RequestShortCutDel::new);
+		inGame.add(0x40, RequestBuyItem::new);
+		inGame.ignore(0x41, "RequestDismissPledge");
+		inGame.add(0x42, RequestJoinParty::new);
+		inGame.add(0x43, RequestAnswerJoinParty::new);
+		inGame.add(0x44, RequestWithDrawalParty::new);
+		inGame.add(0x45, RequestOustPartyMember::new);
+		inGame.ignore(0x46, "RequestDismissParty");
+		inGame.add(0x47, CannotMoveAnymore::new);
+		inGame.add(0x48, RequestTargetCanceld::new);
+		inGame.add(0x49, Say2::new);
+		final PacketTable superCmd = inGame.extended(0x4a, 2);
+		superCmd.ignore(0x00, "SuperCmdCharacterInfo");
+		superCmd.ignore(0x01, "SuperCmdSummonCmd");
+		superCmd.ignore(0x02, "SuperCmdServerStatus");
+		superCmd.ignore(0x03, "SendL2ParamSetting");
+		inGame.add(0x4d, RequestPledgeMemberList::new);
+		inGame.ignore(0x4f, "RequestMagicList");
+		inGame.add(0x50, RequestSkillList::new);
+		inGame.add(0x52, MoveWithDelta::new);
+		inGame.add(0x53, RequestGetOnVehicle::new);
+		inGame.add(0x54, RequestGetOffVehicle::new);
+		inGame.add(0x55, AnswerTradeRequest::new);
+		inGame.add(0x56, RequestActionUse::new);
+		inGame.add(0x57, RequestRestart::new);
+		inGame.add(0x58, RequestSiegeInfo::new);
+		inGame.add(0x59, ValidatePosition::new);
+		inGame.ignore(0x5a, "RequestSEKCustom");
+		inGame.add(0x5b, StartRotating::new);
+		inGame.add(0x5c, FinishRotating::new);
+		inGame.add(0x5e, RequestShowBoard::new);
+		inGame.add(0x5f, RequestEnchantItem::new);
+		inGame.add(0x60, RequestDestroyItem::new);
+		inGame.add(0x62, RequestQuestList::new);
+		inGame.add(0x63, RequestQuestAbort::new); // RequestDestroyQuest
+		inGame.add(0x65, RequestPledgeInfo::new);
+		inGame.add(0x66, RequestPledgeExtendedInfo::new);
+		inGame.add(0x67, RequestPledgeCrest::new);
+		inGame.add(0x6b, RequestSendFriendMsg::new); // RequestSendL2FriendSay
+		inGame.add(0x6c, RequestShowMiniMap::new);
+		inGame.ignore(0x6d, "RequestSendMsnChatLog");
+		inGame.add(0x6e, RequestRecordInfo::new); // RequestReload
+		inGame.add(0x6f, RequestHennaEquip::new);
+		inGame.add(0x70, RequestHennaRemoveList::new);
+		inGame.add(0x71, RequestHennaItemRemoveInfo::new);
+		inGame.add(0x72, RequestHennaRemove::new);
+		inGame.add(0x73, RequestAcquireSkillInfo::new);
+		inGame.add(0x74, SendBypassBuildCmd::new);
+		inGame.add(0x75, RequestMoveToLocationInVehicle::new);
+		inGame.add(0x76, CannotMoveAnymoreInVehicle::new);
+		inGame.add(0x77, RequestFriendInvite::new);
+		inGame.add(0x78, RequestAnswerFriendInvite::new); // RequestFriendAddReply
+		inGame.add(0x79, RequestFriendList::new);
+		inGame.add(0x7a, RequestFriendDel::new);
+		inGame.add(0x7c, RequestAcquireSkill::new);
+		inGame.add(0x7d, RequestRestartPoint::new);
+		inGame.add(0x7e, RequestGMCommand::new);
+		inGame.add(0x7f, RequestPartyMatchConfig::new);
+		inGame.add(0x80, RequestPartyMatchList::new);
+		inGame.add(0x81, RequestPartyMatchDetail::new);
+		inGame.add(0x83, RequestPrivateStoreBuy::new); // SendPrivateStoreBuyList
+		inGame.add(0x85, RequestTutorialLinkHtml::new);
+		inGame.add(0x86, RequestTutorialPassCmdToServer::new);
+		inGame.add(0x87, RequestTutorialQuestionMark::new);
+		inGame.add(0x88, RequestTutorialClientEvent::new);
+		inGame.add(0x89, RequestPetition::new);
+		inGame.add(0x8a, RequestPetitionCancel::new);
+		inGame.add(0x8b, RequestGmList::new);
+		inGame.add(0x8c, RequestJoinAlly::new);
+		inGame.add(0x8d, RequestAnswerJoinAlly::new);
+		inGame.add(0x8e, AllyLeave::new); // RequestWithdrawAlly
+		inGame.add(0x8f, AllyDismiss::new); // RequestOustAlly
+		inGame.add(0x90, RequestDismissAlly::new);
+		inGame.add(0x91, RequestSetAllyCrest::new);
+		inGame.add(0x92, RequestAllyCrest::new);
+		inGame.add(0x93, RequestChangePetName::new);
+		inGame.add(0x94, RequestPetUseItem::new);
+		inGame.add(0x95, RequestGiveItemToPet::new);
+		inGame.add(0x96, RequestPrivateStoreQuitSell::new);
+		inGame.add(0x97, SetPrivateStoreMsgSell::new);
+		inGame.add(0x98, RequestPetGetItem::new);
+		inGame.add(0x99, RequestPrivateStoreManageBuy::new);
+		inGame.add(0x9a, SetPrivateStoreListBuy::new); // SetPrivateStoreList
+		inGame.add(0x9c, RequestPrivateStoreQuitBuy::new);
+		inGame.add(0x9d, SetPrivateStoreMsgBuy::new);
+		inGame.add(0x9f, RequestPrivateStoreSell::new); // SendPrivateStoreBuyList
+		inGame.ignore(0xa0, "SendTimeCheckPacket");
+		inGame.ignore(0xa6, "RequestSkillCoolTime");
+		inGame.add(0xa7, RequestPackageSendableItemList::new);
+		inGame.add(0xa8, RequestPackageSend::new);
+		inGame.add(0xa9, RequestBlock::new);
+		inGame.add(0xaa, RequestSiegeInfo::new);
+		inGame.add(0xab, RequestSiegeAttackerList::new); // RequestCastleSiegeAttackerList
+		inGame.add(0xac, RequestSiegeDefenderList::new);
+		inGame.add(0xad, RequestJoinSiege::new); // RequestJoinCastleSiege
+		inGame.add(0xae, RequestConfirmSiegeWaitingList::new); // RequestConfirmCastleSiegeWaitingList
+		inGame.add(0xaf, RequestSetCastleSiegeTime::new);
+		inGame.add(0xb0, MultiSellChoose::new);
+		inGame.ignore(0xb1, "NetPing");
+		inGame.ignore(0xb2, "RequestRemainTime");
+		inGame.add(0xb3, BypassUserCmd::new);
+		inGame.add(0xb4, SnoopQuit::new);
+		inGame.add(0xb5, RequestRecipeBookOpen::new);
+		inGame.add(0xb6, RequestRecipeBookDestroy::new); // RequestRecipeItemDelete
+		inGame.add(0xb7, RequestRecipeItemMakeInfo::new);
+		inGame.add(0xb8, RequestRecipeItemMakeSelf::new);
+		inGame.ignore(0xb9, "RequestRecipeShopManageList");
+		inGame.add(0xba, RequestRecipeShopMessageSet::new);
+		inGame.add(0xbb, RequestRecipeShopListSet::new);
+		inGame.add(0xbc, RequestRecipeShopManageQuit::new);
+		inGame.ignore(0xbd, "RequestRecipeShopManageCancel");
+		inGame.add(0xbe, RequestRecipeShopMakeInfo::new);
+		inGame.add(0xbf, RequestRecipeShopMakeItem::new); // RequestRecipeShopMakeDo
+		inGame.add(0xc0, RequestRecipeShopManagePrev::new); // RequestRecipeShopSellList
+		inGame.add(0xc1, ObserverReturn::new); // RequestObserverEndPacket
+		inGame.ignore(0xc2, "RequestEvaluate"); // Unused (RequestEvaluate/VoteSociality)
+		inGame.add(0xc3, RequestHennaItemList::new);
+		inGame.add(0xc4, RequestHennaItemInfo::new);
+		inGame.add(0xc5, RequestBuySeed::new);
+		inGame.add(0xc6, DlgAnswer::new); // ConfirmDlg
+		inGame.add(0xc7, RequestPreviewItem::new); // RequestPreviewItem
+		inGame.add(0xc8, RequestSSQStatus::new);
+		inGame.add(0xc9, RequestPetitionFeedback::new);
+		inGame.add(0xcb, GameGuardReply::new);
+		inGame.add(0xcc, RequestPledgePower::new);
+		inGame.add(0xcd, RequestMakeMacro::new);
+		inGame.add(0xce, RequestDeleteMacro::new);
+		inGame.ignore(0xcf, "RequestProcureCrop"); // RequestBuyProcure
+		final PacketTable ex = inGame.extended(0xd0, 2);
+		ex.add(0x01, RequestManorList::new);
+		ex.add(0x02, RequestProcureCropList::new);
+		ex.add(0x03, RequestSetSeed::new);
+		ex.add(0x04, RequestSetCrop::new);
+		ex.add(0x05, RequestWriteHeroWords::new);
+		ex.add(0x06, RequestExAskJoinMPCC::new);
+		ex.add(0x07, RequestExAcceptJoinMPCC::new);
+		ex.add(0x08, RequestExOustFromMPCC::new);
+		ex.add(0x09, RequestOustFromPartyRoom::new);
+		ex.add(0x0a, RequestDismissPartyRoom::new);
+		ex.add(0x0b, RequestWithdrawPartyRoom::new);
+		ex.add(0x0c, RequestChangePartyLeader::new);
+		ex.add(0x0d, RequestAutoSoulShot::new);
+		ex.add(0x0e, RequestExEnchantSkillInfo::new);
+		ex.add(0x0f, RequestExEnchantSkill::new);
+		ex.add(0x10, RequestExPledgeCrestLarge::new);
+		ex.add(0x11, RequestExSetPledgeCrestLarge::new);
+		ex.add(0x12, RequestPledgeSetAcademyMaster::new);
+		ex.add(0x13, RequestPledgePowerGradeList::new);
+		ex.add(0x14, RequestPledgeMemberPowerInfo::new);
+		ex.add(0x15, RequestPledgeSetMemberPowerGrade::new);
+		ex.add(0x16, RequestPledgeMemberInfo::new);
+		ex.add(0x17, RequestPledgeWarList::new);
+		ex.add(0x18, RequestExFishRanking::new);
+		ex.add(0x19, RequestPCCafeCouponUse::new);
+		ex.add(0x1b, RequestDuelStart::new);
+		ex.add(0x1c, RequestDuelAnswerStart::new);
+		ex.ignore(0x1d, "RequestExSetTutorial");
+		ex.add(0x1e, RequestExRqItemLink::new);
+		ex.ignore(0x1f, "CanNotMoveAnymoreAirShip");
+		ex.add(0x20, MoveToLocationInAirShip::new);
+		ex.add(0x21, RequestKeyMapping::new);
+		ex.add(0x22, RequestSaveKeyMapping::new);
+		ex.add(0x23, RequestExRemoveItemAttribute::new);
+		ex.add(0x24, RequestSaveInventoryOrder::new);
+		ex.add(0x25, RequestExitPartyMatchingWaitingRoom::new);
+		ex.add(0x26, RequestConfirmTargetItem::new);
+		ex.add(0x27, RequestConfirmRefinerItem::new);
+		ex.add(0x28, RequestConfirmGemStone::new);
+		ex.add(0x29, RequestOlympiadObserverEnd::new);
+		ex.add(0x2a, RequestCursedWeaponList::new);
+		ex.add(0x2b, RequestCursedWeaponLocation::new);
+		ex.add(0x2c, RequestPledgeReorganizeMember::new);
+		ex.add(0x2d, RequestExMPCCShowPartyMembersInfo::new);
+		ex.add(0x2e, RequestOlympiadMatchList::new);
+		ex.add(0x2f, RequestAskJoinPartyRoom::new);
+		ex.add(0x30, AnswerJoinPartyRoom::new);
+		ex.add(0x31, RequestListPartyMatchingWaitingRoom::new);
+		ex.add(0x32, RequestExEnchantSkillSafe::new);
+		ex.add(0x33, RequestExEnchantSkillUntrain::new);
+		ex.add(0x34, RequestExEnchantSkillRouteChange::new);
+		ex.add(0x35, RequestExEnchantItemAttribute::new);
+		ex.add(0x36, ExGetOnAirShip::new);
+		ex.add(0x38, MoveToLocationAirShip::new);
+		ex.add(0x39, RequestBidItemAuction::new);
+		ex.add(0x3a, RequestInfoItemAuction::new);
+		ex.add(0x3b, RequestExChangeName::new);
+		ex.add(0x3c, RequestAllCastleInfo::new);
+		ex.add(0x3d, RequestAllFortressInfo::new);
+		ex.add(0x3e, RequestAllAgitInfo::new);
+		ex.add(0x3f, RequestFortressSiegeInfo::new);
+		ex.add(0x40, RequestGetBossRecord::new);
+		ex.add(0x41, RequestRefine::new);
+		ex.add(0x42, RequestConfirmCancelItem::new);
+		ex.add(0x43, RequestRefineCancel::new);
+		ex.add(0x44, RequestExMagicSkillUseGround::new);
+		ex.add(0x45, RequestDuelSurrender::new);
+		ex.add(0x46, RequestExEnchantSkillInfoDetail::new);
+		ex.add(0x48, RequestFortressMapInfo::new);
+		ex.ignore(0x49, "RequestPVPMatchRecord");
+		ex.add(0x4a, SetPrivateStoreWholeMsg::new);
+		ex.add(0x4b, RequestDispel::new);
+		ex.add(0x4c, RequestExTryToPutEnchantTargetItem::new);
+		ex.add(0x4d, RequestExTryToPutEnchantSupportItem::new);
+		ex.add(0x4e, RequestExCancelEnchantItem::new);
+		ex.add(0x4f, RequestChangeNicknameColor::new);
+		ex.add(0x50, RequestResetNickname::new);
+		final PacketTable bookmarks = ex.extended(0x51, 4);
+		bookmarks.add(0x00, RequestBookMarkSlotInfo::new);
+		bookmarks.add(0x01, RequestSaveBookMarkSlot::new);
+		bookmarks.add(0x02, RequestModifyBookMarkSlot::new);
+		bookmarks.add(0x03, RequestDeleteBookMarkSlot::new);
+		bookmarks.add(0x04, RequestTeleportBookMark::new);
+		bookmarks.ignore(0x05, "RequestChangeBookMarkSlot");
+		ex.add(0x52, RequestWithDrawPremiumItem::new);
+		ex.ignore(0x53, "RequestJump");
+		ex.ignore(0x54, "RequestStartShowCrataeCubeRank");
+		ex.ignore(0x55, "RequestStopShowCrataeCubeRank");
+		ex.ignore(0x56, "NotifyStartMiniGame");
+		ex.add(0x57, RequestJoinDominionWar::new);
+		ex.add(0x58, RequestDominionInfo::new);
+		ex.add(0x59, RequestExCleftEnter::new);
+		ex.add(0x5a, RequestExCubeGameChangeTeam::new);
+		ex.add(0x5b, EndScenePlayer::new);
+		ex.add(0x5c, RequestExCubeGameReadyAnswer::new);
+		ex.ignore(0x5d, "RequestListMpccWaiting"); // TODO: chddd
+		ex.ignore(0x5e, "RequestManageMpccRoom"); // TODO: chdddddS
+		ex.ignore(0x5f, "RequestJoinMpccRoom"); // TODO: chdd
+		ex.add(0x63, RequestSeedPhase::new);
+		ex.add(0x65, RequestPostItemList::new);
+		ex.add(0x66, RequestSendPost::new);
+		ex.add(0x67, RequestReceivedPostList::new);
+		ex.add(0x68, RequestDeleteReceivedPost::new);
+		ex.add(0x69, RequestReceivedPost::new);
+		ex.add(0x6a, RequestPostAttachment::new);
+		ex.add(0x6b, RequestRejectPostAttachment::new);
+		ex.add(0x6c, RequestSentPostList::new);
+		ex.add(0x6d, RequestDeleteSentPost::new);
+		ex.add(0x6e, RequestSentPost::new);
+		ex.add(0x6f, RequestCancelPostAttachment::new);
+		ex.ignore(0x70, "RequestShowNewUserPetition");
+		ex.ignore(0x71, "RequestShowStepThree");
+		ex.ignore(0x72, "RequestShowStepTwo");
+		ex.ignore(0x73, "ExRaidReserveResult");
+		ex.add(0x75, RequestRefundItem::new);
+		ex.add(0x76, RequestBuySellUIClose::new);
+		ex.ignore(0x77, "RequestEventMatchObserverEnd");
+		ex.add(0x78, RequestPartyLootModification::new);
+		ex.add(0x79, AnswerPartyLootModification::new);
+		ex.add(0x7a, AnswerCoupleAction::new);
+		ex.add(0x7b, BrEventRankerList::new);
+		ex.ignore(0x7c, "AskMembership");
+		ex.ignore(0x7d, "RequestAddExpandQuestAlarm");
+		ex.add(0x7e, RequestVoteNew::new);
+		ex.add(0x84, RequestExAddContactToContactList::new);
+		ex.add(0x85, RequestExDeleteContactFromContactList::new);
+		ex.add(0x86, RequestExShowContactList::new);
+		ex.add(0x87, RequestExFriendListExtended::new);
+		ex.add(0x88, RequestExOlympiadMatchListRefresh::new);
+		ex.ignore(0x89, "RequestBRGamePoint");
+		ex.ignore(0x8a, "RequestBRProductList");
+		ex.ignore(0x8b, "RequestBRProductInfo");
+		ex.ignore(0x8c, "RequestBRBuyProduct");
+		ex.ignore(0x8d, "RequestBRRecentProductList");
+		ex.ignore(0x8e, "BrMinigameLoadScores");
+		ex.ignore(0x8f, "BrMinigameInsertScore");
+		ex.ignore(0x90, "BrLectureMark");
+		ex.ignore(0x91, "RequestGoodsInventoryInfo");
+		ex.ignore(0x92, "RequestUseGoodsInventoryItem");
+	}
+	
+	private PacketTable table(GameClientState state) {
+		final PacketTable table = new PacketTable(state.name());
+		_tables[state.ordinal()] = table;
+		return table;
+	}
+	
 	@Override
 	public ReceivablePacket<L2GameClient> handlePacket(ByteBuffer buf, L2GameClient client) {
 		if (client.dropPacket()) {
 			return null;
 		}
 		
-		int opcode = buf.get() & 0xFF;
-		int id3;
+		final int size = buf.remaining();
+		final GameClientState state = client.getState();
+		final int opcode = buf.get() & 0xFF;
 		
-		ReceivablePacket<L2GameClient> msg = null;
-		GameClientState state = client.getState();
+		PacketTable.Entry entry = _tables[state.ordinal()].get(opcode);
+		if (entry == null) {
+			printDebug(opcode, buf, state, client);
+			return null;
+		}
 		
-		switch (state) {
-			case CONNECTED:
-				switch (opcode) {
-					case 0x0e -> msg = new ProtocolVersion();
-					case 0x2b -> msg = new AuthLogin();
-					default -> printDebug(opcode, buf, state, client);
-				}
-				break;
-			case AUTHED:
-				switch (opcode) {
-					case 0x00 -> msg = new Logout();
-					case 0x0c -> msg = new CharacterCreate();
-					case 0x0d -> msg = new CharacterDelete();
-					case 0x12 -> msg = new CharacterSelect();
-					case 0x13 -> msg = new NewCharacter();
-					case 0x7b -> msg = new CharacterRestore();
-					case 0xd0 -> {
-						int id2;
-						if (buf.remaining() >= 2) {
-							id2 = buf.getShort() & 0xffff;
-						} else {
-							if (general().packetHandlerDebug()) {
-								LOG.warn("Client: {} sent a 0xd0 without the second opcode.", client);
-							}
-							break;
-						}
-						switch (id2) {
-							case 0x36 -> msg = new RequestGotoLobby();
-							case 0x93 -> msg = new RequestEx2ndPasswordCheck();
-							case 0x94 -> msg = new RequestEx2ndPasswordVerify();
-							case 0x95 -> msg = new RequestEx2ndPasswordReq();
-							default -> printDebugDoubleOpcode(opcode, id2, buf, state, client);
-						}
-					}
-					default -> printDebug(opcode, buf, state, client);
-				}
-				break;
-			case JOINING: {
-				switch (opcode) {
-					case 0x11 -> msg = new EnterWorld();
-					case 0xd0 -> {
-						int id2;
-						if (buf.remaining() >= 2) {
-							id2 = buf.getShort() & 0xffff;
-						} else {
-							if (general().packetHandlerDebug()) {
-								LOG.warn("Client: {} sent a 0xd0 without the second opcode.", client);
-							}
-							break;
-						}
-						
-						if (id2 == 0x01) {
-							msg = new RequestManorList();
-						} else {
-							printDebugDoubleOpcode(opcode, id2, buf, state, client);
-						}
-					}
-					default -> printDebug(opcode, buf, state, client);
+		while (entry.getNext() != null) {
+			final PacketTable table = entry.getNext();
+			if (!table.hasId(buf)) {
+				// a missing third opcode is always reported
+				if ((table.getIdSize() > 2) || general().packetHandlerDebug()) {
+					LOG.warn("Client: {} sent a {} without the {} opcode.", client, table.getPath(), table.getIdSize() > 2 ? "third" : "second");
 				}
-				break;
+				return null;
 			}
-			case IN_GAME:
-				switch (opcode) {
-					case 0x00:
-						msg = new Logout();
-						break;
-					case 0x01:
-						msg = new Attack();
-						break;
-					case 0x03:
-						msg = new RequestStartPledgeWar();
-						break;
-					case 0x04:
-						msg = new RequestReplyStartPledgeWar();
-						break;
-					case 0x05:
-						msg = new RequestStopPledgeWar();
-						break;
-					case 0x06: // RequestSCCheck
-						msg = new RequestReplyStopPledgeWar();
-						break;
-					case 0x07:
-						msg = new RequestSurrenderPledgeWar();
-						break;
-					case 0x08:
-						msg = new RequestReplySurrenderPledgeWar();
-						break;
-					case 0x09:
-						msg = new RequestSetPledgeCrest();
-						break;
-					case 0x0b:
-						msg = new RequestGiveNickName();
-						break;
-					case 0x0f:
-						msg = new MoveBackwardToLocation();
-						break;
-					case 0x10:
-						// Say
-						break;
-					case 0x12:
-						// CharacterSelect, in case of player spam clicks on login screen
-						break;
-					case 0x14:
-						msg = new RequestItemList();
-						break;
-					case 0x15:
-						// RequestEquipItem
-						client.handleCheat("Used obsolete RequestEquipItem packet!");
-						break;
-					case 0x16:
-						msg = new RequestUnEquipItem();
-						break;
-					case 0x17:
-						msg = new RequestDropItem();
-						break;
-					case 0x19:
-						msg = new UseItem();
-						break;
-					case 0x1a:
-						msg = new TradeRequest();
-						break;
-					case 0x1b:
-						msg = new AddTradeItem();
-						break;
-					case 0x1c:
-						msg = new TradeDone();
-						break;
-					case 0x1f:
-						msg = new Action();
-						break;
-					case 0x22:
-						msg = new RequestLinkHtml();
-						break;
-					case 0x23:
-						msg = new RequestBypassToServer();
-						break;
-					case 0x24:
-						msg = new RequestBBSwrite();
-						break;
-					case 0x25:
-						// RequestCreatePledge
-						break;
-					case 0x26:
-						msg = new RequestJoinPledge();
-						break;
-					case 0x27:
-						msg = new RequestAnswerJoinPledge();
-						break;
-					case 0x28:
-						msg = new RequestWithdrawalPledge();
-						break;
-					case 0x29:
-						msg = new RequestOustPledgeMember();
-						break;
-					case 0x2c:
-						msg = new RequestGetItemFromPet();
-						break;
-					case 0x2e:
-						msg = new RequestAllyInfo();
-						break;
-					case 0x2f:
-						msg = new RequestCrystallizeItem();
-						break;
-					case 0x30:
-						msg = new RequestPrivateStoreManageSell();
-						break;
-					case 0x31:
-						msg = new SetPrivateStoreListSell();
-						break;
-					case 0x32:
-						msg = new AttackRequest();
-						break;
-					case 0x33:
-						// RequestTeleportPacket
-						break;
-					case 0x34:
-						// msg = new RequestSocialAction();
-						client.handleCheat("Used obsolete RequestSocialAction packet");
-						break;
-					case 0x35:
-						// msg = new ChangeMoveType2();
-						client.handleCheat("Used obsolete ChangeMoveType packet");
-						break;
-					case 0x36:
-						// msg = new ChangeWaitType2();
-						client.handleCheat("Used obsolete ChangeWaitType packet");
-						break;
-					case 0x37:
-						msg = new RequestSellItem();
-						break;
-					case 0x38:
-						// RequestMagicSkillList
-						break;
-					case 0x39:
-						msg = new RequestMagicSkillUse();
-						break;
-					case 0x3a: // SendAppearingPacket
-						msg = new Appearing();
-						break;
-					case 0x3b:
-						if (general().allowWarehouse()) {
-							msg = new SendWareHouseDepositList();
-						}
-						break;
-					case 0x3c:
-						msg = new SendWareHouseWithDrawList();
-						break;
-					case 0x3d:
-						msg = new RequestShortCutReg();
-						break;
-					case 0x3f:
-						msg = new RequestShortCutDel();
-						break;
-					case 0x40:
-						msg = new RequestBuyItem();
-						break;
-					case 0x41:
-						// RequestDismissPledge
-						break;
-					case 0x42:
-						msg = new RequestJoinParty();
-						break;
-					case 0x43:
-						msg = new RequestAnswerJoinParty();
-						break;
-					case 0x44:
-						msg = new RequestWithDrawalParty();
-						break;
-					case 0x45:
-						msg = new RequestOustPartyMember();
-						break;
-					case 0x46:
-						// RequestDismissParty
-						break;
-					case 0x47:
-						msg = new CannotMoveAnymore();
-						break;
-					case 0x48:
-						msg = new RequestTargetCanceld();
-						break;
-					case 0x49:
-						msg = new Say2();
-						break;
-					case 0x4a:
-						int id_2;
-						if (buf.remaining() >= 2) {
-							id_2 = buf.getShort() & 0xffff;
-						} else {
-							if (general().packetHandlerDebug()) {
-								LOG.warn("Client: {} sent a 0x4a without the second opcode.", client);
-							}
-							break;
-						}
-						switch (id_2) {
-							case 0x00:
-								// SuperCmdCharacterInfo
-								break;
-							case 0x01:
-								// SuperCmdSummonCmd
-								break;
-							case 0x02:
-								// SuperCmdServerStatus
-								break;
-							case 0x03:
-								// SendL2ParamSetting
-								break;
-							default:
-								printDebugDoubleOpcode(opcode, id_2, buf, state, client);
-								break;
-						}
-						break;
-					case 0x4d:
-						msg = new RequestPledgeMemberList();
-						break;
-					case 0x4f:
-						// RequestMagicList
-						break;
-					case 0x50:
-						msg = new RequestSkillList();
-						break;
-					case 0x52:
-						msg = new MoveWithDelta();
-						break;
-					case 0x53:
-						msg = new RequestGetOnVehicle();
-						break;
-					case 0x54:
-						msg = new RequestGetOffVehicle();
-						break;
-					case 0x55:
-						msg = new AnswerTradeRequest();
-						break;
-					case 0x56:
-						msg = new RequestActionUse();
-						break;
-					case 0x57:
-						msg = new RequestRestart();
-						break;
-					case 0x58:
-						msg = new RequestSiegeInfo();
-						break;
-					case 0x59:
-						msg = new ValidatePosition();
-						break;
-					case 0x5a:
-						// RequestSEKCustom
-						break;
-					case 0x5b:
-						msg = new StartRotating();
-						break;
-					case 0x5c:
-						msg = new FinishRotating();
-						break;
-					case 0x5e:
-						msg = new RequestShowBoard();
-						break;
-					case 0x5f:
-						msg = new RequestEnchantItem();
-						break;
-					case 0x60:
-						msg = new RequestDestroyItem();
-						break;
-					case 0x62:
-						msg = new RequestQuestList();
-						break;
-					case 0x63: // RequestDestroyQuest
-						msg = new RequestQuestAbort();
-						break;
-					case 0x65:
-						msg = new RequestPledgeInfo();
-						break;
-					case 0x66:
-						msg = new RequestPledgeExtendedInfo();
-						break;
-					case 0x67:
-						msg = new RequestPledgeCrest();
-						break;
-					case 0x6b: // RequestSendL2FriendSay
-						msg = new RequestSendFriendMsg();
-						break;
-					case 0x6c:
-						msg = new RequestShowMiniMap();
-						break;
-					case 0x6d:
-						// RequestSendMsnChatLog
-						break;
-					case 0x6e: // RequestReload
-						msg = new RequestRecordInfo();
-						break;
-					case 0x6f:
-						msg = new RequestHennaEquip();
-						break;
-					case 0x70:
-						msg = new RequestHennaRemoveList();
-						break;
-					case 0x71:
-						msg = new RequestHennaItemRemoveInfo();
-						break;
-					case 0x72:
-						msg = new RequestHennaRemove();
-						break;
-					case 0x73:
-						msg = new RequestAcquireSkillInfo();
-						break;
-					case 0x74:
-						msg = new SendBypassBuildCmd();
-						break;
-					case 0x75:
-						msg = new RequestMoveToLocationInVehicle();
-						break;
-					case 0x76:
-						msg = new CannotMoveAnymoreInVehicle();
-						break;
-					case 0x77:
-						msg = new RequestFriendInvite();
-						break;
-					case 0x78: // RequestFriendAddReply
-						msg = new RequestAnswerFriendInvite();
-						break;
-					case 0x79:
-						msg = new RequestFriendList();
-						break;
-					case 0x7a:
-						msg = new RequestFriendDel();
-						break;
-					case 0x7c:
-						msg = new RequestAcquireSkill();
-						break;
-					case 0x7d:
-						msg = new RequestRestartPoint();
-						break;
-					case 0x7e:
-						msg = new RequestGMCommand();
-						break;
-					case 0x7f:
-						msg = new RequestPartyMatchConfig();
-						break;
-					case 0x80:
-						msg = new RequestPartyMatchList();
-						break;
-					case 0x81:
-						msg = new RequestPartyMatchDetail();
-						break;
-					case 0x83: // SendPrivateStoreBuyList
-						msg = new RequestPrivateStoreBuy();
-						break;
-					case 0x85:
-						msg = new RequestTutorialLinkHtml();
-						break;
-					case 0x86:
-						msg = new RequestTutorialPassCmdToServer();
-						break;
-					case 0x87:
-						msg = new RequestTutorialQuestionMark();
-						break;
-					case 0x88:
-						msg = new RequestTutorialClientEvent();
-						break;
-					case 0x89:
-						msg = new RequestPetition();
-						break;
-					case 0x8a:
-						msg = new RequestPetitionCancel();
-						break;
-					case 0x8b:
-						msg = new RequestGmList();
-						break;
-					case 0x8c:
-						msg = new RequestJoinAlly();
-						break;
-					case 0x8d:
-						msg = new RequestAnswerJoinAlly();
-						break;
-					case 0x8e: // RequestWithdrawAlly
-						msg = new AllyLeave();
-						break;
-					case 0x8f: // RequestOustAlly
-						msg = new AllyDismiss();
-						break;
-					case 0x90:
-						msg = new RequestDismissAlly();
-						break;
-					case 0x91:
-						msg = new RequestSetAllyCrest();
-						break;
-					case 0x92:
-						msg = new RequestAllyCrest();
-						break;
-					case 0x93:
-						msg = new RequestChangePetName();
-						break;
-					case 0x94:
-						msg = new RequestPetUseItem();
-						break;
-					case 0x95:
-						msg = new RequestGiveItemToPet();
-						break;
-					case 0x96:
-						msg = new RequestPrivateStoreQuitSell();
-						break;
-					case 0x97:
-						msg = new SetPrivateStoreMsgSell();
-						break;
-					case 0x98:
-						msg = new RequestPetGetItem();
-						break;
-					case 0x99:
-						msg = new RequestPrivateStoreManageBuy();
-						break;
-					case 0x9a: // SetPrivateStoreList
-						msg = new SetPrivateStoreListBuy();
-						break;
-					case 0x9c:
-						msg = new RequestPrivateStoreQuitBuy();
-						break;
-					case 0x9d:
-						msg = new SetPrivateStoreMsgBuy();
-						break;
-					case 0x9f: // SendPrivateStoreBuyList
-						msg = new RequestPrivateStoreSell();
-						break;
-					case 0xa0:
-						// SendTimeCheckPacket
-						break;
-					case 0xa6:
-						// RequestSkillCoolTime
-						break;
-					case 0xa7:
-						msg = new RequestPackageSendableItemList();
-						break;
-					case 0xa8:
-						msg = new RequestPackageSend();
-						break;
-					case 0xa9:
-						msg = new RequestBlock();
-						break;
-					case 0xaa:
-						msg = new RequestSiegeInfo();
-						break;
-					case 0xab: // RequestCastleSiegeAttackerList
-						msg = new RequestSiegeAttackerList();
-						break;
-					case 0xac:
-						msg = new RequestSiegeDefenderList();
-						break;
-					case 0xad: // RequestJoinCastleSiege
-						msg = new RequestJoinSiege();
-						break;
-					case 0xae: // RequestConfirmCastleSiegeWaitingList
-						msg = new RequestConfirmSiegeWaitingList();
-						break;
-					case 0xAF:
-						msg = new RequestSetCastleSiegeTime();
-						break;
-					case 0xb0:
-						msg = new MultiSellChoose();
-						break;
-					case 0xb1:
-						// NetPing
-						break;
-					case 0xb2:
-						// RequestRemainTime
-						break;
-					case 0xb3:
-						msg = new BypassUserCmd();
-						break;
-					case 0xb4:
-						msg = new SnoopQuit();
-						break;
-					case 0xb5:
-						msg = new RequestRecipeBookOpen();
-						break;
-					case 0xb6: // RequestRecipeItemDelete
-						msg = new RequestRecipeBookDestroy();
-						break;
-					case 0xb7:
-						msg = new RequestRecipeItemMakeInfo();
-						break;
-					case 0xb8:
-						msg = new RequestRecipeItemMakeSelf();
-						break;
-					case 0xb9:
-						// RequestRecipeShopManageList
-						break;
-					case 0xba:
-						msg = new RequestRecipeShopMessageSet();
-						break;
-					case 0xbb:
-						msg = new RequestRecipeShopListSet();
-						break;
-					case 0xbc:
-						msg = new RequestRecipeShopManageQuit();
-						break;
-					case 0xbd:
-						// RequestRecipeShopManageCancel
-						break;
-					case 0xbe:
-						msg = new RequestRecipeShopMakeInfo();
-						break;
-					case 0xbf: // RequestRecipeShopMakeDo
-						msg = new RequestRecipeShopMakeItem();
-						break;
-					case 0xc0: // RequestRecipeShopSellList
-						msg = new RequestRecipeShopManagePrev();
-						break;
-					case 0xc1: // RequestObserverEndPacket
-						msg = new ObserverReturn();
-						break;
-					case 0xc2:
-						// Unused (RequestEvaluate/VoteSociality)
-						break;
-					case 0xc3:
-						msg = new RequestHennaItemList();
-						break;
-					case 0xc4:
-						msg = new RequestHennaItemInfo();
-						break;
-					case 0xc5:
-						msg = new RequestBuySeed();
-						break;
-					case 0xc6: // ConfirmDlg
-						msg = new DlgAnswer();
-						break;
-					case 0xc7: // RequestPreviewItem
-						msg = new RequestPreviewItem();
-						break;
-					case 0xc8:
-						msg = new RequestSSQStatus();
-						break;
-					case 0xc9:
-						msg = new RequestPetitionFeedback();
-						break;
-					case 0xcb:
-						msg = new GameGuardReply();
-						break;
-					case 0xcc:
-						msg = new RequestPledgePower();
-						break;
-					case 0xcd:
-						msg = new RequestMakeMacro();
-						break;
-					case 0xce:
-						msg = new RequestDeleteMacro();
-						break;
-					case 0xcf: // RequestProcureCrop
-						// msg = new RequestBuyProcure();
-						break;
-					case 0xd0:
-						int id2;
-						if (buf.remaining() >= 2) {
-							id2 = buf.getShort() & 0xffff;
-						} else {
-							if (general().packetHandlerDebug()) {
-								LOG.warn("Client: {} sent a 0xd0 without the second opcode.", client);
-							}
-							break;
-						}
-						
-						switch (id2) {
-							case 0x01:
-								msg = new RequestManorList();
-								break;
-							case 0x02:
-								msg = new RequestProcureCropList();
-								break;
-							case 0x03:
-								msg = new RequestSetSeed();
-								break;
-							case 0x04:
-								msg = new RequestSetCrop();
-								break;
-							case 0x05:
-								msg = new RequestWriteHeroWords();
-								break;
-							case 0x5F:
-								// Server Packets:
-								// ExMpccRoomInfo FE:9B
-								// ExListMpccWaiting FE:9C
-								// ExDismissMpccRoom FE:9D
-								// ExManageMpccRoomMember FE:9E
-								// ExMpccRoomMember FE:9F
-								// TODO: RequestJoinMpccRoom chdd
-								break;
-							case 0x5D:
-								// TODO: RequestListMpccWaiting chddd
-								break;
-							case 0x5E:
-								// TODO: RequestManageMpccRoom chdddddS
-								break;
-							case 0x06:
-								msg = new RequestExAskJoinMPCC();
-								break;
-							case 0x07:
-								msg = new RequestExAcceptJoinMPCC();
-								break;
-							case 0x08:
-								msg = new RequestExOustFromMPCC();
-								break;
-							case 0x09:
-								msg = new RequestOustFromPartyRoom();
-								break;
-							case 0x0a:
-								msg = new RequestDismissPartyRoom();
-								break;
-							case 0x0b:
-								msg = new RequestWithdrawPartyRoom();
-								break;
-							case 0x0c:
-								msg = new RequestChangePartyLeader();
-								break;
-							case 0x0d:
-								msg = new RequestAutoSoulShot();
-								break;
-							case 0x0e:
-								msg = new RequestExEnchantSkillInfo();
-								break;
-							case 0x0f:
-								msg = new RequestExEnchantSkill();
-								break;
-							case 0x10:
-								msg = new RequestExPledgeCrestLarge();
-								break;
-							case 0x11:
-								msg = new RequestExSetPledgeCrestLarge();
-								break;
-							case 0x12:
-								msg = new RequestPledgeSetAcademyMaster();
-								break;
-							case 0x13:
-								msg = new RequestPledgePowerGradeList();
-								break;
-							case 0x14:
-								msg = new RequestPledgeMemberPowerInfo();
-								break;
-							case 0x15:
-								msg = new RequestPledgeSetMemberPowerGrade();
-								break;
-							case 0x16:
-								msg = new RequestPledgeMemberInfo();
-								break;
-							case 0x17:
-								msg = new RequestPledgeWarList();
-								break;
-							case 0x18:
-								msg = new RequestExFishRanking();
-								break;
-							case 0x19:
-								msg = new RequestPCCafeCouponUse();
-								break;
-							case 0x1b:
-								msg = new RequestDuelStart();
-								break;
-							case 0x1c:
-								msg = new RequestDuelAnswerStart();
-								break;
-							case 0x1d:
-								// RequestExSetTutorial
-								break;
-							case 0x1e:
-								msg = new RequestExRqItemLink();
-								break;
-							case 0x1f:
-								// CanNotMoveAnymoreAirShip
-								break;
-							case 0x20:
-								msg = new MoveToLocationInAirShip();
-								break;
-							case 0x21:
-								msg = new RequestKeyMapping();
-								break;
-							case 0x22:
-								msg = new RequestSaveKeyMapping();
-								break;
-							case 0x23:
-								msg = new RequestExRemoveItemAttribute();
-								break;
-							case 0x24:
-								msg = new RequestSaveInventoryOrder();
-								break;
-							case 0x25:
-								msg = new RequestExitPartyMatchingWaitingRoom();
-								break;
-							case 0x26:
-								msg = new RequestConfirmTargetItem();
-								break;
-							case 0x27:
-								msg = new RequestConfirmRefinerItem();
-								break;
-							case 0x28:
-								msg = new RequestConfirmGemStone();
-								break;
-							case 0x29:
-								msg = new RequestOlympiadObserverEnd();
-								break;
-							case 0x2a:
-								msg = new RequestCursedWeaponList();
-								break;
-							case 0x2b:
-								msg = new RequestCursedWeaponLocation();
-								break;
-							case 0x2c:
-								msg = new RequestPledgeReorganizeMember();
-								break;
-							case 0x2d:
-								msg = new RequestExMPCCShowPartyMembersInfo();
-								break;
-							case 0x2e:
-								msg = new RequestOlympiadMatchList();
-								break;
-							case 0x2f:
-								msg = new RequestAskJoinPartyRoom();
-								break;
-							case 0x30:
-								msg = new AnswerJoinPartyRoom();
-								break;
-							case 0x31:
-								msg = new RequestListPartyMatchingWaitingRoom();
-								break;
-							case 0x32:
-								msg = new RequestExEnchantSkillSafe();
-								break;
-							case 0x33:
-								msg = new RequestExEnchantSkillUntrain();
-								break;
-							case 0x34:
-								msg = new RequestExEnchantSkillRouteChange();
-								break;
-							case 0x35:
-								msg = new RequestExEnchantItemAttribute();
-								break;
-							case 0x36:
-								msg = new ExGetOnAirShip();
-								break;
-							case 0x38:
-								msg = new MoveToLocationAirShip();
-								break;
-							case 0x39:
-								msg = new RequestBidItemAuction();
-								break;
-							case 0x3a:
-								msg = new RequestInfoItemAuction();
-								break;
-							case 0x3b:
-								msg = new RequestExChangeName();
-								break;
-							case 0x3c:
-								msg = new RequestAllCastleInfo();
-								break;
-							case 0x3d:
-								msg = new RequestAllFortressInfo();
-								break;
-							case 0x3e:
-								msg = new RequestAllAgitInfo();
-								break;
-							case 0x3f:
-								msg = new RequestFortressSiegeInfo();
-								break;
-							case 0x40:
-								msg = new RequestGetBossRecord();
-								break;
-							case 0x41:
-								msg = new RequestRefine();
-								break;
-							case 0x42:
-								msg = new RequestConfirmCancelItem();
-								break;
-							case 0x43:
-								msg = new RequestRefineCancel();
-								break;
-							case 0x44:
-								msg = new RequestExMagicSkillUseGround();
-								break;
-							case 0x45:
-								msg = new RequestDuelSurrender();
-								break;
-							case 0x46:
-								msg = new RequestExEnchantSkillInfoDetail();
-								break;
-							case 0x48:
-								msg = new RequestFortressMapInfo();
-								break;
-							case 0x49:
-								// RequestPVPMatchRecord
-								break;
-							case 0x4a:
-								msg = new SetPrivateStoreWholeMsg();
-								break;
-							case 0x4b:
-								msg = new RequestDispel();
-								break;
-							case 0x4c:
-								msg = new RequestExTryToPutEnchantTargetItem();
-								break;
-							case 0x4d:
-								msg = new RequestExTryToPutEnchantSupportItem();
-								break;
-							case 0x4e:
-								msg = new RequestExCancelEnchantItem();
-								break;
-							case 0x4f:
-								msg = new RequestChangeNicknameColor();
-								break;
-							case 0x50:
-								msg = new RequestResetNickname();
-								break;
-							case 0x51:
-								if (buf.remaining() >= 4) {
-									id3 = buf.getInt();
-								} else {
-									LOG.warn("Client: {} sent a 0xd0:0x51 without the third opcode.", client);
-									break;
-								}
-								switch (id3) {
-									case 0x00:
-										msg = new RequestBookMarkSlotInfo();
-										break;
-									case 0x01:
-										msg = new RequestSaveBookMarkSlot();
-										break;
-									case 0x02:
-										msg = new RequestModifyBookMarkSlot();
-										break;
-									case 0x03:
-										msg = new RequestDeleteBookMarkSlot();
-										break;
-									case 0x04:
-										msg = new RequestTeleportBookMark();
-										break;
-									case 0x05:
-										// RequestChangeBookMarkSlot
-										break;
-									default:
-										printDebugDoubleOpcode(opcode, id3, buf, state, client);
-										break;
-								}
-								break;
-							case 0x52:
-								msg = new RequestWithDrawPremiumItem();
-								break;
-							case 0x53:
-								// RequestJump
-								break;
-							case 0x54:
-								// RequestStartShowCrataeCubeRank
-								break;
-							case 0x55:
-								// RequestStopShowCrataeCubeRank
-								break;
-							case 0x56:
-								// NotifyStartMiniGame
-								break;
-							case 0x57:
-								msg = new RequestJoinDominionWar();
-								break;
-							case 0x58:
-								msg = new RequestDominionInfo();
-								break;
-							case 0x59:
-								msg = new RequestExCleftEnter();
-								break;
-							case 0x5a:
-								msg = new RequestExCubeGameChangeTeam();
-								break;
-							case 0x5b:
-								msg = new EndScenePlayer();
-								break;
-							case 0x5c:
-								msg = new RequestExCubeGameReadyAnswer();
-								break;
-							case 0x63:
-								msg = new RequestSeedPhase();
-								break;
-							case 0x65:
-								msg = new RequestPostItemList();
-								break;
-							case 0x66:
-								msg = new RequestSendPost();
-								break;
-							case 0x67:
-								msg = new RequestReceivedPostList();
-								break;
-							case 0x68:
-								msg = new RequestDeleteReceivedPost();
-								break;
-							case 0x69:
-								msg = new RequestReceivedPost();
-								break;
-							case 0x6a:
-								msg = new RequestPostAttachment();
-								break;
-							case 0x6b:
-								msg = new RequestRejectPostAttachment();
-								break;
-							case 0x6c:
-								msg = new RequestSentPostList();
-								break;
-							case 0x6d:
-								msg = new RequestDeleteSentPost();
-								break;
-							case 0x6e:
-								msg = new RequestSentPost();
-								break;
-							case 0x6f:
-								msg = new RequestCancelPostAttachment();
-								break;
-							case 0x70:
-								// RequestShowNewUserPetition
-								break;
-							case 0x71:
-								// RequestShowStepThree
-								break;
-							case 0x72:
-								// RequestShowStepTwo
-								break;
-							case 0x73:
-								// ExRaidReserveResult
-								break;
-							case 0x75:
-								msg = new RequestRefundItem();
-								break;
-							case 0x76:
-								msg = new RequestBuySellUIClose();
-								break;
-							case 0x77:
-								// RequestEventMatchObserverEnd
-								break;
-							case 0x78:
-								msg = new RequestPartyLootModification();
-								break;
-							case 0x79:
-								msg = new AnswerPartyLootModification();
-								break;
-							case 0x7a:
-								msg = new AnswerCoupleAction();
-								break;
-							case 0x7b:
-								msg = new BrEventRankerList();
-								break;
-							case 0x7c:
-								// AskMembership
-								break;
-							case 0x7d:
-								// RequestAddExpandQuestAlarm
-								break;
-							case 0x7e:
-								msg = new RequestVoteNew();
-								break;
-							case 0x84:
-								msg = new RequestExAddContactToContactList();
-								break;
-							case 0x85:
-								msg = new RequestExDeleteContactFromContactList();
-								break;
-							case 0x86:
-								msg = new RequestExShowContactList();
-								break;
-							case 0x87:
-								msg = new RequestExFriendListExtended();
-								break;
-							case 0x88:
-								msg = new RequestExOlympiadMatchListRefresh();
-								break;
-							case 0x89:
-								// RequestBRGamePoint
-								break;
-							case 0x8A:
-								// RequestBRProductList
-								break;
-							case 0x8B:
-								// RequestBRProductInfo
-								break;
-							case 0x8C:
-								// RequestBRBuyProduct
-								break;
-							case 0x8D:
-								// RequestBRRecentProductList
-								break;
-							case 0x8E:
-								// BrMinigameLoadScores
-								break;
-							case 0x8F:
-								// BrMinigameInsertScore
-								break;
-							case 0x90:
-								// BrLectureMark
-								break;
-							case 0x91:
-								// RequestGoodsInventoryInfo
-								break;
-							case 0x92:
-								// RequestUseGoodsInventoryItem
-								break;
-							default:
-								printDebugDoubleOpcode(opcode, id2, buf, state, client);
-								break;
-						}
-						break;
-					default:
-						printDebug(opcode, buf, state, client);
-						break;
-				}
-				break;
+			
+			final int id = table.readId(buf);
+			entry = table.get(id);
+			if (entry == null) {
+				printDebugDoubleOpcode(opcode, id, buf, state, client);
+				return null;
+			}
+		}
+		
+		if (_metrics) {
+			entry.getStats().received(size);
+		}
+		
+		final L2GameClientPacket packet = entry.create(client);
+		if ((packet != null) && _metrics) {
+			packet.setStats(entry.getStats());
 		}
-		return msg;
+		return packet;
 	}
 	
 	private void printDebug(int opcode, ByteBuffer buf, GameClientState state, L2GameClient client) {
@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToLongFunction;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Client packet metrics.<br>
+ * Keeps the {@link PacketStats statistics} of every opcode of the packet tables, they can be read from the telnet console or over JMX.
+ */
+public final class PacketMetrics implements PacketMetricsMBean {
+	private static final Logger LOG = LoggerFactory.getLogger(PacketMetrics.class);
+	
+	private static final int TOP_PACKETS = 20;
+	
+	private static final ThreadMXBean THREADS = threads();
+	
+	private final List<PacketStats> _stats = new CopyOnWriteArrayList<>();
+	
+	private PacketMetrics() {
+	}
+	
+	/**
+	 * Registers the metrics on the platform MBean server.
+	 */
+	public static void register() {
+		try {
+			final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+			final ObjectName name = new ObjectName("com.l2jserver.gameserver:type=PacketMetrics");
+			if (!mbs.isRegistered(name)) {
+				mbs.registerMBean(getInstance(), name);
+				LOG.info("Registered JMX MBean {}.", name);
+			}
+		} catch (Exception ex) {
+			LOG.warn("Failed to register JMX MBean.", ex);
+		}
+	}
+	
+	private static ThreadMXBean threads() {
+		if ((ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threads) && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+			return threads;
+		}
+		return null;
+	}
+	
+	/**
+	 * @return the bytes allocated by the current thread since it started, -1 if the JVM does not measure it
+	 */
+	public static long getAllocatedBytes() {
+		return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+	}
+	
+	void register(PacketStats stats) {
+		_stats.add(stats);
+	}
+	
+	/**
+	 * @param order the sort order: count, bytes, time, wait or alloc
+	 * @param limit the amount of packets
+	 * @return the statistics of the top packets
+	 */
+	public String[] getStats(String order, int limit) {
+		final ToLongFunction<PacketStats> key = switch (order) {
+			case "count" -> PacketStats::getReceived;
+			case "bytes" -> PacketStats::getBytes;
+			case "wait" -> s -> s.getWait().getTotal();
+			case "alloc" -> PacketStats::getAllocated;
+			default -> s -> s.getExecution().getTotal();
+		};
+		
+		final List<String> lines = new ArrayList<>();
+		lines.add("Packets (by " + order + "):");
+		lines.add(" + Received:        " + getReceivedPackets() + " (" + getReceivedBytes() + " bytes)");
+		lines.add(" + Executed:        " + getExecutedPackets());
+		lines.add(" + Top (count, bytes, exec p50/p99/max us, wait p50/p99/max us, alloc KB):");
+		lines.addAll(top(key, limit));
+		lines.add(" | -------");
+		return lines.toArray(new String[lines.size()]);
+	}
+	
+	private List<String> top(ToLongFunction<PacketStats> key, int limit) {
+		return _stats.stream() //
+			.filter(s -> key.applyAsLong(s) > 0) //
+			.sorted(Comparator.comparingLong(key).reversed()) //
+			.limit(limit) //
+			.map(PacketMetrics::format) //
+			.toList();
+	}
+	
+	private static String format(PacketStats s) {
+		final var exec = s.getExecution();
+		final var wait = s.getWait();
+		return " |- " + s.getName() + ": " + s.getReceived() + ", " + s.getBytes() + ", " //
+			+ exec.getPercentile(0.5) + "/" + exec.getPercentile(0.99) + "/" + exec.getMax() + ", " //
+			+ wait.getPercentile(0.5) + "/" + wait.getPercentile(0.99) + "/" + wait.getMax() + ", " //
+			+ (s.getAllocated() / 1024);
+	}
+	
+	@Override
+	public long getReceivedPackets() {
+		return _stats.stream().mapToLong(PacketStats::getReceived).sum();
+	}
+	
+	@Override
+	public long getReceivedBytes() {
+		return _stats.stream().mapToLong(PacketStats::getBytes).sum();
+	}
+	
+	@Override
+	public long getExecutedPackets() {
+		return _stats.stream().mapToLong(s -> s.getExecution().getCount()).sum();
+	}
+	
+	@Override
+	public String[] getTopByExecutionTime() {
+		return top(s -> s.getExecution().getTotal(), TOP_PACKETS).toArray(String[]::new);
+	}
+	
+	@Override
+	public String[] getTopByWaitTime() {
+		return top(s -> s.getWait().getTotal(), TOP_PACKETS).toArray(String[]::new);
+	}
+	
+	@Override
+	public String[] getTopByCount() {
+		return top(PacketStats::getReceived, TOP_PACKETS).toArray(String[]::new);
+	}
+	
+	@Override
+	public String[] getTopByAllocation() {
+		return top(PacketStats::getAllocated, TOP_PACKETS).toArray(String[]::new);
+	}
+	
+	@Override
+	public void reset() {
+		_stats.forEach(PacketStats::reset);
+	}
+	
+	public static PacketMetrics getInstance() {
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder {
+		protected static final PacketMetrics _instance = new PacketMetrics();
+	}
+}
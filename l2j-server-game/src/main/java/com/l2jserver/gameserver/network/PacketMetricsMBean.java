@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network;
+
+/**
+ * JMX interface of the client packet metrics, registered as {@code com.l2jserver.gameserver:type=PacketMetrics}.
+ */
+public interface PacketMetricsMBean {
+	long getReceivedPackets();
+	
+	long getReceivedBytes();
+	
+	long getExecutedPackets();
+	
+	/**
+	 * @return the packets with the highest total execution time
+	 */
+	String[] getTopByExecutionTime();
+	
+	/**
+	 * @return the packets with the highest total queue wait time
+	 */
+	String[] getTopByWaitTime();
+	
+	/**
+	 * @return the most received packets
+	 */
+	String[] getTopByCount();
+	
+	/**
+	 * @return the packets that allocated the most memory
+	 */
+	String[] getTopByAllocation();
+	
+	void reset();
+}
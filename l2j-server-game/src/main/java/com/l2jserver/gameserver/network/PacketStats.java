@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.l2jserver.gameserver.util.LatencyHistogram;
+
+/**
+ * Statistics of a client packet opcode.<br>
+ * Counts the received packets and bytes, and records the time the packets waited in the client queue and the packet pools, their execution time and the memory they allocated.
+ */
+public final class PacketStats {
+	private final String _name;
+	private final LongAdder _received = new LongAdder();
+	private final LongAdder _bytes = new LongAdder();
+	private final LongAdder _allocated = new LongAdder();
+	private final LatencyHistogram _wait = new LatencyHistogram();
+	private final LatencyHistogram _execution = new LatencyHistogram();
+	
+	PacketStats(String name) {
+		_name = name;
+	}
+	
+	/**
+	 * @return the client state, the opcodes and the packet name
+	 */
+	public String getName() {
+		return _name;
+	}
+	
+	void received(int bytes) {
+		_received.increment();
+		_bytes.add(bytes);
+	}
+	
+	/**
+	 * Records an executed packet.
+	 * @param wait the time between the packet was queued and its execution started, in nanoseconds
+	 * @param execution the execution time in nanoseconds
+	 * @param allocated the bytes allocated by the execution, negative if unknown
+	 */
+	public void executed(long wait, long execution, long allocated) {
+		_wait.record(TimeUnit.NANOSECONDS.toMicros(wait));
+		_execution.record(TimeUnit.NANOSECONDS.toMicros(execution));
+		if (allocated > 0) {
+			_allocated.add(allocated);
+		}
+	}
+	
+	void reset() {
+		_received.reset();
+		_bytes.reset();
+		_allocated.reset();
+		_wait.reset();
+		_execution.reset();
+	}
+	
+	public long getReceived() {
+		return _received.sum();
+	}
+	
+	public long getBytes() {
+		return _bytes.sum();
+	}
+	
+	public long getAllocated() {
+		return _allocated.sum();
+	}
+	
+	public LatencyHistogram getWait() {
+		return _wait;
+	}
+	
+	public LatencyHistogram getExecution() {
+		return _execution;
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import com.l2jserver.gameserver.network.clientpackets.L2GameClientPacket;
+
+/**
+ * Opcode table of the client packets.<br>
+ * Holds the entry of every known opcode of a level in an array indexed by the opcode, an entry either creates a packet or points to the table of the next opcode level.<br>
+ * Tables are filled once when the packet handler is created and only read afterwards.
+ */
+public final class PacketTable {
+	private final String _state;
+	private final String _path;
+	private final int _idSize;
+	private Entry[] _entries = new Entry[0];
+	
+	/**
+	 * Creates the first level table of a client state.
+	 * @param state the client state
+	 */
+	public PacketTable(String state) {
+		this(state, null, 1);
+	}
+	
+	private PacketTable(String state, String path, int idSize) {
+		_state = state;
+		_path = path;
+		_idSize = idSize;
+	}
+	
+	/**
+	 * Adds a packet.
+	 * @param id the opcode
+	 * @param factory the packet factory, it is called once to name the entry
+	 */
+	public void add(int id, Supplier<? extends L2GameClientPacket> factory) {
+		add(id, factory.get().getClass().getSimpleName(), factory);
+	}
+	
+	/**
+	 * Adds a packet that can be refused.
+	 * @param id the opcode
+	 * @param name the packet name
+	 * @param factory the packet factory, it returns {@code null} when the packet is refused
+	 */
+	public void add(int id, String name, Supplier<? extends L2GameClientPacket> factory) {
+		put(id, new Entry(stats(id, name), factory, null, null));
+	}
+	
+	/**
+	 * Adds a known packet the server does not handle, it is dropped silently.
+	 * @param id the opcode
+	 * @param name the packet name
+	 */
+	public void ignore(int id, String name) {
+		put(id, new Entry(stats(id, name), null, null, null));
+	}
+	
+	/**
+	 * Adds an obsolete packet, receiving it is reported as a cheat.
+	 * @param id the opcode
+	 * @param name the packet name
+	 * @param message the cheat message
+	 */
+	public void cheat(int id, String name, String message) {
+		put(id, new Entry(stats(id, name), null, message, null));
+	}
+	
+	/**
+	 * Adds an opcode followed by a second opcode.
+	 * @param id the opcode
+	 * @param idSize the size of the next opcode in bytes, 2 or 4
+	 * @return the table of the next opcode
+	 */
+	public PacketTable extended(int id, int idSize) {
+		final PacketTable table = new PacketTable(_state, path(id), idSize);
+		put(id, new Entry(null, null, null, table));
+		return table;
+	}
+	
+	private void put(int id, Entry entry) {
+		if (id >= _entries.length) {
+			_entries = Arrays.copyOf(_entries, id + 1);
+		}
+		if (_entries[id] != null) {
+			throw new IllegalArgumentException("Duplicated opcode " + path(id) + " in state " + _state + "!");
+		}
+		_entries[id] = entry;
+		if (entry._stats != null) {
+			PacketMetrics.getInstance().register(entry._stats);
+		}
+	}
+	
+	private PacketStats stats(int id, String name) {
+		return new PacketStats(_state + " " + path(id) + " " + name);
+	}
+	
+	private String path(int id) {
+		final String opcode = String.format("0x%02x", id);
+		return _path == null ? opcode : _path + ":" + opcode;
+	}
+	
+	/**
+	 * @param id the opcode
+	 * @return the entry of the opcode, {@code null} if unknown
+	 */
+	public Entry get(int id) {
+		return (id >= 0) && (id < _entries.length) ? _entries[id] : null;
+	}
+	
+	/**
+	 * @return the opcodes leading to this table, {@code null} for the first level
+	 */
+	public String getPath() {
+		return _path;
+	}
+	
+	/**
+	 * @param buf the packet buffer
+	 * @return {@code true} if the buffer holds the opcode of this table
+	 */
+	public boolean hasId(ByteBuffer buf) {
+		return buf.remaining() >= _idSize;
+	}
+	
+	/**
+	 * @param buf the packet buffer
+	 * @return the opcode of this table
+	 */
+	public int readId(ByteBuffer buf) {
+		return switch (_idSize) {
+			case 1 -> buf.get() & 0xFF;
+			case 2 -> buf.getShort() & 0xFFFF;
+			default -> buf.getInt();
+		};
+	}
+	
+	/**
+	 * @return the size of the opcode of this table in bytes
+	 */
+	public int getIdSize() {
+		return _idSize;
+	}
+	
+	/**
+	 * Opcode entry.
+	 */
+	public static final class Entry {
+		private final PacketStats _stats;
+		private final Supplier<? extends L2GameClientPacket> _factory;
+		private final String _cheat;
+		private final PacketTable _next;
+		
+		Entry(PacketStats stats, Supplier<? extends L2GameClientPacket> factory, String cheat, PacketTable next) {
+			_stats = stats;
+			_factory = factory;
+			_cheat = cheat;
+			_next = next;
+		}
+		
+		/**
+		 * @return the table of the next opcode, {@code null} if this entry is a packet
+		 */
+		public PacketTable getNext() {
+			return _next;
+		}
+		
+		/**
+		 * @return the statistics of the packet
+		 */
+		public PacketStats getStats() {
+			return _stats;
+		}
+		
+		/**
+		 * Creates the packet.
+		 * @param client the client
+		 * @return the packet, {@code null} if the packet is ignored, obsolete or refused
+		 */
+		public L2GameClientPacket create(L2GameClient client) {
+			if (_cheat != null) {
+				client.handleCheat(_cheat);
+				return null;
+			}
+			return _factory != null ? _factory.get() : null;
+		}
+	}
+}
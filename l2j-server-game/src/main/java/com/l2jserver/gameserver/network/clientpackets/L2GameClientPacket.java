@@ -28,6 +28,8 @@ import org.slf4j.LoggerFactory;
 
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.network.L2GameClient;
+import com.l2jserver.gameserver.network.PacketMetrics;
+import com.l2jserver.gameserver.network.PacketStats;
 import com.l2jserver.gameserver.network.SystemMessageId;
 import com.l2jserver.gameserver.network.serverpackets.ActionFailed;
 import com.l2jserver.gameserver.network.serverpackets.L2GameServerPacket;
@@ -45,6 +47,10 @@ public abstract class L2GameClientPacket extends ReceivablePacket<L2GameClient>
 		Math.max(character().getMaximumSlotsForDwarf(), //
 			character().getMaximumSlotsForGMPlayer()));
 	
+	/** Statistics of the opcode, {@code null} if packet metrics are disabled. */
+	private PacketStats _stats;
+	private long _queueTime;
+	
 	@Override
 	public boolean read() {
 		try {
@@ -62,8 +68,40 @@ public abstract class L2GameClientPacket extends ReceivablePacket<L2GameClient>
 	
 	protected abstract void readImpl();
 	
+	/**
+	 * @param stats the statistics of the opcode this packet was received with
+	 */
+	public final void setStats(PacketStats stats) {
+		_stats = stats;
+	}
+	
+	/**
+	 * Marks the time the packet was queued for execution.
+	 */
+	public final void setQueued() {
+		if (_stats != null) {
+			_queueTime = System.nanoTime();
+		}
+	}
+	
 	@Override
 	public void run() {
+		if (_stats == null) {
+			execute();
+			return;
+		}
+		
+		final long allocated = PacketMetrics.getAllocatedBytes();
+		final long start = System.nanoTime();
+		try {
+			execute();
+		} finally {
+			final long end = System.nanoTime();
+			_stats.executed(start - _queueTime, end - start, allocated < 0 ? -1 : PacketMetrics.getAllocatedBytes() - allocated);
+		}
+	}
+	
+	private void execute() {
 		try {
 			runImpl();
 			
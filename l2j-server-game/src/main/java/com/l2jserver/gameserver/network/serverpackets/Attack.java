@@ -84,6 +84,11 @@ public class Attack extends L2GameServerPacket {
 		writeC(hit.getFlags());
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		final Iterator<Hit> it = _hits.iterator();
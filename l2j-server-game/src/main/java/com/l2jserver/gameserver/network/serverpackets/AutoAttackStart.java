@@ -25,6 +25,11 @@ public final class AutoAttackStart extends L2GameServerPacket {
 		_targetObjId = targetId;
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl() {
 		writeC(0x25);
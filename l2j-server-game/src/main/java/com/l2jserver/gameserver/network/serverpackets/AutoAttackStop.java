@@ -25,6 +25,11 @@ public class AutoAttackStop extends L2GameServerPacket {
 		_targetObjId = targetObjId;
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		writeC(0x26);
@@ -32,6 +32,11 @@ public class ChangeMoveType extends L2GameServerPacket {
 		_running = character.isRunning();
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		writeC(0x28);
@@ -39,6 +39,11 @@ public class ChangeWaitType extends L2GameServerPacket {
 		_z = character.getZ();
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		writeC(0x29);
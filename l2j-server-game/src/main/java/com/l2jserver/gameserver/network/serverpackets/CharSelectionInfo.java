@@ -35,6 +35,7 @@ import com.l2jserver.gameserver.model.CharSelectInfoPackage;
 import com.l2jserver.gameserver.model.L2Clan;
 import com.l2jserver.gameserver.model.itemcontainer.Inventory;
 import com.l2jserver.gameserver.network.L2GameClient;
+import com.l2jserver.gameserver.taskmanager.PlayerSaveTaskManager;
 
 public class CharSelectionInfo extends L2GameServerPacket {
 	private static final Logger LOG = LoggerFactory.getLogger(CharSelectionInfo.class);
@@ -165,6 +166,7 @@ public class CharSelectionInfo extends L2GameServerPacket {
 	
 	private static List<CharSelectInfoPackage> loadCharacterSelectInfo(String loginName) {
 		final List<CharSelectInfoPackage> characterList = new ArrayList<>();
+		PlayerSaveTaskManager.flushIfEnabled(loginName);
 		try (var con = ConnectionFactory.getInstance().getConnection();
 			var statement = con.prepareStatement("SELECT * FROM characters WHERE account_name=? ORDER BY createDate")) {
 			statement.setString(1, loginName);
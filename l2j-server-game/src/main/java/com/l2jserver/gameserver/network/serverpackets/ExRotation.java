@@ -29,6 +29,11 @@ public class ExRotation extends L2GameServerPacket {
 		_heading = heading;
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl() {
 		writeC(0xFE);
@@ -18,12 +18,16 @@
  */
 package com.l2jserver.gameserver.network.serverpackets;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.l2jserver.gameserver.model.interfaces.IPositionable;
 import com.l2jserver.gameserver.model.itemcontainer.Inventory;
 import com.l2jserver.gameserver.network.L2GameClient;
+import com.l2jserver.gameserver.util.Broadcast;
 import com.l2jserver.mmocore.SendablePacket;
 
 /**
@@ -32,8 +36,16 @@ import com.l2jserver.mmocore.SendablePacket;
 public abstract class L2GameServerPacket extends SendablePacket<L2GameClient> {
 	private static final Logger LOG = LoggerFactory.getLogger(L2GameServerPacket.class);
 	
+	private static final ThreadLocal<ByteBuffer> SHARED_CONTENT_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN));
+	
 	private boolean _invisible = false;
 	
+	/** Content written once and copied as is for every recipient. */
+	private volatile byte[] _sharedContent;
+	
+	/** Once sent, the selector thread may write this packet at any time. */
+	private volatile boolean _sent;
+	
 	private static final int[] PAPERDOLL_ORDER = new int[] {
 		Inventory.PAPERDOLL_UNDER,
 		Inventory.PAPERDOLL_REAR,
@@ -93,8 +105,73 @@ public abstract class L2GameServerPacket extends SendablePacket<L2GameClient> {
 		return PAPERDOLL_ORDER;
 	}
 	
+	/**
+	 * Packets whose content does not depend on the client they are sent to, nor on the time they are written, can override this method to be written only once when broadcast.
+	 * @return {@code true} if the content of this packet can be shared by all recipients
+	 */
+	protected boolean isSharedContent() {
+		return false;
+	}
+	
+	/**
+	 * Writes the content of this packet once, it will be copied as is for every recipient.<br>
+	 * Once the packet was sent to a client its content is no longer shared, since the selector thread may be writing it.<br>
+	 * The content is written under the packet lock that {@link #markSent()} takes, so the packet can't be queued to the selector thread while {@code _buf} is borrowed.
+	 * @return the shared content, {@code null} if this packet content can't be shared
+	 */
+	public final byte[] getSharedContent() {
+		byte[] content = _sharedContent;
+		if ((content != null) || !isSharedContent()) {
+			return content;
+		}
+		
+		synchronized (this) {
+			content = _sharedContent;
+			if ((content == null) && !_sent) {
+				final ByteBuffer buffer = SHARED_CONTENT_BUFFER.get();
+				buffer.clear();
+				_buf = buffer;
+				try {
+					writeImpl();
+					content = new byte[buffer.position()];
+					buffer.flip();
+					buffer.get(content);
+					_sharedContent = content;
+				} catch (Exception e) {
+					LOG.warn("Failed writing shared content of {}; {}", getClass().getSimpleName(), e.getMessage(), e);
+					content = null;
+				} finally {
+					_buf = null;
+				}
+			}
+		}
+		return content;
+	}
+	
+	/**
+	 * Marks this packet as sent, it must be called before the packet is queued to the selector thread.<br>
+	 * Waits for the shared content being written, if any.
+	 */
+	public final void markSent() {
+		if (!isSharedContent()) {
+			_sent = true;
+			return;
+		}
+		
+		synchronized (this) {
+			_sent = true;
+		}
+	}
+	
 	@Override
 	protected void write() {
+		final byte[] content = _sharedContent;
+		if (content != null) {
+			writeB(content);
+			Broadcast.onSharedContentWrite(content.length);
+			return;
+		}
+		
 		try {
 			writeImpl();
 		} catch (Exception e) {
@@ -48,6 +48,11 @@ public class MagicSkillLaunched extends L2GameServerPacket {
 		_targets = targets;
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		writeC(0x54);
@@ -38,6 +38,11 @@ public class MoveToPawn extends L2GameServerPacket {
 		_tz = target.getZ();
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		writeC(0x72);
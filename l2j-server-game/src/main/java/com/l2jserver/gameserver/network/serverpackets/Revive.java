@@ -27,6 +27,11 @@ public final class Revive extends L2GameServerPacket {
 		_objectId = obj.getObjectId();
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl() {
 		writeC(0x01);
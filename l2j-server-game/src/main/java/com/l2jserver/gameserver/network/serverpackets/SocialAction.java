@@ -29,6 +29,11 @@ public class SocialAction extends L2GameServerPacket {
 		_actionId = actionId;
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		writeC(0x27);
@@ -96,6 +96,11 @@ public final class StatusUpdate extends L2GameServerPacket {
 		return !_attributes.isEmpty();
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl() {
 		writeC(0x18);
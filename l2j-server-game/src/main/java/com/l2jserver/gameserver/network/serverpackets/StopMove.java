@@ -39,6 +39,11 @@ public final class StopMove extends L2GameServerPacket {
 		_heading = heading;
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl() {
 		writeC(0x47);
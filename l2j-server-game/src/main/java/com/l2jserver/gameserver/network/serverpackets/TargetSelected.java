@@ -33,6 +33,11 @@ public final class TargetSelected extends L2GameServerPacket {
 		_z = z;
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl() {
 		writeC(0x23);
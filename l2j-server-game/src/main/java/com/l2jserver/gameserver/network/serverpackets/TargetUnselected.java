@@ -33,6 +33,11 @@ public class TargetUnselected extends L2GameServerPacket {
 		_z = character.getZ();
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		writeC(0x24);
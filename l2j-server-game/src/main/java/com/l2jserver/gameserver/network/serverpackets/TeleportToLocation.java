@@ -35,6 +35,11 @@ public final class TeleportToLocation extends L2GameServerPacket {
 		_heading = heading;
 	}
 	
+	@Override
+	protected boolean isSharedContent() {
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl() {
 		writeC(0x22);
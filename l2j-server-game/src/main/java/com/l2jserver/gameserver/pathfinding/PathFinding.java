@@ -43,6 +43,13 @@ public abstract class PathFinding {
 	
 	public abstract List<AbstractNodeLoc> findPath(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean playable);
 	
+	/**
+	 * Invalidates the results depending on the doors, called when a door is opened, closed, destroyed or revived.
+	 */
+	public void onDoorStateChange() {
+		// Nothing depends on the doors by default
+	}
+	
 	// @formatter:off
 	/*
 	public List<AbstractNodeLoc> search(AbstractNode start, AbstractNode end, int instanceId)
@@ -20,10 +20,18 @@ package com.l2jserver.gameserver.pathfinding.cellnodes;
 
 import static com.l2jserver.gameserver.config.Configuration.geodata;
 
+import java.lang.ref.Cleaner;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +47,11 @@ import com.l2jserver.gameserver.pathfinding.PathFinding;
 import com.l2jserver.gameserver.util.StringUtil;
 
 /**
+ * Cell pathfinding.<br>
+ * Every thread keeps its own search buffers, so searches never wait for or fail because of buffers used by other threads.<br>
+ * At most {@code count} threads keep a buffer of each size, the slot of a thread is given back once the thread is gone and garbage collected.<br>
+ * Searches longer than the biggest buffer (or than {@code HierarchicalPathFindDistance}) first look for a route over the {@link ClusterGraph} and then search the cells between its waypoints.<br>
+ * Found paths and failures are cached for {@code PathFindCacheTime} milliseconds by start and target cell, the cache is dropped when a door changes its state.
  * @author Sami
  * @author Diamond
  * @author DS
@@ -46,13 +59,30 @@ import com.l2jserver.gameserver.util.StringUtil;
 public class CellPathFinding extends PathFinding {
 	private static final Logger LOG = LoggerFactory.getLogger(CellPathFinding.class);
 	
+	/** Clusters covered by each local search of the hierarchical search. */
+	private static final int HIERARCHICAL_STEP = 4;
+	
+	/** Gives back the buffer slots of the threads that are gone. */
+	private static final Cleaner CLEANER = Cleaner.create();
+	
 	private final BufferInfo[] _allBuffers;
-	private int _findSuccess = 0;
-	private int _findFails = 0;
-	private int _postFilterUses = 0;
-	private int _postFilterPlayableUses = 0;
-	private int _postFilterPasses = 0;
-	private long _postFilterElapsed = 0;
+	private final ThreadLocal<ThreadBuffers> _threadBuffers;
+	private final ClusterGraph _clusterGraph = new ClusterGraph();
+	private final Map<PathKey, CachedPath> _pathCache = new ConcurrentHashMap<>();
+	/** Incremented on each door state change, results of searches started before are not used. */
+	private final AtomicInteger _doorVersion = new AtomicInteger();
+	private final AtomicInteger _findSuccess = new AtomicInteger();
+	private final AtomicInteger _findFails = new AtomicInteger();
+	private final AtomicInteger _postFilterUses = new AtomicInteger();
+	private final AtomicInteger _postFilterPlayableUses = new AtomicInteger();
+	private final AtomicInteger _postFilterPasses = new AtomicInteger();
+	private final LongAdder _postFilterElapsed = new LongAdder();
+	private final LongAdder _searchElapsed = new LongAdder();
+	private final LongAdder _searches = new LongAdder();
+	private final LongAdder _hierarchicalSearches = new LongAdder();
+	private final LongAdder _hierarchicalFails = new LongAdder();
+	private final LongAdder _cacheHits = new LongAdder();
+	private final LongAdder _cacheMisses = new LongAdder();
 	
 	private List<L2ItemInstance> _debugItems = null;
 	
@@ -77,6 +107,7 @@ public class CellPathFinding extends PathFinding {
 				
 				_allBuffers[i] = new BufferInfo(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
 			}
+			_threadBuffers = ThreadLocal.withInitial(() -> new ThreadBuffers(_allBuffers));
 		} catch (Exception e) {
 			LOG.warn("Problem during buffer init: {}", e.getMessage(), e);
 			throw new Error("CellPathFinding: load aborted");
@@ -102,13 +133,20 @@ public class CellPathFinding extends PathFinding {
 			return null;
 		}
 		int gtz = GeoData.getInstance().getHeight(tx, ty, tz);
-		CellNodeBuffer buffer = alloc(64 + (2 * Math.max(Math.abs(gx - gtx), Math.abs(gy - gty))), playable);
-		if (buffer == null) {
-			return null;
-		}
 		
 		boolean debug = playable && geodata().debugPath();
 		
+		final int doorVersion = _doorVersion.get();
+		final PathKey key = !debug && (geodata().getPathFindCacheSize() > 0) ? new PathKey(gx, gy, gz, gtx, gty, gtz, instanceId, playable) : null;
+		if (key != null) {
+			final CachedPath cached = _pathCache.get(key);
+			if ((cached != null) && (cached.doorVersion() == doorVersion) && (cached.expireTime() > System.currentTimeMillis())) {
+				_cacheHits.increment();
+				return cached.path() != null ? new ArrayList<>(cached.path()) : null;
+			}
+			_cacheMisses.increment();
+		}
+		
 		if (debug) {
 			if (_debugItems == null) {
 				_debugItems = new CopyOnWriteArrayList<>();
@@ -121,53 +159,50 @@ public class CellPathFinding extends PathFinding {
 			}
 		}
 		
-		List<AbstractNodeLoc> path;
-		try {
-			CellNode result = buffer.findPath(gx, gy, gz, gtx, gty, gtz);
-			
-			if (debug) {
-				for (CellNode n : buffer.debugPath()) {
-					if (n.getCost() < 0) {
-						dropDebugItem(1831, (int) (-n.getCost() * 10), n.getLoc());
-					} else {
-						// known nodes
-						dropDebugItem(Inventory.ADENA_ID, (int) (n.getCost() * 10), n.getLoc());
-					}
-				}
+		final long start = System.nanoTime();
+		_searches.increment();
+		List<AbstractNodeLoc> path = null;
+		final int size = 64 + (2 * Math.max(Math.abs(gx - gtx), Math.abs(gy - gty)));
+		final int hierarchicalDistance = geodata().getHierarchicalPathFindDistance();
+		if ((size > _allBuffers[_allBuffers.length - 1].mapSize) || ((hierarchicalDistance > 0) && ((size - 64) > (2 * hierarchicalDistance)))) {
+			_hierarchicalSearches.increment();
+			path = findHierarchicalPath(gx, gy, gz, gtx, gty, gtz, playable);
+			if (path == null) {
+				_hierarchicalFails.increment();
 			}
-			
-			if (result == null) {
-				_findFails++;
-				return null;
-			}
-			
-			path = constructPath(result);
-		} catch (Exception e) {
-			LOG.warn(e.getMessage(), e);
+		}
+		
+		if ((path == null) && (size <= _allBuffers[_allBuffers.length - 1].mapSize)) {
+			path = findLocalPath(gx, gy, gz, gtx, gty, gtz, size, playable, debug);
+		}
+		_searchElapsed.add(System.nanoTime() - start);
+		
+		if (path == null) {
+			_findFails.incrementAndGet();
+			cache(key, null, doorVersion);
 			return null;
-		} finally {
-			buffer.free();
 		}
 		
 		if ((path.size() < 3) || (geodata().getMaxPostfilterPasses() <= 0)) {
-			_findSuccess++;
+			_findSuccess.incrementAndGet();
+			cache(key, path, doorVersion);
 			return path;
 		}
 		
 		long timeStamp = System.currentTimeMillis();
-		_postFilterUses++;
+		_postFilterUses.incrementAndGet();
 		if (playable) {
-			_postFilterPlayableUses++;
+			_postFilterPlayableUses.incrementAndGet();
 		}
 		
 		boolean remove;
 		int pass = 0;
 		do {
 			pass++;
-			_postFilterPasses++;
+			_postFilterPasses.incrementAndGet();
 			
 			remove = false;
-			final Iterator<AbstractNodeLoc> endPoint = path.iterator();
+			final Iterator<AbstractNodeLoc> endPoint = new ArrayList<>(path).iterator();
 			endPoint.next();
 			int currentX = x;
 			int currentY = y;
@@ -198,13 +233,145 @@ public class CellPathFinding extends PathFinding {
 			path.forEach(n -> dropDebugItem(65, 1, n));
 		}
 		
-		_findSuccess++;
-		_postFilterElapsed += System.currentTimeMillis() - timeStamp;
+		_findSuccess.incrementAndGet();
+		_postFilterElapsed.add(System.currentTimeMillis() - timeStamp);
+		cache(key, path, doorVersion);
 		return path;
 	}
 	
-	private List<AbstractNodeLoc> constructPath(AbstractNode<NodeLoc> node) {
-		final List<AbstractNodeLoc> path = new CopyOnWriteArrayList<>();
+	/**
+	 * Searches the cells between start and target with a single buffer.
+	 * @param gx the start geo X
+	 * @param gy the start geo Y
+	 * @param gz the start height
+	 * @param gtx the target geo X
+	 * @param gty the target geo Y
+	 * @param gtz the target height
+	 * @param size the needed buffer size
+	 * @param playable if the search is done for a playable
+	 * @param debug if the debug items must be dropped
+	 * @return the path or {@code null} if there is none
+	 */
+	private List<AbstractNodeLoc> findLocalPath(int gx, int gy, int gz, int gtx, int gty, int gtz, int size, boolean playable, boolean debug) {
+		CellNodeBuffer buffer = alloc(size, playable);
+		if (buffer == null) {
+			return null;
+		}
+		
+		try {
+			CellNode result = buffer.findPath(gx, gy, gz, gtx, gty, gtz);
+			
+			if (debug) {
+				for (CellNode n : buffer.debugPath()) {
+					if (n.getCost() < 0) {
+						dropDebugItem(1831, (int) (-n.getCost() * 10), n.getLoc());
+					} else {
+						// known nodes
+						dropDebugItem(Inventory.ADENA_ID, (int) (n.getCost() * 10), n.getLoc());
+					}
+				}
+			}
+			
+			if (result == null) {
+				return null;
+			}
+			
+			final List<AbstractNodeLoc> path = new ArrayList<>();
+			constructPath(result, path);
+			return path;
+		} catch (Exception e) {
+			LOG.warn(e.getMessage(), e);
+			return null;
+		} finally {
+			buffer.free();
+		}
+	}
+	
+	/**
+	 * Searches a route over the cluster graph and the cells between every {@link #HIERARCHICAL_STEP} clusters of that route.
+	 * @param gx the start geo X
+	 * @param gy the start geo Y
+	 * @param gz the start height
+	 * @param gtx the target geo X
+	 * @param gty the target geo Y
+	 * @param gtz the target height
+	 * @param playable if the search is done for a playable
+	 * @return the path or {@code null} if there is none
+	 */
+	private List<AbstractNodeLoc> findHierarchicalPath(int gx, int gy, int gz, int gtx, int gty, int gtz, boolean playable) {
+		final int[] route = _clusterGraph.findRoute(gx, gy, gz, gtx, gty);
+		if (route == null) {
+			return null;
+		}
+		
+		final List<AbstractNodeLoc> path = new ArrayList<>();
+		int fromX = gx;
+		int fromY = gy;
+		int fromZ = gz;
+		final int waypoints = route.length / 3;
+		for (int i = HIERARCHICAL_STEP - 1; i < (waypoints + HIERARCHICAL_STEP); i += HIERARCHICAL_STEP) {
+			final boolean last = i >= waypoints;
+			final int toX = last ? gtx : route[i * 3];
+			final int toY = last ? gty : route[(i * 3) + 1];
+			final int toZ = last ? gtz : route[(i * 3) + 2];
+			final CellNodeBuffer buffer = alloc(64 + (2 * Math.max(Math.abs(fromX - toX), Math.abs(fromY - toY))), playable);
+			if (buffer == null) {
+				return null;
+			}
+			
+			try {
+				final CellNode result = buffer.findPath(fromX, fromY, fromZ, toX, toY, toZ);
+				if (result == null) {
+					return null;
+				}
+				
+				fromX = result.getLoc().getNodeX();
+				fromY = result.getLoc().getNodeY();
+				fromZ = result.getLoc().getZ();
+				constructPath(result, path);
+			} catch (Exception e) {
+				LOG.warn(e.getMessage(), e);
+				return null;
+			} finally {
+				buffer.free();
+			}
+			
+			if (last) {
+				break;
+			}
+		}
+		return path;
+	}
+	
+	private void cache(PathKey key, List<AbstractNodeLoc> path, int doorVersion) {
+		// A door changed during the search
+		if ((key == null) || (doorVersion != _doorVersion.get())) {
+			return;
+		}
+		
+		if (_pathCache.size() >= geodata().getPathFindCacheSize()) {
+			final long now = System.currentTimeMillis();
+			_pathCache.values().removeIf(cached -> cached.expireTime() <= now);
+			if (_pathCache.size() >= geodata().getPathFindCacheSize()) {
+				_pathCache.clear();
+			}
+		}
+		_pathCache.put(key, new CachedPath(path != null ? List.copyOf(path) : null, System.currentTimeMillis() + geodata().getPathFindCacheTime(), doorVersion));
+	}
+	
+	@Override
+	public void onDoorStateChange() {
+		_doorVersion.incrementAndGet();
+		_pathCache.clear();
+	}
+	
+	/**
+	 * Appends the route points from the search start to the given node to the path.
+	 * @param node the last node
+	 * @param path the path
+	 */
+	private static void constructPath(AbstractNode<NodeLoc> node, List<AbstractNodeLoc> path) {
+		final int first = path.size();
 		int previousDirectionX = Integer.MIN_VALUE;
 		int previousDirectionY = Integer.MIN_VALUE;
 		int directionX, directionY;
@@ -230,55 +397,56 @@ public class CellPathFinding extends PathFinding {
 				previousDirectionX = directionX;
 				previousDirectionY = directionY;
 				
-				path.addFirst(node.getLoc());
+				path.add(node.getLoc());
 				node.setLoc(null);
 			}
 			
 			node = node.getParent();
 		}
-		return path;
+		Collections.reverse(path.subList(first, path.size()));
 	}
 	
+	/**
+	 * Gets the buffer of the calling thread for the smallest buffer size that fits.<br>
+	 * The first time a thread needs a size it creates its buffer, which it keeps if less than the configured count of threads already keep one of that size.
+	 * @param size the needed size
+	 * @param playable if the search is done for a playable
+	 * @return the locked buffer or {@code null} if the size is bigger than every buffer
+	 */
 	private CellNodeBuffer alloc(int size, boolean playable) {
-		CellNodeBuffer current = null;
-		for (BufferInfo i : _allBuffers) {
-			if (i.mapSize >= size) {
-				for (CellNodeBuffer buf : i.bufs) {
-					if (buf.lock()) {
-						i.uses++;
-						if (playable) {
-							i.playableUses++;
-						}
-						i.elapsed += buf.getElapsedTime();
-						current = buf;
-						break;
-					}
-				}
-				if (current != null) {
-					break;
-				}
-				
-				// not found, allocate temporary buffer
+		final ThreadBuffers threadBuffers = _threadBuffers.get();
+		final CellNodeBuffer[] buffers = threadBuffers._buffers;
+		for (int index = 0; index < _allBuffers.length; index++) {
+			final BufferInfo i = _allBuffers[index];
+			if (i.mapSize < size) {
+				continue;
+			}
+			
+			CellNodeBuffer current = buffers[index];
+			if (current == null) {
 				current = new CellNodeBuffer(i.mapSize);
-				current.lock();
-				if (i.bufs.size() < i.count) {
-					i.bufs.add(current);
-					i.uses++;
+				if (i.retained.incrementAndGet() <= i.count) {
+					buffers[index] = current;
+					threadBuffers._slots.set(index, 1);
+				} else {
+					// too many threads keep this size, use a temporary buffer
+					i.retained.decrementAndGet();
+					i.overflows.increment();
 					if (playable) {
-						i.playableUses++;
+						i.playableOverflows.increment();
 					}
-					break;
-				}
-				
-				i.overflows++;
-				if (playable) {
-					i.playableOverflows++;
-					// System.err.println("Overflow, size requested: " + size + " playable:"+playable);
 				}
 			}
+			
+			current.lock();
+			i.uses.increment();
+			if (playable) {
+				i.playableUses.increment();
+			}
+			i.elapsed.add(current.getElapsedTime());
+			return current;
 		}
-		
-		return current;
+		return null;
 	}
 	
 	private void dropDebugItem(int itemId, int num, AbstractNodeLoc loc) {
@@ -289,31 +457,62 @@ public class CellPathFinding extends PathFinding {
 		_debugItems.add(item);
 	}
 	
+	/**
+	 * Search buffers kept by a thread, one per buffer size.<br>
+	 * The slots they take in {@link BufferInfo#retained} are given back when the thread is gone and this object is collected.
+	 */
+	private static final class ThreadBuffers {
+		final CellNodeBuffer[] _buffers;
+		/** 1 for each size whose buffer is kept, shared with the cleaning action. */
+		final AtomicIntegerArray _slots;
+		
+		ThreadBuffers(BufferInfo[] infos) {
+			_buffers = new CellNodeBuffer[infos.length];
+			_slots = new AtomicIntegerArray(infos.length);
+			CLEANER.register(this, new ReleaseSlots(infos, _slots));
+		}
+	}
+	
+	/**
+	 * Cleaning action of {@link ThreadBuffers}, must not reference it.
+	 */
+	private record ReleaseSlots(BufferInfo[] infos, AtomicIntegerArray slots) implements Runnable {
+		@Override
+		public void run() {
+			for (int i = 0; i < infos.length; i++) {
+				if (slots.get(i) != 0) {
+					infos[i].retained.decrementAndGet();
+				}
+			}
+		}
+	}
+	
 	private static final class BufferInfo {
 		final int mapSize;
 		final int count;
-		List<CellNodeBuffer> bufs;
-		int uses = 0;
-		int playableUses = 0;
-		int overflows = 0;
-		int playableOverflows = 0;
-		long elapsed = 0;
+		final AtomicInteger retained = new AtomicInteger();
+		final LongAdder uses = new LongAdder();
+		final LongAdder playableUses = new LongAdder();
+		final LongAdder overflows = new LongAdder();
+		final LongAdder playableOverflows = new LongAdder();
+		final LongAdder elapsed = new LongAdder();
 		
 		public BufferInfo(int size, int cnt) {
 			mapSize = size;
 			count = cnt;
-			bufs = new ArrayList<>(count);
 		}
 		
 		@Override
 		public String toString() {
 			final StringBuilder stat = new StringBuilder(100);
-			StringUtil.append(stat, String.valueOf(mapSize), "x", String.valueOf(mapSize), " num:", String.valueOf(bufs.size()), "/", String.valueOf(count), " uses:", String.valueOf(uses), "/", String.valueOf(playableUses));
+			final long uses = this.uses.sum();
+			final long elapsed = this.elapsed.sum();
+			StringUtil.append(stat, String.valueOf(mapSize), "x", String.valueOf(mapSize), " num:", String.valueOf(Math.min(retained.get(), count)), "/", String.valueOf(count), " uses:", String.valueOf(uses), "/", String.valueOf(playableUses.sum()));
 			if (uses > 0) {
 				StringUtil.append(stat, " total/avg(ms):", String.valueOf(elapsed), "/", String.format("%1.2f", (double) elapsed / uses));
 			}
 			
-			StringUtil.append(stat, " ovf:", String.valueOf(overflows), "/", String.valueOf(playableOverflows));
+			StringUtil.append(stat, " ovf:", String.valueOf(overflows.sum()), "/", String.valueOf(playableOverflows.sum()));
 			
 			return stat.toString();
 		}
@@ -321,23 +520,44 @@ public class CellPathFinding extends PathFinding {
 	
 	@Override
 	public String[] getStat() {
-		final String[] result = new String[_allBuffers.length + 1];
+		final String[] result = new String[_allBuffers.length + 3];
 		for (int i = 0; i < _allBuffers.length; i++) {
 			result[i] = _allBuffers[i].toString();
 		}
 		
+		final int postFilterUses = _postFilterUses.get();
+		final long postFilterElapsed = _postFilterElapsed.sum();
 		final StringBuilder stat = new StringBuilder(100);
-		StringUtil.append(stat, "LOS postfilter uses:", String.valueOf(_postFilterUses), "/", String.valueOf(_postFilterPlayableUses));
-		if (_postFilterUses > 0) {
-			StringUtil.append(stat, " total/avg(ms):", String.valueOf(_postFilterElapsed), "/", String.format("%1.2f", (double) _postFilterElapsed / _postFilterUses), //
-				" passes total/avg:", String.valueOf(_postFilterPasses), "/", String.format("%1.1f", (double) _postFilterPasses / _postFilterUses), Configuration.EOL);
+		StringUtil.append(stat, "LOS postfilter uses:", String.valueOf(postFilterUses), "/", String.valueOf(_postFilterPlayableUses.get()));
+		if (postFilterUses > 0) {
+			StringUtil.append(stat, " total/avg(ms):", String.valueOf(postFilterElapsed), "/", String.format("%1.2f", (double) postFilterElapsed / postFilterUses), //
+				" passes total/avg:", String.valueOf(_postFilterPasses.get()), "/", String.format("%1.1f", (double) _postFilterPasses.get() / postFilterUses), Configuration.EOL);
 		}
-		StringUtil.append(stat, "Pathfind success/fail:", String.valueOf(_findSuccess), "/", String.valueOf(_findFails));
-		result[result.length - 1] = stat.toString();
+		StringUtil.append(stat, "Pathfind success/fail:", String.valueOf(_findSuccess.get()), "/", String.valueOf(_findFails.get()));
+		result[_allBuffers.length] = stat.toString();
 		
+		final long searches = _searches.sum();
+		final double searchElapsed = TimeUnit.NANOSECONDS.toMicros(_searchElapsed.sum()) / 1000.0;
+		result[_allBuffers.length + 1] = "Search total/avg(ms): " + String.format("%1.2f", searchElapsed) + "/" + String.format("%1.3f", searches > 0 ? searchElapsed / searches : 0) + " hierarchical/fail: " + _hierarchicalSearches.sum() + "/" + _hierarchicalFails.sum() + " cluster edges: " + _clusterGraph.size();
+		
+		final long hits = _cacheHits.sum();
+		final long lookups = hits + _cacheMisses.sum();
+		result[_allBuffers.length + 2] = "Path cache size: " + _pathCache.size() + " hits/lookups: " + hits + "/" + lookups + " hit rate: " + String.format("%1.1f%%", lookups > 0 ? (hits * 100.0) / lookups : 0);
 		return result;
 	}
 	
+	/**
+	 * Cache key of a search, the post filter depends on the instance (doors) and on being a playable (passes).
+	 */
+	private record PathKey(int gx, int gy, int gz, int gtx, int gty, int gtz, int instanceId, boolean playable) {
+	}
+	
+	/**
+	 * Cached search result, {@code path} is {@code null} if no path was found.
+	 */
+	private record CachedPath(List<AbstractNodeLoc> path, long expireTime, int doorVersion) {
+	}
+	
 	private static class SingletonHolder {
 		protected static final CellPathFinding _instance = new CellPathFinding();
 	}
@@ -0,0 +1,234 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.pathfinding.cellnodes;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.l2jserver.gameserver.GeoData;
+import com.l2jserver.gameserver.util.GeoUtils;
+import com.l2jserver.gameserver.util.LinePointIterator;
+
+/**
+ * Abstract graph of geodata clusters used by the hierarchical search.<br>
+ * The world is divided in square clusters of {@link #CLUSTER_SIZE} cells and two neighbour clusters are connected if a character can walk in straight line between their centers.<br>
+ * Connections only depend on the geodata and ignore doors like the cell search does, so they are calculated on demand and kept until the graph grows over {@link #MAX_EDGES}.
+ */
+final class ClusterGraph {
+	static final int CLUSTER_SIZE = 32;
+	private static final int CLUSTER_SHIFT = 5;
+	/** Clusters searched around the bounding box of the start and the target. */
+	private static final int SEARCH_MARGIN = 8;
+	private static final int MAX_EDGES = 1 << 20;
+	private static final int NO_EDGE = Integer.MIN_VALUE;
+	
+	private static final int[] DIR_X = {
+		1,
+		1,
+		0,
+		-1,
+		-1,
+		-1,
+		0,
+		1
+	};
+	private static final int[] DIR_Y = {
+		0,
+		1,
+		1,
+		1,
+		0,
+		-1,
+		-1,
+		-1
+	};
+	
+	/** Height at the center of the neighbour cluster, or {@link #NO_EDGE}, by cluster, height and direction. */
+	private final Map<Long, Integer> _edges = new ConcurrentHashMap<>();
+	
+	/**
+	 * @return the amount of known connections
+	 */
+	int size() {
+		return _edges.size();
+	}
+	
+	/**
+	 * Searches a route of cluster centers between two geodata cells.
+	 * @param gx the start geo X
+	 * @param gy the start geo Y
+	 * @param gz the start height
+	 * @param gtx the target geo X
+	 * @param gty the target geo Y
+	 * @return the route as consecutive geo X, geo Y and height triples, without the start and the target cluster, or {@code null} if there is no route
+	 */
+	int[] findRoute(int gx, int gy, int gz, int gtx, int gty) {
+		final int sx = gx >> CLUSTER_SHIFT;
+		final int sy = gy >> CLUSTER_SHIFT;
+		final int tx = gtx >> CLUSTER_SHIFT;
+		final int ty = gty >> CLUSTER_SHIFT;
+		final int minX = Math.min(sx, tx) - SEARCH_MARGIN;
+		final int minY = Math.min(sy, ty) - SEARCH_MARGIN;
+		final int width = Math.abs(sx - tx) + 1 + (SEARCH_MARGIN * 2);
+		final int height = Math.abs(sy - ty) + 1 + (SEARCH_MARGIN * 2);
+		
+		final float[] cost = new float[width * height];
+		final int[] parent = new int[width * height];
+		final int[] z = new int[width * height];
+		final boolean[] closed = new boolean[width * height];
+		Arrays.fill(cost, Float.MAX_VALUE);
+		
+		final PriorityQueue<Open> open = new PriorityQueue<>(Comparator.comparingDouble(Open::priority));
+		final int start = index(sx - minX, sy - minY, width);
+		final int target = index(tx - minX, ty - minY, width);
+		cost[start] = 0;
+		parent[start] = -1;
+		z[start] = GeoData.getInstance().getNearestZ(center(sx), center(sy), gz);
+		open.add(new Open(start, heuristic(sx, sy, tx, ty)));
+		
+		while (!open.isEmpty()) {
+			final int current = open.poll().index();
+			if (closed[current]) {
+				continue;
+			}
+			closed[current] = true;
+			
+			if (current == target) {
+				return buildRoute(parent, z, current, start, width, minX, minY);
+			}
+			
+			final int cx = (current % width) + minX;
+			final int cy = (current / width) + minY;
+			for (int dir = 0; dir < DIR_X.length; dir++) {
+				final int nx = cx + DIR_X[dir];
+				final int ny = cy + DIR_Y[dir];
+				if ((nx < minX) || (ny < minY) || (nx >= (minX + width)) || (ny >= (minY + height))) {
+					continue;
+				}
+				
+				final int nz = getEdge(cx, cy, z[current], dir);
+				if (nz == NO_EDGE) {
+					continue;
+				}
+				
+				final int next = index(nx - minX, ny - minY, width);
+				final float nextCost = cost[current] + (((dir & 1) == 0) ? 1 : 1.4142f);
+				if (!closed[next] && (nextCost < cost[next])) {
+					cost[next] = nextCost;
+					parent[next] = current;
+					z[next] = nz;
+					open.add(new Open(next, nextCost + heuristic(nx, ny, tx, ty)));
+				}
+			}
+		}
+		return null;
+	}
+	
+	private static int[] buildRoute(int[] parent, int[] z, int target, int start, int width, int minX, int minY) {
+		if (target == start) {
+			return new int[0];
+		}
+		
+		int length = 0;
+		for (int node = parent[target]; node != start; node = parent[node]) {
+			length++;
+		}
+		
+		final int[] route = new int[length * 3];
+		int i = route.length;
+		for (int node = parent[target]; node != start; node = parent[node]) {
+			route[--i] = z[node];
+			route[--i] = center((node / width) + minY);
+			route[--i] = center((node % width) + minX);
+		}
+		return route;
+	}
+	
+	private int getEdge(int cx, int cy, int cz, int dir) {
+		final Long key = (((long) cx & 0xFFFF) << 35) | (((long) cy & 0xFFFF) << 19) | ((long) dir << 16) | (cz & 0xFFFF);
+		final Integer edge = _edges.get(key);
+		if (edge != null) {
+			return edge;
+		}
+		
+		if (_edges.size() >= MAX_EDGES) {
+			_edges.clear();
+		}
+		
+		final int result = walk(center(cx), center(cy), cz, center(cx + DIR_X[dir]), center(cy + DIR_Y[dir]));
+		_edges.put(key, result);
+		return result;
+	}
+	
+	/**
+	 * Walks in straight line between two cells, like {@link GeoData#canMove(int, int, int, int, int, int, int)} without the door checks.
+	 * @param geoX the start geo X
+	 * @param geoY the start geo Y
+	 * @param z the start height
+	 * @param tGeoX the end geo X
+	 * @param tGeoY the end geo Y
+	 * @return the height at the end cell or {@link #NO_EDGE} if it can't be reached
+	 */
+	private static int walk(int geoX, int geoY, int z, int tGeoX, int tGeoY) {
+		final GeoData geoData = GeoData.getInstance();
+		final LinePointIterator pointIter = new LinePointIterator(geoX, geoY, tGeoX, tGeoY);
+		// first point is guaranteed to be available
+		pointIter.next();
+		int prevX = pointIter.x();
+		int prevY = pointIter.y();
+		int prevZ = z;
+		
+		while (pointIter.next()) {
+			final int curX = pointIter.x();
+			final int curY = pointIter.y();
+			final int curZ = geoData.getNearestZ(curX, curY, prevZ);
+			if (geoData.hasGeoPos(prevX, prevY)) {
+				final int nswe = GeoUtils.computeNswe(prevX, prevY, curX, curY);
+				if (!geoData.checkNearestNsweAntiCornerCut(prevX, prevY, prevZ, nswe)) {
+					return NO_EDGE;
+				}
+			}
+			
+			prevX = curX;
+			prevY = curY;
+			prevZ = curZ;
+		}
+		return prevZ;
+	}
+	
+	private static float heuristic(int x, int y, int tx, int ty) {
+		final int dx = Math.abs(x - tx);
+		final int dy = Math.abs(y - ty);
+		return Math.max(dx, dy) + (0.4142f * Math.min(dx, dy));
+	}
+	
+	private static int index(int x, int y, int width) {
+		return (y * width) + x;
+	}
+	
+	private static int center(int cluster) {
+		return (cluster << CLUSTER_SHIFT) + (CLUSTER_SIZE / 2);
+	}
+	
+	private record Open(int index, float priority) {
+	}
+}
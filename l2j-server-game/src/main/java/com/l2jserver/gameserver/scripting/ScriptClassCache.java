@@ -0,0 +1,496 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.scripting;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import javax.script.ScriptException;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of compiled scripts.<br>
+ * Every compilation unit (a script list or a single script) keeps its class files in its own directory, with an index of the hashes of the sources they were compiled from and a fingerprint of the class path.<br>
+ * Only the sources that changed, the new ones and the scripts that reference a class of a changed source are compiled again, split in chunks compiled in parallel.<br>
+ * Constants inlined from another script are not tracked, the cache directory must be removed if such a constant changes.
+ */
+final class ScriptClassCache {
+	private static final Logger LOG = LoggerFactory.getLogger(ScriptClassCache.class);
+	
+	/** Must be increased every time the index format changes. */
+	private static final int VERSION = 1;
+	/** Below this amount of sources a single compiler is faster than several ones compiling the shared classes again. */
+	private static final int MIN_CHUNK_SIZE = 64;
+	
+	private final File _scriptRoot;
+	private final Path _directory;
+	private final Path _classes;
+	private final String _classPath;
+	private final long _fingerprint;
+	private final int _threads;
+	
+	/**
+	 * @param scriptRoot the script root
+	 * @param directory the directory of the compilation unit
+	 * @param classPath the class path used to compile the scripts
+	 * @param threads the maximum amount of compilers run in parallel
+	 */
+	ScriptClassCache(File scriptRoot, File directory, String classPath, int threads) {
+		_scriptRoot = scriptRoot;
+		_directory = directory.toPath();
+		_classes = _directory.resolve("classes");
+		_classPath = _classes + File.pathSeparator + classPath;
+		_fingerprint = fingerprint(classPath);
+		_threads = Math.max(threads, 1);
+	}
+	
+	/**
+	 * Compiles the scripts that changed since the last call and loads the classes of the scripts.
+	 * @param sources the scripts
+	 * @return the class of every script, in the given order
+	 * @throws Exception if the scripts can't be compiled
+	 */
+	synchronized Map<File, Class<?>> load(List<File> sources) throws Exception {
+		final Map<String, Long> index = readIndex();
+		final Set<String> compile = new HashSet<>();
+		if (index == null) {
+			delete(_classes);
+			sources.forEach(file -> compile.add(relativize(file)));
+		} else {
+			final Set<String> changed = index.entrySet().parallelStream() //
+				.filter(e -> e.getValue() != hash(new File(_scriptRoot, e.getKey()))) //
+				.map(Map.Entry::getKey) //
+				.collect(Collectors.toSet());
+			for (File file : sources) {
+				final String source = relativize(file);
+				if (!index.containsKey(source)) {
+					compile.add(source);
+				}
+			}
+			
+			if (!changed.isEmpty()) {
+				compile.addAll(changed);
+				compile.addAll(findDependents(changed));
+			}
+			compile.removeIf(source -> !new File(_scriptRoot, source).isFile());
+			
+			final Set<String> stale = new HashSet<>(changed);
+			stale.addAll(compile);
+			for (Path classFile : classFiles()) {
+				if (stale.contains(sourceOf(classFile))) {
+					Files.delete(classFile);
+				}
+			}
+		}
+		
+		if (!compile.isEmpty() || (index == null)) {
+			final long start = System.currentTimeMillis();
+			try {
+				compile(compile);
+			} catch (Exception ex) {
+				if (index != null) {
+					// The classes of the stale sources are gone, they must not be taken as up to date by the next load
+					writeIndex(compile);
+				}
+				throw ex;
+			}
+			writeIndex(Set.of());
+			LOG.info("Compiled {} scripts into {} in {}ms.", compile.size(), _directory, System.currentTimeMillis() - start);
+		}
+		
+		final ScriptClassLoader classLoader = new ScriptClassLoader(ScriptClassCache.class.getClassLoader());
+		for (Path classFile : classFiles()) {
+			final String name = _classes.relativize(classFile).toString().replace(File.separatorChar, '.');
+			classLoader.add(name.substring(0, name.length() - ".class".length()), Files.readAllBytes(classFile));
+		}
+		
+		final Map<File, Class<?>> classes = new LinkedHashMap<>();
+		for (File file : sources) {
+			final String source = relativize(file);
+			classes.put(file, classLoader.loadClass(source.substring(0, source.length() - ".java".length()).replace('/', '.')));
+		}
+		return classes;
+	}
+	
+	private void compile(Set<String> sources) throws Exception {
+		Files.createDirectories(_classes);
+		if (sources.isEmpty()) {
+			return;
+		}
+		
+		final List<String> sorted = sources.stream().sorted().toList();
+		final int chunks = Math.max(1, Math.min(_threads, sorted.size() / MIN_CHUNK_SIZE));
+		if (chunks == 1) {
+			compile(sorted, _classes);
+			return;
+		}
+		
+		// Every chunk writes in its own directory, the classes shared by several chunks are compiled by each of them
+		final ExecutorService executor = Executors.newFixedThreadPool(chunks);
+		try {
+			final List<CompletableFuture<Path>> futures = new ArrayList<>(chunks);
+			final int chunkSize = (sorted.size() + chunks - 1) / chunks;
+			for (int i = 0; i < chunks; i++) {
+				final List<String> chunk = sorted.subList(i * chunkSize, Math.min(sorted.size(), (i + 1) * chunkSize));
+				final Path output = _directory.resolve("chunk-" + i);
+				futures.add(CompletableFuture.supplyAsync(() -> {
+					try {
+						delete(output);
+						compile(chunk, output);
+						return output;
+					} catch (Exception ex) {
+						throw new IllegalStateException(ex.getMessage(), ex);
+					}
+				}, executor));
+			}
+			
+			ScriptException failure = null;
+			for (CompletableFuture<Path> future : futures) {
+				try {
+					merge(future.join());
+				} catch (Exception ex) {
+					if (failure == null) {
+						failure = new ScriptException(ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage());
+					}
+				}
+			}
+			if (failure != null) {
+				throw failure;
+			}
+		} finally {
+			executor.shutdown();
+			for (int i = 0; i < chunks; i++) {
+				delete(_directory.resolve("chunk-" + i));
+			}
+		}
+	}
+	
+	private void compile(List<String> sources, Path output) throws Exception {
+		Files.createDirectories(output);
+		final var compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			throw new ScriptException("No Java compiler available, a JDK is required to run the scripts!");
+		}
+		
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		try (var fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+			final var units = fileManager.getJavaFileObjectsFromFiles(sources.stream().map(source -> new File(_scriptRoot, source)).toList());
+			final List<String> options = List.of("-classpath", _classPath, "-d", output.toString(), "-g", "-nowarn");
+			if (!compiler.getTask(null, fileManager, diagnostics, options, null, units).call()) {
+				final String errors = diagnostics.getDiagnostics().stream() //
+					.filter(d -> d.getKind() == Diagnostic.Kind.ERROR) //
+					.map(Object::toString) //
+					.collect(Collectors.joining(System.lineSeparator()));
+				throw new ScriptException("Compilation failed:" + System.lineSeparator() + errors);
+			}
+		}
+	}
+	
+	private void merge(Path output) throws IOException {
+		try (Stream<Path> files = Files.walk(output)) {
+			for (Path file : files.filter(Files::isRegularFile).toList()) {
+				final Path target = _classes.resolve(output.relativize(file).toString());
+				Files.createDirectories(target.getParent());
+				Files.move(file, target, REPLACE_EXISTING);
+			}
+		}
+	}
+	
+	/**
+	 * @param changed the changed sources
+	 * @return the sources of the cached classes that reference a class of a changed source
+	 * @throws IOException if a class file can't be read
+	 */
+	private Set<String> findDependents(Set<String> changed) throws IOException {
+		final Set<String> changedClasses = new HashSet<>();
+		final Map<Path, String> sources = new HashMap<>();
+		for (Path classFile : classFiles()) {
+			final String source = sourceOf(classFile);
+			if (changed.contains(source)) {
+				changedClasses.add(internalName(classFile));
+			} else if (source != null) {
+				sources.put(classFile, source);
+			}
+		}
+		
+		final Set<String> dependents = new HashSet<>();
+		for (var e : sources.entrySet()) {
+			if (!dependents.contains(e.getValue()) && references(Files.readAllBytes(e.getKey()), changedClasses)) {
+				dependents.add(e.getValue());
+			}
+		}
+		return dependents;
+	}
+	
+	private String internalName(Path classFile) {
+		final String name = _classes.relativize(classFile).toString().replace(File.separatorChar, '/');
+		return name.substring(0, name.length() - ".class".length());
+	}
+	
+	/**
+	 * @param classFile the class file
+	 * @return the source path relative to the script root, {@code null} if the class has no source attribute
+	 * @throws IOException if the class file can't be read
+	 */
+	private String sourceOf(Path classFile) throws IOException {
+		final String sourceFile = ClassFile.parse(Files.readAllBytes(classFile)).sourceFile();
+		if (sourceFile == null) {
+			return null;
+		}
+		
+		final String name = internalName(classFile);
+		final int idx = name.lastIndexOf('/');
+		return idx < 0 ? sourceFile : name.substring(0, idx + 1) + sourceFile;
+	}
+	
+	private static boolean references(byte[] classFile, Set<String> classes) throws IOException {
+		for (String constant : ClassFile.parse(classFile).strings()) {
+			for (String name : classes) {
+				if (constant.contains(name)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	private List<Path> classFiles() throws IOException {
+		if (!Files.isDirectory(_classes)) {
+			return List.of();
+		}
+		
+		try (Stream<Path> files = Files.walk(_classes)) {
+			return files.filter(file -> file.toString().endsWith(".class")).toList();
+		}
+	}
+	
+	private Map<String, Long> readIndex() {
+		final Path path = _directory.resolve("index.bin");
+		if (!Files.isRegularFile(path) || !Files.isDirectory(_classes)) {
+			return null;
+		}
+		
+		try (var in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)))) {
+			if ((in.readInt() != VERSION) || (in.readLong() != _fingerprint)) {
+				LOG.info("Compiled scripts in {} are outdated, compiling all of them.", _directory);
+				return null;
+			}
+			
+			final Map<String, Long> index = new HashMap<>();
+			final int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				index.put(in.readUTF(), in.readLong());
+			}
+			return index;
+		} catch (IOException ex) {
+			LOG.warn("Could not read the compiled scripts index {}, compiling all the scripts!", path, ex);
+			return null;
+		}
+	}
+	
+	/**
+	 * @param excluded the sources left out of the index, compiled again by the next load
+	 * @throws IOException if the index can't be written
+	 */
+	private void writeIndex(Set<String> excluded) throws IOException {
+		final Set<String> sources = new HashSet<>();
+		for (Path classFile : classFiles()) {
+			final String source = sourceOf(classFile);
+			if ((source != null) && !excluded.contains(source) && new File(_scriptRoot, source).isFile()) {
+				sources.add(source);
+			}
+		}
+		
+		final Path path = _directory.resolve("index.bin");
+		final Path tmp = _directory.resolve("index.bin.tmp");
+		try (var out = new DataOutputStream(Files.newOutputStream(tmp))) {
+			out.writeInt(VERSION);
+			out.writeLong(_fingerprint);
+			out.writeInt(sources.size());
+			for (String source : sources) {
+				out.writeUTF(source);
+				out.writeLong(hash(new File(_scriptRoot, source)));
+			}
+		}
+		Files.move(tmp, path, REPLACE_EXISTING);
+	}
+	
+	private String relativize(File file) {
+		return _scriptRoot.getAbsoluteFile().toPath().relativize(file.getAbsoluteFile().toPath()).toString().replace(File.separatorChar, '/');
+	}
+	
+	/**
+	 * @param classPath the class path
+	 * @return a fingerprint of the Java version and of the size and date of every library in the class path
+	 */
+	private static long fingerprint(String classPath) {
+		final CRC32C crc = new CRC32C();
+		crc.update(Runtime.version().toString().getBytes());
+		for (String entry : classPath.split(File.pathSeparator)) {
+			final File file = new File(entry);
+			// The date of a directory changes with its content, the sources are checked one by one
+			crc.update((file.isFile() ? entry + ':' + file.length() + ':' + file.lastModified() : entry).getBytes());
+		}
+		return crc.getValue();
+	}
+	
+	private static long hash(File file) {
+		try {
+			final byte[] data = Files.readAllBytes(file.toPath());
+			final CRC32C crc = new CRC32C();
+			crc.update(data);
+			return ((long) data.length << 32) | crc.getValue();
+		} catch (IOException ex) {
+			// Missing source, it will be removed from the cache
+			return -1;
+		}
+	}
+	
+	private static void delete(Path directory) throws IOException {
+		if (!Files.exists(directory)) {
+			return;
+		}
+		
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(file);
+			}
+		}
+	}
+	
+	/**
+	 * Class loader of the classes of a compilation unit, the classes are read in memory so compiling the unit again does not affect the loaded scripts.
+	 */
+	private static final class ScriptClassLoader extends ClassLoader {
+		private final Map<String, byte[]> _classes = new HashMap<>();
+		
+		ScriptClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+		
+		void add(String name, byte[] byteCode) {
+			_classes.put(name, byteCode);
+		}
+		
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			final byte[] byteCode = _classes.remove(name);
+			if (byteCode == null) {
+				throw new ClassNotFoundException(name);
+			}
+			return defineClass(name, byteCode, 0, byteCode.length);
+		}
+	}
+	
+	/**
+	 * The parts of a class file the cache needs: the strings of the constant pool and the source file attribute.
+	 */
+	record ClassFile(List<String> strings, String sourceFile) {
+		static ClassFile parse(byte[] data) throws IOException {
+			final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+			if (in.readInt() != 0xCAFEBABE) {
+				throw new IOException("Not a class file!");
+			}
+			in.readUnsignedShort(); // minor version
+			in.readUnsignedShort(); // major version
+			
+			final int count = in.readUnsignedShort();
+			final String[] utf8 = new String[count];
+			for (int i = 1; i < count; i++) {
+				final int tag = in.readUnsignedByte();
+				switch (tag) {
+					case 1 -> utf8[i] = in.readUTF();
+					case 7, 8, 16, 19, 20 -> in.skipBytes(2);
+					case 15 -> in.skipBytes(3);
+					case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipBytes(4);
+					case 5, 6 -> {
+						in.skipBytes(8);
+						i++;
+					}
+					default -> throw new IOException("Unknown constant pool tag " + tag + "!");
+				}
+			}
+			
+			in.skipBytes(6); // access flags, this class and super class
+			in.skipBytes(in.readUnsignedShort() * 2);
+			for (int members = 0; members < 2; members++) {
+				final int memberCount = in.readUnsignedShort();
+				for (int i = 0; i < memberCount; i++) {
+					in.skipBytes(6);
+					skipAttributes(in);
+				}
+			}
+			
+			String sourceFile = null;
+			final int attributes = in.readUnsignedShort();
+			for (int i = 0; i < attributes; i++) {
+				final String name = utf8[in.readUnsignedShort()];
+				final int length = in.readInt();
+				if ("SourceFile".equals(name)) {
+					sourceFile = utf8[in.readUnsignedShort()];
+				} else {
+					in.skipBytes(length);
+				}
+			}
+			
+			final List<String> strings = new ArrayList<>();
+			for (String s : utf8) {
+				if (s != null) {
+					strings.add(s);
+				}
+			}
+			return new ClassFile(strings, sourceFile);
+		}
+		
+		private static void skipAttributes(DataInputStream in) throws IOException {
+			final int attributes = in.readUnsignedShort();
+			for (int i = 0; i < attributes; i++) {
+				in.skipBytes(2);
+				in.skipBytes(in.readInt());
+			}
+		}
+	}
+}
@@ -30,6 +30,10 @@ import java.io.LineNumberReader;
 import java.io.Reader;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.script.ScriptException;
 
@@ -57,6 +61,8 @@ public final class ScriptEngineManager {
 		String[].class
 	};
 	
+	private final Map<String, ScriptClassCache> _caches = new ConcurrentHashMap<>();
+	
 	private InMemoryJavaCompiler compiler() {
 		return InMemoryJavaCompiler.newInstance() //
 			.useOptions("-classpath", CLASS_PATH, "-g") //
@@ -72,7 +78,7 @@ public final class ScriptEngineManager {
 			throw new IllegalArgumentException("Argument must be an file containing a list of scripts to be loaded");
 		}
 		
-		final var compiler = compiler();
+		final List<File> scripts = new ArrayList<>();
 		try (var fis = new FileInputStream(list);
 			var isr = new InputStreamReader(fis);
 			var lnr = new LineNumberReader(isr)) {
@@ -92,21 +98,28 @@ public final class ScriptEngineManager {
 				
 				final var file = new File(server().getScriptRoot(), line);
 				if (file.isDirectory() && parts[0].endsWith("/**")) {
-					executeAllScriptsInDirectory(compiler, file, true);
+					executeAllScriptsInDirectory(scripts, file, true);
 				} else if (file.isDirectory() && parts[0].endsWith("/*")) {
-					executeAllScriptsInDirectory(compiler, file, false);
+					executeAllScriptsInDirectory(scripts, file, false);
 				} else if (file.isFile()) {
-					addSource(compiler, file);
+					scripts.add(file);
 				} else {
 					LOG.warn("Failed loading: ({}) @ {}:{} - Reason: doesnt exists or is not a file.", file.getCanonicalPath(), list.getName(), lnr.getLineNumber());
 				}
 			}
 		}
 		
+		if (server().scriptCache()) {
+			cache(list.getName()).load(scripts.stream().filter(file -> file.getName().endsWith(".java")).toList()).values().forEach(ScriptEngineManager::runMain);
+			return;
+		}
+		
+		final var compiler = compiler();
+		scripts.forEach(file -> addSource(compiler, file));
 		compiler.compileAll().forEach((_, v) -> runMain(v));
 	}
 	
-	private void executeAllScriptsInDirectory(InMemoryJavaCompiler compiler, File dir, boolean recurseDown) {
+	private void executeAllScriptsInDirectory(List<File> scripts, File dir, boolean recurseDown) {
 		if (!dir.isDirectory()) {
 			throw new IllegalArgumentException("The argument directory either doesnt exists or is not an directory.");
 		}
@@ -121,14 +134,23 @@ public final class ScriptEngineManager {
 				if (general().debug()) {
 					LOG.info("Entering folder: {}", file.getName());
 				}
-				executeAllScriptsInDirectory(compiler, file, recurseDown);
+				executeAllScriptsInDirectory(scripts, file, recurseDown);
 			} else if (file.isFile()) {
-				addSource(compiler, file);
+				scripts.add(file);
 			}
 		}
 	}
 	
 	public Class<?> compileScript(File file) {
+		if (server().scriptCache()) {
+			try {
+				return cache(getClassForFile(file)).load(List.of(file)).get(file);
+			} catch (Exception ex) {
+				LOG.warn("Error executing script!", ex);
+			}
+			return null;
+		}
+		
 		try (var fis = new FileInputStream(file);
 			var isr = new InputStreamReader(fis);
 			var reader = new BufferedReader(isr)) {
@@ -162,6 +184,18 @@ public final class ScriptEngineManager {
 		}
 	}
 	
+	/**
+	 * Gets the compiled class cache of a compilation unit.
+	 * @param unit the name of the compilation unit
+	 * @return the cache
+	 */
+	private ScriptClassCache cache(String unit) {
+		return _caches.computeIfAbsent(unit, k -> {
+			final int threads = server().getScriptCompileThreads() > 0 ? server().getScriptCompileThreads() : Runtime.getRuntime().availableProcessors();
+			return new ScriptClassCache(server().getScriptRoot(), new File(new File(server().getCompiledDataCacheDirectory(), "scripts"), k), CLASS_PATH, threads);
+		});
+	}
+	
 	private static String getClassForFile(File script) {
 		final var path = script.getAbsolutePath();
 		final var scpPath = server().getScriptRoot().getAbsolutePath();
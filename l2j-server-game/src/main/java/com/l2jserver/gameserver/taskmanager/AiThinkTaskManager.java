@@ -0,0 +1,319 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static com.l2jserver.gameserver.config.Configuration.general;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.model.L2WorldRegion;
+import com.l2jserver.gameserver.model.actor.L2Npc;
+import com.l2jserver.gameserver.util.LatencyHistogram;
+
+/**
+ * AI think task manager.<br>
+ * Replaces the per NPC think timers: the thinking NPCs are queued in a bucket per world region and every second the buckets of the active regions are processed in parallel on the "world" pool.<br>
+ * The AI scheduler thread only hands the buckets to the "world" pool, the pass ends with the last bucket and a pass still running when the next one is due makes it skip.<br>
+ * A pass stops thinking once its time budget is spent, the NPCs left over stay at the head of their bucket and think first on the next pass, so a crowd entering a dense spawn delays some thinks instead of stretching the pass.<br>
+ * Buckets of inactive regions are not processed, their NPCs sleep until the region is activated again or an event schedules them again.<br>
+ * The think task of a NPC that left the world is cancelled and dropped, the AI schedules a new one when the NPC spawns again.
+ */
+public final class AiThinkTaskManager implements Runnable {
+	private static final Logger LOG = LoggerFactory.getLogger(AiThinkTaskManager.class);
+	
+	/** Delay between two thinks of a NPC, in milliseconds. */
+	private static final long THINK_INTERVAL = 1000;
+	/** Amount of templates shown in the statistics. */
+	private static final int STATS_TEMPLATES = 10;
+	
+	private final Map<L2WorldRegion, Bucket> _buckets = new ConcurrentHashMap<>();
+	private final Map<Integer, TemplateStats> _templates = new ConcurrentHashMap<>();
+	private final long _budget;
+	private final Executor _executor;
+	private final AtomicBoolean _running = new AtomicBoolean();
+	
+	private final LongAdder _thinks = new LongAdder();
+	private final LongAdder _deferred = new LongAdder();
+	private final LongAdder _dropped = new LongAdder();
+	private final LongAdder _skipped = new LongAdder();
+	private volatile long _passes;
+	private volatile long _lastPassTime;
+	private volatile long _maxPassTime;
+	
+	private AiThinkTaskManager() {
+		this(general().getAiThinkBudget(), ThreadPoolManager.getInstance()::executeWorld);
+		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this, THINK_INTERVAL, THINK_INTERVAL);
+	}
+	
+	/**
+	 * Creates a think task manager whose passes are not scheduled.
+	 * @param budget the time budget of a pass in milliseconds, 0 for none
+	 * @param executor the executor processing the buckets
+	 */
+	AiThinkTaskManager(long budget, Executor executor) {
+		_budget = TimeUnit.MILLISECONDS.toNanos(budget);
+		_executor = executor;
+	}
+	
+	/**
+	 * Schedules the thinks of a NPC, the first one happens on the next pass.
+	 * @param npc the NPC, it must be in a world region
+	 * @param think the think action
+	 * @return the think task, already cancelled if the NPC is not in a world region
+	 */
+	public ThinkTask schedule(L2Npc npc, Runnable think) {
+		final ThinkTask task = new ThinkTask(npc, think, _templates.computeIfAbsent(npc.getId(), id -> new TemplateStats(npc.getName())));
+		final L2WorldRegion region = npc.getWorldRegion();
+		if (region == null) {
+			task.cancel();
+			return task;
+		}
+		getBucket(region).add(task);
+		return task;
+	}
+	
+	private Bucket getBucket(L2WorldRegion region) {
+		// Buckets are never removed, there is at most one per world region
+		return _buckets.computeIfAbsent(region, Bucket::new);
+	}
+	
+	@Override
+	public void run() {
+		// A bucket is processed by a single thread at a time
+		if (!_running.compareAndSet(false, true)) {
+			_skipped.increment();
+			return;
+		}
+		
+		final long start = System.nanoTime();
+		final long deadline = _budget > 0 ? start + _budget : Long.MAX_VALUE;
+		try {
+			final List<Bucket> buckets = new ArrayList<>();
+			for (Bucket bucket : _buckets.values()) {
+				if (bucket._region.isActive() && (bucket._size.get() > 0)) {
+					buckets.add(bucket);
+				}
+			}
+			
+			if (buckets.isEmpty()) {
+				endPass(start);
+				return;
+			}
+			
+			// Rotate the buckets, so the same regions are not always the last to run when the budget is short
+			Collections.rotate(buckets, (int) (_passes % buckets.size()));
+			final AtomicInteger pending = new AtomicInteger(buckets.size());
+			for (Bucket bucket : buckets) {
+				_executor.execute(() -> {
+					try {
+						bucket.process(deadline);
+					} finally {
+						if (pending.decrementAndGet() == 0) {
+							endPass(start);
+						}
+					}
+				});
+			}
+		} catch (Exception e) {
+			LOG.warn("AI think pass failed!", e);
+			endPass(start);
+		}
+	}
+	
+	private void endPass(long start) {
+		final long time = System.nanoTime() - start;
+		_lastPassTime = time;
+		_maxPassTime = Math.max(_maxPassTime, time);
+		_passes++;
+		_running.set(false);
+	}
+	
+	/**
+	 * @return the amount of think tasks queued in all buckets
+	 */
+	int getQueueSize() {
+		int size = 0;
+		for (Bucket bucket : _buckets.values()) {
+			size += bucket._size.get();
+		}
+		return size;
+	}
+	
+	/**
+	 * @return the think pass statistics and the think time percentiles of the most expensive templates
+	 */
+	public String[] getStats() {
+		int queued = 0;
+		int sleeping = 0;
+		for (Bucket bucket : _buckets.values()) {
+			if (bucket._region.isActive()) {
+				queued += bucket._size.get();
+			} else {
+				sleeping += bucket._size.get();
+			}
+		}
+		
+		final List<String> stats = new ArrayList<>();
+		stats.add("AI Think:");
+		stats.add(" + Queued:          " + queued);
+		stats.add(" + Sleeping:        " + sleeping);
+		stats.add(" + Buckets:         " + _buckets.size());
+		stats.add(" + Passes:          " + _passes);
+		stats.add(" + Last pass:       " + TimeUnit.NANOSECONDS.toMicros(_lastPassTime) + "us (max " + TimeUnit.NANOSECONDS.toMicros(_maxPassTime) + "us, budget " + TimeUnit.NANOSECONDS.toMillis(_budget) + "ms)");
+		stats.add(" + Thinks:          " + _thinks.sum());
+		stats.add(" + Deferred:        " + _deferred.sum());
+		stats.add(" + Dropped:         " + _dropped.sum());
+		stats.add(" + Skipped passes:  " + _skipped.sum());
+		stats.add(" + Top templates (count, p50/p95/p99/max in us):");
+		_templates.entrySet().stream() //
+			.sorted(Comparator.comparingLong(e -> -e.getValue()._histogram.getTotal())) //
+			.limit(STATS_TEMPLATES) //
+			.forEach(e -> {
+				final LatencyHistogram h = e.getValue()._histogram;
+				stats.add(" |- " + e.getValue()._name + " (" + e.getKey() + "): " + h.getCount() + ", " + h.getPercentile(0.5) + "/" + h.getPercentile(0.95) + "/" + h.getPercentile(0.99) + "/" + h.getMax());
+			});
+		stats.add(" | -------");
+		return stats.toArray(new String[stats.size()]);
+	}
+	
+	/**
+	 * Thinks of a NPC.
+	 */
+	public static final class ThinkTask {
+		private final L2Npc _npc;
+		private final Runnable _think;
+		private final TemplateStats _stats;
+		private volatile boolean _cancelled;
+		
+		ThinkTask(L2Npc npc, Runnable think, TemplateStats stats) {
+			_npc = npc;
+			_think = think;
+			_stats = stats;
+		}
+		
+		/**
+		 * Stops the thinks, the task leaves its bucket the next time the bucket is processed.
+		 */
+		public void cancel() {
+			_cancelled = true;
+		}
+		
+		public boolean isCancelled() {
+			return _cancelled;
+		}
+	}
+	
+	private static final class TemplateStats {
+		final String _name;
+		final LatencyHistogram _histogram = new LatencyHistogram();
+		
+		TemplateStats(String name) {
+			_name = name;
+		}
+	}
+	
+	/**
+	 * Think tasks of the NPCs of a world region.<br>
+	 * The queue is only polled by the pass, a bucket is processed by a single thread at a time.
+	 */
+	private final class Bucket {
+		final L2WorldRegion _region;
+		final Queue<ThinkTask> _queue = new ConcurrentLinkedQueue<>();
+		final AtomicInteger _size = new AtomicInteger();
+		
+		Bucket(L2WorldRegion region) {
+			_region = region;
+		}
+		
+		void add(ThinkTask task) {
+			_size.incrementAndGet();
+			_queue.offer(task);
+		}
+		
+		void process(long deadline) {
+			// Every task queued when the pass started thinks at most once
+			for (int remaining = _size.get(); remaining > 0; remaining--) {
+				final long start = System.nanoTime();
+				if ((start - deadline) >= 0) {
+					_deferred.add(remaining);
+					return;
+				}
+				
+				final ThinkTask task = _queue.poll();
+				if (task == null) {
+					return;
+				}
+				
+				if (task._cancelled) {
+					_size.decrementAndGet();
+					continue;
+				}
+				
+				// The NPC left the world without stopping its AI, nothing would ever remove the task
+				final L2WorldRegion region = task._npc.getWorldRegion();
+				if (region == null) {
+					task.cancel();
+					_size.decrementAndGet();
+					_dropped.increment();
+					continue;
+				}
+				
+				// The NPC moved to another region, it thinks on the pass of its new bucket
+				if (region != _region) {
+					_size.decrementAndGet();
+					getBucket(region).add(task);
+					continue;
+				}
+				
+				try {
+					task._think.run();
+				} catch (Exception e) {
+					LOG.warn("AI think of {} failed!", task._npc, e);
+				}
+				task._stats._histogram.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+				_thinks.increment();
+				_queue.offer(task);
+			}
+		}
+	}
+	
+	public static AiThinkTaskManager getInstance() {
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder {
+		protected static final AiThinkTaskManager _instance = new AiThinkTaskManager();
+	}
+}
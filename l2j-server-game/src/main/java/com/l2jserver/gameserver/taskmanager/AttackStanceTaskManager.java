@@ -18,10 +18,10 @@
  */
 package com.l2jserver.gameserver.taskmanager;
 
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,17 +33,21 @@ import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.network.serverpackets.AutoAttackStop;
 
 /**
- * Attack stance task manager.
+ * Attack stance task manager.<br>
+ * Every attack stance is a timer of the {@link ThreadPoolManager} timing wheel that ends it {@link #ATTACK_STANCE_TIME} milliseconds after the last attack.<br>
+ * Attacks only refresh the time of the stance, the timer checks it when it expires and waits again for the remaining time.<br>
+ * The timer ends the stance only if its time did not change since it was checked, an attack racing the end replaces the ended stance with a new one.
  * @author Luca Baldi
  * @author Zoey76
  */
 public class AttackStanceTaskManager {
 	private static final Logger LOG = LoggerFactory.getLogger(AttackStanceTaskManager.class);
 	
-	private static final Map<L2Character, Long> _attackStanceTasks = new ConcurrentHashMap<>();
+	private static final long ATTACK_STANCE_TIME = 15000;
+	
+	private static final Map<L2Character, AttackStance> _attackStanceTasks = new ConcurrentHashMap<>();
 	
 	protected AttackStanceTaskManager() {
-		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new FightModeScheduler(), 0, 1000);
 	}
 	
 	public void addAttackStanceTask(L2Character actor) {
@@ -56,7 +60,22 @@ public class AttackStanceTaskManager {
 					}
 				}
 			}
-			_attackStanceTasks.put(actor, System.currentTimeMillis());
+			for (;;) {
+				final AttackStance stance = _attackStanceTasks.get(actor);
+				if (stance == null) {
+					final AttackStance newStance = new AttackStance(actor);
+					if (_attackStanceTasks.putIfAbsent(actor, newStance) == null) {
+						// Only the stance that won is timed, the timer never sees a stance that is not published
+						newStance.start();
+						break;
+					}
+					continue;
+				}
+				if (stance.refresh()) {
+					break;
+				}
+				_attackStanceTasks.remove(actor, stance);
+			}
 		}
 	}
 	
@@ -65,7 +84,10 @@ public class AttackStanceTaskManager {
 			if (actor.isSummon()) {
 				actor = actor.getActingPlayer();
 			}
-			_attackStanceTasks.remove(actor);
+			final AttackStance stance = _attackStanceTasks.remove(actor);
+			if (stance != null) {
+				stance.cancel();
+			}
 		}
 	}
 	
@@ -84,31 +106,79 @@ public class AttackStanceTaskManager {
 		return false;
 	}
 	
-	protected static class FightModeScheduler implements Runnable {
+	protected static class AttackStance implements Runnable {
+		/** Last attack time of a stance whose timer has ended it. */
+		private static final long ENDED = Long.MIN_VALUE;
+		
+		private final L2Character _actor;
+		private final AtomicLong _lastAttackTime;
+		private volatile ScheduledFuture<?> _timer;
+		
+		protected AttackStance(L2Character actor) {
+			_actor = actor;
+			_lastAttackTime = new AtomicLong(System.currentTimeMillis());
+		}
+		
+		/**
+		 * Starts the timer of this stance, once it is in the stance map.
+		 */
+		protected void start() {
+			_timer = ThreadPoolManager.getInstance().scheduleTimer(this, ATTACK_STANCE_TIME);
+		}
+		
+		/**
+		 * @return {@code true} if the stance was refreshed, {@code false} if its timer has already ended it
+		 */
+		protected boolean refresh() {
+			final long now = System.currentTimeMillis();
+			long last;
+			do {
+				last = _lastAttackTime.get();
+				if (last == ENDED) {
+					return false;
+				}
+			}
+			while (!_lastAttackTime.compareAndSet(last, Math.max(last, now)));
+			return true;
+		}
+		
+		protected void cancel() {
+			final ScheduledFuture<?> timer = _timer;
+			if (timer != null) {
+				timer.cancel(false);
+			}
+		}
+		
 		@Override
 		public void run() {
-			long current = System.currentTimeMillis();
+			if (_attackStanceTasks.get(_actor) != this) {
+				return;
+			}
+			
+			long last;
+			do {
+				last = _lastAttackTime.get();
+				final long remaining = (last + ATTACK_STANCE_TIME) - System.currentTimeMillis();
+				if (remaining >= 0) {
+					_timer = ThreadPoolManager.getInstance().scheduleTimer(this, remaining + 1);
+					return;
+				}
+			}
+			while (!_lastAttackTime.compareAndSet(last, ENDED));
+			
+			if (!_attackStanceTasks.remove(_actor, this)) {
+				return;
+			}
+			
 			try {
-				final Iterator<Entry<L2Character, Long>> iter = _attackStanceTasks.entrySet().iterator();
-				Entry<L2Character, Long> e;
-				L2Character actor;
-				while (iter.hasNext()) {
-					e = iter.next();
-					if ((current - e.getValue()) > 15000) {
-						actor = e.getKey();
-						if (actor != null) {
-							actor.broadcastPacket(new AutoAttackStop(actor.getObjectId()));
-							actor.getAI().setAutoAttacking(false);
-							if (actor.isPlayer() && actor.hasSummon()) {
-								actor.getSummon().broadcastPacket(new AutoAttackStop(actor.getSummon().getObjectId()));
-							}
-						}
-						iter.remove();
-					}
+				_actor.broadcastPacket(new AutoAttackStop(_actor.getObjectId()));
+				_actor.getAI().setAutoAttacking(false);
+				if (_actor.isPlayer() && _actor.hasSummon()) {
+					_actor.getSummon().broadcastPacket(new AutoAttackStop(_actor.getSummon().getObjectId()));
 				}
 			} catch (Exception e) {
 				// Unless caught here, players remain in attack positions.
-				LOG.warn("Error in FightModeScheduler: {}", e.getMessage(), e);
+				LOG.warn("Error ending the attack stance of {}: {}", _actor, e.getMessage(), e);
 			}
 		}
 	}
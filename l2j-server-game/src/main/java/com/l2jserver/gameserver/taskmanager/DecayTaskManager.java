@@ -23,22 +23,21 @@ import static com.l2jserver.gameserver.config.Configuration.npc;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.config.Configuration;
 import com.l2jserver.gameserver.model.actor.L2Attackable;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.templates.L2NpcTemplate;
 
 /**
+ * Decay task manager.<br>
+ * Decay tasks are timers of the {@link ThreadPoolManager} timing wheel, so tens of thousands of corpses cost the same to add and cancel as a few.
  * @author NosBit
  */
 public final class DecayTaskManager {
-	private final ScheduledExecutorService _decayExecutor = Executors.newSingleThreadScheduledExecutor();
-	
 	protected final Map<L2Character, ScheduledFuture<?>> _decayTasks = new ConcurrentHashMap<>();
 	
 	/**
@@ -74,7 +73,7 @@ public final class DecayTaskManager {
 	 * @param timeUnit the time unit of the delay parameter
 	 */
 	public void add(L2Character character, long delay, TimeUnit timeUnit) {
-		ScheduledFuture<?> decayTask = _decayExecutor.schedule(new DecayTask(character), delay, TimeUnit.SECONDS);
+		ScheduledFuture<?> decayTask = ThreadPoolManager.getInstance().scheduleTimer(new DecayTask(character), delay, timeUnit);
 		
 		decayTask = _decayTasks.put(character, decayTask);
 		// if decay task already existed cancel it so we use the new time
@@ -0,0 +1,545 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static com.l2jserver.gameserver.config.Configuration.general;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.l2jserver.commons.database.ConnectionFactory;
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+import com.l2jserver.gameserver.util.ConcurrentIntMap;
+
+/**
+ * Item persistence task manager.<br>
+ * When item write-behind is enabled items are not written to the database when they change, they are queued here instead.<br>
+ * Changes of the same item are coalesced by object Id, so an item changed many times between two flushes is written once with its latest state.<br>
+ * The queue is flushed in JDBC batches by a dedicated thread every {@code ItemWriteBehindInterval} milliseconds, or earlier when {@code ItemWriteBehindBatchSize} items are pending.<br>
+ * Pending items are also indexed by owner, item containers flush the items of their owner before restoring from the database and the server flushes the whole queue on shutdown.<br>
+ * An item whose write failed is queued again, up to {@link #MAX_RETRIES} times in a row.
+ */
+public final class ItemPersistenceTaskManager extends Thread {
+	private static final Logger LOG = LoggerFactory.getLogger(ItemPersistenceTaskManager.class);
+	
+	/** Amount of times in a row a failed item write is queued again before it is given up. */
+	static final int MAX_RETRIES = 3;
+	
+	static final String INSERT = "INSERT INTO items (owner_id, item_id, count, loc, loc_data, enchant_level, object_id, custom_type1, custom_type2, mana_left, time, agathion_energy) VALUES (?,?,?,?,?,?,?,?,?,?,?,?)";
+	static final String UPDATE = "UPDATE items SET owner_id=?, count=?, loc=?, loc_data=?, enchant_level=?, custom_type1=?, custom_type2=?, mana_left=?, time=?, agathion_energy=? WHERE object_id=?";
+	static final String[] DELETE = {
+		"DELETE FROM items WHERE object_id = ?",
+		"DELETE FROM item_attributes WHERE itemId = ?",
+		"DELETE FROM item_elementals WHERE itemId = ?"
+	};
+	
+	private final ConcurrentIntMap<L2ItemInstance> _pending = new ConcurrentIntMap<>(16);
+	/** Object Ids of the pending items by current owner and by owner of their database record, entries of written items are removed after each flush. */
+	private final Map<Integer, Set<Integer>> _owners = new ConcurrentHashMap<>();
+	/** Failed writes in a row by object Id. */
+	private final Map<Integer, Integer> _retries = new ConcurrentHashMap<>();
+	/** Items whose write failed during the current flush, only used under the flush lock. */
+	private final List<L2ItemInstance> _failedItems = new ArrayList<>();
+	private final ReentrantLock _flushLock = new ReentrantLock();
+	private final long _interval;
+	private final int _batchSize;
+	private volatile boolean _running = true;
+	
+	private final LongAdder _scheduled = new LongAdder();
+	private final LongAdder _coalesced = new LongAdder();
+	private final AtomicLong _written = new AtomicLong();
+	private final AtomicLong _failed = new AtomicLong();
+	private final AtomicLong _flushes = new AtomicLong();
+	private final AtomicLong _ownerFlushes = new AtomicLong();
+	private final AtomicLong _batches = new AtomicLong();
+	private final AtomicLong _totalFlushTime = new AtomicLong();
+	private volatile long _lastFlushTime;
+	private volatile long _maxFlushTime;
+	private volatile int _maxQueueDepth;
+	
+	/**
+	 * The kind of statement a captured item write needs.
+	 */
+	public enum WriteType {
+		INSERT,
+		UPDATE,
+		DELETE
+	}
+	
+	/**
+	 * Snapshot of the state of an item to be written to the database.
+	 * @param item the item
+	 * @param type the kind of write
+	 * @param ownerId the owner Id
+	 * @param storedOwnerId the owner Id of the database record before this write, 0 if there was none
+	 * @param itemId the item Id
+	 * @param count the count
+	 * @param loc the item location name
+	 * @param locData the location data
+	 * @param enchantLevel the enchant level
+	 * @param customType1 the custom type 1
+	 * @param customType2 the custom type 2
+	 * @param mana the remaining mana
+	 * @param time the remaining time
+	 * @param agathionEnergy the remaining agathion energy
+	 */
+	public record ItemWrite(L2ItemInstance item, WriteType type, int ownerId, int storedOwnerId, int itemId, long count, String loc, int locData, int enchantLevel, int customType1, int customType2, int mana, long time, int agathionEnergy) {
+	}
+	
+	protected ItemPersistenceTaskManager() {
+		this(general().getItemWriteBehindInterval(), general().getItemWriteBehindBatchSize());
+		super.start();
+	}
+	
+	/**
+	 * Creates a queue whose flush thread is not started.
+	 * @param interval the flush interval in milliseconds
+	 * @param batchSize the amount of pending items that triggers a flush
+	 */
+	ItemPersistenceTaskManager(long interval, int batchSize) {
+		super("ItemPersistenceTaskManager");
+		super.setDaemon(true);
+		_interval = TimeUnit.MILLISECONDS.toNanos(Math.max(interval, 10));
+		_batchSize = Math.max(batchSize, 1);
+	}
+	
+	/**
+	 * Queues the item to be written on the next flush.
+	 * @param item the item
+	 */
+	public void schedule(L2ItemInstance item) {
+		final L2ItemInstance previous = _pending.get(item.getObjectId());
+		if ((previous != null) && (previous != item)) {
+			// The object Id of a destroyed item was reused before its delete was flushed, it must reach the database first.
+			_flushLock.lock();
+			try {
+				if (_pending.remove(item.getObjectId(), previous)) {
+					final ItemWrite write = previous.captureWrite();
+					if (write != null) {
+						write(List.of(write));
+					}
+					// Written again after the new item, it would overwrite it
+					if (_failedItems.removeIf(failed -> failed == previous)) {
+						_retries.remove(item.getObjectId());
+						LOG.error("Could not write item {} in database before its object Id was reused by {}!", previous, item);
+					}
+				}
+			} finally {
+				_flushLock.unlock();
+			}
+		}
+		
+		if (_pending.put(item.getObjectId(), item) == null) {
+			_scheduled.increment();
+		} else {
+			_coalesced.increment();
+		}
+		
+		// Indexed after being queued, so an owner flush running meanwhile can only leave a stale index entry
+		index(item.getOwnerId(), item.getObjectId());
+		if (item.getStoredOwnerId() != item.getOwnerId()) {
+			index(item.getStoredOwnerId(), item.getObjectId());
+		}
+		
+		final int depth = _pending.size();
+		if (depth > _maxQueueDepth) {
+			_maxQueueDepth = depth;
+		}
+		
+		if (depth >= _batchSize) {
+			LockSupport.unpark(this);
+		}
+	}
+	
+	@Override
+	public void run() {
+		while (_running) {
+			LockSupport.parkNanos(this, _interval);
+			try {
+				flush();
+			} catch (Exception ex) {
+				LOG.warn("There has been an error flushing pending item writes!", ex);
+			}
+		}
+	}
+	
+	private void index(int ownerId, int objectId) {
+		if (ownerId == 0) {
+			return;
+		}
+		
+		_owners.compute(ownerId, (k, objectIds) -> {
+			final Set<Integer> result = objectIds != null ? objectIds : ConcurrentHashMap.newKeySet();
+			result.add(objectId);
+			return result;
+		});
+	}
+	
+	/**
+	 * Writes the items pending when the flush starts to the database, blocking until it is done.<br>
+	 * Items queued meanwhile wait for the next flush, so a steady write load can't keep the flush going.<br>
+	 * The flush lock is taken for each batch, so an owner flush waits for one batch at most.
+	 */
+	public void flush() {
+		if (_pending.isEmpty()) {
+			return;
+		}
+		
+		final long start = System.nanoTime();
+		int remaining = _pending.size();
+		final List<ItemWrite> writes = new ArrayList<>(Math.min(remaining, _batchSize));
+		while ((remaining > 0) && !_pending.isEmpty()) {
+			_flushLock.lock();
+			try {
+				final Iterator<L2ItemInstance> it = _pending.values().iterator();
+				if (!it.hasNext()) {
+					break;
+				}
+				
+				while (it.hasNext() && (writes.size() < _batchSize) && (remaining > 0)) {
+					final L2ItemInstance item = it.next();
+					it.remove();
+					remaining--;
+					final ItemWrite write = item.captureWrite();
+					if (write != null) {
+						writes.add(write);
+					}
+				}
+				
+				if (!writes.isEmpty()) {
+					write(writes);
+					writes.clear();
+				}
+			} finally {
+				_flushLock.unlock();
+			}
+		}
+		
+		_flushLock.lock();
+		try {
+			requeueFailed();
+			// No batch is being written, items that are not pending anymore are in the database
+			for (Integer ownerId : _owners.keySet()) {
+				_owners.computeIfPresent(ownerId, (k, objectIds) -> {
+					objectIds.removeIf(objectId -> !_pending.containsKey(objectId));
+					return objectIds.isEmpty() ? null : objectIds;
+				});
+			}
+		} finally {
+			_flushLock.unlock();
+		}
+		
+		final long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		_flushes.incrementAndGet();
+		_totalFlushTime.addAndGet(time);
+		_lastFlushTime = time;
+		if (time > _maxFlushTime) {
+			_maxFlushTime = time;
+		}
+	}
+	
+	/**
+	 * Writes the pending items of an owner to the database, blocking until it is done.<br>
+	 * Items whose database record still belongs to the owner are written too, so a restore never reads an item the owner gave away.<br>
+	 * Returns at once if the owner has no pending item, otherwise waits for the batch the flush thread may be writing.
+	 * @param ownerId the owner Id
+	 */
+	public void flush(int ownerId) {
+		if (!_owners.containsKey(ownerId)) {
+			return;
+		}
+		
+		_flushLock.lock();
+		try {
+			final Set<Integer> objectIds = _owners.remove(ownerId);
+			if (objectIds == null) {
+				return;
+			}
+			
+			final List<ItemWrite> writes = new ArrayList<>(Math.min(objectIds.size(), _batchSize));
+			for (Integer objectId : objectIds) {
+				final L2ItemInstance item = _pending.remove(objectId.intValue());
+				final ItemWrite write = item != null ? item.captureWrite() : null;
+				if (write != null) {
+					writes.add(write);
+					if (writes.size() >= _batchSize) {
+						write(writes);
+						writes.clear();
+					}
+				}
+			}
+			
+			if (!writes.isEmpty()) {
+				write(writes);
+			}
+			requeueFailed();
+			_ownerFlushes.incrementAndGet();
+		} finally {
+			_flushLock.unlock();
+		}
+	}
+	
+	/**
+	 * Writes the pending items of an owner to the database if item write-behind is enabled.<br>
+	 * Must be called before reading or deleting the items of the owner in the database.
+	 * @param ownerId the owner Id
+	 */
+	public static void flushIfEnabled(int ownerId) {
+		if (general().itemWriteBehind()) {
+			getInstance().flush(ownerId);
+		}
+	}
+	
+	/**
+	 * Writes every pending item to the database if item write-behind is enabled.<br>
+	 * Must be called before reading or deleting items in the database without an owner.
+	 */
+	public static void flushIfEnabled() {
+		if (general().itemWriteBehind()) {
+			getInstance().flush();
+		}
+	}
+	
+	/**
+	 * Stops the flush thread and writes every pending item, failed items are retried until they are given up.
+	 */
+	public void shutdown() {
+		_running = false;
+		LockSupport.unpark(this);
+		for (int i = 0; (i <= MAX_RETRIES) && !_pending.isEmpty(); i++) {
+			flush();
+		}
+	}
+	
+	/**
+	 * @return the amount of items waiting to be written
+	 */
+	public int getQueueDepth() {
+		return _pending.size();
+	}
+	
+	private void write(List<ItemWrite> writes) {
+		try (var con = ConnectionFactory.getInstance().getConnection()) {
+			con.setAutoCommit(false);
+			try {
+				writeBatch(con, writes);
+				con.commit();
+				_batches.incrementAndGet();
+				_written.addAndGet(writes.size());
+				if (!_retries.isEmpty()) {
+					for (ItemWrite write : writes) {
+						_retries.remove(write.item().getObjectId());
+					}
+				}
+				return;
+			} catch (SQLException ex) {
+				con.rollback();
+				LOG.warn("Could not write a batch of {} items, writing them one by one!", writes.size(), ex);
+			} finally {
+				con.setAutoCommit(true);
+			}
+			
+			for (ItemWrite write : writes) {
+				try {
+					writeBatch(con, List.of(write));
+					_written.incrementAndGet();
+					_retries.remove(write.item().getObjectId());
+				} catch (SQLException ex) {
+					fail(write, ex);
+				}
+			}
+		} catch (SQLException ex) {
+			for (ItemWrite write : writes) {
+				fail(write, ex);
+			}
+		}
+	}
+	
+	/**
+	 * Marks the item of a failed write as not stored, it is queued again at the end of the flush unless it failed {@link #MAX_RETRIES} times in a row.
+	 * @param write the failed write
+	 * @param ex the cause
+	 */
+	private void fail(ItemWrite write, Exception ex) {
+		_failed.incrementAndGet();
+		final L2ItemInstance item = write.item();
+		item.onWriteFailed(write);
+		
+		final int retries = _retries.merge(item.getObjectId(), 1, Integer::sum);
+		if (retries > MAX_RETRIES) {
+			_retries.remove(item.getObjectId());
+			LOG.error("Could not {} item {} in database after {} attempts, giving up!", write.type().name().toLowerCase(), item, retries, ex);
+			return;
+		}
+		
+		_failedItems.add(item);
+		LOG.warn("Could not {} item {} in database, it will be written again on the next flush!", write.type().name().toLowerCase(), item, ex);
+	}
+	
+	/**
+	 * Queues the items whose write failed again, unless their object Id was reused meanwhile.
+	 */
+	private void requeueFailed() {
+		for (L2ItemInstance item : _failedItems) {
+			final int objectId = item.getObjectId();
+			final L2ItemInstance pending = _pending.putIfAbsent(objectId, item);
+			if ((pending != null) && (pending != item)) {
+				_retries.remove(objectId);
+				LOG.error("Could not write item {} in database, its object Id is already used by {}!", item, pending);
+				continue;
+			}
+			
+			index(item.getOwnerId(), objectId);
+			if (item.getStoredOwnerId() != item.getOwnerId()) {
+				index(item.getStoredOwnerId(), objectId);
+			}
+		}
+		_failedItems.clear();
+	}
+	
+	/**
+	 * Executes the given writes, deletes go first so an object Id reused within the same batch ends with its new row.
+	 * @param con the connection
+	 * @param writes the writes
+	 * @throws SQLException if a statement fails
+	 */
+	private static void writeBatch(Connection con, List<ItemWrite> writes) throws SQLException {
+		boolean inserts = false;
+		boolean updates = false;
+		boolean deletes = false;
+		for (ItemWrite write : writes) {
+			switch (write.type()) {
+				case INSERT -> inserts = true;
+				case UPDATE -> updates = true;
+				case DELETE -> deletes = true;
+			}
+		}
+		
+		if (deletes) {
+			for (String sql : DELETE) {
+				try (var ps = con.prepareStatement(sql)) {
+					for (ItemWrite write : writes) {
+						if (write.type() == WriteType.DELETE) {
+							ps.setInt(1, write.item().getObjectId());
+							ps.addBatch();
+						}
+					}
+					ps.executeBatch();
+				}
+			}
+		}
+		
+		if (inserts) {
+			try (var ps = con.prepareStatement(INSERT)) {
+				for (ItemWrite write : writes) {
+					if (write.type() == WriteType.INSERT) {
+						ps.setInt(1, write.ownerId());
+						ps.setInt(2, write.itemId());
+						ps.setLong(3, write.count());
+						ps.setString(4, write.loc());
+						ps.setInt(5, write.locData());
+						ps.setInt(6, write.enchantLevel());
+						ps.setInt(7, write.item().getObjectId());
+						ps.setInt(8, write.customType1());
+						ps.setInt(9, write.customType2());
+						ps.setInt(10, write.mana());
+						ps.setLong(11, write.time());
+						ps.setInt(12, write.agathionEnergy());
+						ps.addBatch();
+					}
+				}
+				ps.executeBatch();
+			}
+			
+			for (ItemWrite write : writes) {
+				if (write.type() == WriteType.INSERT) {
+					write.item().storeAttributes(con);
+				}
+			}
+		}
+		
+		if (updates) {
+			try (var ps = con.prepareStatement(UPDATE)) {
+				for (ItemWrite write : writes) {
+					if (write.type() == WriteType.UPDATE) {
+						ps.setInt(1, write.ownerId());
+						ps.setLong(2, write.count());
+						ps.setString(3, write.loc());
+						ps.setInt(4, write.locData());
+						ps.setInt(5, write.enchantLevel());
+						ps.setInt(6, write.customType1());
+						ps.setInt(7, write.customType2());
+						ps.setInt(8, write.mana());
+						ps.setLong(9, write.time());
+						ps.setInt(10, write.agathionEnergy());
+						ps.setInt(11, write.item().getObjectId());
+						ps.addBatch();
+					}
+				}
+				ps.executeBatch();
+			}
+		}
+	}
+	
+	public String[] getStats() {
+		final long flushes = _flushes.get();
+		return new String[] {
+			"Item Write-Behind:",
+			" + Queue:",
+			" |- Depth:           " + _pending.size(),
+			" |- Owners:          " + _owners.size(),
+			" |- Max depth:       " + _maxQueueDepth,
+			" |- Scheduled:       " + _scheduled.sum(),
+			" |- Coalesced:       " + _coalesced.sum(),
+			" + Flush:",
+			" |- Flushes:         " + flushes,
+			" |- Owner flushes:   " + _ownerFlushes.get(),
+			" |- Batches:         " + _batches.get(),
+			" |- Items written:   " + _written.get(),
+			" |- Items failed:    " + _failed.get(),
+			" |- Retrying:        " + _retries.size(),
+			" |- Last time (ms):  " + _lastFlushTime,
+			" |- Avg time (ms):   " + (flushes > 0 ? _totalFlushTime.get() / flushes : 0),
+			" |- Max time (ms):   " + _maxFlushTime,
+			" | -------"
+		};
+	}
+	
+	public static ItemPersistenceTaskManager getInstance() {
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder {
+		protected static final ItemPersistenceTaskManager INSTANCE = new ItemPersistenceTaskManager();
+	}
+}
@@ -21,21 +21,33 @@ package com.l2jserver.gameserver.taskmanager;
 import static com.l2jserver.gameserver.config.Configuration.general;
 import static com.l2jserver.gameserver.config.Configuration.npc;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.metrics.GameMetrics;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.L2WorldRegion;
+import com.l2jserver.gameserver.model.L2WorldShard;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Playable;
 import com.l2jserver.gameserver.model.actor.instance.L2GuardInstance;
+import com.l2jserver.gameserver.model.actor.knownlist.ObjectKnownList;
 
+/**
+ * Knownlist update task manager.<br>
+ * By default only the objects marked as dirty (spawned, changed world region or moved further than the configured distance) are re-evaluated on each pass.<br>
+ * The full sweep of all active world regions is kept as fallback when incremental updates are disabled.
+ */
 public class KnownListUpdateTaskManager {
 	private static final Logger LOG = LoggerFactory.getLogger(KnownListUpdateTaskManager.class);
 	
@@ -46,8 +58,60 @@ public class KnownListUpdateTaskManager {
 	
 	private static final Set<L2WorldRegion> FAILED_REGIONS = ConcurrentHashMap.newKeySet(1);
 	
+	/** Objects whose knownlist must be re-evaluated on the next incremental pass. */
+	private static final Set<L2Object> DIRTY_OBJECTS = ConcurrentHashMap.newKeySet();
+	
+	private static volatile boolean _incremental = false;
+	
+	private static int _dirtyDistance;
+	
+	private static boolean _seeded = false;
+	
+	private static boolean _metrics = false;
+	
 	private KnownListUpdateTaskManager() {
-		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new KnownListUpdate(), 1000, general().getKnownListUpdateInterval());
+		_dirtyDistance = general().getKnownListDirtyDistance();
+		_metrics = general().gameMetrics();
+		_incremental = general().incrementalKnownList();
+		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(_incremental ? new IncrementalKnownListUpdate() : new KnownListUpdate(), 1000, general().getKnownListUpdateInterval());
+	}
+	
+	/**
+	 * Marks the object to be re-evaluated on the next incremental pass.
+	 * @param object the object
+	 */
+	public static void markDirty(L2Object object) {
+		if (_incremental && (object != null)) {
+			DIRTY_OBJECTS.add(object);
+		}
+	}
+	
+	/**
+	 * Marks the object as dirty if it moved further than the configured distance since its last update.
+	 * @param object the moving object
+	 */
+	public static void onPositionChange(L2Object object) {
+		if (_incremental && object.isVisible() && object.getKnownList().hasMovedSinceUpdate(_dirtyDistance)) {
+			DIRTY_OBJECTS.add(object);
+		}
+	}
+	
+	public static int getDirtyObjectsCount() {
+		return DIRTY_OBJECTS.size();
+	}
+	
+	/**
+	 * @return the knownlist pass timings of each world shard
+	 */
+	public String[] getStats() {
+		final L2WorldShard[] shards = L2World.getInstance().getShards();
+		final List<String> stats = new ArrayList<>(shards.length + 2);
+		stats.add("KnownList (" + (_incremental ? "incremental" : "sweep") + "):");
+		stats.add(" + Dirty objects: " + DIRTY_OBJECTS.size());
+		for (L2WorldShard shard : shards) {
+			stats.add(" |- " + shard.getName() + ": last " + shard.getLastRunTime(TimeUnit.MICROSECONDS) + "us, avg " + shard.getAverageRunTime(TimeUnit.MICROSECONDS) + "us, max " + shard.getMaxRunTime(TimeUnit.MICROSECONDS) + "us, runs " + shard.getRunCount());
+		}
+		return stats.toArray(new String[stats.size()]);
 	}
 	
 	private class KnownListUpdate implements Runnable {
@@ -56,14 +120,14 @@ public class KnownListUpdateTaskManager {
 		
 		@Override
 		public void run() {
+			final long start = System.nanoTime();
 			try {
-				boolean failed;
-				for (L2WorldRegion[] regions : L2World.getInstance().getWorldRegions()) {
-					for (L2WorldRegion r : regions) // go through all world regions
+				L2World.getInstance().forEachShard(shard -> {
+					for (L2WorldRegion r : shard.getRegions()) // go through all world regions of the shard
 					{
 						// avoid stopping update if something went wrong in updateRegion()
 						try {
-							failed = FAILED_REGIONS.contains(r); // failed on last pass
+							final boolean failed = FAILED_REGIONS.contains(r); // failed on last pass
 							if (r.isActive()) // and check only if the region is active
 							{
 								updateRegion(r, ((_fullUpdateTimer == FULL_UPDATE_TIMER) || failed), updatePass);
@@ -76,7 +140,7 @@ public class KnownListUpdateTaskManager {
 							FAILED_REGIONS.add(r);
 						}
 					}
-				}
+				});
 				updatePass = !updatePass;
 				
 				if (_fullUpdateTimer > 0) {
@@ -87,10 +151,132 @@ public class KnownListUpdateTaskManager {
 			} catch (Exception e) {
 				LOG.warn(e.getMessage(), e);
 			}
+			if (_metrics) {
+				GameMetrics.getInstance().recordKnownListPass(System.nanoTime() - start);
+			}
+		}
+	}
+	
+	private class IncrementalKnownListUpdate implements Runnable {
+		public IncrementalKnownListUpdate() {
+		}
+		
+		@Override
+		public void run() {
+			final long start = System.nanoTime();
+			try {
+				if (!_seeded) {
+					// first pass, objects spawned before the manager started are not marked
+					for (L2WorldRegion[] regions : L2World.getInstance().getWorldRegions()) {
+						for (L2WorldRegion r : regions) {
+							if (r.isActive()) {
+								DIRTY_OBJECTS.addAll(r.getVisibleObjects().values());
+							}
+						}
+					}
+					_seeded = true;
+				}
+				
+				// group the dirty objects by the shard of their current region
+				final L2World world = L2World.getInstance();
+				final List<List<L2Object>> buckets = new ArrayList<>(world.getShards().length);
+				for (int i = 0; i < world.getShards().length; i++) {
+					buckets.add(new ArrayList<>());
+				}
+				
+				final Iterator<L2Object> it = DIRTY_OBJECTS.iterator();
+				while (it.hasNext()) {
+					final L2Object object = it.next();
+					it.remove();
+					final L2WorldRegion region = object.getWorldRegion();
+					if (region != null) {
+						buckets.get(world.getShard(region).getId()).add(object);
+					}
+				}
+				
+				world.forEachShard(shard -> {
+					for (L2Object object : buckets.get(shard.getId())) {
+						// avoid stopping update if something went wrong in updateObject()
+						try {
+							updateObject(object);
+						} catch (Exception e) {
+							LOG.warn("updateObject() failed for object {}. {}", object, e.getMessage(), e);
+						}
+					}
+				});
+			} catch (Exception e) {
+				LOG.warn(e.getMessage(), e);
+			}
+			if (_metrics) {
+				GameMetrics.getInstance().recordKnownListPass(System.nanoTime() - start);
+			}
+		}
+	}
+	
+	/**
+	 * Re-evaluates the knownlist of the given object and the knownlists of the objects around it for this object.<br>
+	 * The same rules as the full sweep apply: playables and aggressive guards know everything around them, other characters only know playables in active regions.
+	 * @param object the dirty object
+	 */
+	static void updateObject(L2Object object) {
+		final L2WorldRegion region = object.getWorldRegion();
+		if ((region == null) || !object.isVisible()) {
+			return; // skip dying objects
+		}
+		
+		final ObjectKnownList knownList = object.getKnownList();
+		knownList.markUpdated();
+		
+		// forget objects that are now too far, both ways
+		for (L2Object known : knownList.getKnownObjects().values()) {
+			known.getKnownList().forgetObject(object);
+		}
+		// objects watching further than this object know it without being known by it
+		for (L2WorldRegion worldRegion : region.getSurroundingRegions()) {
+			for (L2Object obj : worldRegion.getVisibleObjects().values()) {
+				if ((obj != null) && (obj != object)) {
+					obj.getKnownList().forgetObject(object);
+				}
+			}
+		}
+		knownList.forgetObjects(true);
+		
+		final boolean aggroGuards = npc().guardAttackAggroMob();
+		final boolean aggro = aggroGuards && (object instanceof L2GuardInstance);
+		final boolean active = region.isActive();
+		for (L2WorldRegion worldRegion : region.getSurroundingRegions()) {
+			final boolean knowsAll = object.isPlayable() || (aggro && worldRegion.isActive());
+			final boolean knowsPlayables = (object instanceof L2Character) && worldRegion.isActive();
+			if (!knowsAll && !aggroGuards) {
+				// only playables are involved on both sides
+				for (L2Playable playable : worldRegion.getVisiblePlayable().values()) {
+					if (playable != object) {
+						if (knowsPlayables) {
+							knownList.addKnownObject(playable);
+						}
+						playable.getKnownList().addKnownObject(object);
+					}
+				}
+				continue;
+			}
+			
+			for (L2Object obj : worldRegion.getVisibleObjects().values()) {
+				if ((obj == null) || (obj == object)) {
+					continue;
+				}
+				
+				if (knowsAll || (knowsPlayables && obj.isPlayable())) {
+					knownList.addKnownObject(obj);
+				}
+				
+				if (obj.isPlayable() || (active && (((obj instanceof L2GuardInstance) && aggroGuards) || ((obj instanceof L2Character) && object.isPlayable())))) {
+					obj.getKnownList().addKnownObject(object);
+				}
+			}
 		}
 	}
 	
-	private void updateRegion(L2WorldRegion region, boolean fullUpdate, boolean forgetObjects) {
+	static void updateRegion(L2WorldRegion region, boolean fullUpdate, boolean forgetObjects) {
 		Collection<L2Object> vObj = region.getVisibleObjects().values();
 		for (L2Object object : vObj) // and for all members in region
 		{
@@ -0,0 +1,221 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static com.l2jserver.gameserver.config.Configuration.general;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.l2jserver.gameserver.GameTimeController;
+import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.model.L2World;
+import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
+
+/**
+ * Player info task manager.<br>
+ * Coalesces the info updates of players: the first update of a player in a game tick is sent right away, so a single state change keeps its order with the packets that follow it.<br>
+ * The updates requested later in the same tick only mark their info blocks as stale, and every tick the stale blocks of each player are sent once, with the state of that moment.<br>
+ * A buff storm sending dozens of updates per second is then reduced to one update per tick.<br>
+ * Only the suppressed updates are counted, the packets and bytes they saved are estimated when the statistics are read.
+ */
+public final class PlayerInfoTaskManager implements Runnable {
+	private static final Logger LOG = LoggerFactory.getLogger(PlayerInfoTaskManager.class);
+	
+	/** UserInfo and ExBrExtraUserInfo to the player. */
+	public static final int USER_INFO = 1;
+	/** CharInfo and ExBrExtraUserInfo to the known players. */
+	public static final int CHAR_INFO = 1 << 1;
+	/** StatusUpdate to the player and the HP/MP/CP windows of its party, duel and olympiad. */
+	public static final int STATUS = 1 << 2;
+	
+	private static final String[] BLOCK_NAMES = {
+		"UserInfo",
+		"CharInfo",
+		"Status"
+	};
+	/** Packets sent for each block, CharInfo ones to each known player. */
+	private static final int[] BLOCK_PACKETS = {
+		2,
+		2,
+		1
+	};
+	/** Approximate sizes in bytes of the packets of each block, UserInfo and CharInfo include their ExBrExtraUserInfo. */
+	private static final int[] BLOCK_BYTES = {
+		700,
+		600,
+		40
+	};
+	
+	private final Queue<L2PcInstance> _stale = new ConcurrentLinkedQueue<>();
+	private final GameTimeController _gameTime;
+	
+	private final LongAdder[] _immediate = newCounters();
+	private final LongAdder[] _flushed = newCounters();
+	private final LongAdder[] _suppressed = newCounters();
+	
+	private PlayerInfoTaskManager() {
+		this(GameTimeController.getInstance());
+		ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(this, GameTimeController.MILLIS_IN_TICK, GameTimeController.MILLIS_IN_TICK);
+	}
+	
+	/**
+	 * Creates a player info task manager whose flush is not scheduled.
+	 * @param gameTime the game time controller giving the current tick
+	 */
+	PlayerInfoTaskManager(GameTimeController gameTime) {
+		_gameTime = gameTime;
+	}
+	
+	private static LongAdder[] newCounters() {
+		final LongAdder[] counters = new LongAdder[BLOCK_NAMES.length];
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new LongAdder();
+		}
+		return counters;
+	}
+	
+	/**
+	 * Requests an info update of a player.
+	 * @param player the player
+	 * @param blocks the info blocks to update
+	 * @return {@code true} if the update was deferred to the next flush, {@code false} if it must be sent right away
+	 */
+	public boolean defer(L2PcInstance player, int blocks) {
+		if (!general().coalescePlayerInfo()) {
+			return false;
+		}
+		
+		if (player.markInfoTick(_gameTime.getGameTicks())) {
+			// A flush would send these blocks again with the same state
+			player.takeStaleInfo(blocks);
+			count(_immediate, blocks);
+			return false;
+		}
+		
+		final int previous = player.markStaleInfo(blocks);
+		if (previous == 0) {
+			_stale.add(player);
+		}
+		
+		count(_suppressed, previous & blocks);
+		return true;
+	}
+	
+	@Override
+	public void run() {
+		final int tick = _gameTime.getGameTicks();
+		// Players queued during the flush wait for the next one
+		for (int i = _stale.size(); i > 0; i--) {
+			final L2PcInstance player = _stale.poll();
+			if (player == null) {
+				break;
+			}
+			
+			final int blocks = player.takeStaleInfo(-1);
+			if (blocks == 0) {
+				continue;
+			}
+			
+			// The player logged out during the tick
+			if (!player.isOnline() || (player.getWorldRegion() == null)) {
+				continue;
+			}
+			
+			try {
+				player.markInfoTick(tick);
+				player.sendInfo(blocks);
+				count(_flushed, blocks);
+			} catch (Exception e) {
+				LOG.warn("Could not send the info of {}!", player, e);
+			}
+		}
+	}
+	
+	private static void count(LongAdder[] counters, int blocks) {
+		for (int i = 0; i < counters.length; i++) {
+			if ((blocks & (1 << i)) != 0) {
+				counters[i].increment();
+			}
+		}
+	}
+	
+	/**
+	 * @param block the index of the info block
+	 * @return the amount of updates of the block merged into a pending one
+	 */
+	long getSuppressed(int block) {
+		return _suppressed[block].sum();
+	}
+	
+	/**
+	 * Estimates the traffic saved by the suppressed updates.
+	 * @param knownPlayers the average amount of players knowing a player
+	 * @return the estimated packets and bytes saved
+	 */
+	long[] estimateSuppressed(double knownPlayers) {
+		double packets = 0;
+		double bytes = 0;
+		for (int i = 0; i < BLOCK_NAMES.length; i++) {
+			// CharInfo goes to every known player, the other blocks to the player only
+			final double recipients = (1 << i) == CHAR_INFO ? knownPlayers : 1;
+			final double sent = _suppressed[i].sum() * recipients;
+			packets += sent * BLOCK_PACKETS[i];
+			bytes += sent * BLOCK_BYTES[i];
+		}
+		return new long[] {
+			Math.round(packets),
+			Math.round(bytes)
+		};
+	}
+	
+	public String[] getStats() {
+		long knownPlayers = 0;
+		int players = 0;
+		for (L2PcInstance player : L2World.getInstance().getPlayers()) {
+			knownPlayers += player.getKnownList().getKnownPlayers().size();
+			players++;
+		}
+		final double averageKnownPlayers = players > 0 ? (double) knownPlayers / players : 0;
+		final long[] estimate = estimateSuppressed(averageKnownPlayers);
+		
+		final String[] stats = new String[BLOCK_NAMES.length + 4];
+		int line = 0;
+		stats[line++] = "Player Info:";
+		stats[line++] = " + Pending:          " + _stale.size();
+		for (int i = 0; i < BLOCK_NAMES.length; i++) {
+			stats[line++] = " |- " + String.format("%-16s", BLOCK_NAMES[i] + ":") + _immediate[i].sum() + " immediate, " + _flushed[i].sum() + " flushed, " + _suppressed[i].sum() + " suppressed";
+		}
+		stats[line++] = " + Suppressed (est.): " + estimate[0] + " packets, " + (estimate[1] / 1024) + " KB, " + String.format("%.1f", averageKnownPlayers) + " known players on average";
+		stats[line++] = " | -------";
+		return stats;
+	}
+	
+	public static PlayerInfoTaskManager getInstance() {
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder {
+		protected static final PlayerInfoTaskManager _instance = new PlayerInfoTaskManager();
+	}
+}
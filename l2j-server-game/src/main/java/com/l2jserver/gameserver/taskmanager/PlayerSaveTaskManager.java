@@ -0,0 +1,404 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static com.l2jserver.gameserver.config.Configuration.general;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.l2jserver.gameserver.dao.factory.impl.DAOFactory;
+import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
+import com.l2jserver.gameserver.util.ConcurrentIntMap;
+
+/**
+ * Player save task manager.<br>
+ * When character write-behind is enabled players are not saved on the thread requesting it, the base data of the player is captured on that thread and the save is queued here instead.<br>
+ * Saves of the same player are coalesced by object Id, only the latest captured version is written.<br>
+ * Only the base data is captured, the other player data (subclasses, effects, item reuse, variables, etc.) is written from the live player when the save is flushed.<br>
+ * The queue is flushed by a dedicated thread every {@code CharacterWriteBehindInterval} milliseconds, or earlier when {@code CharacterWriteBehindBatchSize} players are pending; the base data of a whole batch is written in a single JDBC batch, then the other player data is stored player by player.<br>
+ * The pending save of a player is written before the player is loaded or deleted, waiting for the flush thread only when it is writing the save of that player, and the queue is drained by several threads on shutdown.
+ */
+public final class PlayerSaveTaskManager extends Thread {
+	private static final Logger LOG = LoggerFactory.getLogger(PlayerSaveTaskManager.class);
+	
+	private final ConcurrentIntMap<PendingSave> _pending = new ConcurrentIntMap<>(16);
+	/** Saves taken from the queue and not written yet. */
+	private final ConcurrentIntMap<PendingSave> _writing = new ConcurrentIntMap<>(16);
+	private final ReentrantLock _flushLock = new ReentrantLock();
+	private final long _interval;
+	private final int _batchSize;
+	private final int _shutdownThreads;
+	private volatile boolean _running = true;
+	
+	private final LongAdder _scheduled = new LongAdder();
+	private final LongAdder _coalesced = new LongAdder();
+	private final AtomicLong _saved = new AtomicLong();
+	private final AtomicLong _failed = new AtomicLong();
+	private final AtomicLong _flushes = new AtomicLong();
+	private final AtomicLong _playerFlushes = new AtomicLong();
+	private final AtomicLong _batches = new AtomicLong();
+	private final AtomicLong _totalFlushTime = new AtomicLong();
+	private volatile long _lastFlushTime;
+	private volatile long _maxFlushTime;
+	private volatile int _maxQueueDepth;
+	
+	/**
+	 * Save of a player waiting to be written.
+	 * @param player the player
+	 * @param version the save version of the player
+	 * @param base the base data captured when the save was requested
+	 */
+	private record PendingSave(L2PcInstance player, long version, Object[] base) {
+	}
+	
+	protected PlayerSaveTaskManager() {
+		this(general().getCharacterWriteBehindInterval(), general().getCharacterWriteBehindBatchSize(), general().getCharacterWriteBehindShutdownThreads());
+		super.start();
+	}
+	
+	/**
+	 * Creates a queue whose flush thread is not started.
+	 * @param interval the flush interval in milliseconds
+	 * @param batchSize the amount of pending saves that triggers a flush
+	 * @param shutdownThreads the amount of threads writing the pending saves on shutdown
+	 */
+	PlayerSaveTaskManager(long interval, int batchSize, int shutdownThreads) {
+		super("PlayerSaveTaskManager");
+		super.setDaemon(true);
+		_interval = TimeUnit.MILLISECONDS.toNanos(Math.max(interval, 10));
+		_batchSize = Math.max(batchSize, 1);
+		_shutdownThreads = Math.max(shutdownThreads, 1);
+	}
+	
+	/**
+	 * Captures the base data of the player and queues its save.
+	 * @param player the player
+	 */
+	public void schedule(L2PcInstance player) {
+		final PendingSave previous;
+		// The version and the capture must reach the queue in the same order
+		synchronized (player) {
+			previous = _pending.put(player.getObjectId(), new PendingSave(player, player.nextSaveVersion(), DAOFactory.getInstance().getPlayerDAO().captureCharBase(player)));
+		}
+		
+		if (previous == null) {
+			_scheduled.increment();
+		} else {
+			_coalesced.increment();
+		}
+		
+		final int depth = _pending.size();
+		if (depth > _maxQueueDepth) {
+			_maxQueueDepth = depth;
+		}
+		
+		if (depth >= _batchSize) {
+			LockSupport.unpark(this);
+		}
+	}
+	
+	@Override
+	public void run() {
+		while (_running) {
+			LockSupport.parkNanos(this, _interval);
+			try {
+				flush();
+			} catch (Exception ex) {
+				LOG.warn("There has been an error flushing pending player saves!", ex);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the saves pending when the flush starts, blocking until it is done.<br>
+	 * Saves queued meanwhile wait for the next flush, so a steady save load can't keep the flush going.<br>
+	 * The flush lock is taken for each batch, so a player flush waits for one batch at most.
+	 */
+	public void flush() {
+		if (_pending.isEmpty()) {
+			return;
+		}
+		
+		final long start = System.nanoTime();
+		int remaining = _pending.size();
+		while ((remaining > 0) && !_pending.isEmpty()) {
+			_flushLock.lock();
+			try {
+				final List<PendingSave> saves = drain(Math.min(_batchSize, remaining));
+				if (saves.isEmpty()) {
+					break;
+				}
+				
+				remaining -= saves.size();
+				write(saves);
+			} finally {
+				_flushLock.unlock();
+			}
+		}
+		
+		final long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		_flushes.incrementAndGet();
+		_totalFlushTime.addAndGet(time);
+		_lastFlushTime = time;
+		if (time > _maxFlushTime) {
+			_maxFlushTime = time;
+		}
+	}
+	
+	/**
+	 * Writes the pending save of a player, blocking until it is done.<br>
+	 * Returns at once if the player has no save pending or being written, otherwise waits for the batch holding the save of the player.
+	 * @param objectId the object Id of the player
+	 */
+	public void flush(int objectId) {
+		// Drained saves are added to the writing saves before leaving the queue
+		if (!_pending.containsKey(objectId) && !_writing.containsKey(objectId)) {
+			return;
+		}
+		
+		_flushLock.lock();
+		try {
+			final PendingSave save = _pending.remove(objectId);
+			if (save != null) {
+				_writing.put(objectId, save);
+				write(List.of(save));
+				_playerFlushes.incrementAndGet();
+			}
+		} finally {
+			_flushLock.unlock();
+		}
+	}
+	
+	/**
+	 * Writes the pending saves of the players of an account, blocking until it is done.
+	 * @param accountName the account name
+	 */
+	public void flush(String accountName) {
+		final List<Integer> objectIds = new ArrayList<>();
+		_pending.forEach((objectId, save) -> {
+			if (accountName.equalsIgnoreCase(save.player().getAccountNamePlayer())) {
+				objectIds.add(objectId);
+			}
+		});
+		_writing.forEach((objectId, save) -> {
+			if (accountName.equalsIgnoreCase(save.player().getAccountNamePlayer())) {
+				objectIds.add(objectId);
+			}
+		});
+		
+		for (Integer objectId : objectIds) {
+			flush(objectId.intValue());
+		}
+	}
+	
+	/**
+	 * Writes the pending saves of the players of an account if character write-behind is enabled.<br>
+	 * Must be called before reading the players of the account from the database.
+	 * @param accountName the account name
+	 */
+	public static void flushIfEnabled(String accountName) {
+		if (general().characterWriteBehind()) {
+			getInstance().flush(accountName);
+		}
+	}
+	
+	/**
+	 * Writes the pending save of a player if character write-behind is enabled.<br>
+	 * Must be called before reading or deleting the player in the database.
+	 * @param objectId the object Id of the player
+	 */
+	public static void flushIfEnabled(int objectId) {
+		if (general().characterWriteBehind()) {
+			getInstance().flush(objectId);
+		}
+	}
+	
+	/**
+	 * Stops the flush thread and writes every pending save on several threads, logging the progress.
+	 */
+	public void shutdown() {
+		_running = false;
+		LockSupport.unpark(this);
+		
+		_flushLock.lock();
+		try {
+			final List<PendingSave> saves = drain(Integer.MAX_VALUE);
+			if (saves.isEmpty()) {
+				return;
+			}
+			
+			final int total = saves.size();
+			final AtomicInteger done = new AtomicInteger();
+			final AtomicInteger threadId = new AtomicInteger();
+			final ExecutorService executor = Executors.newFixedThreadPool(_shutdownThreads, r -> {
+				final Thread thread = new Thread(r, "PlayerSaveShutdown-" + threadId.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			try {
+				final List<Future<?>> futures = new ArrayList<>();
+				for (int i = 0; i < total; i += _batchSize) {
+					final List<PendingSave> batch = saves.subList(i, Math.min(i + _batchSize, total));
+					futures.add(executor.submit(() -> {
+						write(batch);
+						LOG.info("Saved {} of {} players.", done.addAndGet(batch.size()), total);
+					}));
+				}
+				
+				for (Future<?> future : futures) {
+					try {
+						future.get();
+					} catch (ExecutionException ex) {
+						LOG.warn("There has been an error saving a batch of players on shutdown!", ex.getCause());
+					}
+				}
+				
+				// The threads are daemons, they must be done before the server stops
+				executor.shutdown();
+				if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+					LOG.warn("Player save threads are still running after the shutdown save!");
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			} finally {
+				executor.shutdown();
+			}
+		} finally {
+			_flushLock.unlock();
+		}
+		
+		// Saves requested while draining
+		flush();
+	}
+	
+	/**
+	 * @return the amount of players waiting to be saved
+	 */
+	public int getQueueDepth() {
+		return _pending.size();
+	}
+	
+	private List<PendingSave> drain(int max) {
+		final List<PendingSave> saves = new ArrayList<>(Math.min(_pending.size(), max));
+		for (PendingSave save : _pending.values()) {
+			if (saves.size() >= max) {
+				break;
+			}
+			
+			// A save queued again meanwhile stays for the next batch
+			final int objectId = save.player().getObjectId();
+			_writing.put(objectId, save);
+			if (_pending.remove(objectId, save)) {
+				saves.add(save);
+			} else {
+				_writing.remove(objectId, save);
+			}
+		}
+		return saves;
+	}
+	
+	private void write(List<PendingSave> saves) {
+		if (saves.isEmpty()) {
+			return;
+		}
+		
+		try {
+			store(saves);
+		} finally {
+			for (PendingSave save : saves) {
+				_writing.remove(save.player().getObjectId(), save);
+			}
+		}
+	}
+	
+	private void store(List<PendingSave> saves) {
+		final List<PendingSave> stored = new ArrayList<>(saves.size());
+		try {
+			DAOFactory.getInstance().getPlayerDAO().storeCharBase(saves.stream().map(PendingSave::base).toList());
+			_batches.incrementAndGet();
+			stored.addAll(saves);
+		} catch (Exception ex) {
+			LOG.warn("Could not store the base data of a batch of {} players, storing them one by one!", saves.size(), ex);
+			for (PendingSave save : saves) {
+				try {
+					DAOFactory.getInstance().getPlayerDAO().storeCharBase(List.<Object[]> of(save.base()));
+					stored.add(save);
+				} catch (Exception e) {
+					_failed.incrementAndGet();
+					LOG.warn("Could not store {} base data!", save.player(), e);
+				}
+			}
+		}
+		
+		for (PendingSave save : stored) {
+			try {
+				save.player().storeDetails(true);
+				save.player().setSavedVersion(save.version());
+				_saved.incrementAndGet();
+			} catch (Exception ex) {
+				_failed.incrementAndGet();
+				LOG.warn("Could not store {}!", save.player(), ex);
+			}
+		}
+	}
+	
+	public String[] getStats() {
+		final long flushes = _flushes.get();
+		return new String[] {
+			"Character Write-Behind:",
+			" + Queue:",
+			" |- Depth:           " + _pending.size(),
+			" |- Max depth:       " + _maxQueueDepth,
+			" |- Scheduled:       " + _scheduled.sum(),
+			" |- Coalesced:       " + _coalesced.sum(),
+			" + Flush:",
+			" |- Flushes:         " + flushes,
+			" |- Player flushes:  " + _playerFlushes.get(),
+			" |- Batches:         " + _batches.get(),
+			" |- Players saved:   " + _saved.get(),
+			" |- Players failed:  " + _failed.get(),
+			" |- Last time (ms):  " + _lastFlushTime,
+			" |- Avg time (ms):   " + (flushes > 0 ? _totalFlushTime.get() / flushes : 0),
+			" |- Max time (ms):   " + _maxFlushTime,
+			" | -------"
+		};
+	}
+	
+	public static PlayerSaveTaskManager getInstance() {
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder {
+		protected static final PlayerSaveTaskManager INSTANCE = new PlayerSaveTaskManager();
+	}
+}
@@ -18,9 +18,14 @@
  */
 package com.l2jserver.gameserver.util;
 
+import static com.l2jserver.gameserver.config.Configuration.general;
+
+import java.util.concurrent.atomic.LongAdder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.l2jserver.gameserver.GameTimeController;
 import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
@@ -37,6 +42,78 @@ import com.l2jserver.gameserver.network.serverpackets.RelationChanged;
 public final class Broadcast {
 	private static final Logger LOG = LoggerFactory.getLogger(Broadcast.class);
 	
+	/** Broadcast packets whose content was written once for all recipients. */
+	private static final LongAdder SHARED_PACKETS = new LongAdder();
+	/** Writes served from a shared content. */
+	private static final LongAdder SHARED_WRITES = new LongAdder();
+	/** Bytes copied from a shared content instead of being written. */
+	private static final LongAdder SHARED_BYTES = new LongAdder();
+	/** Broadcasts dropped because the same content was already broadcast during the game tick. */
+	private static final LongAdder COALESCED_PACKETS = new LongAdder();
+	/** Bytes not sent because of coalesced broadcasts. */
+	private static final LongAdder COALESCED_BYTES = new LongAdder();
+	
+	/**
+	 * Prepares a packet broadcast by the given character.<br>
+	 * If the packet content can be shared it's written once here, and the broadcast is dropped if the character already broadcast the same content to the same recipients during the current game tick.<br>
+	 * Packets already sent to a client are written for each recipient as before.
+	 * @param character the broadcasting character
+	 * @param packet the packet
+	 * @param self {@code true} if the packet is also sent to the character itself
+	 * @param radius the radius around the character the known players must be in, 0 for all known players
+	 * @return {@code true} if the packet must be broadcast, {@code false} if it's redundant
+	 */
+	public static boolean prepare(L2Character character, L2GameServerPacket packet, boolean self, int radius) {
+		final byte[] content = packet.getSharedContent();
+		if (content == null) {
+			return true;
+		}
+		
+		if (general().coalesceBroadcasts() && character.isRedundantBroadcast(content, GameTimeController.getInstance().getGameTicks(), route(self, radius))) {
+			COALESCED_PACKETS.increment();
+			COALESCED_BYTES.add((long) content.length * character.getKnownList().getKnownPlayers().size());
+			return false;
+		}
+		
+		SHARED_PACKETS.increment();
+		return true;
+	}
+	
+	/**
+	 * @param self {@code true} if the packet is also sent to the broadcasting character
+	 * @param radius the radius around the character, 0 for all known players
+	 * @return the recipients of a broadcast as a single value, two broadcasts are only redundant if they have the same route
+	 */
+	static int route(boolean self, int radius) {
+		return (radius << 1) | (self ? 1 : 0);
+	}
+	
+	/**
+	 * Called by the selector thread each time a shared content is copied to a client.
+	 * @param length the content length
+	 */
+	public static void onSharedContentWrite(int length) {
+		SHARED_WRITES.increment();
+		SHARED_BYTES.add(length);
+	}
+	
+	public static String[] getStats() {
+		final long sharedPackets = SHARED_PACKETS.sum();
+		final long sharedWrites = SHARED_WRITES.sum();
+		return new String[] {
+			"Broadcast:",
+			" + Shared content:",
+			" |- Packets:         " + sharedPackets,
+			" |- Writes:          " + sharedWrites,
+			" |- Writes saved:    " + Math.max(sharedWrites - sharedPackets, 0),
+			" |- Bytes copied:    " + SHARED_BYTES.sum(),
+			" + Coalesced:",
+			" |- Packets:         " + COALESCED_PACKETS.sum(),
+			" |- Bytes saved:     " + COALESCED_BYTES.sum(),
+			" | -------"
+		};
+	}
+	
 	/**
 	 * Send a packet to all L2PcInstance in the _KnownPlayers of the L2Character that have the Character targeted.<BR>
 	 * <B><U> Concept</U> :</B><BR>
@@ -66,6 +143,12 @@ public final class Broadcast {
 	 * @param mov
 	 */
 	public static void toKnownPlayers(L2Character character, L2GameServerPacket mov) {
+		if (prepare(character, mov, false, 0)) {
+			sendToKnownPlayers(character, mov);
+		}
+	}
+	
+	private static void sendToKnownPlayers(L2Character character, L2GameServerPacket mov) {
 		for (L2PcInstance player : character.getKnownList().getKnownPlayers().values()) {
 			if (player == null) {
 				continue;
@@ -104,6 +187,10 @@ public final class Broadcast {
 			radius = 1500;
 		}
 		
+		if (!prepare(character, mov, false, radius)) {
+			return;
+		}
+		
 		for (L2PcInstance player : character.getKnownList().getKnownPlayers().values()) {
 			if (character.isInsideRadius(player, radius, false, false)) {
 				player.sendPacket(mov);
@@ -120,11 +207,15 @@ public final class Broadcast {
 	 * @param mov
 	 */
 	public static void toSelfAndKnownPlayers(L2Character character, L2GameServerPacket mov) {
+		if (!prepare(character, mov, true, 0)) {
+			return;
+		}
+		
 		if (character instanceof L2PcInstance) {
 			character.sendPacket(mov);
 		}
 		
-		toKnownPlayers(character, mov);
+		sendToKnownPlayers(character, mov);
 	}
 	
 	// To improve performance we are comparing values of radius^2 instead of calculating sqrt all the time
@@ -133,6 +224,10 @@ public final class Broadcast {
 			radius = 600;
 		}
 		
+		if (!prepare(character, mov, true, radius)) {
+			return;
+		}
+		
 		if (character instanceof L2PcInstance) {
 			character.sendPacket(mov);
 		}
@@ -152,6 +247,7 @@ public final class Broadcast {
 	 * @param packet
 	 */
 	public static void toAllOnlinePlayers(L2GameServerPacket packet) {
+		packet.getSharedContent();
 		for (L2PcInstance player : L2World.getInstance().getPlayers()) {
 			if (player.isOnline()) {
 				player.sendPacket(packet);
@@ -168,6 +264,7 @@ public final class Broadcast {
 	}
 	
 	public static void toPlayersInInstance(L2GameServerPacket packet, int instanceId) {
+		packet.getSharedContent();
 		for (L2PcInstance player : L2World.getInstance().getPlayers()) {
 			if (player.isOnline() && (player.getInstanceId() == instanceId)) {
 				player.sendPacket(packet);
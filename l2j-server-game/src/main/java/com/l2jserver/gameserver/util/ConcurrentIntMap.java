@@ -0,0 +1,725 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Concurrent map with primitive int keys.<br>
+ * Entries are stored in open addressing tables (linear probing) of parallel {@code int[]} keys and {@code Object[]} values, so there is no node and no boxed key per entry.<br>
+ * The key space is split in segments, each guarded by a {@link StampedLock}: reads are optimistic and only fall back to the read lock if a write happened meanwhile, writes lock their segment.<br>
+ * Removed entries leave a tombstone until the table is rebuilt, so an entry never moves inside a table.<br>
+ * Iterators are weakly consistent like the ones of {@link java.util.concurrent.ConcurrentHashMap}: they walk the live tables without copying them and never throw {@link java.util.ConcurrentModificationException}.<br>
+ * An iteration returns every entry present during the whole iteration exactly once, never returns an entry removed before the iteration reaches it, even if its segment was resized meanwhile, and may or may not return the entries added or replaced during the iteration.<br>
+ * Null keys and values are not allowed.
+ * @param <V> the value type
+ */
+public final class ConcurrentIntMap<V> extends AbstractMap<Integer, V> implements ConcurrentMap<Integer, V> {
+	private static final int INITIAL_CAPACITY = 8;
+	/** Maximum amount of segments, the segment is selected with the high bits of the hash. */
+	private static final int MAX_SEGMENTS = 1 << 8;
+	/** Value of a removed entry. */
+	private static final Object TOMBSTONE = new Object();
+	
+	private final Segment[] _segments;
+	private final int _segmentShift;
+	private final int _segmentMask;
+	
+	/**
+	 * Creates a map with a single segment, for small maps such as known lists.
+	 */
+	public ConcurrentIntMap() {
+		this(1);
+	}
+	
+	/**
+	 * Creates a map.
+	 * @param concurrencyLevel the estimated amount of concurrently writing threads, rounded up to a power of two
+	 */
+	public ConcurrentIntMap(int concurrencyLevel) {
+		int segments = 1;
+		int bits = 0;
+		while ((segments < concurrencyLevel) && (segments < MAX_SEGMENTS)) {
+			segments <<= 1;
+			bits++;
+		}
+		
+		_segments = new Segment[segments];
+		for (int i = 0; i < segments; i++) {
+			_segments[i] = new Segment();
+		}
+		_segmentShift = 32 - bits;
+		_segmentMask = segments - 1;
+	}
+	
+	private static int spread(int key) {
+		final int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	private Segment segmentFor(int hash) {
+		return _segments[(hash >>> _segmentShift) & _segmentMask];
+	}
+	
+	/**
+	 * @param key the key
+	 * @return the value mapped to the given key or {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		final int hash = spread(key);
+		return (V) segmentFor(hash).get(key, hash);
+	}
+	
+	/**
+	 * @param key the key
+	 * @return {@code true} if the given key is mapped
+	 */
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+	
+	/**
+	 * @param key the key
+	 * @param value the value
+	 * @return the previous value or {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		final int hash = spread(key);
+		return (V) segmentFor(hash).put(key, hash, value, false);
+	}
+	
+	/**
+	 * @param key the key
+	 * @param value the value
+	 * @return the current value or {@code null} if the value was added
+	 */
+	@SuppressWarnings("unchecked")
+	public V putIfAbsent(int key, V value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		final int hash = spread(key);
+		return (V) segmentFor(hash).put(key, hash, value, true);
+	}
+	
+	/**
+	 * @param key the key
+	 * @return the removed value or {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		final int hash = spread(key);
+		return (V) segmentFor(hash).remove(key, hash, null);
+	}
+	
+	@Override
+	public V get(Object key) {
+		return (key instanceof Integer k) ? get(k.intValue()) : null;
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+	
+	@Override
+	public V put(Integer key, V value) {
+		return put(key.intValue(), value);
+	}
+	
+	@Override
+	public V putIfAbsent(Integer key, V value) {
+		return putIfAbsent(key.intValue(), value);
+	}
+	
+	@Override
+	public V remove(Object key) {
+		return (key instanceof Integer k) ? remove(k.intValue()) : null;
+	}
+	
+	@Override
+	public boolean remove(Object key, Object value) {
+		if (!(key instanceof Integer k) || (value == null)) {
+			return false;
+		}
+		final int hash = spread(k);
+		return segmentFor(hash).remove(k, hash, value) != null;
+	}
+	
+	@Override
+	public boolean replace(Integer key, V oldValue, V newValue) {
+		if ((oldValue == null) || (newValue == null)) {
+			throw new NullPointerException();
+		}
+		final int hash = spread(key);
+		return segmentFor(hash).replace(key, hash, oldValue, newValue) != null;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public V replace(Integer key, V value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		final int hash = spread(key);
+		return (V) segmentFor(hash).replace(key, hash, null, value);
+	}
+	
+	@Override
+	public int size() {
+		long size = 0;
+		for (Segment segment : _segments) {
+			size += segment._size;
+		}
+		return (int) Math.min(size, Integer.MAX_VALUE);
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		for (Segment segment : _segments) {
+			if (segment._size > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public void clear() {
+		for (Segment segment : _segments) {
+			segment.clear();
+		}
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach(BiConsumer<? super Integer, ? super V> action) {
+		for (Segment segment : _segments) {
+			if (segment._size == 0) {
+				continue;
+			}
+			
+			// The stamp makes the writes done before the iteration visible, it's validated again for every entry
+			long stamp = segment.tryOptimisticRead();
+			final Table table = segment._table;
+			final int[] keys = table._keys;
+			final Object[] values = table._values;
+			for (int i = 0; i < values.length; i++) {
+				Object value = values[i];
+				if ((value == null) || (value == TOMBSTONE)) {
+					continue;
+				}
+				
+				int key = keys[i];
+				if (!segment.validate(stamp)) {
+					final long readStamp = segment.readLock();
+					try {
+						value = segment.reread(keys, values, i);
+						key = keys[i];
+					} finally {
+						segment.unlockRead(readStamp);
+					}
+					stamp = segment.iterationStamp(values);
+					if ((value == null) || (value == TOMBSTONE)) {
+						continue;
+					}
+				}
+				action.accept(key, (V) value);
+			}
+		}
+	}
+	
+	@Override
+	public Set<Integer> keySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Integer> iterator() {
+				return new TableIterator<>() {
+					@Override
+					Integer next(int key, V value) {
+						return key;
+					}
+				};
+			}
+			
+			@Override
+			public int size() {
+				return ConcurrentIntMap.this.size();
+			}
+			
+			@Override
+			public boolean contains(Object o) {
+				return containsKey(o);
+			}
+			
+			@Override
+			public boolean remove(Object o) {
+				return ConcurrentIntMap.this.remove(o) != null;
+			}
+			
+			@Override
+			public void clear() {
+				ConcurrentIntMap.this.clear();
+			}
+		};
+	}
+	
+	@Override
+	public Collection<V> values() {
+		return new AbstractCollection<>() {
+			@Override
+			public Iterator<V> iterator() {
+				return new TableIterator<>() {
+					@Override
+					V next(int key, V value) {
+						return value;
+					}
+				};
+			}
+			
+			@Override
+			public int size() {
+				return ConcurrentIntMap.this.size();
+			}
+			
+			@Override
+			public boolean isEmpty() {
+				return ConcurrentIntMap.this.isEmpty();
+			}
+			
+			@Override
+			public void clear() {
+				ConcurrentIntMap.this.clear();
+			}
+		};
+	}
+	
+	@Override
+	public Set<Map.Entry<Integer, V>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Map.Entry<Integer, V>> iterator() {
+				return new TableIterator<>() {
+					@Override
+					Map.Entry<Integer, V> next(int key, V value) {
+						return new MapEntry(key, value);
+					}
+				};
+			}
+			
+			@Override
+			public int size() {
+				return ConcurrentIntMap.this.size();
+			}
+			
+			@Override
+			public void clear() {
+				ConcurrentIntMap.this.clear();
+			}
+		};
+	}
+	
+	/**
+	 * @return the amount of slots of all segment tables
+	 */
+	public long capacity() {
+		long capacity = 0;
+		for (Segment segment : _segments) {
+			capacity += segment._table._values.length;
+		}
+		return capacity;
+	}
+	
+	/**
+	 * Estimates the heap used by this map, not counting the values.<br>
+	 * Assumes compressed oops: 12 bytes object headers, 16 bytes array headers and 4 bytes references.
+	 * @return the estimated size in bytes
+	 */
+	public long estimateFootprint() {
+		// Map: header, 3 fields, segment array; segment: header, StampedLock state, 3 fields, table holder; tables: 4 bytes per key and 4 bytes per value
+		return 24 + 16 + (_segments.length * (4L + 40 + 16 + 32)) + (capacity() * 8);
+	}
+	
+	/**
+	 * Estimates the heap used by a {@link java.util.concurrent.ConcurrentHashMap} with boxed integer keys of the given size, not counting the values.<br>
+	 * Every entry costs a 32 bytes node and a 16 bytes Integer (outside of the Integer cache), the table is sized for a 0.75 load factor.
+	 * @param size the amount of entries
+	 * @return the estimated size in bytes
+	 */
+	public static long estimateConcurrentHashMapFootprint(int size) {
+		if (size == 0) {
+			return 64;
+		}
+		
+		long table = 16;
+		while ((table * 3) < (size * 4L)) {
+			table <<= 1;
+		}
+		return 64 + 16 + (table * 4) + (size * (32L + 16));
+	}
+	
+	private final class MapEntry extends AbstractMap.SimpleEntry<Integer, V> {
+		private static final long serialVersionUID = 1L;
+		
+		MapEntry(int key, V value) {
+			super(key, value);
+		}
+		
+		@Override
+		public V setValue(V value) {
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+	
+	private abstract class TableIterator<T> implements Iterator<T> {
+		private int _segment = -1;
+		private Segment _current;
+		private long _stamp;
+		private int[] _keys;
+		private Object[] _values;
+		private int _index = -1;
+		private int _nextKey;
+		private Object _nextValue;
+		private int _lastKey;
+		private Object _lastValue;
+		
+		TableIterator() {
+			advance();
+		}
+		
+		abstract T next(int key, V value);
+		
+		private void advance() {
+			while (true) {
+				if (_values != null) {
+					while (++_index < _values.length) {
+						Object value = _values[_index];
+						if ((value == null) || (value == TOMBSTONE)) {
+							continue;
+						}
+						
+						int key = _keys[_index];
+						if (!_current.validate(_stamp)) {
+							final long readStamp = _current.readLock();
+							try {
+								value = _current.reread(_keys, _values, _index);
+								key = _keys[_index];
+							} finally {
+								_current.unlockRead(readStamp);
+							}
+							_stamp = _current.iterationStamp(_values);
+							if ((value == null) || (value == TOMBSTONE)) {
+								continue;
+							}
+						}
+						_nextKey = key;
+						_nextValue = value;
+						return;
+					}
+				}
+				
+				if (++_segment >= _segments.length) {
+					_values = null;
+					_nextValue = null;
+					return;
+				}
+				
+				_current = _segments[_segment];
+				_stamp = _current.tryOptimisticRead();
+				final Table table = _current._table;
+				_keys = table._keys;
+				_values = table._values;
+				_index = -1;
+			}
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return _nextValue != null;
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (_nextValue == null) {
+				throw new NoSuchElementException();
+			}
+			
+			_lastKey = _nextKey;
+			_lastValue = _nextValue;
+			advance();
+			return next(_lastKey, (V) _lastValue);
+		}
+		
+		@Override
+		public void remove() {
+			if (_lastValue == null) {
+				throw new IllegalStateException();
+			}
+			ConcurrentIntMap.this.remove(_lastKey, _lastValue);
+			_lastValue = null;
+		}
+	}
+	
+	/**
+	 * Keys and values of a segment, replaced as a whole when the segment is resized so an iterator never sees the keys of one table with the values of another.
+	 */
+	private static final class Table {
+		final int[] _keys;
+		final Object[] _values;
+		
+		Table(int capacity) {
+			_keys = new int[capacity];
+			_values = new Object[capacity];
+		}
+	}
+	
+	private static final class Segment extends StampedLock {
+		private static final long serialVersionUID = 1L;
+		
+		private volatile Table _table = new Table(INITIAL_CAPACITY);
+		private volatile int _size;
+		/** Entries and tombstones, must be read with the write lock. */
+		private int _used;
+		
+		Object get(int key, int hash) {
+			final long stamp = tryOptimisticRead();
+			if (stamp != 0) {
+				final Object value = find(key, hash);
+				if (validate(stamp)) {
+					return value;
+				}
+			}
+			
+			final long readStamp = readLock();
+			try {
+				return find(key, hash);
+			} finally {
+				unlockRead(readStamp);
+			}
+		}
+		
+		/**
+		 * Probes the table, safe to call without lock: a concurrent write only produces a wrong result that fails the validation.
+		 */
+		private Object find(int key, int hash) {
+			final Table table = _table;
+			final int[] keys = table._keys;
+			final Object[] values = table._values;
+			final int mask = values.length - 1;
+			int index = hash & mask;
+			for (int probes = 0; probes < values.length; probes++) {
+				final Object value = values[index];
+				if (value == null) {
+					return null;
+				}
+				if ((value != TOMBSTONE) && (keys[index] == key)) {
+					return value;
+				}
+				index = (index + 1) & mask;
+			}
+			return null;
+		}
+		
+		/**
+		 * @param values the values of the iterated table
+		 * @return a stamp for the optimistic reads of the iterated table, 0 (never valid) once the table was replaced by a resize
+		 */
+		long iterationStamp(Object[] values) {
+			final long stamp = tryOptimisticRead();
+			return _table._values == values ? stamp : 0;
+		}
+		
+		/**
+		 * Reads again a slot of an iterated table, must be called with the read lock.<br>
+		 * If the table was replaced by a resize since the iteration started, the key is looked up in the current table, so an entry removed after the resize is not returned.
+		 * @param keys the keys of the iterated table
+		 * @param values the values of the iterated table
+		 * @param index the slot
+		 * @return the current value of the entry of the slot, {@code null} or {@link #TOMBSTONE} if there is none
+		 */
+		Object reread(int[] keys, Object[] values, int index) {
+			final Object value = values[index];
+			if ((value == null) || (value == TOMBSTONE) || (_table._values == values)) {
+				return value;
+			}
+			
+			final int key = keys[index];
+			return find(key, spread(key));
+		}
+		
+		/**
+		 * Must be called with the write lock.
+		 * @return the slot of the key or {@code -(insertion slot) - 1}, the insertion slot being the first tombstone met if any
+		 */
+		private int slot(int key, int hash) {
+			final Table table = _table;
+			final Object[] values = table._values;
+			final int mask = values.length - 1;
+			int index = hash & mask;
+			int tombstone = -1;
+			while (values[index] != null) {
+				if (values[index] == TOMBSTONE) {
+					if (tombstone < 0) {
+						tombstone = index;
+					}
+				} else if (table._keys[index] == key) {
+					return index;
+				}
+				index = (index + 1) & mask;
+			}
+			return -(tombstone >= 0 ? tombstone : index) - 1;
+		}
+		
+		Object put(int key, int hash, Object value, boolean onlyIfAbsent) {
+			final long stamp = writeLock();
+			try {
+				int index = slot(key, hash);
+				if (index >= 0) {
+					final Object old = _table._values[index];
+					if (!onlyIfAbsent) {
+						_table._values[index] = value;
+					}
+					return old;
+				}
+				
+				index = -index - 1;
+				if (_table._values[index] == null) {
+					// Keep the load factor, tombstones included, under 2/3
+					if (((_used + 1) * 3) > (_table._values.length * 2)) {
+						resize(capacityFor(_size + 1));
+						index = -slot(key, hash) - 1;
+					}
+					_used++;
+				}
+				
+				_table._keys[index] = key;
+				_table._values[index] = value;
+				_size++;
+				return null;
+			} finally {
+				unlockWrite(stamp);
+			}
+		}
+		
+		Object replace(int key, int hash, Object expected, Object value) {
+			final long stamp = writeLock();
+			try {
+				final int index = slot(key, hash);
+				if (index < 0) {
+					return null;
+				}
+				
+				final Object old = _table._values[index];
+				if ((expected != null) && !expected.equals(old)) {
+					return null;
+				}
+				_table._values[index] = value;
+				return old;
+			} finally {
+				unlockWrite(stamp);
+			}
+		}
+		
+		Object remove(int key, int hash, Object expected) {
+			final long stamp = writeLock();
+			try {
+				final int index = slot(key, hash);
+				if (index < 0) {
+					return null;
+				}
+				
+				final Object old = _table._values[index];
+				if ((expected != null) && !expected.equals(old)) {
+					return null;
+				}
+				
+				// The key is kept, it's never read behind a tombstone
+				_table._values[index] = TOMBSTONE;
+				_size--;
+				
+				// Give memory back once the map got much smaller
+				if ((_table._values.length > INITIAL_CAPACITY) && ((_size * 8) < _table._values.length)) {
+					resize(capacityFor(_size));
+				}
+				return old;
+			} finally {
+				unlockWrite(stamp);
+			}
+		}
+		
+		private static int capacityFor(int size) {
+			int capacity = INITIAL_CAPACITY;
+			while ((size * 3) > (capacity * 2)) {
+				capacity <<= 1;
+			}
+			return capacity;
+		}
+		
+		/**
+		 * Rebuilds the table without tombstones, must be called with the write lock.<br>
+		 * The previous table is left untouched for the iterators still walking it.
+		 */
+		private void resize(int capacity) {
+			final Table old = _table;
+			final Table table = new Table(capacity);
+			final int mask = capacity - 1;
+			for (int i = 0; i < old._values.length; i++) {
+				final Object value = old._values[i];
+				if ((value != null) && (value != TOMBSTONE)) {
+					int index = spread(old._keys[i]) & mask;
+					while (table._values[index] != null) {
+						index = (index + 1) & mask;
+					}
+					table._keys[index] = old._keys[i];
+					table._values[index] = value;
+				}
+			}
+			_table = table;
+			_used = _size;
+		}
+		
+		void clear() {
+			final long stamp = writeLock();
+			try {
+				_table = new Table(INITIAL_CAPACITY);
+				_size = 0;
+				_used = 0;
+			} finally {
+				unlockWrite(stamp);
+			}
+		}
+	}
+}
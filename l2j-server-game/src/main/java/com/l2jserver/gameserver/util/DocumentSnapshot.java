@@ -0,0 +1,344 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.util;
+
+import static com.l2jserver.gameserver.config.Configuration.server;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Compiled snapshot of XML documents.<br>
+ * Keeps every document of a data set as a compact binary tree keyed by the hash of its source file, so the XML parsing and the schema validation are only done for the files that changed since the last boot.<br>
+ * The snapshot is written back by {@link #save()} when a document was parsed again or a file went away, and ignored as a whole when its format version does not match.
+ */
+public final class DocumentSnapshot {
+	private static final Logger LOG = LoggerFactory.getLogger(DocumentSnapshot.class);
+	
+	private static final int MAGIC = 0x4C324A53;
+	/** Must be increased every time the binary format changes. */
+	private static final int VERSION = 1;
+	
+	private static final byte ELEMENT = 1;
+	private static final byte TEXT = 2;
+	
+	private static final ThreadLocal<DocumentBuilder> BUILDERS = ThreadLocal.withInitial(() -> {
+		try {
+			return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+		} catch (ParserConfigurationException ex) {
+			throw new IllegalStateException(ex);
+		}
+	});
+	
+	private final String _name;
+	private final File _file;
+	private final Map<String, Entry> _entries;
+	private final Map<String, Entry> _used = new ConcurrentHashMap<>();
+	private final AtomicInteger _hits = new AtomicInteger();
+	private final AtomicInteger _misses = new AtomicInteger();
+	
+	/**
+	 * Loader of the documents missing from the snapshot.
+	 */
+	@FunctionalInterface
+	public interface DocumentLoader {
+		Document load(File file) throws Exception;
+	}
+	
+	private DocumentSnapshot(String name, File file, Map<String, Entry> entries) {
+		_name = name;
+		_file = file;
+		_entries = entries;
+	}
+	
+	/**
+	 * Opens the snapshot of a data set.<br>
+	 * If the compiled data cache is disabled the snapshot loads every document from its source file and is never saved.
+	 * @param name the name of the data set
+	 * @return the snapshot
+	 */
+	public static DocumentSnapshot open(String name) {
+		if (!server().compiledDataCache()) {
+			return new DocumentSnapshot(name, null, Map.of());
+		}
+		
+		final File file = new File(server().getCompiledDataCacheDirectory(), name + ".bin");
+		return new DocumentSnapshot(name, file, read(file));
+	}
+	
+	/**
+	 * Gets the document of a file, from the snapshot if the file did not change, otherwise from the loader.
+	 * @param file the source file
+	 * @param loader the loader used if the snapshot is disabled, the file is unknown or it changed
+	 * @return the document
+	 * @throws Exception if the loader fails
+	 */
+	public Document getDocument(File file, DocumentLoader loader) throws Exception {
+		if (_file == null) {
+			return loader.load(file);
+		}
+		
+		final String key = file.getPath();
+		final long hash = hash(file);
+		final Entry entry = _entries.get(key);
+		if ((entry != null) && (entry.hash() == hash)) {
+			try {
+				final Document doc = decode(entry.data());
+				_used.put(key, entry);
+				_hits.incrementAndGet();
+				return doc;
+			} catch (IOException ex) {
+				LOG.warn("Corrupted snapshot entry {} in {}, parsing the source file!", key, _file);
+			}
+		}
+		
+		final Document doc = loader.load(file);
+		_used.put(key, new Entry(hash, encode(doc)));
+		_misses.incrementAndGet();
+		return doc;
+	}
+	
+	/**
+	 * Writes the snapshot if any document changed, only the documents requested since it was opened are kept.
+	 */
+	public void save() {
+		if (_file == null) {
+			return;
+		}
+		
+		if ((_misses.get() == 0) && (_used.size() == _entries.size())) {
+			LOG.info("Loaded {} {} documents from the compiled data cache.", _hits.get(), _name);
+			return;
+		}
+		
+		final Path path = _file.toPath();
+		final Path tmp = path.resolveSibling(_file.getName() + ".tmp");
+		try {
+			Files.createDirectories(path.getParent());
+			try (var out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(_used.size());
+				for (var e : _used.entrySet()) {
+					out.writeUTF(e.getKey());
+					out.writeLong(e.getValue().hash());
+					out.writeInt(e.getValue().data().length);
+					out.write(e.getValue().data());
+				}
+			}
+			Files.move(tmp, path, REPLACE_EXISTING, ATOMIC_MOVE);
+			LOG.info("Compiled {} of {} {} documents into {}.", _misses.get(), _used.size(), _name, _file);
+		} catch (IOException ex) {
+			LOG.warn("Could not write the compiled data cache {}!", _file, ex);
+		}
+	}
+	
+	private static Map<String, Entry> read(File file) {
+		final Map<String, Entry> entries = new HashMap<>();
+		if (!file.isFile()) {
+			return entries;
+		}
+		
+		try (var in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()))))) {
+			if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+				LOG.info("Compiled data cache {} is outdated, it will be rebuilt.", file);
+				return entries;
+			}
+			
+			final int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				final String key = in.readUTF();
+				final long hash = in.readLong();
+				final byte[] data = new byte[in.readInt()];
+				in.readFully(data);
+				entries.put(key, new Entry(hash, data));
+			}
+		} catch (IOException ex) {
+			LOG.warn("Could not read the compiled data cache {}, it will be rebuilt!", file, ex);
+			entries.clear();
+		}
+		return entries;
+	}
+	
+	private static long hash(File file) throws IOException {
+		final byte[] data = Files.readAllBytes(file.toPath());
+		final CRC32C crc = new CRC32C();
+		crc.update(data);
+		// The length is kept next to the checksum so a changed file is even less likely to collide
+		return ((long) data.length << 32) | crc.getValue();
+	}
+	
+	/**
+	 * Encodes the elements and texts of a document, the strings are written once in a table and referenced by index.
+	 * @param doc the document
+	 * @return the encoded document
+	 * @throws IOException never, the document is written in memory
+	 */
+	static byte[] encode(Document doc) throws IOException {
+		final Map<String, Integer> strings = new HashMap<>();
+		final List<String> table = new ArrayList<>();
+		final ByteArrayOutputStream tree = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(tree);
+		
+		final List<Node> roots = new ArrayList<>();
+		for (Node n = doc.getFirstChild(); n != null; n = n.getNextSibling()) {
+			if (n.getNodeType() == Node.ELEMENT_NODE) {
+				roots.add(n);
+			}
+		}
+		out.writeInt(roots.size());
+		for (Node root : roots) {
+			encode(root, out, strings, table);
+		}
+		
+		final ByteArrayOutputStream result = new ByteArrayOutputStream(tree.size() + (table.size() * 16));
+		final DataOutputStream header = new DataOutputStream(result);
+		header.writeInt(table.size());
+		for (String s : table) {
+			final byte[] bytes = s.getBytes(UTF_8);
+			header.writeInt(bytes.length);
+			header.write(bytes);
+		}
+		tree.writeTo(result);
+		return result.toByteArray();
+	}
+	
+	private static void encode(Node node, DataOutputStream out, Map<String, Integer> strings, List<String> table) throws IOException {
+		if (node.getNodeType() != Node.ELEMENT_NODE) {
+			out.writeByte(TEXT);
+			out.writeInt(index(node.getNodeValue(), strings, table));
+			return;
+		}
+		
+		out.writeByte(ELEMENT);
+		out.writeInt(index(node.getNodeName(), strings, table));
+		final NamedNodeMap attrs = node.getAttributes();
+		out.writeInt(attrs.getLength());
+		for (int i = 0; i < attrs.getLength(); i++) {
+			final Node attr = attrs.item(i);
+			out.writeInt(index(attr.getNodeName(), strings, table));
+			out.writeInt(index(attr.getNodeValue(), strings, table));
+		}
+		
+		final List<Node> children = new ArrayList<>();
+		for (Node n = node.getFirstChild(); n != null; n = n.getNextSibling()) {
+			switch (n.getNodeType()) {
+				case Node.ELEMENT_NODE, Node.TEXT_NODE, Node.CDATA_SECTION_NODE -> children.add(n);
+			}
+		}
+		out.writeInt(children.size());
+		for (Node child : children) {
+			encode(child, out, strings, table);
+		}
+	}
+	
+	private static int index(String s, Map<String, Integer> strings, List<String> table) {
+		return strings.computeIfAbsent(s, k -> {
+			table.add(k);
+			return table.size() - 1;
+		});
+	}
+	
+	/**
+	 * Builds a document from its encoded form.
+	 * @param data the encoded document
+	 * @return the document
+	 * @throws IOException if the data is corrupted
+	 */
+	static Document decode(byte[] data) throws IOException {
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		final String[] table = new String[in.readInt()];
+		for (int i = 0; i < table.length; i++) {
+			final int length = in.readInt();
+			if ((length < 0) || (length > in.available())) {
+				throw new IOException("Invalid string length!");
+			}
+			final byte[] bytes = new byte[length];
+			in.readFully(bytes);
+			table[i] = new String(bytes, UTF_8);
+		}
+		
+		final Document doc = BUILDERS.get().newDocument();
+		final int roots = in.readInt();
+		for (int i = 0; i < roots; i++) {
+			doc.appendChild(decode(doc, in, table));
+		}
+		return doc;
+	}
+	
+	private static Node decode(Document doc, DataInputStream in, String[] table) throws IOException {
+		try {
+			switch (in.readByte()) {
+				case TEXT -> {
+					return doc.createTextNode(table[in.readInt()]);
+				}
+				case ELEMENT -> {
+					final Element element = doc.createElement(table[in.readInt()]);
+					final int attrs = in.readInt();
+					for (int i = 0; i < attrs; i++) {
+						element.setAttribute(table[in.readInt()], table[in.readInt()]);
+					}
+					
+					final int children = in.readInt();
+					for (int i = 0; i < children; i++) {
+						element.appendChild(decode(doc, in, table));
+					}
+					return element;
+				}
+				default -> throw new IOException("Unknown node type!");
+			}
+		} catch (IndexOutOfBoundsException ex) {
+			throw new IOException("Unknown string!", ex);
+		}
+	}
+	
+	private record Entry(long hash, byte[] data) {
+	}
+}
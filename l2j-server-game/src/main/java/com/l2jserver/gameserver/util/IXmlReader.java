@@ -76,15 +76,9 @@ public interface IXmlReader {
 			return;
 		}
 		
-		final var dbf = DocumentBuilderFactory.newInstance();
-		dbf.setNamespaceAware(true);
-		dbf.setValidating(true);
-		dbf.setIgnoringComments(true);
 		try {
-			dbf.setAttribute(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
-			final var db = dbf.newDocumentBuilder();
-			db.setErrorHandler(new XMLErrorHandler());
-			parseDocument(db.parse(f), f);
+			final var snapshot = getDocumentSnapshot();
+			parseDocument(snapshot != null ? snapshot.getDocument(f, this::readDocument) : readDocument(f), f);
 		} catch (SAXParseException e) {
 			LOG.warn("{}: Could not parse file {} at line {}, column {}", getClass().getSimpleName(), f.getName(), e.getLineNumber(), e.getColumnNumber(), e);
 		} catch (Exception e) {
@@ -92,6 +86,32 @@ public interface IXmlReader {
 		}
 	}
 	
+	/**
+	 * Reads and validates a XML file.
+	 * @param f the XML file to read
+	 * @return the document
+	 * @throws Exception if the file can't be read or is not valid
+	 */
+	default Document readDocument(File f) throws Exception {
+		final var dbf = DocumentBuilderFactory.newInstance();
+		dbf.setNamespaceAware(true);
+		dbf.setValidating(true);
+		dbf.setIgnoringComments(true);
+		dbf.setAttribute(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
+		final var db = dbf.newDocumentBuilder();
+		db.setErrorHandler(new XMLErrorHandler());
+		return db.parse(f);
+	}
+	
+	/**
+	 * Gets the snapshot the documents are read through while loading.<br>
+	 * Documents taken from the snapshot were validated when they were compiled.
+	 * @return the snapshot, {@code null} to always parse the files
+	 */
+	default DocumentSnapshot getDocumentSnapshot() {
+		return null;
+	}
+	
 	/**
 	 * Loads all XML files from {@code path} and calls {@link #parseFile(File)} for each one of them.
 	 * @param dir the directory object to scan.
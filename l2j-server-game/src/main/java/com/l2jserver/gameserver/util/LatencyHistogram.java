@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in microseconds.<br>
+ * Values are counted in logarithmic buckets, four per power of two, so percentiles are reported with at most 25% of error whatever the range, in a fixed amount of memory.<br>
+ * Recording never locks, it can be called concurrently with reads.
+ */
+public final class LatencyHistogram {
+	/** Values under this limit have their own bucket. */
+	private static final int LINEAR = 8;
+	private static final int BUCKETS = 120;
+	
+	private final AtomicLongArray _counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong _count = new AtomicLong();
+	private final AtomicLong _total = new AtomicLong();
+	private final AtomicLong _max = new AtomicLong();
+	
+	/**
+	 * @param micros the duration in microseconds
+	 */
+	public void record(long micros) {
+		final long value = Math.max(micros, 0);
+		_counts.incrementAndGet(index(value));
+		_count.incrementAndGet();
+		_total.addAndGet(value);
+		_max.accumulateAndGet(value, Math::max);
+	}
+	
+	/**
+	 * Clears the recorded values, values recorded concurrently may be partially kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			_counts.set(i, 0);
+		}
+		_count.set(0);
+		_total.set(0);
+		_max.set(0);
+	}
+	
+	public long getCount() {
+		return _count.get();
+	}
+	
+	/**
+	 * @return the sum of all recorded values in microseconds
+	 */
+	public long getTotal() {
+		return _total.get();
+	}
+	
+	public long getMax() {
+		return _max.get();
+	}
+	
+	/**
+	 * @param percentile the percentile, between 0 and 1
+	 * @return the upper bound of the bucket holding the percentile in microseconds, never more than the maximum recorded value
+	 */
+	public long getPercentile(double percentile) {
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			total += _counts.get(i);
+		}
+		if (total == 0) {
+			return 0;
+		}
+		
+		final long rank = Math.max((long) Math.ceil(total * percentile), 1);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += _counts.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBound(i), _max.get());
+			}
+		}
+		return _max.get();
+	}
+	
+	static int index(long value) {
+		if (value < LINEAR) {
+			return (int) value;
+		}
+		final int msb = 63 - Long.numberOfLeadingZeros(value);
+		final int sub = (int) (value >>> (msb - 2)) & 3;
+		return Math.min(((msb - 1) * 4) + sub, BUCKETS - 1);
+	}
+	
+	static long upperBound(int index) {
+		if (index < LINEAR) {
+			return index;
+		}
+		final int msb = (index / 4) + 1;
+		final long width = 1L << (msb - 2);
+		return ((4 + (index % 4)) * width) + width - 1;
+	}
+}
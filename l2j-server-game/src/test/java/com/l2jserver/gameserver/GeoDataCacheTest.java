@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ *
+ * This file is part of L2J Server.
+ *
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Geodata cache test.
+ */
+class GeoDataCacheTest {
+	
+	@Test
+	void testLineOfSight() {
+		final GeoDataCache cache = new GeoDataCache(16);
+		final long key1 = GeoDataCache.key(100, 200, -3000, 110);
+		final long key2 = GeoDataCache.key(210, -2990, 0);
+		assertThat(cache.getLos(key1, key2)).isEqualTo(GeoDataCache.MISS);
+		
+		cache.putLos(key1, key2, cache.generation(), true);
+		assertThat(cache.getLos(key1, key2)).isEqualTo(1);
+		
+		// Other instance
+		assertThat(cache.getLos(key1, GeoDataCache.key(210, -2990, 5))).isEqualTo(GeoDataCache.MISS);
+		
+		cache.putLos(key1, key2, cache.generation(), false);
+		assertThat(cache.getLos(key1, key2)).isEqualTo(0);
+	}
+	
+	@Test
+	void testInvalidation() {
+		final GeoDataCache cache = new GeoDataCache(16);
+		final long key1 = GeoDataCache.key(100, 200, -3000, 110);
+		final long key2 = GeoDataCache.key(210, -2990, 0);
+		cache.putMove(key1, key2, cache.generation(), GeoDataCache.MOVE_BLOCKED, 105, 205, -2995);
+		assertThat(cache.getMove(key1, key2)._geoX).isEqualTo(105);
+		
+		cache.invalidate();
+		assertThat(cache.getMove(key1, key2)).isNull();
+		
+		// Calculated before a door changed state
+		final int generation = cache.generation();
+		cache.invalidate();
+		cache.putLos(key1, key2, generation, true);
+		assertThat(cache.getLos(key1, key2)).isEqualTo(GeoDataCache.MISS);
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import com.l2jserver.gameserver.StartupGraph.StageException;
+import com.l2jserver.gameserver.StartupGraph.Status;
+
+/**
+ * Startup graph test.
+ */
+class StartupGraphTest {
+	
+	private final List<String> _order = new CopyOnWriteArrayList<>();
+	
+	@Test
+	void testSequentialOrder() throws Exception {
+		final StartupGraph graph = new StartupGraph(1, true);
+		graph.add("C", () -> _order.add("C"));
+		graph.add("A", () -> _order.add("A"));
+		graph.add("B", () -> _order.add("B"), "A");
+		graph.run();
+		
+		assertThat(_order).containsExactly("C", "A", "B");
+	}
+	
+	@Test
+	void testParallelDependencies() throws Exception {
+		final StartupGraph graph = new StartupGraph(4, true);
+		graph.add("A", () -> {
+			Thread.sleep(50);
+			_order.add("A");
+		});
+		graph.add("B", () -> _order.add("B"));
+		graph.add("C", () -> _order.add("C"), "A", "B");
+		graph.add("D", () -> _order.add("D"), "C");
+		graph.run();
+		
+		assertThat(_order).containsExactlyInAnyOrder("A", "B", "C", "D");
+		assertThat(_order.indexOf("C")).isGreaterThan(_order.indexOf("A")).isGreaterThan(_order.indexOf("B"));
+		assertThat(_order.indexOf("D")).isGreaterThan(_order.indexOf("C"));
+	}
+	
+	@Test
+	void testFailedDependencySkipped() throws Exception {
+		for (int threads : new int[] {
+			1,
+			4
+		}) {
+			final StartupGraph graph = new StartupGraph(threads, false);
+			graph.add("Items", () -> {
+				throw new IllegalStateException("Broken item");
+			});
+			graph.add("NPCs", () -> _order.add("NPCs"), "Items");
+			graph.add("Spawns", () -> _order.add("Spawns"), "NPCs");
+			graph.add("Geodata", () -> _order.add("Geodata"));
+			graph.run();
+			
+			assertThat(graph.getStatus("Items")).isEqualTo(Status.FAILED);
+			assertThat(graph.getStatus("NPCs")).isEqualTo(Status.SKIPPED);
+			assertThat(graph.getStatus("Spawns")).isEqualTo(Status.SKIPPED);
+			assertThat(graph.getStatus("Geodata")).isEqualTo(Status.OK);
+			assertThat(_order).containsExactly("Geodata");
+			_order.clear();
+		}
+	}
+	
+	@Test
+	void testFailFast() {
+		final StartupGraph graph = new StartupGraph(1, true);
+		graph.add("A", () -> _order.add("A"));
+		graph.add("B", () -> {
+			throw new IllegalStateException("Broken");
+		});
+		graph.add("C", () -> _order.add("C"));
+		
+		assertThatThrownBy(graph::run).isInstanceOf(StageException.class).hasCauseInstanceOf(IllegalStateException.class);
+		assertThat(_order).containsExactly("A");
+		assertThat(graph.getStatus("B")).isEqualTo(Status.FAILED);
+		assertThat(graph.getStatus("C")).isEqualTo(Status.PENDING);
+	}
+	
+	@Test
+	void testInvalidStages() {
+		final StartupGraph graph = new StartupGraph(1, true);
+		graph.add("A", () -> _order.add("A"));
+		
+		assertThatThrownBy(() -> graph.add("A", () -> _order.add("A"))).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> graph.add("B", () -> _order.add("B"), "Unknown")).isInstanceOf(IllegalArgumentException.class);
+	}
+}
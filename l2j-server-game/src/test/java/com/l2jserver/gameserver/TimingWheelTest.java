@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Timing wheel test.
+ */
+class TimingWheelTest {
+	
+	private TimingWheel _wheel;
+	
+	@BeforeEach
+	void setUp() {
+		_wheel = new TimingWheel("TimingWheelTest", 1, Runnable::run);
+		_wheel.start();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		_wheel.shutdown();
+	}
+	
+	@Test
+	void testExpiryOrder() throws Exception {
+		final List<Integer> order = new CopyOnWriteArrayList<>();
+		final CountDownLatch latch = new CountDownLatch(4);
+		// 600 ticks go through the second wheel
+		for (int delay : new int[] {
+			600,
+			5,
+			300,
+			0
+		}) {
+			_wheel.schedule(() -> {
+				order.add(delay);
+				latch.countDown();
+			}, delay, MILLISECONDS);
+		}
+		
+		assertThat(latch.await(5, SECONDS)).isTrue();
+		assertThat(order).containsExactly(0, 5, 300, 600);
+		assertThat(_wheel.getWaitingCount()).isZero();
+	}
+	
+	@Test
+	void testCancel() throws Exception {
+		final AtomicInteger runs = new AtomicInteger();
+		final ScheduledFuture<?> cancelled = _wheel.schedule(runs::incrementAndGet, 50, MILLISECONDS);
+		final ScheduledFuture<?> done = _wheel.schedule(runs::incrementAndGet, 100, MILLISECONDS);
+		assertThat(cancelled.cancel(false)).isTrue();
+		
+		done.get(5, SECONDS);
+		assertThat(runs).hasValue(1);
+		assertThat(cancelled.isCancelled()).isTrue();
+		assertThat(done.cancel(false)).isFalse();
+		assertThat(_wheel.getWaitingCount()).isZero();
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.l2jserver.gameserver.network.GameCrypt;
+
+/**
+ * Game crypt benchmark.<br>
+ * Compares the legacy byte at a time cipher with the word at a time cipher on a heap array and in place on a direct buffer, for small and large packets.<br>
+ * Every invocation encrypts then decrypts the packet, so the data stays the same across invocations.<br>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.l2jserver.gameserver.benchmark.GameCryptBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameCryptBenchmark {
+	@Param({
+		"16",
+		"128",
+		"1024",
+		"8192"
+	})
+	private int size;
+	
+	private byte[] _array;
+	private ByteBuffer _direct;
+	private byte[] _legacyKey;
+	private GameCrypt _crypt;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		final Random random = new Random(42);
+		_array = new byte[size];
+		random.nextBytes(_array);
+		_direct = ByteBuffer.allocateDirect(size);
+		_direct.put(_array).clear();
+		
+		_legacyKey = new byte[16];
+		random.nextBytes(_legacyKey);
+		_crypt = new GameCrypt();
+		_crypt.setKey(_legacyKey);
+		// The first packet only enables the cipher
+		_crypt.encrypt(new byte[0], 0, 0);
+	}
+	
+	@Benchmark
+	public byte[] legacyArray() {
+		legacyEncrypt(_array, size);
+		legacyDecrypt(_array, size);
+		return _array;
+	}
+	
+	@Benchmark
+	public byte[] wordArray() {
+		_crypt.encrypt(_array, 0, size);
+		_crypt.decrypt(_array, 0, size);
+		return _array;
+	}
+	
+	@Benchmark
+	public ByteBuffer wordDirect() {
+		_crypt.encrypt(_direct, 0, size);
+		_crypt.decrypt(_direct, 0, size);
+		return _direct;
+	}
+	
+	/**
+	 * The legacy cipher, the key counter is not updated to keep it comparable with the word cipher using the same key for both directions.
+	 */
+	private void legacyEncrypt(byte[] raw, int length) {
+		int temp = 0;
+		for (int i = 0; i < length; i++) {
+			int temp2 = raw[i] & 0xFF;
+			temp = temp2 ^ _legacyKey[i & 15] ^ temp;
+			raw[i] = (byte) temp;
+		}
+	}
+	
+	private void legacyDecrypt(byte[] raw, int length) {
+		int temp = 0;
+		for (int i = 0; i < length; i++) {
+			int temp2 = raw[i] & 0xFF;
+			raw[i] = (byte) (temp2 ^ _legacyKey[i & 15] ^ temp);
+			temp = temp2;
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(GameCryptBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.l2jserver.gameserver.idfactory.IdBitmap;
+import com.l2jserver.gameserver.idfactory.IdFactory;
+
+/**
+ * ID factory contention benchmark.<br>
+ * Every thread takes IDs and releases them after 256 more takes, like spawns and drops that live for a while, on the allocators of the BitSet, Stack, Compaction and Block ID factories.<br>
+ * The ID factories themselves need the database, so the benchmark copies the allocation code of the legacy ones and uses the {@link IdBitmap} of the Block one with its compaction running every 100 ms.<br>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.l2jserver.gameserver.benchmark.IdFactoryBenchmark}, the amount of threads can be changed with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class IdFactoryBenchmark {
+	private static final int HELD = 256;
+	
+	@Param({
+		"BitSet",
+		"Stack",
+		"Compaction",
+		"Block"
+	})
+	private String factory;
+	
+	private Allocator _allocator;
+	private ScheduledExecutorService _compaction;
+	
+	@State(Scope.Thread)
+	public static class Held {
+		final int[] _ids = new int[HELD];
+		int _index;
+	}
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		_allocator = switch (factory) {
+			case "BitSet" -> new BitSetAllocator();
+			case "Stack" -> new StackAllocator();
+			case "Compaction" -> new CompactionAllocator();
+			case "Block" -> {
+				final IdBitmap ids = new IdBitmap(IdFactory.FIRST_OID, IdFactory.FREE_OBJECT_ID_SIZE);
+				_compaction = Executors.newSingleThreadScheduledExecutor();
+				_compaction.scheduleAtFixedRate(ids::compact, 100, 100, TimeUnit.MILLISECONDS);
+				yield new Allocator() {
+					@Override
+					public int next() {
+						return ids.next();
+					}
+					
+					@Override
+					public void release(int id) {
+						ids.release(id);
+					}
+				};
+			}
+			default -> throw new IllegalArgumentException(factory);
+		};
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (_compaction != null) {
+			_compaction.shutdownNow();
+		}
+	}
+	
+	@Benchmark
+	public int nextAndRelease(Held held) {
+		final int id = _allocator.next();
+		final int old = held._ids[held._index];
+		held._ids[held._index] = id;
+		held._index = (held._index + 1) % HELD;
+		if (old != 0) {
+			_allocator.release(old);
+		}
+		return id;
+	}
+	
+	private interface Allocator {
+		int next();
+		
+		void release(int id);
+	}
+	
+	/**
+	 * The allocation of BitSetIDFactory, the capacity check task is replaced by a large enough set.
+	 */
+	private static final class BitSetAllocator implements Allocator {
+		private final BitSet _freeIds = new BitSet(1 << 20);
+		private int _nextFreeId;
+		
+		@Override
+		public synchronized int next() {
+			final int newId = _nextFreeId;
+			_freeIds.set(newId);
+			_nextFreeId = _freeIds.nextClearBit(newId);
+			return newId + IdFactory.FIRST_OID;
+		}
+		
+		@Override
+		public synchronized void release(int id) {
+			_freeIds.clear(id - IdFactory.FIRST_OID);
+		}
+	}
+	
+	/**
+	 * The allocation of StackIDFactory.
+	 */
+	private static final class StackAllocator implements Allocator {
+		private final Deque<Integer> _freeIds = new ArrayDeque<>();
+		private int _curId = IdFactory.FIRST_OID;
+		
+		@Override
+		public synchronized int next() {
+			return _freeIds.isEmpty() ? _curId++ : _freeIds.pop();
+		}
+		
+		@Override
+		public synchronized void release(int id) {
+			_freeIds.push(id);
+		}
+	}
+	
+	/**
+	 * The allocation of CompactionIDFactory, which never releases IDs.
+	 */
+	private static final class CompactionAllocator implements Allocator {
+		private int _curId = IdFactory.FIRST_OID;
+		
+		@Override
+		public synchronized int next() {
+			return _curId++;
+		}
+		
+		@Override
+		public synchronized void release(int id) {
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(IdFactoryBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.benchmark;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.l2jserver.gameserver.model.actor.movement.MovementBatch;
+
+/**
+ * Movement tick benchmark.<br>
+ * Compares the per tick update of every mover through its move data (the legacy GameTimeController path) with the movement batch at 5k, 20k and 50k movers.<br>
+ * Movers walk back and forth between two points, so the amount of movers stays constant.<br>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.l2jserver.gameserver.benchmark.MovementBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovementBenchmark {
+	private static final double SPEED_PER_TICK = 12.5;
+	private static final double THRESHOLD = 32;
+	private static final int MAX_TICKS = 10;
+	
+	@Param({
+		"5000",
+		"20000",
+		"50000"
+	})
+	private int movers;
+	
+	@Param({
+		"false",
+		"true"
+	})
+	private boolean parallel;
+	
+	private Set<Mover> _legacy;
+	private MovementBatch<Mover> _batch;
+	private int[] _due;
+	private int _tick;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		final Random random = new Random(42);
+		_legacy = ConcurrentHashMap.newKeySet();
+		_batch = new MovementBatch<>();
+		_due = new int[movers];
+		for (int i = 0; i < movers; i++) {
+			final Mover mover = new Mover(random.nextInt(100000), random.nextInt(100000), 500 + random.nextInt(2000));
+			_legacy.add(mover);
+			_batch.put(mover, mover._x, mover._y, mover._move._xDestination, mover._move._yDestination, SPEED_PER_TICK, 0);
+		}
+	}
+	
+	@Benchmark
+	public int legacy() {
+		final int tick = ++_tick;
+		_legacy.forEach(m -> m.updatePosition(tick));
+		return _legacy.size();
+	}
+	
+	@Benchmark
+	public int batched() {
+		final int tick = ++_tick;
+		final MovementBatch<Mover> batch = _batch;
+		final int count = batch.collectDue(tick, THRESHOLD, MAX_TICKS, parallel, _due);
+		for (int i = count - 1; i >= 0; i--) {
+			final int index = _due[i];
+			final Mover mover = batch.get(index);
+			mover.updatePosition(tick);
+			batch.set(index, mover._x, mover._y, mover._move._xDestination, mover._move._yDestination, SPEED_PER_TICK, tick);
+		}
+		return count;
+	}
+	
+	/**
+	 * Mover with the same layout as a character: the position lives in the object and the movement in a separate move data object.
+	 */
+	private static final class Mover {
+		double _x;
+		double _y;
+		final double _startX;
+		final double _startY;
+		final double _endX;
+		MoveData _move;
+		
+		Mover(double x, double y, double distance) {
+			_x = _startX = x;
+			_y = _startY = y;
+			_endX = x + distance;
+			_move = new MoveData(_endX, y);
+		}
+		
+		void updatePosition(int tick) {
+			final MoveData m = _move;
+			final int ticks = tick - m._moveTimestamp;
+			if (ticks <= 0) {
+				return;
+			}
+			
+			final double dx = m._xDestination - _x;
+			final double dy = m._yDestination - _y;
+			final double delta = Math.sqrt((dx * dx) + (dy * dy));
+			final double passed = SPEED_PER_TICK * ticks;
+			m._moveTimestamp = tick;
+			if (passed >= delta) {
+				_x = m._xDestination;
+				_y = m._yDestination;
+				_move = (_x == _endX) ? new MoveData(_startX, _startY) : new MoveData(_endX, _startY);
+				_move._moveTimestamp = tick;
+				return;
+			}
+			
+			final double fraction = passed / delta;
+			_x += dx * fraction;
+			_y += dy * fraction;
+		}
+	}
+	
+	private static final class MoveData {
+		final double _xDestination;
+		final double _yDestination;
+		int _moveTimestamp;
+		
+		MoveData(double x, double y) {
+			_xDestination = x;
+			_yDestination = y;
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(MovementBenchmark.class.getSimpleName()).build()).run();
+	}
+}
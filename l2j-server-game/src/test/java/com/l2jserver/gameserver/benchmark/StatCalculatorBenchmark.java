@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.l2jserver.gameserver.model.actor.L2Character;
+import com.l2jserver.gameserver.model.skills.Skill;
+import com.l2jserver.gameserver.model.stats.Calculator;
+import com.l2jserver.gameserver.model.stats.StatCache;
+import com.l2jserver.gameserver.model.stats.Stats;
+import com.l2jserver.gameserver.model.stats.functions.AbstractFunction;
+import com.l2jserver.gameserver.model.stats.functions.FuncAdd;
+import com.l2jserver.gameserver.model.stats.functions.FuncMul;
+
+/**
+ * Per hit stat cost benchmark.<br>
+ * A hit reads the attacker's P. Atk., accuracy, critical rate and attack speed and the target's P. Def. and evasion.<br>
+ * Every stat has a formula function plus the given amount of buff functions, the benchmark compares running every function on every read with the stat cache, with and without a buff change between hits.<br>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.l2jserver.gameserver.benchmark.StatCalculatorBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatCalculatorBenchmark {
+	private static final Stats[] HIT_STATS = {
+		Stats.POWER_ATTACK,
+		Stats.ACCURACY_COMBAT,
+		Stats.CRITICAL_RATE,
+		Stats.POWER_ATTACK_SPEED,
+		Stats.POWER_DEFENCE,
+		Stats.EVASION_RATE
+	};
+	
+	@Param({
+		"10",
+		"40"
+	})
+	private int buffs;
+	
+	private Calculator[] _calculators;
+	private StatCache _cache;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		_calculators = new Calculator[HIT_STATS.length];
+		for (int i = 0; i < HIT_STATS.length; i++) {
+			final Calculator calculator = new Calculator();
+			calculator.addFunc(new FormulaFunction(HIT_STATS[i]));
+			for (int j = 0; j < buffs; j++) {
+				calculator.addFunc((j & 1) == 0 ? new FuncAdd(HIT_STATS[i], 0x40, null, j, null) : new FuncMul(HIT_STATS[i], 0x30, null, 1.01, null));
+			}
+			_calculators[i] = calculator;
+		}
+		_cache = new StatCache();
+	}
+	
+	@Benchmark
+	public double uncached() {
+		double sum = 0;
+		for (int i = 0; i < HIT_STATS.length; i++) {
+			sum += _calculators[i].calc(null, null, null, 100);
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public double cached() {
+		double sum = 0;
+		for (int i = 0; i < HIT_STATS.length; i++) {
+			sum += _cache.calc(HIT_STATS[i], _calculators[i].getFunctions(), 80, null, null, null, 100);
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public double cachedWithBuffChange() {
+		_cache.invalidate();
+		return cached();
+	}
+	
+	/**
+	 * Formula function with a cost comparable to the base stat modifiers (square roots, powers and stat bonus lookups).
+	 */
+	private static final class FormulaFunction extends AbstractFunction {
+		FormulaFunction(Stats stat) {
+			super(stat, 0x01, null, 0, null);
+		}
+		
+		@Override
+		public boolean isCacheable() {
+			return true;
+		}
+		
+		@Override
+		public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
+			return initVal * Math.pow(1.0 + (Math.sqrt(43) / 100), 2) * ((80 + 89) / 100d);
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(StatCalculatorBenchmark.class.getSimpleName()).build()).run();
+	}
+}
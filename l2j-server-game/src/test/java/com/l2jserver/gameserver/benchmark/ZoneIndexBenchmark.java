@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.benchmark;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.l2jserver.gameserver.model.L2World;
+import com.l2jserver.gameserver.model.L2WorldRegion;
+import com.l2jserver.gameserver.model.actor.L2Character;
+import com.l2jserver.gameserver.model.zone.L2ZoneForm;
+import com.l2jserver.gameserver.model.zone.L2ZoneType;
+import com.l2jserver.gameserver.model.zone.form.ZoneCuboid;
+import com.l2jserver.gameserver.model.zone.form.ZoneCylinder;
+import com.l2jserver.gameserver.model.zone.form.ZoneNPoly;
+
+/**
+ * Zone revalidation benchmark.<br>
+ * Loads the zones of the datapack into world regions the way the zone manager does and compares the zone tests of a position revalidation over every zone of the region with the tests over the zones of the cell index.<br>
+ * The positions are picked inside the bounding box of a random zone, widened by the spread, so most of them are in the crowded parts of the world.<br>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.l2jserver.gameserver.benchmark.ZoneIndexBenchmark}, the zones are read from {@code -Dzones=<directory>}, by default the datapack module next to this one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZoneIndexBenchmark {
+	private static final int POSITIONS = 4096;
+	
+	@Param({
+		"0",
+		"2048"
+	})
+	private int spread;
+	
+	private L2WorldRegion[] _regions;
+	private int[] _x;
+	private int[] _y;
+	private int[] _z;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		final List<L2ZoneForm> forms = loadForms(Path.of(System.getProperty("zones", "../l2j-server-datapack/src/main/resources/data/zones")));
+		final Map<Integer, L2WorldRegion> regions = new HashMap<>();
+		int id = 0;
+		for (L2ZoneForm form : forms) {
+			final BenchmarkZone zone = new BenchmarkZone(id++);
+			zone.setZone(form);
+			
+			final Rectangle box = form.getBoundingBox();
+			for (int tileX = tileX((int) box.getMinX()); tileX <= tileX((int) box.getMaxX()); tileX++) {
+				for (int tileY = tileY((int) box.getMinY()); tileY <= tileY((int) box.getMaxY()); tileY++) {
+					final int ax = (tileX - L2World.OFFSET_X) << L2World.SHIFT_BY;
+					final int ay = (tileY - L2World.OFFSET_Y) << L2World.SHIFT_BY;
+					if (form.intersectsRectangle(ax, ax + (1 << L2World.SHIFT_BY), ay, ay + (1 << L2World.SHIFT_BY))) {
+						final int x = tileX;
+						final int y = tileY;
+						regions.computeIfAbsent((tileX << 16) | tileY, k -> new L2WorldRegion(x, y)).addZone(zone);
+					}
+				}
+			}
+		}
+		
+		final Random random = new Random(42);
+		_regions = new L2WorldRegion[POSITIONS];
+		_x = new int[POSITIONS];
+		_y = new int[POSITIONS];
+		_z = new int[POSITIONS];
+		for (int i = 0; i < POSITIONS;) {
+			final L2ZoneForm form = forms.get(random.nextInt(forms.size()));
+			final Rectangle box = form.getBoundingBox();
+			final int x = (box.x - spread) + random.nextInt(box.width + (2 * spread) + 1);
+			final int y = (box.y - spread) + random.nextInt(box.height + (2 * spread) + 1);
+			final L2WorldRegion region = regions.get((tileX(x) << 16) | tileY(y));
+			if (region == null) {
+				continue;
+			}
+			_regions[i] = region;
+			_x[i] = x;
+			_y[i] = y;
+			_z[i++] = form.getLowZ() + random.nextInt(Math.max(form.getHighZ() - form.getLowZ(), 0) + 1);
+		}
+	}
+	
+	@Benchmark
+	public int regionZones() {
+		int inside = 0;
+		for (int i = 0; i < POSITIONS; i++) {
+			for (L2ZoneType zone : _regions[i].getZones()) {
+				if (zone.isInsideZone(_x[i], _y[i], _z[i])) {
+					inside++;
+				}
+			}
+		}
+		return inside;
+	}
+	
+	@Benchmark
+	public int cellZones() {
+		int inside = 0;
+		for (int i = 0; i < POSITIONS; i++) {
+			for (L2ZoneType zone : _regions[i].getZoneCandidates(_x[i], _y[i])) {
+				if (zone.isInsideZone(_x[i], _y[i], _z[i])) {
+					inside++;
+				}
+			}
+		}
+		return inside;
+	}
+	
+	private static int tileX(int x) {
+		return (x >> L2World.SHIFT_BY) + L2World.OFFSET_X;
+	}
+	
+	private static int tileY(int y) {
+		return (y >> L2World.SHIFT_BY) + L2World.OFFSET_Y;
+	}
+	
+	private static List<L2ZoneForm> loadForms(Path directory) throws IOException {
+		final List<L2ZoneForm> forms = new ArrayList<>();
+		final List<File> files;
+		try (Stream<Path> paths = Files.walk(directory)) {
+			files = paths.filter(p -> p.toString().endsWith(".xml")).map(Path::toFile).toList();
+		}
+		
+		for (File file : files) {
+			final NodeList zones;
+			try {
+				zones = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file).getElementsByTagName("zone");
+			} catch (Exception ex) {
+				throw new IOException("Could not parse " + file, ex);
+			}
+			
+			for (int i = 0; i < zones.getLength(); i++) {
+				final Element zone = (Element) zones.item(i);
+				// Spawn territories are not registered into the world regions
+				if ("NpcSpawnTerritory".equals(zone.getAttribute("type"))) {
+					continue;
+				}
+				
+				final NodeList nodes = zone.getElementsByTagName("node");
+				final int[] x = new int[nodes.getLength()];
+				final int[] y = new int[nodes.getLength()];
+				for (int n = 0; n < nodes.getLength(); n++) {
+					x[n] = Integer.parseInt(((Element) nodes.item(n)).getAttribute("X"));
+					y[n] = Integer.parseInt(((Element) nodes.item(n)).getAttribute("Y"));
+				}
+				
+				final int minZ = Integer.parseInt(zone.getAttribute("minZ"));
+				final int maxZ = Integer.parseInt(zone.getAttribute("maxZ"));
+				switch (zone.getAttribute("shape")) {
+					case "Cuboid" -> {
+						if (x.length == 2) {
+							forms.add(new ZoneCuboid(x[0], x[1], y[0], y[1], minZ, maxZ));
+						}
+					}
+					case "NPoly" -> {
+						if (x.length > 2) {
+							forms.add(new ZoneNPoly(x, y, minZ, maxZ));
+						}
+					}
+					case "Cylinder" -> {
+						if (x.length == 1) {
+							forms.add(new ZoneCylinder(x[0], y[0], minZ, maxZ, Integer.parseInt(zone.getAttribute("rad"))));
+						}
+					}
+				}
+			}
+		}
+		return forms;
+	}
+	
+	/**
+	 * Zone without behavior, only its form is tested.
+	 */
+	private static final class BenchmarkZone extends L2ZoneType {
+		BenchmarkZone(int id) {
+			super(id);
+		}
+		
+		@Override
+		protected void onEnter(L2Character character) {
+		}
+		
+		@Override
+		protected void onExit(L2Character character) {
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ZoneIndexBenchmark.class.getSimpleName()).build()).run();
+	}
+}
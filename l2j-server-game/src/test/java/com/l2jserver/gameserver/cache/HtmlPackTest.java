@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Html pack test.
+ */
+class HtmlPackTest {
+	
+	@TempDir
+	Path dir;
+	
+	@Test
+	void testAppendAndRead() throws IOException {
+		final Path file = dir.resolve("html.pack");
+		try (HtmlPack pack = new HtmlPack(file)) {
+			final byte[] first = "<html><body>Hello</body></html>".getBytes(UTF_8);
+			final byte[] second = "<html><body>Привет</body></html>".getBytes(UTF_8);
+			
+			final long firstOffset = pack.append(first);
+			final long secondOffset = pack.append(second);
+			
+			assertThat(firstOffset).isZero();
+			assertThat(secondOffset).isEqualTo(first.length);
+			assertThat(pack.read(firstOffset, first.length)).isEqualTo(first);
+			assertThat(new String(pack.read(secondOffset, second.length), UTF_8)).isEqualTo("<html><body>Привет</body></html>");
+			assertThat(pack.size()).isEqualTo(first.length + second.length);
+		}
+		assertThat(Files.exists(file)).isFalse();
+	}
+	
+	@Test
+	void testEntriesDoNotSpanChunks() throws IOException {
+		try (HtmlPack pack = new HtmlPack(dir.resolve("html.pack"))) {
+			final byte[] large = new byte[(16 * 1024 * 1024) - 10];
+			large[large.length - 1] = 1;
+			final byte[] small = new byte[20];
+			small[0] = 2;
+			
+			pack.append(large);
+			final long offset = pack.append(small);
+			
+			assertThat(offset).isEqualTo(16 * 1024 * 1024);
+			assertThat(pack.read(offset, small.length)).isEqualTo(small);
+			assertThat(pack.read(large.length - 1, 1)).containsExactly(1);
+			assertThatThrownBy(() -> pack.append(new byte[(16 * 1024 * 1024) + 1])).isInstanceOf(IOException.class);
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.idfactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ID bitmap test.
+ */
+class IdBitmapTest {
+	
+	private static final int FIRST_ID = 1000;
+	
+	@Test
+	void testSkipsUsedIds() {
+		final IdBitmap ids = new IdBitmap(FIRST_ID, 200);
+		assertThat(ids.setUsed(FIRST_ID)).isTrue();
+		assertThat(ids.setUsed(FIRST_ID + 2)).isTrue();
+		assertThat(ids.setUsed(FIRST_ID - 1)).isFalse();
+		assertThat(ids.size()).isEqualTo(198);
+		
+		assertThat(ids.next()).isEqualTo(FIRST_ID + 1);
+		assertThat(ids.next()).isEqualTo(FIRST_ID + 3);
+	}
+	
+	@Test
+	void testRunsOutOfIds() {
+		final IdBitmap ids = new IdBitmap(FIRST_ID, 70);
+		for (int i = 0; i < 70; i++) {
+			assertThat(ids.next()).isEqualTo(FIRST_ID + i);
+		}
+		assertThat(ids.size()).isZero();
+		assertThatThrownBy(ids::next).isInstanceOf(IllegalStateException.class);
+	}
+	
+	@Test
+	void testCompactionRecyclesReleasedIds() {
+		final IdBitmap ids = new IdBitmap(FIRST_ID, 1 << 20);
+		for (int i = 0; i < 640; i++) {
+			ids.next();
+		}
+		assertThat(ids.release(FIRST_ID + 70)).isTrue();
+		assertThat(ids.release(FIRST_ID + 70)).isFalse();
+		assertThat(ids.release(FIRST_ID + 5)).isTrue();
+		assertThat(ids.size()).isEqualTo((1 << 20) - 638);
+		
+		ids.compact();
+		
+		assertThat(ids.next()).isEqualTo(FIRST_ID + 5);
+		assertThat(ids.next()).isEqualTo(FIRST_ID + 70);
+		assertThat(ids.next()).isEqualTo(FIRST_ID + 640);
+		assertThat(ids.getRecycled()).isOne();
+	}
+	
+	@Test
+	void testConcurrentIdsAreUnique() throws Exception {
+		final int threads = 8;
+		final int perThread = 20000;
+		final IdBitmap ids = new IdBitmap(FIRST_ID, threads * perThread);
+		final Set<Integer> handedOut = ConcurrentHashMap.newKeySet();
+		final AtomicInteger duplicates = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < perThread; i++) {
+						final int id = ids.next();
+						if (!handedOut.add(id)) {
+							duplicates.incrementAndGet();
+						}
+						// Release every other ID so the blocks of the threads keep mixing
+						if ((i & 1) == 0) {
+							handedOut.remove(id);
+							ids.release(id);
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		assertThat(duplicates).hasValue(0);
+		assertThat(handedOut).hasSize((threads * perThread) / 2);
+		assertThat(handedOut).allMatch(id -> (id >= FIRST_ID) && (id < (FIRST_ID + (threads * perThread))));
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import com.l2jserver.gameserver.GameTimeController;
+import com.l2jserver.gameserver.LoginServerThread;
+import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.model.L2World;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
+
+/**
+ * Game metrics test.
+ */
+class GameMetricsTest {
+	
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+	
+	@Test
+	void testToJson() {
+		final Map<String, Integer> queues = new LinkedHashMap<>();
+		queues.put("general", 1);
+		queues.put("ai", 2);
+		final ThreadPoolManager threadPoolManager = mock(ThreadPoolManager.class);
+		when(threadPoolManager.getQueueSizes()).thenReturn(queues);
+		final LoginServerThread loginServerThread = mock(LoginServerThread.class);
+		when(loginServerThread.getClients()).thenReturn(List.of());
+		final L2World world = mock(L2World.class);
+		when(world.getVisibleObjectsCount()).thenReturn(100);
+		when(world.getAllPlayersCount()).thenReturn(10);
+		final GameTimeController gameTimeController = mock(GameTimeController.class);
+		when(gameTimeController.getMovingObjectsCount()).thenReturn(5);
+		
+		try (MockedStatic<ThreadPoolManager> mockedThreadPoolManager = mockStatic(ThreadPoolManager.class);
+			MockedStatic<LoginServerThread> mockedLoginServerThread = mockStatic(LoginServerThread.class);
+			MockedStatic<L2World> mockedWorld = mockStatic(L2World.class);
+			MockedStatic<GameTimeController> mockedGameTimeController = mockStatic(GameTimeController.class);
+			MockedStatic<KnownListUpdateTaskManager> mockedKnownListUpdateTaskManager = mockStatic(KnownListUpdateTaskManager.class)) {
+			mockedThreadPoolManager.when(ThreadPoolManager::getInstance).thenReturn(threadPoolManager);
+			mockedLoginServerThread.when(LoginServerThread::getInstance).thenReturn(loginServerThread);
+			mockedWorld.when(L2World::getInstance).thenReturn(world);
+			mockedGameTimeController.when(GameTimeController::getInstance).thenReturn(gameTimeController);
+			mockedKnownListUpdateTaskManager.when(KnownListUpdateTaskManager::getDirtyObjectsCount).thenReturn(3);
+			
+			final GameMetrics metrics = GameMetrics.getInstance();
+			metrics.reset();
+			metrics.recordTick(TimeUnit.MILLISECONDS.toNanos(2));
+			
+			assertThat(metrics.toJson()).isEqualTo("{\"healthy\":true" //
+				+ ",\"tick\":{\"count\":1,\"p50\":2000,\"p99\":2000,\"max\":2000}" //
+				+ ",\"knownListPass\":{\"count\":0,\"p50\":0,\"p99\":0,\"max\":0}" //
+				+ ",\"databaseWait\":{\"count\":0,\"p50\":0,\"p99\":0,\"max\":0}" //
+				+ ",\"databaseErrors\":0" //
+				+ ",\"queues\":{\"general\":1,\"ai\":2}" //
+				+ ",\"clients\":{\"connected\":0,\"packetRate\":{\"p50\":0,\"p99\":0,\"max\":0}}" //
+				+ ",\"world\":{\"objects\":100,\"players\":10,\"moving\":5,\"knownListDirty\":3}}");
+		}
+	}
+	
+	@Test
+	void testHealthTimeout() {
+		final GameMetrics metrics = GameMetrics.getInstance();
+		metrics.recordTick(1000);
+		final long now = System.nanoTime();
+		
+		assertThat(metrics.isHealthy(now)).isTrue();
+		assertThat(metrics.isHealthy(now + (4 * SECOND))).isTrue();
+		assertThat(metrics.isHealthy(now + (6 * SECOND))).isFalse();
+	}
+}
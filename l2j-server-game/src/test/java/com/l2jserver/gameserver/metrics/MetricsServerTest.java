@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Metrics server test.
+ */
+class MetricsServerTest {
+	
+	private final GameMetrics _metrics = mock(GameMetrics.class);
+	
+	private final MetricsServer _server = new MetricsServer(_metrics);
+	
+	private final HttpClient _client = HttpClient.newHttpClient();
+	
+	@BeforeEach
+	void setUp() throws IOException {
+		_server.start("127.0.0.1", 0);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		_server.stop();
+	}
+	
+	@Test
+	void testHealth() throws Exception {
+		when(_metrics.isHealthy()).thenReturn(true);
+		HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/health")).GET());
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.body()).isEqualTo("ok\n");
+		
+		// The game time stopped ticking
+		when(_metrics.isHealthy()).thenReturn(false);
+		response = send(HttpRequest.newBuilder(uri("/health")).GET());
+		assertThat(response.statusCode()).isEqualTo(503);
+		assertThat(response.body()).isEqualTo("degraded\n");
+	}
+	
+	@Test
+	void testMetrics() throws Exception {
+		when(_metrics.toJson()).thenReturn("{\"healthy\":true}");
+		final HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/metrics")).GET());
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("Content-Type")).hasValue("application/json; charset=utf-8");
+		assertThat(response.body()).isEqualTo("{\"healthy\":true}");
+	}
+	
+	@Test
+	void testMethodNotAllowed() throws Exception {
+		final HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/metrics")).POST(HttpRequest.BodyPublishers.noBody()));
+		assertThat(response.statusCode()).isEqualTo(405);
+	}
+	
+	private URI uri(String path) {
+		return URI.create("http://127.0.0.1:" + _server.getPort() + path);
+	}
+	
+	private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+		return _client.send(request.build(), BodyHandlers.ofString());
+	}
+}
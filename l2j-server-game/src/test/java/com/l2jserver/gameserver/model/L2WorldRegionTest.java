@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ *
+ * This file is part of L2J Server.
+ *
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import org.junit.jupiter.api.Test;
+
+import com.l2jserver.gameserver.model.zone.L2ZoneType;
+import com.l2jserver.gameserver.model.zone.form.ZoneCuboid;
+
+/**
+ * L2WorldRegion unit tests
+ */
+class L2WorldRegionTest {
+	
+	@Test
+	void testCellIndexAtRegionOrigin() {
+		assertThat(L2WorldRegion.getCellIndex(0, 0)).isEqualTo(0);
+		assertThat(L2WorldRegion.getCellIndex(-4096, -4096)).isEqualTo(0);
+	}
+	
+	@Test
+	void testCellIndexInsideRegion() {
+		assertThat(L2WorldRegion.getCellIndex(511, 511)).isEqualTo(0);
+		assertThat(L2WorldRegion.getCellIndex(512, 0)).isEqualTo(L2WorldRegion.CELLS_PER_SIDE);
+		assertThat(L2WorldRegion.getCellIndex(0, 512)).isEqualTo(1);
+		assertThat(L2WorldRegion.getCellIndex(4095, 4095)).isEqualTo((L2WorldRegion.CELLS_PER_SIDE * L2WorldRegion.CELLS_PER_SIDE) - 1);
+	}
+	
+	@Test
+	void testCellIndexWithNegativeCoordinates() {
+		// -1 belongs to the last cell of the region left of the origin
+		assertThat(L2WorldRegion.getCellIndex(-1, -1)).isEqualTo((L2WorldRegion.CELLS_PER_SIDE * L2WorldRegion.CELLS_PER_SIDE) - 1);
+		assertThat(L2WorldRegion.getCellIndex(-4096, -1)).isEqualTo(L2WorldRegion.CELLS_PER_SIDE - 1);
+	}
+	
+	@Test
+	void testZoneCandidatesFollowBoundingBoxes() {
+		final L2WorldRegion region = new L2WorldRegion(L2World.OFFSET_X, L2World.OFFSET_Y);
+		final L2ZoneType zone = mock(L2ZoneType.class);
+		when(zone.getZone()).thenReturn(new ZoneCuboid(100, 600, 0, 100, -1000, 1000));
+		assertThat(region.getZoneCandidates(200, 50)).isEmpty();
+		
+		region.addZone(zone);
+		assertThat(region.getZoneCandidates(200, 50)).containsExactly(zone);
+		assertThat(region.getZoneCandidates(700, 50)).containsExactly(zone);
+		assertThat(region.getZoneCandidates(1100, 50)).isEmpty();
+		assertThat(region.getZoneCandidates(200, 600)).isEmpty();
+		// Cells with the same zones share their candidates
+		assertThat(region.getZoneCandidates(1100, 50)).isSameAs(region.getZoneCandidates(200, 600));
+		
+		region.removeZone(zone);
+		assertThat(region.getZoneCandidates(200, 50)).isEmpty();
+	}
+	
+	@Test
+	void testUpdateCellMovesObject() {
+		final L2WorldRegion region = new L2WorldRegion(L2World.OFFSET_X, L2World.OFFSET_Y);
+		final L2Object object = object(100, 100, region);
+		region.addVisibleObject(object);
+		assertThat(region.getCell(0)).containsKey(object.getObjectId());
+		
+		object.setX(700);
+		region.updateCell(object);
+		
+		assertThat(region.getCell(0)).doesNotContainKey(object.getObjectId());
+		assertThat(region.getCell(L2WorldRegion.CELLS_PER_SIDE)).containsKey(object.getObjectId());
+	}
+	
+	@Test
+	void testStaleUpdateCellAfterRegionChange() {
+		final L2WorldRegion region = new L2WorldRegion(L2World.OFFSET_X, L2World.OFFSET_Y);
+		final L2WorldRegion next = new L2WorldRegion(L2World.OFFSET_X + 1, L2World.OFFSET_Y);
+		final L2Object object = object(100, 100, region);
+		region.addVisibleObject(object);
+		
+		// Another thread moves the object to the next region
+		region.removeVisibleObject(object);
+		object.setWorldRegion(next);
+		next.addVisibleObject(object);
+		
+		// A move that read the previous region before the change
+		object.setX(700);
+		region.updateCell(object);
+		
+		for (int i = 0; i < (L2WorldRegion.CELLS_PER_SIDE * L2WorldRegion.CELLS_PER_SIDE); i++) {
+			if (region.getCell(i) != null) {
+				assertThat(region.getCell(i)).doesNotContainKey(object.getObjectId());
+			}
+		}
+		assertThat(next.getCell(0)).containsKey(object.getObjectId());
+	}
+	
+	private static L2Object object(int x, int y, L2WorldRegion region) {
+		final L2Object object = mock(L2Object.class, withSettings().useConstructor(1).defaultAnswer(CALLS_REAL_METHODS));
+		object.setX(x);
+		object.setY(y);
+		object.setWorldRegion(region);
+		return object;
+	}
+}
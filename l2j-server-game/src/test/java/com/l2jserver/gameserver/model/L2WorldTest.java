@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import static com.l2jserver.gameserver.config.Configuration.general;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * L2World unit tests
+ */
+class L2WorldTest {
+	
+	private String _shardWidth;
+	
+	@BeforeEach
+	void setUp() {
+		_shardWidth = general().setProperty("WorldShardWidth", "8");
+	}
+	
+	@AfterEach
+	void tearDown() {
+		if (_shardWidth == null) {
+			general().removeProperty("WorldShardWidth");
+		} else {
+			general().setProperty("WorldShardWidth", _shardWidth);
+		}
+	}
+	
+	@Test
+	void testShardsCoverEveryRegion() {
+		final L2World world = new L2World();
+		int regions = 0;
+		for (L2WorldRegion[] column : world.getWorldRegions()) {
+			for (L2WorldRegion region : column) {
+				assertThat(world.getShard(region).getRegions()).contains(region);
+				regions++;
+			}
+		}
+		
+		int assigned = 0;
+		for (L2WorldShard shard : world.getShards()) {
+			assigned += shard.getRegions().size();
+		}
+		assertThat(assigned).isEqualTo(regions);
+	}
+	
+	@Test
+	void testNeighbouringShardsInDifferentPhases() {
+		final L2World world = new L2World();
+		final L2WorldShard[] shards = world.getShards();
+		for (int i = 1; i < shards.length; i++) {
+			assertThat(shards[i].getPhase()).as("Phase of %s", shards[i].getName()).isNotEqualTo(shards[i - 1].getPhase());
+		}
+		
+		// The regions a shard touches, up to two columns away, never belong to another shard of the same phase
+		for (L2WorldRegion[] column : world.getWorldRegions()) {
+			final L2WorldRegion region = column[0];
+			final L2WorldShard shard = world.getShard(region);
+			for (L2WorldRegion[] other : world.getWorldRegions()) {
+				final L2WorldShard otherShard = world.getShard(other[0]);
+				if ((otherShard != shard) && (Math.abs(other[0].getTileX() - region.getTileX()) <= 4)) {
+					assertThat(otherShard.getPhase()).as("Phase of %s next to %s", otherShard.getName(), shard.getName()).isNotEqualTo(shard.getPhase());
+				}
+			}
+		}
+	}
+	
+	@Test
+	void testMinimumShardWidth() {
+		general().setProperty("WorldShardWidth", "2");
+		final L2World world = new L2World();
+		final L2WorldShard[] shards = world.getShards();
+		
+		// Every shard but the last one spans at least 6 region columns
+		for (int i = 0; i < (shards.length - 1); i++) {
+			final L2WorldShard shard = shards[i];
+			final int width = (shard.getRegions().get(shard.getRegions().size() - 1).getTileX() - shard.getRegions().get(0).getTileX()) + 1;
+			assertThat(width).as("Width of %s", shard.getName()).isGreaterThanOrEqualTo(6);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.actor.movement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Movement batch unit tests
+ */
+class MovementBatchTest {
+	
+	@Test
+	void testMoverBelowThresholdIsNotDue() {
+		final MovementBatch<String> batch = new MovementBatch<>();
+		batch.put("a", 0, 0, 1000, 0, 10, 0);
+		assertThat(batch.collectDue(3, 32, 10, false, new int[1])).isZero();
+	}
+	
+	@Test
+	void testMoverIsDueAfterThresholdDestinationOrMaxTicks() {
+		final MovementBatch<String> batch = new MovementBatch<>();
+		batch.put("distance", 0, 0, 1000, 0, 10, 0);
+		batch.put("arrived", 0, 0, 20, 0, 10, 0);
+		batch.put("idle", 0, 0, 1000, 0, 0, 0);
+		final int[] due = new int[3];
+		assertThat(batch.collectDue(2, 32, 10, false, due)).isEqualTo(1);
+		assertThat(batch.get(due[0])).isEqualTo("arrived");
+		assertThat(batch.collectDue(4, 32, 10, false, due)).isEqualTo(2);
+		assertThat(batch.collectDue(10, 32, 10, false, due)).isEqualTo(3);
+	}
+	
+	@Test
+	void testRemoveMovesLastSlot() {
+		final MovementBatch<String> batch = new MovementBatch<>();
+		batch.put("a", 0, 0, 1000, 0, 10, 0);
+		batch.put("b", 0, 0, 1000, 0, 10, 0);
+		batch.put("c", 0, 0, 1000, 0, 10, 0);
+		batch.removeAt(0);
+		assertThat(batch.size()).isEqualTo(2);
+		assertThat(batch.get(0)).isEqualTo("c");
+		assertThat(batch.contains("a")).isFalse();
+		batch.remove("c");
+		assertThat(batch.get(0)).isEqualTo("b");
+		// Re-adding refreshes the existing slot
+		batch.put("b", 0, 0, 1000, 0, 10, 0);
+		assertThat(batch.size()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ *
+ * This file is part of L2J Server.
+ *
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.events;
+
+import static com.l2jserver.gameserver.model.events.EventType.OLYMPIAD_MATCH_RESULT;
+import static com.l2jserver.gameserver.model.events.EventType.TVT_EVENT_KILL;
+import static com.l2jserver.gameserver.model.events.EventType.TVT_EVENT_START;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.l2jserver.gameserver.model.events.listeners.AbstractEventListener;
+import com.l2jserver.gameserver.model.events.listeners.ConsumerEventListener;
+
+/**
+ * Listeners container test.
+ */
+class ListenersContainerTest {
+	
+	@Test
+	void testIndexFollowsRegistrations() {
+		final ListenersContainer container = new ListenersContainer();
+		assertThat(container.hasListener(TVT_EVENT_KILL)).isFalse();
+		
+		final AbstractEventListener first = container.addListener(new ConsumerEventListener(container, TVT_EVENT_KILL, _ -> {}, this));
+		final AbstractEventListener second = container.addListener(new ConsumerEventListener(container, TVT_EVENT_KILL, _ -> {}, this));
+		assertThat(container.hasListener(TVT_EVENT_KILL)).isTrue();
+		assertThat(container.hasListener(TVT_EVENT_START)).isFalse();
+		assertThat(ListenersContainer.isListened(TVT_EVENT_KILL)).isTrue();
+		
+		first.unregisterMe();
+		assertThat(container.hasListener(TVT_EVENT_KILL)).isTrue();
+		
+		second.unregisterMe();
+		assertThat(container.hasListener(TVT_EVENT_KILL)).isFalse();
+		assertThat(ListenersContainer.isListened(TVT_EVENT_KILL)).isFalse();
+	}
+	
+	@Test
+	void testRemovingUnknownListenerKeepsIndex() {
+		final ListenersContainer container = new ListenersContainer();
+		final AbstractEventListener listener = container.addListener(new ConsumerEventListener(container, OLYMPIAD_MATCH_RESULT, _ -> {}, this));
+		
+		container.removeListener(new ConsumerEventListener(container, OLYMPIAD_MATCH_RESULT, _ -> {}, this));
+		assertThat(container.hasListener(OLYMPIAD_MATCH_RESULT)).isTrue();
+		assertThat(ListenersContainer.isListened(OLYMPIAD_MATCH_RESULT)).isTrue();
+		
+		listener.unregisterMe();
+		assertThat(ListenersContainer.isListened(OLYMPIAD_MATCH_RESULT)).isFalse();
+	}
+	
+	@Test
+	void testDispatcherChecksGlobalAndTargetContainers() {
+		final ListenersContainer container = new ListenersContainer();
+		final ListenersContainer other = new ListenersContainer();
+		assertThat(EventDispatcher.getInstance().hasListener(TVT_EVENT_START, container)).isFalse();
+		
+		final AbstractEventListener listener = other.addListener(new ConsumerEventListener(other, TVT_EVENT_START, _ -> {}, this));
+		assertThat(EventDispatcher.getInstance().hasListener(TVT_EVENT_START, container)).isFalse();
+		assertThat(EventDispatcher.getInstance().hasListener(TVT_EVENT_START, container, other)).isTrue();
+		
+		listener.unregisterMe();
+		assertThat(EventDispatcher.getInstance().hasListener(TVT_EVENT_START, container, other)).isFalse();
+	}
+}
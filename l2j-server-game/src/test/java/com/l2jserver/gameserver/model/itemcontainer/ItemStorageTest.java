@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.itemcontainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+
+/**
+ * Item storage test.
+ */
+class ItemStorageTest {
+	
+	private static L2ItemInstance item(int objectId, int itemId) {
+		final L2ItemInstance item = mock(L2ItemInstance.class);
+		when(item.getObjectId()).thenReturn(objectId);
+		when(item.getId()).thenReturn(itemId);
+		return item;
+	}
+	
+	@Test
+	void testLookupsFollowWrites() {
+		final ItemStorage storage = new ItemStorage();
+		final L2ItemInstance adena = item(1, 57);
+		final L2ItemInstance first = item(2, 100);
+		final L2ItemInstance second = item(3, 100);
+		assertThat(storage.add(adena)).isTrue();
+		assertThat(storage.add(first)).isTrue();
+		assertThat(storage.add(second)).isTrue();
+		assertThat(storage.add(item(3, 100))).isFalse();
+		
+		assertThat(storage.size()).isEqualTo(3);
+		assertThat(storage.getByObjectId(2)).isSameAs(first);
+		assertThat(storage.getByItemId(100)).isSameAs(first);
+		assertThat(storage.getAllByItemId(100)).containsExactly(first, second);
+		assertThat(storage.getAllByItemId(200)).isEmpty();
+		
+		assertThat(storage.remove(first)).isTrue();
+		assertThat(storage.remove(first)).isFalse();
+		assertThat(storage.contains(first)).isFalse();
+		assertThat(storage.getByObjectId(2)).isNull();
+		assertThat(storage.getByItemId(100)).isSameAs(second);
+		
+		storage.remove(second);
+		assertThat(storage.getByItemId(100)).isNull();
+		assertThat(storage.toArray()).containsExactly(adena);
+	}
+	
+	@Test
+	void testIterationKeepsInsertionOrder() {
+		final ItemStorage storage = new ItemStorage();
+		final L2ItemInstance a = item(30, 1);
+		final L2ItemInstance b = item(10, 2);
+		final L2ItemInstance c = item(20, 1);
+		storage.add(a);
+		storage.add(b);
+		storage.add(c);
+		assertThat(storage).containsExactly(a, b, c);
+		
+		// Writes during the iteration do not fail it
+		for (L2ItemInstance item : storage) {
+			storage.remove(item);
+		}
+		assertThat(storage.isEmpty()).isTrue();
+		
+		storage.add(b);
+		storage.add(a);
+		assertThat(storage.removeFirst()).isSameAs(b);
+		assertThat(storage).containsExactly(a);
+	}
+}
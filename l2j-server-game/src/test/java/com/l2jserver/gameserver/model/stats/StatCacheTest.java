@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ *
+ * This file is part of L2J Server.
+ *
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.l2jserver.gameserver.model.actor.L2Character;
+import com.l2jserver.gameserver.model.skills.Skill;
+import com.l2jserver.gameserver.model.stats.functions.AbstractFunction;
+import com.l2jserver.gameserver.model.stats.functions.FuncAdd;
+import com.l2jserver.gameserver.model.stats.functions.FuncMul;
+
+/**
+ * Stat cache test.
+ */
+class StatCacheTest {
+	
+	@Test
+	void testCachedValueIsReused() {
+		final CountingFunction counter = new CountingFunction(true);
+		final Calculator calculator = new Calculator();
+		calculator.addFunc(new FuncAdd(Stats.POWER_ATTACK, 0x10, null, 10, null));
+		calculator.addFunc(new FuncMul(Stats.POWER_ATTACK, 0x30, null, 2, null));
+		calculator.addFunc(counter);
+		
+		final StatCache cache = new StatCache();
+		assertThat(cache.calc(Stats.POWER_ATTACK, calculator.getFunctions(), 1, null, null, null, 5)).isEqualTo(30);
+		assertThat(cache.calc(Stats.POWER_ATTACK, calculator.getFunctions(), 1, null, null, null, 5)).isEqualTo(30);
+		assertThat(counter.calls).isEqualTo(1);
+		
+		// Different initial value or level
+		assertThat(cache.calc(Stats.POWER_ATTACK, calculator.getFunctions(), 1, null, null, null, 10)).isEqualTo(40);
+		assertThat(cache.calc(Stats.POWER_ATTACK, calculator.getFunctions(), 2, null, null, null, 10)).isEqualTo(40);
+		assertThat(counter.calls).isEqualTo(3);
+	}
+	
+	@Test
+	void testFunctionChangeAndInvalidation() {
+		final CountingFunction counter = new CountingFunction(true);
+		final Calculator calculator = new Calculator();
+		calculator.addFunc(counter);
+		
+		final StatCache cache = new StatCache();
+		assertThat(cache.calc(Stats.MAX_HP, calculator.getFunctions(), 1, null, null, null, 100)).isEqualTo(100);
+		
+		final AbstractFunction buff = new FuncAdd(Stats.MAX_HP, 0x40, null, 50, null);
+		calculator.addFunc(buff);
+		assertThat(cache.calc(Stats.MAX_HP, calculator.getFunctions(), 1, null, null, null, 100)).isEqualTo(150);
+		calculator.removeFunc(buff);
+		assertThat(cache.calc(Stats.MAX_HP, calculator.getFunctions(), 1, null, null, null, 100)).isEqualTo(100);
+		assertThat(counter.calls).isEqualTo(3);
+		
+		cache.invalidate();
+		cache.calc(Stats.MAX_HP, calculator.getFunctions(), 1, null, null, null, 100);
+		assertThat(counter.calls).isEqualTo(4);
+	}
+	
+	@Test
+	void testNotCacheableFunctionIsAlwaysCalculated() {
+		final CountingFunction counter = new CountingFunction(false);
+		final Calculator calculator = new Calculator();
+		calculator.addFunc(counter);
+		
+		final StatCache cache = new StatCache();
+		cache.calc(Stats.MAX_MP, calculator.getFunctions(), 1, null, null, null, 100);
+		cache.calc(Stats.MAX_MP, calculator.getFunctions(), 1, null, null, null, 100);
+		assertThat(counter.calls).isEqualTo(2);
+	}
+	
+	@Test
+	void testRemoveOwner() {
+		final Object owner = new Object();
+		final Calculator calculator = new Calculator();
+		calculator.addFunc(new FuncAdd(Stats.MAX_CP, 0x40, owner, 1, null));
+		calculator.addFunc(new FuncAdd(Stats.MAX_CP, 0x40, null, 2, null));
+		calculator.addFunc(new FuncMul(Stats.MAX_CP, 0x30, owner, 3, null));
+		
+		assertThat(calculator.removeOwner(owner)).containsExactly(Stats.MAX_CP, Stats.MAX_CP);
+		assertThat(calculator.size()).isEqualTo(1);
+		assertThat(calculator.calc(null, null, null, 0)).isEqualTo(2);
+	}
+	
+	private static final class CountingFunction extends AbstractFunction {
+		private final boolean _cacheable;
+		int calls;
+		
+		CountingFunction(boolean cacheable) {
+			super(Stats.POWER_ATTACK, 0x50, null, 0, null);
+			_cacheable = cacheable;
+		}
+		
+		@Override
+		public boolean isCacheable() {
+			return _cacheable;
+		}
+		
+		@Override
+		public double calc(L2Character effector, L2Character effected, Skill skill, double initVal) {
+			calls++;
+			return initVal;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HexFormat;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Game crypt test.<br>
+ * Checks the word at a time cipher against fixed vectors and against the byte at a time cipher it replaced.
+ */
+class GameCryptTest {
+	
+	private static final byte[] KEY = HexFormat.of().parseHex("94350000a16c5487093b1421c8279301");
+	
+	private static final String[] VECTORS = {
+		"95a8a7b10d",
+		"95a8a7b10d453a8fb8c390ff6219e982",
+		"95a8a7b10d453a8fa8d380ef7209f992773a45c3ef17d8fd4ac162fdf0"
+	};
+	
+	@Test
+	void testVectors() {
+		final GameCrypt encrypter = enabled(KEY);
+		final GameCrypt decrypter = enabled(KEY);
+		for (String vector : VECTORS) {
+			final byte[] expected = HexFormat.of().parseHex(vector);
+			final byte[] data = new byte[expected.length];
+			for (int i = 0; i < data.length; i++) {
+				data[i] = (byte) ((i * 7) + 1);
+			}
+			final byte[] plain = data.clone();
+			
+			encrypter.encrypt(data, 0, data.length);
+			assertThat(data).isEqualTo(expected);
+			
+			decrypter.decrypt(data, 0, data.length);
+			assertThat(data).isEqualTo(plain);
+		}
+	}
+	
+	@Test
+	void testFirstPacketIsNotEncrypted() {
+		final GameCrypt crypt = new GameCrypt();
+		crypt.setKey(KEY);
+		final byte[] data = {
+			1,
+			2,
+			3
+		};
+		
+		crypt.decrypt(data, 0, data.length);
+		crypt.encrypt(data, 0, data.length);
+		
+		assertThat(data).containsExactly(1, 2, 3);
+	}
+	
+	@Test
+	void testMatchesLegacyCipher() {
+		final Random random = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			final byte[] key = new byte[16];
+			random.nextBytes(key);
+			final LegacyCrypt legacy = new LegacyCrypt(key);
+			final GameCrypt crypt = enabled(key);
+			final boolean direct = (round & 1) == 0;
+			
+			for (int packet = 0; packet < 20; packet++) {
+				final int size = random.nextInt(300);
+				final int offset = random.nextInt(16);
+				final byte[] expected = new byte[offset + size + 4];
+				random.nextBytes(expected);
+				
+				final ByteBuffer buf = direct ? ByteBuffer.allocateDirect(expected.length) : ByteBuffer.allocate(expected.length);
+				buf.order(random.nextBoolean() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+				buf.put(expected).clear();
+				
+				if (random.nextBoolean()) {
+					legacy.encrypt(expected, offset, size);
+					crypt.encrypt(buf, offset, size);
+				} else {
+					legacy.decrypt(expected, offset, size);
+					crypt.decrypt(buf, offset, size);
+				}
+				
+				assertThat(buf.position()).isZero();
+				final byte[] actual = new byte[expected.length];
+				buf.get(actual);
+				assertThat(actual).isEqualTo(expected);
+			}
+		}
+	}
+	
+	private static GameCrypt enabled(byte[] key) {
+		final GameCrypt crypt = new GameCrypt();
+		crypt.setKey(key);
+		crypt.encrypt(new byte[0], 0, 0);
+		return crypt;
+	}
+	
+	/**
+	 * The byte at a time cipher, already enabled.
+	 */
+	private static final class LegacyCrypt {
+		private final byte[] _inKey = new byte[16];
+		private final byte[] _outKey = new byte[16];
+		
+		LegacyCrypt(byte[] key) {
+			System.arraycopy(key, 0, _inKey, 0, 16);
+			System.arraycopy(key, 0, _outKey, 0, 16);
+		}
+		
+		void decrypt(byte[] raw, int offset, int size) {
+			int temp = 0;
+			for (int i = 0; i < size; i++) {
+				int temp2 = raw[offset + i] & 0xFF;
+				raw[offset + i] = (byte) (temp2 ^ _inKey[i & 15] ^ temp);
+				temp = temp2;
+			}
+			addSize(_inKey, size);
+		}
+		
+		void encrypt(byte[] raw, int offset, int size) {
+			int temp = 0;
+			for (int i = 0; i < size; i++) {
+				int temp2 = raw[offset + i] & 0xFF;
+				temp = temp2 ^ _outKey[i & 15] ^ temp;
+				raw[offset + i] = (byte) temp;
+			}
+			addSize(_outKey, size);
+		}
+		
+		private static void addSize(byte[] key, int size) {
+			int old = key[8] & 0xff;
+			old |= (key[9] << 8) & 0xff00;
+			old |= (key[10] << 0x10) & 0xff0000;
+			old |= (key[11] << 0x18) & 0xff000000;
+			
+			old += size;
+			
+			key[8] = (byte) (old & 0xff);
+			key[9] = (byte) ((old >> 0x08) & 0xff);
+			key[10] = (byte) ((old >> 0x10) & 0xff);
+			key[11] = (byte) ((old >> 0x18) & 0xff);
+		}
+	}
+}
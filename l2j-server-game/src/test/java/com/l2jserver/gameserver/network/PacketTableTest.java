@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.l2jserver.gameserver.network.clientpackets.L2GameClientPacket;
+
+/**
+ * Packet table test.
+ */
+@ExtendWith(MockitoExtension.class)
+class PacketTableTest {
+	
+	@Mock
+	private L2GameClient client;
+	
+	@Test
+	void testExtendedOpcodes() {
+		final PacketTable table = new PacketTable("TEST");
+		table.add(0x01, FirstPacket::new);
+		final PacketTable ex = table.extended(0xd0, 2);
+		ex.add(0x0d, SecondPacket::new);
+		final PacketTable third = ex.extended(0x51, 4);
+		third.add(0x02, FirstPacket::new);
+		
+		assertThat(table.get(0x01).create(client)).isInstanceOf(FirstPacket.class);
+		assertThat(table.get(0x02)).isNull();
+		assertThat(table.get(0x1000)).isNull();
+		
+		final ByteBuffer buf = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+		buf.putShort((short) 0x51).putInt(0x02).flip();
+		final PacketTable second = table.get(0xd0).getNext();
+		assertThat(second).isSameAs(ex);
+		assertThat(second.hasId(buf)).isTrue();
+		final PacketTable last = second.get(second.readId(buf)).getNext();
+		assertThat(last.getPath()).isEqualTo("0xd0:0x51");
+		assertThat(last.hasId(buf)).isTrue();
+		assertThat(last.get(last.readId(buf)).create(client)).isInstanceOf(FirstPacket.class);
+		assertThat(last.hasId(buf)).isFalse();
+		
+		assertThat(ex.get(0x0d).getStats().getName()).isEqualTo("TEST 0xd0:0x0d SecondPacket");
+	}
+	
+	@Test
+	void testIgnoredAndObsoletePackets() {
+		final PacketTable table = new PacketTable("TEST");
+		table.ignore(0x10, "Say");
+		table.cheat(0x15, "RequestEquipItem", "Used obsolete RequestEquipItem packet!");
+		
+		assertThat(table.get(0x10).create(client)).isNull();
+		verifyNoInteractions(client);
+		
+		assertThat(table.get(0x15).create(client)).isNull();
+		verify(client).handleCheat("Used obsolete RequestEquipItem packet!");
+	}
+	
+	@Test
+	void testStats() {
+		final PacketTable table = new PacketTable("TEST");
+		table.add(0x01, FirstPacket::new);
+		final PacketStats stats = table.get(0x01).getStats();
+		
+		stats.received(10);
+		stats.received(6);
+		stats.executed(2_000, 5_000, 128);
+		
+		assertThat(stats.getReceived()).isEqualTo(2);
+		assertThat(stats.getBytes()).isEqualTo(16);
+		assertThat(stats.getAllocated()).isEqualTo(128);
+		assertThat(stats.getWait().getMax()).isEqualTo(2);
+		assertThat(stats.getExecution().getMax()).isEqualTo(5);
+	}
+	
+	private static class FirstPacket extends L2GameClientPacket {
+		@Override
+		protected void readImpl() {
+		}
+		
+		@Override
+		protected void runImpl() {
+		}
+		
+		@Override
+		public String getType() {
+			return "FirstPacket";
+		}
+	}
+	
+	private static class SecondPacket extends FirstPacket {
+	}
+}
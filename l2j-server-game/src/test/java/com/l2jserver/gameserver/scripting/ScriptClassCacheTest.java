@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.scripting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+import javax.script.ScriptException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Script class cache test.
+ */
+class ScriptClassCacheTest {
+	
+	private static final FileTime OLD = FileTime.fromMillis(1000);
+	
+	private static final String A = "package a; public class A { public static String value() { return \"1\"; } }";
+	
+	private static final String B = "package b; public class B { public static String value() { return a.A.value(); } }";
+	
+	private static final String C = "package c; public class C { public static String value() { return \"3\"; } }";
+	
+	@TempDir
+	Path dir;
+	
+	private File _root;
+	
+	private List<File> _sources;
+	
+	private ScriptClassCache _cache;
+	
+	@BeforeEach
+	void setUp() throws IOException {
+		_root = dir.resolve("scripts").toFile();
+		_sources = List.of(write("a/A.java", A), write("b/B.java", B), write("c/C.java", C));
+		_cache = new ScriptClassCache(_root, dir.resolve("cache").toFile(), System.getProperty("java.class.path"), 1);
+	}
+	
+	@Test
+	void testParseClassFile() throws IOException {
+		try (var in = ScriptClassCacheTest.class.getResourceAsStream("ScriptClassCacheTest.class")) {
+			final ScriptClassCache.ClassFile classFile = ScriptClassCache.ClassFile.parse(in.readAllBytes());
+			
+			assertThat(classFile.sourceFile()).isEqualTo("ScriptClassCacheTest.java");
+			assertThat(classFile.strings()).contains("com/l2jserver/gameserver/scripting/ScriptClassCacheTest", "com/l2jserver/gameserver/scripting/ScriptClassCache", "testParseClassFile");
+		}
+		assertThatThrownBy(() -> ScriptClassCache.ClassFile.parse(new byte[8])).isInstanceOf(IOException.class);
+	}
+	
+	@Test
+	void testDependentCompiledAgain() throws Exception {
+		_cache.load(_sources);
+		Files.setLastModifiedTime(classFile("b/B"), OLD);
+		Files.setLastModifiedTime(classFile("c/C"), OLD);
+		
+		write("a/A.java", A.replace("\"1\"", "\"2\""));
+		final Map<File, Class<?>> classes = _cache.load(_sources);
+		
+		// B references A and is compiled again, C is kept
+		assertThat(Files.getLastModifiedTime(classFile("b/B"))).isNotEqualTo(OLD);
+		assertThat(Files.getLastModifiedTime(classFile("c/C"))).isEqualTo(OLD);
+		assertThat(classes.get(_sources.get(1)).getMethod("value").invoke(null)).isEqualTo("2");
+	}
+	
+	@Test
+	void testFailedSourcesLeftOutOfIndex() throws Exception {
+		_cache.load(_sources);
+		Files.setLastModifiedTime(classFile("c/C"), OLD);
+		
+		write("a/A.java", A.replace("return", "retur"));
+		assertThatThrownBy(() -> _cache.load(_sources)).isInstanceOf(ScriptException.class);
+		
+		// A is back to the content of the index it was compiled from, its classes and the ones of B were deleted and must be compiled again
+		write("a/A.java", A);
+		final Map<File, Class<?>> classes = _cache.load(_sources);
+		
+		assertThat(classes.get(_sources.get(0)).getMethod("value").invoke(null)).isEqualTo("1");
+		assertThat(classes.get(_sources.get(1)).getMethod("value").invoke(null)).isEqualTo("1");
+		assertThat(Files.getLastModifiedTime(classFile("c/C"))).isEqualTo(OLD);
+	}
+	
+	private File write(String source, String content) throws IOException {
+		final Path path = _root.toPath().resolve(source);
+		Files.createDirectories(path.getParent());
+		Files.writeString(path, content);
+		return path.toFile();
+	}
+	
+	private Path classFile(String name) {
+		return dir.resolve("cache").resolve("classes").resolve(name + ".class");
+	}
+}
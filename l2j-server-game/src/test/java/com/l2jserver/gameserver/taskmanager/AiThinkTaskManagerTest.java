@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.l2jserver.gameserver.model.L2WorldRegion;
+import com.l2jserver.gameserver.model.actor.L2Npc;
+import com.l2jserver.gameserver.taskmanager.AiThinkTaskManager.ThinkTask;
+
+/**
+ * AI think task manager test.
+ */
+class AiThinkTaskManagerTest {
+	
+	private final List<String> _thinks = new CopyOnWriteArrayList<>();
+	
+	private final L2WorldRegion _region = region();
+	
+	@Test
+	void testBudgetDefersToNextPass() {
+		final AiThinkTaskManager manager = new AiThinkTaskManager(20, Runnable::run);
+		manager.schedule(npc(1, _region), () -> {
+			_thinks.add("A");
+			sleep(50);
+		});
+		manager.schedule(npc(2, _region), () -> _thinks.add("B"));
+		manager.schedule(npc(3, _region), () -> _thinks.add("C"));
+		
+		manager.run();
+		assertThat(_thinks).containsExactly("A");
+		
+		// The deferred NPCs think first
+		manager.run();
+		assertThat(_thinks).containsExactly("A", "B", "C", "A");
+		assertThat(manager.getQueueSize()).isEqualTo(3);
+	}
+	
+	@Test
+	void testBucketMigration() {
+		final AiThinkTaskManager manager = new AiThinkTaskManager(0, Runnable::run);
+		final L2Npc npc = npc(1, _region);
+		manager.schedule(npc, () -> _thinks.add("A"));
+		
+		final L2WorldRegion next = region();
+		when(npc.getWorldRegion()).thenReturn(next);
+		manager.run();
+		
+		// Moved to the bucket of its new region, it thinks on the next pass
+		assertThat(_thinks).isEmpty();
+		assertThat(manager.getQueueSize()).isOne();
+		
+		manager.run();
+		assertThat(_thinks).containsExactly("A");
+		
+		when(next.isActive()).thenReturn(false);
+		manager.run();
+		assertThat(_thinks).containsExactly("A");
+	}
+	
+	@Test
+	void testCancelledTaskRemoved() {
+		final AiThinkTaskManager manager = new AiThinkTaskManager(0, Runnable::run);
+		final ThinkTask cancelled = manager.schedule(npc(1, _region), () -> _thinks.add("A"));
+		manager.schedule(npc(2, _region), () -> _thinks.add("B"));
+		cancelled.cancel();
+		assertThat(manager.getQueueSize()).isEqualTo(2);
+		
+		manager.run();
+		
+		assertThat(_thinks).containsExactly("B");
+		assertThat(manager.getQueueSize()).isOne();
+	}
+	
+	@Test
+	void testTaskWithoutRegionDropped() {
+		final AiThinkTaskManager manager = new AiThinkTaskManager(0, Runnable::run);
+		final L2Npc npc = npc(1, _region);
+		final ThinkTask task = manager.schedule(npc, () -> _thinks.add("A"));
+		
+		// Decayed without stopping its AI
+		when(npc.getWorldRegion()).thenReturn(null);
+		manager.run();
+		
+		assertThat(_thinks).isEmpty();
+		assertThat(task.isCancelled()).isTrue();
+		assertThat(manager.getQueueSize()).isZero();
+	}
+	
+	@Test
+	void testPassDoesNotBlockScheduler() throws Exception {
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final AiThinkTaskManager manager = new AiThinkTaskManager(0, executor);
+			final CountDownLatch thinking = new CountDownLatch(1);
+			final CountDownLatch release = new CountDownLatch(1);
+			manager.schedule(npc(1, _region), () -> {
+				_thinks.add("A");
+				thinking.countDown();
+				await(release);
+			});
+			
+			manager.run();
+			assertThat(thinking.await(5, TimeUnit.SECONDS)).isTrue();
+			
+			// The pass is still running, the next one is skipped instead of processing the bucket twice
+			manager.run();
+			release.countDown();
+			executor.shutdown();
+			assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(_thinks).containsExactly("A");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private static L2WorldRegion region() {
+		final L2WorldRegion region = mock(L2WorldRegion.class);
+		when(region.isActive()).thenReturn(true);
+		return region;
+	}
+	
+	private static L2Npc npc(int id, L2WorldRegion region) {
+		final L2Npc npc = mock(L2Npc.class);
+		when(npc.getId()).thenReturn(id);
+		when(npc.getName()).thenReturn("NPC " + id);
+		when(npc.getWorldRegion()).thenReturn(region);
+		return npc;
+	}
+	
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.MockedStatic;
+
+import com.l2jserver.commons.database.ConnectionFactory;
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager.ItemWrite;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager.WriteType;
+
+/**
+ * Item persistence task manager test.
+ */
+class ItemPersistenceTaskManagerTest {
+	
+	private final Map<String, PreparedStatement> _statements = new HashMap<>();
+	
+	private MockedStatic<ConnectionFactory> _connectionFactory;
+	
+	private ItemPersistenceTaskManager _manager;
+	
+	@BeforeEach
+	void setUp() throws SQLException {
+		final Connection con = mock(Connection.class);
+		when(con.prepareStatement(anyString())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+		final ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+		when(connectionFactory.getConnection()).thenReturn(con);
+		_connectionFactory = mockStatic(ConnectionFactory.class);
+		_connectionFactory.when(ConnectionFactory::getInstance).thenReturn(connectionFactory);
+		
+		_manager = new ItemPersistenceTaskManager(1000, 100);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		_connectionFactory.close();
+	}
+	
+	@Test
+	void testCoalescing() throws SQLException {
+		final L2ItemInstance item = item(1, 10, 10, WriteType.UPDATE);
+		_manager.schedule(item);
+		_manager.schedule(item);
+		_manager.schedule(item);
+		assertThat(_manager.getQueueDepth()).isOne();
+		
+		_manager.flush();
+		
+		verify(item).captureWrite();
+		verify(statement(ItemPersistenceTaskManager.UPDATE)).addBatch();
+		verify(statement(ItemPersistenceTaskManager.UPDATE)).executeBatch();
+		assertThat(_manager.getQueueDepth()).isZero();
+	}
+	
+	@Test
+	void testObjectIdReuse() throws SQLException {
+		final L2ItemInstance destroyed = item(1, 10, 10, WriteType.DELETE);
+		final L2ItemInstance created = item(1, 20, 0, WriteType.INSERT);
+		_manager.schedule(destroyed);
+		_manager.schedule(created);
+		
+		// The delete of the destroyed item is written before the new item is queued
+		verify(statement(ItemPersistenceTaskManager.DELETE[0])).executeBatch();
+		assertThat(_manager.getQueueDepth()).isOne();
+		
+		_manager.flush();
+		
+		final InOrder inOrder = inOrder(statement(ItemPersistenceTaskManager.DELETE[0]), statement(ItemPersistenceTaskManager.INSERT));
+		inOrder.verify(statement(ItemPersistenceTaskManager.DELETE[0])).executeBatch();
+		inOrder.verify(statement(ItemPersistenceTaskManager.INSERT)).executeBatch();
+		verify(created).captureWrite();
+	}
+	
+	@Test
+	void testOwnerFlush() {
+		final L2ItemInstance owned = item(1, 10, 10, WriteType.UPDATE);
+		final L2ItemInstance other = item(2, 20, 20, WriteType.UPDATE);
+		// Given away, its database record still belongs to the first owner
+		final L2ItemInstance givenAway = item(3, 20, 10, WriteType.UPDATE);
+		_manager.schedule(owned);
+		_manager.schedule(other);
+		_manager.schedule(givenAway);
+		
+		_manager.flush(10);
+		
+		verify(owned).captureWrite();
+		verify(givenAway).captureWrite();
+		verify(other, never()).captureWrite();
+		assertThat(_manager.getQueueDepth()).isOne();
+	}
+	
+	@Test
+	void testFailedWriteRetried() throws SQLException {
+		final L2ItemInstance item = item(1, 10, 10, WriteType.UPDATE);
+		_manager.schedule(item);
+		when(statement(ItemPersistenceTaskManager.UPDATE).executeBatch()).thenThrow(new SQLException("Lost connection"));
+		
+		_manager.flush();
+		
+		verify(item).onWriteFailed(any(ItemWrite.class));
+		assertThat(_manager.getQueueDepth()).isOne();
+		
+		for (int i = 0; i < ItemPersistenceTaskManager.MAX_RETRIES; i++) {
+			_manager.flush();
+		}
+		
+		// Given up after the last retry
+		verify(item, times(ItemPersistenceTaskManager.MAX_RETRIES + 1)).onWriteFailed(any(ItemWrite.class));
+		assertThat(_manager.getQueueDepth()).isZero();
+	}
+	
+	@Test
+	void testFlushBoundedBySnapshot() {
+		final L2ItemInstance later = item(2, 10, 10, WriteType.UPDATE);
+		final L2ItemInstance item = item(1, 10, 10, WriteType.UPDATE);
+		final ItemWrite write = item.captureWrite();
+		// Another thread queues an item while the flush runs
+		when(item.captureWrite()).thenAnswer(invocation -> {
+			_manager.schedule(later);
+			return write;
+		});
+		_manager.schedule(item);
+		
+		_manager.flush();
+		
+		verify(later, never()).captureWrite();
+		assertThat(_manager.getQueueDepth()).isOne();
+	}
+	
+	private PreparedStatement statement(String sql) {
+		return _statements.computeIfAbsent(sql, k -> mock(PreparedStatement.class));
+	}
+	
+	private static L2ItemInstance item(int objectId, int ownerId, int storedOwnerId, WriteType type) {
+		final L2ItemInstance item = mock(L2ItemInstance.class);
+		when(item.getObjectId()).thenReturn(objectId);
+		when(item.getOwnerId()).thenReturn(ownerId);
+		when(item.getStoredOwnerId()).thenReturn(storedOwnerId);
+		when(item.captureWrite()).thenReturn(new ItemWrite(item, type, ownerId, storedOwnerId, 57, 1, "INVENTORY", 0, 0, 0, 0, -1, -1, 0));
+		return item;
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static com.l2jserver.gameserver.config.Configuration.general;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.Test;
+
+import com.l2jserver.gameserver.model.L2Object;
+import com.l2jserver.gameserver.model.L2WorldRegion;
+import com.l2jserver.gameserver.model.actor.L2Character;
+import com.l2jserver.gameserver.model.actor.L2Playable;
+import com.l2jserver.gameserver.model.actor.knownlist.CharKnownList;
+import com.l2jserver.gameserver.model.actor.knownlist.PlayableKnownList;
+
+/**
+ * Knownlist update task manager test, the incremental update must leave the knownlists as the full sweep does.
+ */
+class KnownListUpdateTaskManagerTest {
+	
+	private static final int PLAYER_WATCH = 1000;
+	private static final int PLAYER_FORGET = 1500;
+	private static final int NPC_WATCH = 2000;
+	private static final int NPC_FORGET = 3000;
+	
+	@Test
+	void testPlayerEntersRange() {
+		final World sweep = new World();
+		final World incremental = new World();
+		for (World world : new World[] {
+			sweep,
+			incremental
+		}) {
+			world.npc(1, 0, 0, 0);
+			world.player(2, 5000, 0, 0);
+			world.player(3, 5200, 0, 0);
+			world.sync();
+			world.move(2, 800, 0, 0);
+		}
+		
+		sweep.sweep();
+		incremental.incremental();
+		
+		assertThat(sweep.known(1)).containsExactly(2);
+		assertThat(sweep.known(2)).containsExactly(1);
+		assertSameKnownLists(sweep, incremental);
+	}
+	
+	@Test
+	void testPlayerLeavesLargerWatchRange() {
+		final World sweep = new World();
+		final World incremental = new World();
+		for (World world : new World[] {
+			sweep,
+			incremental
+		}) {
+			world.npc(1, 0, 0, 0);
+			// Watched by the NPC, too far to watch the NPC
+			world.player(2, 1800, 0, 0);
+			world.sync();
+			assertThat(world.known(1)).containsExactly(2);
+			assertThat(world.known(2)).isEmpty();
+			world.move(2, 3500, 0, 0);
+		}
+		
+		sweep.sweep();
+		incremental.incremental();
+		
+		assertThat(sweep.known(1)).isEmpty();
+		assertSameKnownLists(sweep, incremental);
+	}
+	
+	@Test
+	void testVerticalMove() {
+		final World sweep = new World();
+		final World incremental = new World();
+		for (World world : new World[] {
+			sweep,
+			incremental
+		}) {
+			world.npc(1, 0, 0, 0);
+			world.player(2, 500, 0, 0);
+			world.player(3, 700, 0, 0);
+			world.sync();
+			world.move(2, 500, 0, 3500);
+		}
+		
+		sweep.sweep();
+		incremental.incremental();
+		
+		assertThat(sweep.known(1)).containsExactly(3);
+		assertThat(sweep.known(2)).isEmpty();
+		assertSameKnownLists(sweep, incremental);
+	}
+	
+	@Test
+	void testNpcMoves() {
+		final World sweep = new World();
+		final World incremental = new World();
+		for (World world : new World[] {
+			sweep,
+			incremental
+		}) {
+			world.npc(1, 0, 0, 0);
+			world.npc(2, 300, 0, 0);
+			world.player(3, 1800, 0, 0);
+			world.player(4, -900, 0, 0);
+			world.sync();
+			world.move(1, -1700, 0, 0);
+			world.move(2, 1200, 0, 0);
+		}
+		
+		sweep.sweep();
+		incremental.incremental();
+		
+		assertThat(sweep.known(1)).containsExactly(4);
+		assertThat(sweep.known(2)).containsExactlyInAnyOrder(3, 4);
+		assertSameKnownLists(sweep, incremental);
+	}
+	
+	private static void assertSameKnownLists(World sweep, World incremental) {
+		for (Integer objectId : sweep._objects.keySet()) {
+			assertThat(incremental.known(objectId)).as("Knownlist of %d", objectId).isEqualTo(sweep.known(objectId));
+		}
+	}
+	
+	/**
+	 * A single active world region and the positions of its objects.
+	 */
+	private static class World {
+		private final L2WorldRegion _region = mock(L2WorldRegion.class);
+		private final Map<Integer, L2Object> _objects = new ConcurrentHashMap<>();
+		private final Map<Integer, L2Playable> _playables = new ConcurrentHashMap<>();
+		private final Map<Integer, int[]> _positions = new LinkedHashMap<>();
+		
+		World() {
+			when(_region.getVisibleObjects()).thenReturn(_objects);
+			when(_region.getVisiblePlayable()).thenReturn(_playables);
+			when(_region.getSurroundingRegions()).thenReturn(new ConcurrentLinkedQueue<>(List.of(_region)));
+			when(_region.isActive()).thenReturn(true);
+		}
+		
+		void npc(int objectId, int x, int y, int z) {
+			final L2Character npc = mock(L2Character.class);
+			when(npc.getKnownList()).thenReturn(new CharKnownList(npc) {
+				@Override
+				public int getDistanceToWatchObject(L2Object object) {
+					return NPC_WATCH;
+				}
+				
+				@Override
+				public int getDistanceToForgetObject(L2Object object) {
+					return NPC_FORGET;
+				}
+			});
+			add(npc, objectId, x, y, z);
+		}
+		
+		void player(int objectId, int x, int y, int z) {
+			final L2Playable player = mock(L2Playable.class);
+			when(player.isPlayable()).thenReturn(true);
+			when(player.getKnownList()).thenReturn(new PlayableKnownList(player) {
+				@Override
+				public int getDistanceToWatchObject(L2Object object) {
+					return PLAYER_WATCH;
+				}
+				
+				@Override
+				public int getDistanceToForgetObject(L2Object object) {
+					return PLAYER_FORGET;
+				}
+			});
+			add(player, objectId, x, y, z);
+			_playables.put(objectId, player);
+		}
+		
+		private void add(L2Object object, int objectId, int x, int y, int z) {
+			final int[] position = {
+				x,
+				y,
+				z
+			};
+			_positions.put(objectId, position);
+			when(object.getObjectId()).thenReturn(objectId);
+			when(object.getX()).thenAnswer(invocation -> position[0]);
+			when(object.getY()).thenAnswer(invocation -> position[1]);
+			when(object.getZ()).thenAnswer(invocation -> position[2]);
+			when(object.getWorldRegion()).thenReturn(_region);
+			when(object.isVisible()).thenReturn(true);
+			_objects.put(objectId, object);
+		}
+		
+		void move(int objectId, int x, int y, int z) {
+			final int[] position = _positions.get(objectId);
+			position[0] = x;
+			position[1] = y;
+			position[2] = z;
+		}
+		
+		/**
+		 * Builds the knownlists of the initial positions and records them as the positions of the last update.
+		 */
+		void sync() {
+			sweep();
+			for (L2Object object : _objects.values()) {
+				object.getKnownList().markUpdated();
+			}
+		}
+		
+		/**
+		 * A forget pass and an add pass of the full sweep.
+		 */
+		void sweep() {
+			KnownListUpdateTaskManager.updateRegion(_region, true, true);
+			KnownListUpdateTaskManager.updateRegion(_region, false, false);
+		}
+		
+		/**
+		 * An incremental pass over the objects marked dirty by their moves.
+		 */
+		void incremental() {
+			for (L2Object object : _objects.values()) {
+				if (object.getKnownList().hasMovedSinceUpdate(general().getKnownListDirtyDistance())) {
+					KnownListUpdateTaskManager.updateObject(object);
+				}
+			}
+		}
+		
+		Set<Integer> known(int objectId) {
+			return Set.copyOf(_objects.get(objectId).getKnownList().getKnownObjects().keySet());
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static com.l2jserver.gameserver.config.Configuration.general;
+import static com.l2jserver.gameserver.taskmanager.PlayerInfoTaskManager.CHAR_INFO;
+import static com.l2jserver.gameserver.taskmanager.PlayerInfoTaskManager.STATUS;
+import static com.l2jserver.gameserver.taskmanager.PlayerInfoTaskManager.USER_INFO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.l2jserver.gameserver.GameTimeController;
+import com.l2jserver.gameserver.model.L2WorldRegion;
+import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
+
+/**
+ * Player info task manager test.
+ */
+class PlayerInfoTaskManagerTest {
+	
+	private final GameTimeController _gameTime = mock(GameTimeController.class);
+	
+	private final PlayerInfoTaskManager _manager = new PlayerInfoTaskManager(_gameTime);
+	
+	private String _coalesce;
+	
+	@BeforeEach
+	void setUp() {
+		_coalesce = general().setProperty("CoalescePlayerInfo", "True");
+		when(_gameTime.getGameTicks()).thenReturn(1);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		if (_coalesce == null) {
+			general().removeProperty("CoalescePlayerInfo");
+		} else {
+			general().setProperty("CoalescePlayerInfo", _coalesce);
+		}
+	}
+	
+	@Test
+	void testFirstUpdateOfTickSentRightAway() {
+		final L2PcInstance player = player();
+		
+		assertThat(_manager.defer(player, USER_INFO)).isFalse();
+		assertThat(_manager.defer(player, USER_INFO)).isTrue();
+		
+		// Next tick
+		when(_gameTime.getGameTicks()).thenReturn(2);
+		_manager.run();
+		verify(player).sendInfo(USER_INFO);
+		when(_gameTime.getGameTicks()).thenReturn(3);
+		assertThat(_manager.defer(player, STATUS)).isFalse();
+	}
+	
+	@Test
+	void testUpdatesMerged() {
+		final L2PcInstance player = player();
+		_manager.defer(player, STATUS);
+		
+		assertThat(_manager.defer(player, USER_INFO)).isTrue();
+		assertThat(_manager.defer(player, USER_INFO | CHAR_INFO)).isTrue();
+		assertThat(_manager.defer(player, STATUS)).isTrue();
+		assertThat(_manager.defer(player, STATUS)).isTrue();
+		
+		assertThat(_manager.getSuppressed(0)).isOne();
+		assertThat(_manager.getSuppressed(1)).isZero();
+		assertThat(_manager.getSuppressed(2)).isOne();
+		
+		_manager.run();
+		
+		// Sent once with all the stale blocks
+		verify(player).sendInfo(USER_INFO | CHAR_INFO | STATUS);
+	}
+	
+	@Test
+	void testFlushSendsEachPlayerOnce() {
+		final L2PcInstance player = player();
+		final L2PcInstance other = player();
+		_manager.defer(player, STATUS);
+		_manager.defer(other, STATUS);
+		_manager.defer(player, USER_INFO);
+		_manager.defer(other, CHAR_INFO);
+		
+		_manager.run();
+		_manager.run();
+		
+		verify(player).sendInfo(USER_INFO);
+		verify(other).sendInfo(CHAR_INFO);
+	}
+	
+	@Test
+	void testFirstUpdateClearsStaleBlocks() {
+		final L2PcInstance player = player();
+		_manager.defer(player, STATUS);
+		_manager.defer(player, USER_INFO | STATUS);
+		
+		// The next tick starts with an update sending the same blocks
+		when(_gameTime.getGameTicks()).thenReturn(2);
+		assertThat(_manager.defer(player, USER_INFO | STATUS)).isFalse();
+		_manager.run();
+		
+		verify(player, never()).sendInfo(anyInt());
+	}
+	
+	@Test
+	void testOfflinePlayerSkipped() {
+		final L2PcInstance player = player();
+		_manager.defer(player, STATUS);
+		_manager.defer(player, USER_INFO);
+		
+		// Logged out during the tick
+		when(player.isOnline()).thenReturn(false);
+		_manager.run();
+		
+		verify(player, never()).sendInfo(anyInt());
+	}
+	
+	@Test
+	void testSuppressedEstimate() {
+		final L2PcInstance player = player();
+		_manager.defer(player, STATUS);
+		_manager.defer(player, CHAR_INFO);
+		_manager.defer(player, CHAR_INFO);
+		_manager.defer(player, CHAR_INFO);
+		
+		// 2 CharInfo updates suppressed for 10 known players, each CharInfo with its ExBrExtraUserInfo
+		assertThat(_manager.estimateSuppressed(10)[0]).isEqualTo(40);
+		assertThat(_manager.estimateSuppressed(0)[0]).isZero();
+	}
+	
+	@Test
+	void testDisabled() {
+		general().setProperty("CoalescePlayerInfo", "False");
+		final L2PcInstance player = player();
+		_manager.defer(player, STATUS);
+		
+		assertThat(_manager.defer(player, STATUS)).isFalse();
+	}
+	
+	/**
+	 * @return an online player keeping its info tick and stale info blocks as a player does
+	 */
+	private static L2PcInstance player() {
+		final L2PcInstance player = mock(L2PcInstance.class);
+		final L2WorldRegion region = mock(L2WorldRegion.class);
+		final AtomicInteger infoTick = new AtomicInteger(-1);
+		final AtomicInteger staleInfo = new AtomicInteger();
+		when(player.markInfoTick(anyInt())).thenAnswer(invocation -> infoTick.getAndSet(invocation.getArgument(0)) != invocation.<Integer> getArgument(0));
+		when(player.markStaleInfo(anyInt())).thenAnswer(invocation -> staleInfo.getAndUpdate(stale -> stale | invocation.<Integer> getArgument(0)));
+		when(player.takeStaleInfo(anyInt())).thenAnswer(invocation -> staleInfo.getAndUpdate(stale -> stale & ~invocation.<Integer> getArgument(0)) & invocation.<Integer> getArgument(0));
+		when(player.isOnline()).thenReturn(true);
+		when(player.getWorldRegion()).thenReturn(region);
+		return player;
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+
+import com.l2jserver.gameserver.dao.PlayerDAO;
+import com.l2jserver.gameserver.dao.factory.impl.DAOFactory;
+import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
+
+/**
+ * Player save task manager test.
+ */
+class PlayerSaveTaskManagerTest {
+	
+	private final PlayerDAO _playerDAO = mock(PlayerDAO.class);
+	
+	private MockedStatic<DAOFactory> _daoFactory;
+	
+	private PlayerSaveTaskManager _manager;
+	
+	@BeforeEach
+	void setUp() {
+		final DAOFactory daoFactory = mock(DAOFactory.class);
+		when(daoFactory.getPlayerDAO()).thenReturn(_playerDAO);
+		_daoFactory = mockStatic(DAOFactory.class);
+		_daoFactory.when(DAOFactory::getInstance).thenReturn(daoFactory);
+		// The captured base data is the save version
+		when(_playerDAO.captureCharBase(any(L2PcInstance.class))).thenAnswer(invocation -> new Object[] {
+			invocation.<L2PcInstance> getArgument(0).getObjectId()
+		});
+		
+		_manager = new PlayerSaveTaskManager(1000, 2, 2);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		_daoFactory.close();
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	void testCoalescingKeepsLatestVersion() throws Exception {
+		final L2PcInstance player = player(1);
+		_manager.schedule(player);
+		_manager.schedule(player);
+		_manager.schedule(player);
+		assertThat(_manager.getQueueDepth()).isOne();
+		
+		_manager.flush();
+		
+		final ArgumentCaptor<List<Object[]>> bases = ArgumentCaptor.forClass(List.class);
+		verify(_playerDAO).storeCharBase(bases.capture());
+		assertThat(bases.getValue()).hasSize(1);
+		verify(player).storeDetails(true);
+		// Only the latest save is written, it marks every save requested before it as written
+		verify(player).setSavedVersion(3);
+		assertThat(_manager.getQueueDepth()).isZero();
+	}
+	
+	@Test
+	void testFailedBaseDataKeepsVersion() throws Exception {
+		final L2PcInstance player = player(1);
+		doAnswer(invocation -> {
+			throw new SQLException("Lost connection");
+		}).when(_playerDAO).storeCharBase(anyList());
+		_manager.schedule(player);
+		
+		_manager.flush();
+		
+		verify(player, never()).storeDetails(true);
+		verify(player, never()).setSavedVersion(1);
+	}
+	
+	@Test
+	void testPlayerFlushWaitsForFlushThread() throws Exception {
+		final L2PcInstance player = player(1);
+		final CountDownLatch storing = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			storing.countDown();
+			release.await(5, SECONDS);
+			return null;
+		}).when(_playerDAO).storeCharBase(anyList());
+		_manager.schedule(player);
+		
+		final Thread flushThread = new Thread(_manager::flush);
+		flushThread.start();
+		assertThat(storing.await(5, SECONDS)).isTrue();
+		
+		// The save was taken from the queue by the flush thread, the player flush must wait for it
+		final CountDownLatch flushed = new CountDownLatch(1);
+		final Thread playerFlush = new Thread(() -> {
+			_manager.flush(1);
+			flushed.countDown();
+		});
+		playerFlush.start();
+		assertThat(flushed.await(200, MILLISECONDS)).isFalse();
+		
+		release.countDown();
+		assertThat(flushed.await(5, SECONDS)).isTrue();
+		verify(player).storeDetails(true);
+		flushThread.join();
+		playerFlush.join();
+	}
+	
+	@Test
+	void testFlushBoundedBySnapshot() throws Exception {
+		final L2PcInstance player = player(1);
+		final L2PcInstance later = player(2);
+		doAnswer(invocation -> {
+			// Another thread saves a player while the flush runs
+			_manager.schedule(later);
+			return null;
+		}).when(_playerDAO).storeCharBase(anyList());
+		_manager.schedule(player);
+		
+		_manager.flush();
+		
+		verify(player).storeDetails(true);
+		verify(later, never()).storeDetails(true);
+		assertThat(_manager.getQueueDepth()).isOne();
+	}
+	
+	@Test
+	void testShutdownDrainsQueue() throws Exception {
+		final List<L2PcInstance> players = List.of(player(1), player(2), player(3), player(4), player(5));
+		for (L2PcInstance player : players) {
+			_manager.schedule(player);
+		}
+		
+		_manager.shutdown();
+		
+		// Batches of 2 players
+		verify(_playerDAO, times(3)).storeCharBase(anyList());
+		for (L2PcInstance player : players) {
+			verify(player).storeDetails(true);
+			verify(player).setSavedVersion(1);
+		}
+		assertThat(_manager.getQueueDepth()).isZero();
+	}
+	
+	private static L2PcInstance player(int objectId) {
+		final L2PcInstance player = mock(L2PcInstance.class);
+		final AtomicLong version = new AtomicLong();
+		when(player.getObjectId()).thenReturn(objectId);
+		when(player.nextSaveVersion()).thenAnswer(invocation -> version.incrementAndGet());
+		return player;
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+
+import com.l2jserver.gameserver.model.actor.L2Character;
+
+/**
+ * Broadcast test.
+ */
+class BroadcastTest {
+	
+	private static final byte[] CONTENT = {
+		1,
+		2,
+		3
+	};
+	
+	@Test
+	void testSameRouteIsCoalescedWithinTick() {
+		final L2Character character = mock(L2Character.class, CALLS_REAL_METHODS);
+		final int route = Broadcast.route(false, 0);
+		assertThat(character.isRedundantBroadcast(CONTENT, 10, route)).isFalse();
+		assertThat(character.isRedundantBroadcast(CONTENT.clone(), 10, route)).isTrue();
+		assertThat(character.isRedundantBroadcast(CONTENT, 11, route)).isFalse();
+	}
+	
+	@Test
+	void testDifferentRoutesAreNotCoalesced() {
+		final L2Character character = mock(L2Character.class, CALLS_REAL_METHODS);
+		// Radius then all known players: the players outside the radius still need the packet
+		assertThat(character.isRedundantBroadcast(CONTENT, 10, Broadcast.route(false, 1500))).isFalse();
+		assertThat(character.isRedundantBroadcast(CONTENT, 10, Broadcast.route(false, 0))).isFalse();
+		// Known players then self and known players: the character itself still needs the packet
+		assertThat(character.isRedundantBroadcast(CONTENT, 10, Broadcast.route(true, 0))).isFalse();
+		assertThat(character.isRedundantBroadcast(CONTENT, 10, Broadcast.route(true, 0))).isTrue();
+		assertThat(character.isRedundantBroadcast(CONTENT, 10, Broadcast.route(true, 600))).isFalse();
+	}
+}
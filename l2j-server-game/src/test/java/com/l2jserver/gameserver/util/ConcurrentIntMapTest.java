@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Concurrent int map unit tests
+ */
+class ConcurrentIntMapTest {
+	
+	@Test
+	void testBehavesLikeHashMap() {
+		final Random random = new Random(42);
+		for (int segments : new int[] {
+			1,
+			4,
+			64
+		}) {
+			final ConcurrentIntMap<String> map = new ConcurrentIntMap<>(segments);
+			final Map<Integer, String> expected = new HashMap<>();
+			for (int i = 0; i < 200_000; i++) {
+				final int key = random.nextInt(2000) - 100;
+				final String value = String.valueOf(i);
+				switch (random.nextInt(4)) {
+					case 0 -> assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+					case 1 -> assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+					case 2 -> assertThat(map.get(key)).isEqualTo(expected.get(key));
+					default -> assertThat(map.putIfAbsent(key, value)).isEqualTo(expected.putIfAbsent(key, value));
+				}
+			}
+			assertThat(map).isEqualTo(expected);
+			assertThat(map.size()).isEqualTo(expected.size());
+		}
+	}
+	
+	@Test
+	void testIteratorRemove() {
+		final ConcurrentIntMap<Integer> map = new ConcurrentIntMap<>(4);
+		for (int i = 0; i < 1000; i++) {
+			map.put(i, Integer.valueOf(i));
+		}
+		
+		final Iterator<Integer> iterator = map.values().iterator();
+		while (iterator.hasNext()) {
+			if ((iterator.next() % 2) == 0) {
+				iterator.remove();
+			}
+		}
+		
+		assertThat(map.size()).isEqualTo(500);
+		assertThat(map.values()).allMatch(value -> (value % 2) == 1);
+		assertThat(map.containsKey(2)).isFalse();
+		assertThat(map.containsKey(3)).isTrue();
+	}
+	
+	@Test
+	void testConditionalOperations() {
+		final ConcurrentIntMap<String> map = new ConcurrentIntMap<>();
+		map.put(1, "a");
+		assertThat(map.remove(1, "b")).isFalse();
+		assertThat(map.replace(1, "b", "c")).isFalse();
+		assertThat(map.replace(1, "a", "b")).isTrue();
+		assertThat(map.replace(2, "x")).isNull();
+		assertThat(map.computeIfAbsent(2, key -> "d")).isEqualTo("d");
+		assertThat(map.remove(1, "b")).isTrue();
+		assertThat(Objects.requireNonNull(map.get(2))).isEqualTo("d");
+	}
+	
+	@Test
+	void testTablesShrinkAfterRemoval() {
+		final ConcurrentIntMap<String> map = new ConcurrentIntMap<>();
+		for (int i = 0; i < 10_000; i++) {
+			map.put(i, "v");
+		}
+		for (int i = 0; i < 10_000; i++) {
+			map.remove(i);
+		}
+		assertThat(map.isEmpty()).isTrue();
+		assertThat(map.capacity()).isLessThanOrEqualTo(16);
+		assertThat(map.estimateFootprint()).isLessThan(ConcurrentIntMap.estimateConcurrentHashMapFootprint(10_000));
+	}
+	
+	@Test
+	void testIterationSkipsEntriesRemovedDuringResize() {
+		final ConcurrentIntMap<Integer> map = new ConcurrentIntMap<>(1);
+		final Iterator<Integer> iterator = fill(map).values().iterator();
+		final List<Integer> seen = new ArrayList<>();
+		seen.add(iterator.next());
+		
+		// Shrinks the table while the iterator walks the previous one, the iterator has already read the next entry
+		shrink(map);
+		assertThat(map.capacity()).isLessThan(4096);
+		iterator.forEachRemaining(seen::add);
+		
+		assertThat(seen.subList(2, seen.size())).allMatch(key -> (key % 100) == 0);
+		assertThat(seen).containsAll(map.values());
+		assertThat(new HashSet<>(seen)).hasSameSizeAs(seen);
+		
+		final List<Integer> visited = new ArrayList<>();
+		fill(map).forEach((key, value) -> {
+			if (visited.isEmpty()) {
+				shrink(map);
+			}
+			visited.add(key);
+		});
+		assertThat(visited.subList(1, visited.size())).allMatch(key -> (key % 100) == 0);
+		assertThat(visited).containsAll(map.keySet());
+		assertThat(new HashSet<>(visited)).hasSameSizeAs(visited);
+	}
+	
+	private static ConcurrentIntMap<Integer> fill(ConcurrentIntMap<Integer> map) {
+		for (int i = 0; i < 2000; i++) {
+			map.put(i, Integer.valueOf(i));
+		}
+		return map;
+	}
+	
+	private static void shrink(ConcurrentIntMap<Integer> map) {
+		for (int i = 0; i < 2000; i++) {
+			if ((i % 100) != 0) {
+				map.remove(i);
+			}
+		}
+	}
+	
+	@Test
+	void testIterationSeesStableEntriesOnceDuringWrites() throws InterruptedException {
+		final ConcurrentIntMap<Integer> map = new ConcurrentIntMap<>();
+		for (int i = 0; i < 1000; i++) {
+			map.put(i, Integer.valueOf(i));
+		}
+		
+		// Transient entries make the table grow, shrink and fill with tombstones while it's iterated
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final Thread writer = new Thread(() -> {
+			final Random random = new Random(7);
+			while (running.get()) {
+				final int key = 1000 + random.nextInt(5000);
+				if (random.nextBoolean()) {
+					map.put(key, Integer.valueOf(key));
+				} else {
+					map.remove(key);
+				}
+			}
+		});
+		writer.start();
+		try {
+			for (int pass = 0; pass < 500; pass++) {
+				final int[] seen = new int[1000];
+				for (Integer value : map.values()) {
+					if (value < 1000) {
+						seen[value]++;
+					}
+				}
+				map.forEach((key, value) -> {
+					assertThat(value).isEqualTo(key);
+					if (key < 1000) {
+						seen[key]++;
+					}
+				});
+				assertThat(seen).containsOnly(2);
+			}
+		} finally {
+			running.set(false);
+			writer.join();
+		}
+	}
+}
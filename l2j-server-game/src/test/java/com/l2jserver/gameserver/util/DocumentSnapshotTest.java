@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * Document snapshot test.
+ */
+class DocumentSnapshotTest {
+	
+	private static final String XML = """
+		<?xml version="1.0" encoding="UTF-8"?>
+		<list>
+			<!-- comment -->
+			<skill id="3" levels="2" name="Power Strike">
+				<table name="#power"> 25 27 </table>
+				<set name="magicLvl" val="#power" />
+				<for><effect name="PhysicalAttack" /></for>
+			</skill>
+			<skill id="4" name="Dash &amp; Run" />
+		</list>
+		""";
+	
+	@Test
+	void testRoundTrip() throws Exception {
+		final Document source = parse(XML);
+		final Document decoded = DocumentSnapshot.decode(DocumentSnapshot.encode(source));
+		assertThat(decoded.isEqualNode(source)).isTrue();
+		
+		final Node skill = decoded.getDocumentElement().getElementsByTagName("skill").item(1);
+		assertThat(skill.getAttributes().getNamedItem("name").getNodeValue()).isEqualTo("Dash & Run");
+		assertThat(decoded.getElementsByTagName("table").item(0).getTextContent()).isEqualTo(" 25 27 ");
+	}
+	
+	@Test
+	void testCorruptedData() throws Exception {
+		final byte[] data = DocumentSnapshot.encode(parse(XML));
+		assertThatThrownBy(() -> DocumentSnapshot.decode(Arrays.copyOf(data, data.length / 2))).isInstanceOf(IOException.class);
+	}
+	
+	private static Document parse(String xml) throws Exception {
+		final var factory = DocumentBuilderFactory.newInstance();
+		factory.setIgnoringComments(true);
+		return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(UTF_8)));
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2004-2026 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Latency histogram test.
+ */
+class LatencyHistogramTest {
+	
+	@Test
+	void testBucketsCoverValues() {
+		for (long value = 0; value < 1_000_000; value += 7) {
+			final int index = LatencyHistogram.index(value);
+			assertThat(LatencyHistogram.upperBound(index)).isGreaterThanOrEqualTo(value);
+			assertThat(LatencyHistogram.upperBound(index)).isLessThanOrEqualTo((value * 5) / 4 + 1);
+			if (index > 0) {
+				assertThat(LatencyHistogram.upperBound(index - 1)).isLessThan(value);
+			}
+		}
+	}
+	
+	@Test
+	void testPercentiles() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.getPercentile(0.5)).isZero();
+		
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i);
+		}
+		
+		assertThat(histogram.getCount()).isEqualTo(1000);
+		assertThat(histogram.getTotal()).isEqualTo(500500);
+		assertThat(histogram.getMax()).isEqualTo(1000);
+		assertThat(histogram.getPercentile(0.5)).isBetween(500L, 625L);
+		assertThat(histogram.getPercentile(0.99)).isBetween(990L, 1000L);
+		assertThat(histogram.getPercentile(1)).isEqualTo(1000);
+	}
+	
+	@Test
+	void testOutliers() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 99; i++) {
+			histogram.record(10);
+		}
+		histogram.record(50_000);
+		
+		assertThat(histogram.getPercentile(0.95)).isBetween(10L, 11L);
+		assertThat(histogram.getPercentile(0.999)).isEqualTo(50_000);
+	}
+}